@@ -0,0 +1,48 @@
+// Packed affine (3x4) model matrix.
+//
+// Transform.toMatrix3x4FloatArray / Mat4.toFloatArray3x4 / TransformBatch.toMatrices3x4 write 12 floats per matrix,
+// 3 rows of 4 floats (row major). Last row of an affine matrix is always (0, 0, 0, 1) so it is not stored.
+//
+// Per instance vertex attributes (divisor 1), one vec4 per row:
+//
+//     layout (location = 3) in vec4 aModelRow0;
+//     layout (location = 4) in vec4 aModelRow1;
+//     layout (location = 5) in vec4 aModelRow2;
+//
+// or storage buffer (std430, 48 bytes per instance):
+//
+//     struct Affine3x4 { vec4 row0; vec4 row1; vec4 row2; };
+//     layout (std430, binding = 0) readonly buffer Instances { Affine3x4 uModels[]; };
+//
+// or as uniform uploaded with glProgramUniformMatrix3x4fv(..., transpose = GL_FALSE, ...): columns of mat3x4 are
+// the rows of the packed matrix, so `vec4(aPos, 1.0) * uModel` gives the transformed position.
+//
+//     layout (location = 1) uniform mat3x4 uModel;
+
+// Transform position (w = 1), 3 dot products instead of full mat4 * vec4.
+vec3 affineTransformPosition(vec4 row0, vec4 row1, vec4 row2, vec3 p) {
+    vec4 v = vec4(p, 1.0);
+    return vec3(dot(row0, v), dot(row1, v), dot(row2, v));
+}
+
+// Transform direction (w = 0), translation is ignored.
+vec3 affineTransformDirection(vec4 row0, vec4 row1, vec4 row2, vec3 d) {
+    return vec3(dot(row0.xyz, d), dot(row1.xyz, d), dot(row2.xyz, d));
+}
+
+// Reconstruct full mat4 (GLSL mat4 constructor takes columns).
+mat4 affineToMat4(vec4 row0, vec4 row1, vec4 row2) {
+    return mat4(
+        vec4(row0.x, row1.x, row2.x, 0.0),
+        vec4(row0.y, row1.y, row2.y, 0.0),
+        vec4(row0.z, row1.z, row2.z, 0.0),
+        vec4(row0.w, row1.w, row2.w, 1.0)
+    );
+}
+
+// Example vertex shader main:
+//
+//     void main() {
+//         vec3 worldPos = affineTransformPosition(aModelRow0, aModelRow1, aModelRow2, aPos);
+//         gl_Position = uProjection * vec4(worldPos, 1.0);
+//     }
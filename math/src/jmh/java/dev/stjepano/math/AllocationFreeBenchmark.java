@@ -0,0 +1,283 @@
+package dev.stjepano.math;
+
+import dev.stjepano.math.animation.SkinnedMesh;
+import dev.stjepano.math.geometry.mesh.IndexedMesh;
+import dev.stjepano.math.geometry.mesh.MeshBvh;
+import dev.stjepano.math.geometry.mesh.TriangleMeshGen;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/// Methods documented as allocation free, one benchmark per method (or group of trivially related methods).
+///
+/// Run with GC profiler through [AllocationFreeCheck] (`gradle jmhAllocationCheck`), the check fails when any
+/// benchmark in this class allocates. Every benchmark must return its result so nothing is eliminated, and must not
+/// allocate in benchmark code itself. When adding an allocation free method, add it here.
+///
+/// [AllocationFreeCheck] runs it with SIMD disabled, so scalar paths are checked (see there why SIMD kernels are not).
+/// Array sizes are not multiple of SIMD lane count so scalar tail loops are covered when it is run with SIMD.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class AllocationFreeBenchmark {
+
+    private static final int COUNT = 1027;
+
+    private Transform transform;
+    private Vec3 target;
+    private Vec3 worldUp;
+    private Vec3 vec3;
+    private Quaternion quaternion;
+    private Quaternion quaternionDest;
+    private Mat4 matrix;
+    private Mat4 matrixDest;
+
+    private float[] positions;
+    private float[] normals;
+    private float[] quaternionsA;
+    private float[] quaternionsB;
+    private float[] quaternionsT;
+    private float[] quaternionsDest;
+
+    private Arena arena;
+    private MemorySegment segmentA;
+    private MemorySegment segmentB;
+    private MemorySegment segmentDest;
+    private MemorySegment vec3Segment;
+    private Vec3[] vectors;
+
+    private Frustum frustum;
+    private Projection projection;
+    private float[] centerX;
+    private float[] centerY;
+    private float[] centerZ;
+    private float[] radius;
+    private int[] visibleIndices;
+    private long[] visibleBits;
+    private Mat4 view;
+    private float[] window;
+    private float[] depth;
+
+    private MeshBvh bvh;
+    private MeshBvh.RayHit hit;
+    private Vec3 rayOrigin;
+    private Vec3 rayDirection;
+    private DynamicAabbTree tree;
+    private SpatialHashGrid grid;
+    private int[] queryResult;
+
+    private SkinnedMesh skinnedMesh;
+    private float[] skinPalette;
+    private float[] skinDualQuaternionPalette;
+    private float[] skinnedVertexData;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        transform = new Transform().setPosition(1, 2, 3).setRotationY(0.5f).setScale(2.0f);
+        target = new Vec3(-4, 5, 6);
+        worldUp = new Vec3(0, 1, 0);
+        vec3 = new Vec3();
+        quaternion = new Quaternion().setAxisAngle(new Vec3(1, 1, 0).normalize(), 0.3f);
+        quaternionDest = new Quaternion();
+        matrix = new Mat4();
+        transform.toMatrix(matrix);
+        matrixDest = new Mat4();
+
+        positions = randomArray(random, 3 * COUNT);
+        normals = randomArray(random, 3 * COUNT);
+        quaternionsA = randomQuaternions(random, COUNT);
+        quaternionsB = randomQuaternions(random, COUNT);
+        quaternionsT = randomArray(random, COUNT);
+        quaternionsDest = new float[4 * COUNT];
+
+        arena = Arena.ofConfined();
+        segmentA = arena.allocate(4L * Float.BYTES * COUNT, 64);
+        segmentB = arena.allocate(4L * Float.BYTES * COUNT, 64);
+        segmentDest = arena.allocate(4L * Float.BYTES * COUNT, 64);
+        MemorySegment.copy(quaternionsA, 0, segmentA, ValueLayout.JAVA_FLOAT, 0, 4 * COUNT);
+        MemorySegment.copy(quaternionsB, 0, segmentB, ValueLayout.JAVA_FLOAT, 0, 4 * COUNT);
+        vec3Segment = arena.allocate(COUNT * MathLayouts.VEC3.byteSize(), 64);
+        vectors = new Vec3[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            vectors[i] = new Vec3(positions[3 * i], positions[3 * i + 1], positions[3 * i + 2]);
+        }
+
+        projection = new Projection();
+        projection.setPerspective((float) Math.toRadians(60.0f), 16.0f / 9.0f, 0.1f, 100.0f);
+        frustum = new Frustum().set(projection, new Transform().setPosition(0, 0, 10));
+        centerX = randomArray(random, COUNT);
+        centerY = randomArray(random, COUNT);
+        centerZ = randomArray(random, COUNT);
+        radius = randomArray(random, COUNT);
+        visibleIndices = new int[COUNT];
+        visibleBits = new long[(COUNT + 63) / 64];
+        view = new Mat4();
+        new Transform().setPosition(0, 0, 10).toInverseMatrix(view);
+        window = new float[2 * COUNT];
+        depth = new float[COUNT];
+
+        TriangleMeshGen meshGen = new TriangleMeshGen(IndexedMesh.VertexFormat.AttributeType.NORMAL);
+        meshGen.addSphere(1.0f, 32, 16);
+        bvh = MeshBvh.build(meshGen.build());
+        hit = new MeshBvh.RayHit();
+        rayOrigin = new Vec3(0.1f, 0.2f, 5.0f);
+        rayDirection = new Vec3(0.0f, 0.0f, -1.0f);
+
+        tree = new DynamicAabbTree();
+        Vec3 min = new Vec3();
+        Vec3 max = new Vec3();
+        for (int i = 0; i < COUNT; i++) {
+            min.set(centerX[i] * 20.0f, centerY[i] * 20.0f, centerZ[i] * 20.0f);
+            max.set(min).add(1, 1, 1);
+            tree.createProxy(min, max, i);
+        }
+        grid = new SpatialHashGrid(1.0f);
+        grid.build(positions, COUNT, 0, 3);
+        queryResult = new int[COUNT];
+
+        float[] jointWeights = new float[SkinnedMesh.MAX_INFLUENCES * COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            jointWeights[SkinnedMesh.MAX_INFLUENCES * i] = 1.0f;
+        }
+        skinnedMesh = new SkinnedMesh(normals.clone(), COUNT, 3, -1, new int[SkinnedMesh.MAX_INFLUENCES * COUNT],
+                jointWeights);
+        skinPalette = new float[12];
+        matrix.toFloatArray3x4(skinPalette, 0);
+        skinDualQuaternionPalette = new float[8];
+        SkinnedMesh.toDualQuaternions(skinPalette, 0, skinDualQuaternionPalette, 0, 1);
+        skinnedVertexData = new float[3 * COUNT];
+    }
+
+    @TearDown
+    public void tearDown() {
+        arena.close();
+    }
+
+    private static float[] randomArray(Random random, int length) {
+        float[] result = new float[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = random.nextFloat() * 2.0f - 1.0f;
+        }
+        return result;
+    }
+
+    private static float[] randomQuaternions(Random random, int count) {
+        float[] result = new float[4 * count];
+        Quaternion q = new Quaternion();
+        Vec3 axis = new Vec3();
+        for (int i = 0; i < count; i++) {
+            axis.set(random.nextFloat() - 0.5f, random.nextFloat() - 0.5f, random.nextFloat() - 0.5f).normalize();
+            q.setAxisAngle(axis, random.nextFloat() * 3.0f);
+            result[4 * i] = q.x;
+            result[4 * i + 1] = q.y;
+            result[4 * i + 2] = q.z;
+            result[4 * i + 3] = q.w;
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Vec3 transformBasisVectors() {
+        transform.getRightVector(vec3);
+        transform.getUpVector(vec3);
+        return transform.getForwardVector(vec3);
+    }
+
+    @Benchmark
+    public Transform transformLookAt() {
+        return transform.lookAt(target, worldUp);
+    }
+
+    @Benchmark
+    public Mat4 transformToMatrix() {
+        transform.toMatrix(matrixDest);
+        transform.toInverseMatrix(matrixDest);
+        return matrixDest;
+    }
+
+    @Benchmark
+    public Quaternion quaternionCopy() {
+        quaternion.copy(quaternionDest);
+        return quaternionDest;
+    }
+
+    @Benchmark
+    public Mat4 mat4CopyMulInvert() {
+        matrix.copy(matrixDest);
+        return matrixDest.mul(matrix).invert();
+    }
+
+    @Benchmark
+    public float[] transformPositionArray() {
+        transform.transformPosition(positions, COUNT, 0, 3);
+        return positions;
+    }
+
+    @Benchmark
+    public float[] transformNormalArray() {
+        transform.transformNormal(normals, COUNT, 0, 3);
+        return normals;
+    }
+
+    @Benchmark
+    public float[] quaternionArraysNlerp() {
+        QuaternionArrays.slerpApprox(quaternionsA, quaternionsB, quaternionsT, quaternionsDest, COUNT);
+        return quaternionsDest;
+    }
+
+    @Benchmark
+    public MemorySegment quaternionArraysSlerpSegment() {
+        QuaternionArrays.slerp(segmentA, segmentB, quaternionsT, segmentDest, COUNT);
+        return segmentDest;
+    }
+
+    @Benchmark
+    public MemorySegment vec3ToMemorySegment() {
+        Vec3.toMemorySegment(vectors, 0, vec3Segment, 0, COUNT);
+        return vec3Segment;
+    }
+
+    @Benchmark
+    public Frustum frustumSet() {
+        return frustum.set(projection, transform);
+    }
+
+    @Benchmark
+    public int frustumCullSpheres() {
+        return frustum.cullSpheres(centerX, centerY, centerZ, radius, COUNT, visibleIndices)
+                + frustum.cullSpheres(centerX, centerY, centerZ, radius, COUNT, visibleBits);
+    }
+
+    @Benchmark
+    public int projectionProjectPoints() {
+        return projection.projectPoints(view, positions, COUNT, 0, 3, 0, 0, 1920, 1080, window, depth, visibleBits);
+    }
+
+    @Benchmark
+    public boolean meshBvhClosestHit() {
+        return bvh.closestHit(transform, rayOrigin, rayDirection, Float.POSITIVE_INFINITY, hit);
+    }
+
+    @Benchmark
+    public int dynamicAabbTreeQuery() {
+        return tree.queryAabb(target, vec3.set(target).add(5, 5, 5), queryResult)
+                + tree.queryFrustum(frustum, queryResult);
+    }
+
+    @Benchmark
+    public int spatialHashGridQuery() {
+        return grid.queryRadius(0.1f, 0.2f, 0.3f, 0.5f, queryResult);
+    }
+
+    @Benchmark
+    public float[] skinnedMeshSkin() {
+        skinnedMesh.skinLinear(skinPalette, skinnedVertexData);
+        skinnedMesh.skinDualQuaternion(skinDualQuaternionPalette, skinnedVertexData);
+        return skinnedVertexData;
+    }
+}
@@ -0,0 +1,85 @@
+package dev.stjepano.math;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/// Runs [AllocationFreeBenchmark] with GC profiler and fails (exit code 1) when any benchmark allocates.
+///
+/// The benchmark is forked with SIMD code paths disabled (`-Ddev.stjepano.math.simd=false`). SIMD kernels use the
+/// incubating Vector API, whether their vectors and masks are scalarized or boxed on the heap depends on which
+/// operations the JIT intrinsifies for the JDK version and CPU, so their allocation is not a property of this library
+/// and can not be a stable gate. Scalar paths (used when SIMD is disabled or not supported, and for SIMD tails) are
+/// what this check guards, allocation free methods are documented as such for scalar paths only (see [SimdSupport]).
+///
+/// Allocation is read from `gc.alloc.rate.norm` (bytes per operation). JMH infrastructure allocates a few bytes
+/// per iteration which show up as fractions of a byte per operation, so values below [#MAX_BYTES_PER_OP] are
+/// reported as 0 B/op. Any real allocation in a benchmarked method is at least 16 bytes per operation.
+///
+/// Run with `gradle jmhAllocationCheck`.
+public final class AllocationFreeCheck {
+
+    private static final double MAX_BYTES_PER_OP = 0.5;
+    private static final String ALLOC_RATE_NORM = "gc.alloc.rate.norm";
+    private static final String SCALAR_ONLY = "-Ddev.stjepano.math.simd=false";
+
+    private AllocationFreeCheck() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(AllocationFreeBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(3)
+                .measurementTime(TimeValue.seconds(1))
+                .forks(1)
+                .jvmArgsAppend(SCALAR_ONLY)
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        List<String> failures = new ArrayList<>();
+        for (RunResult result : results) {
+            final String benchmark = result.getParams().getBenchmark();
+            final Result<?> allocation = findAllocationRate(result.getSecondaryResults());
+            if (allocation == null) {
+                failures.add(benchmark + ": " + ALLOC_RATE_NORM + " not reported");
+            } else if (!(allocation.getScore() < MAX_BYTES_PER_OP)) {
+                failures.add(benchmark + ": " + allocation.getScore() + " B/op");
+            }
+        }
+
+        if (results.isEmpty()) {
+            failures.add("no benchmarks were run");
+        }
+        if (!failures.isEmpty()) {
+            System.err.println("Allocation free methods allocate:");
+            for (String failure : failures) {
+                System.err.println("  " + failure);
+            }
+            System.exit(1);
+        }
+        System.out.println("All " + results.size() + " benchmarks allocate 0 B/op (" + SCALAR_ONLY + ").");
+    }
+
+    /// Older JMH versions prefix secondary result names with `·`.
+    private static Result<?> findAllocationRate(Map<String, Result> secondaryResults) {
+        for (Map.Entry<String, Result> entry : secondaryResults.entrySet()) {
+            if (entry.getKey().endsWith(ALLOC_RATE_NORM)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,153 @@
+package dev.stjepano.math;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/// Dynamic AABB tree with 10k objects, each with its own [Transform], moving every frame: per frame update,
+/// overlapping pair enumeration (tree vs brute force), frustum query and ray casts.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class DynamicAabbTreeBenchmark {
+
+    private static final int OBJECT_COUNT = 10_000;
+    private static final float WORLD_SIZE = 200.0f;
+    private static final int RAY_COUNT = 256;
+
+    private DynamicAabbTree tree;
+    private Frustum frustum;
+    private Transform[] transforms;
+    private float[] velocities;
+    private int[] proxies;
+    private Vec3 localMin;
+    private Vec3 localMax;
+    private Vec3 displacement;
+    private int[] visibleProxies;
+    private Vec3[] rayOrigins;
+    private Vec3[] rayDirections;
+    private float[] bounds;
+    private int pairCount;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        tree = new DynamicAabbTree();
+        frustum = new Frustum().set(new Projection().setPerspective((float) Math.toRadians(60), 16.0f / 9.0f, 0.1f, 100.0f),
+                new Transform().setPosition(0, 0, WORLD_SIZE / 2));
+        localMin = new Vec3(-1, -1, -1);
+        localMax = new Vec3(1, 1, 1);
+        displacement = new Vec3();
+        transforms = new Transform[OBJECT_COUNT];
+        velocities = new float[3 * OBJECT_COUNT];
+        proxies = new int[OBJECT_COUNT];
+        for (int i = 0; i < OBJECT_COUNT; i++) {
+            transforms[i] = new Transform()
+                    .setPosition(randomCoordinate(random), randomCoordinate(random), randomCoordinate(random))
+                    .setRotationEulerYXZ(random.nextFloat() * 6.0f, random.nextFloat() * 6.0f, 0.0f);
+            // Up to 3 units per second at 60 frames per second
+            for (int k = 0; k < 3; k++) {
+                velocities[3 * i + k] = (random.nextFloat() * 2.0f - 1.0f) * 0.05f;
+            }
+            proxies[i] = tree.createProxy(transforms[i], localMin, localMax, i);
+        }
+        visibleProxies = new int[OBJECT_COUNT];
+        rayOrigins = new Vec3[RAY_COUNT];
+        rayDirections = new Vec3[RAY_COUNT];
+        for (int i = 0; i < RAY_COUNT; i++) {
+            rayOrigins[i] = new Vec3(randomCoordinate(random), randomCoordinate(random), randomCoordinate(random));
+            rayDirections[i] = new Vec3(random.nextFloat() - 0.5f, random.nextFloat() - 0.5f,
+                    random.nextFloat() - 0.5f).normalize();
+        }
+        bounds = new float[6 * OBJECT_COUNT];
+    }
+
+    private static float randomCoordinate(Random random) {
+        return (random.nextFloat() - 0.5f) * WORLD_SIZE;
+    }
+
+    /// Advance all objects by one frame and update their proxies.
+    private void step() {
+        final float half = WORLD_SIZE / 2;
+        for (int i = 0; i < OBJECT_COUNT; i++) {
+            final Transform transform = transforms[i];
+            final Vec3 position = transform.position();
+            // Bounce off world walls
+            for (int k = 0; k < 3; k++) {
+                final float p = k == 0 ? position.x : k == 1 ? position.y : position.z;
+                if (Math.abs(p) > half) {
+                    velocities[3 * i + k] = -velocities[3 * i + k];
+                }
+            }
+            transform.translate(velocities[3 * i], velocities[3 * i + 1], velocities[3 * i + 2]);
+            tree.move(proxies[i], transform, localMin, localMax, displacement.set(velocities[3 * i],
+                    velocities[3 * i + 1], velocities[3 * i + 2]));
+        }
+    }
+
+    @Benchmark
+    public int moveAll() {
+        step();
+        return tree.height();
+    }
+
+    @Benchmark
+    public int moveAllAndQueryPairs() {
+        step();
+        pairCount = 0;
+        tree.queryPairs((a, b) -> pairCount++);
+        return pairCount;
+    }
+
+    @Benchmark
+    public int queryPairs() {
+        pairCount = 0;
+        tree.queryPairs((a, b) -> pairCount++);
+        return pairCount;
+    }
+
+    /// Baseline: test every pair of fat boxes.
+    @Benchmark
+    public int bruteForcePairs() {
+        final Vec3 min = localMin.copy();
+        final Vec3 max = localMax.copy();
+        final float[] b = bounds;
+        for (int i = 0; i < OBJECT_COUNT; i++) {
+            tree.getFatBounds(proxies[i], min, max);
+            b[6 * i] = min.x;
+            b[6 * i + 1] = min.y;
+            b[6 * i + 2] = min.z;
+            b[6 * i + 3] = max.x;
+            b[6 * i + 4] = max.y;
+            b[6 * i + 5] = max.z;
+        }
+        int count = 0;
+        for (int i = 0; i < OBJECT_COUNT; i++) {
+            final int p = 6 * i;
+            for (int j = i + 1; j < OBJECT_COUNT; j++) {
+                final int q = 6 * j;
+                if (b[p] <= b[q + 3] && b[p + 3] >= b[q] && b[p + 1] <= b[q + 4] && b[p + 4] >= b[q + 1]
+                        && b[p + 2] <= b[q + 5] && b[p + 5] >= b[q + 2]) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int queryFrustum() {
+        return tree.queryFrustum(frustum, visibleProxies);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RAY_COUNT)
+    public void raycast(Blackhole bh) {
+        for (int i = 0; i < RAY_COUNT; i++) {
+            // Stop at first box, like a line of sight test against object bounds
+            bh.consume(tree.raycast(rayOrigins[i], rayDirections[i], 50.0f, (proxy, maxDistance) -> -1.0f));
+        }
+    }
+}
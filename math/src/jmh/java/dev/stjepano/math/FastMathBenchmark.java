@@ -0,0 +1,131 @@
+package dev.stjepano.math;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/// `MathUtil` fast approximations and fast variants of `Quaternion` and `Vec3` methods vs exact versions.
+///
+/// Each benchmark processes 1024 inputs.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class FastMathBenchmark {
+
+    private static final int COUNT = 1024;
+
+    private float[] angles;
+    private float[] positives;
+    private float[] results;
+    private Quaternion quaternion;
+    private Vec3 vector;
+    private Vec2 sinCos;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        angles = new float[COUNT];
+        positives = new float[COUNT];
+        results = new float[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            angles[i] = (random.nextFloat() * 2.0f - 1.0f) * 10.0f;
+            positives[i] = random.nextFloat() * 100.0f + 0.01f;
+        }
+        quaternion = new Quaternion();
+        vector = new Vec3();
+        sinCos = new Vec2();
+    }
+
+    @Benchmark
+    public float[] mathSin() {
+        for (int i = 0; i < COUNT; i++) {
+            results[i] = (float) Math.sin(angles[i]);
+        }
+        return results;
+    }
+
+    @Benchmark
+    public float[] fastSin() {
+        for (int i = 0; i < COUNT; i++) {
+            results[i] = MathUtil.fastSin(angles[i]);
+        }
+        return results;
+    }
+
+    @Benchmark
+    public void mathSinCos(Blackhole bh) {
+        for (int i = 0; i < COUNT; i++) {
+            bh.consume((float) Math.sin(angles[i]));
+            bh.consume((float) Math.cos(angles[i]));
+        }
+    }
+
+    @Benchmark
+    public void fastSinCos(Blackhole bh) {
+        for (int i = 0; i < COUNT; i++) {
+            MathUtil.fastSinCos(angles[i], sinCos);
+            bh.consume(sinCos.x);
+            bh.consume(sinCos.y);
+        }
+    }
+
+    @Benchmark
+    public float[] mathInvSqrt() {
+        for (int i = 0; i < COUNT; i++) {
+            results[i] = 1.0f / (float) Math.sqrt(positives[i]);
+        }
+        return results;
+    }
+
+    @Benchmark
+    public float[] fastInvSqrt() {
+        for (int i = 0; i < COUNT; i++) {
+            results[i] = MathUtil.fastInvSqrt(positives[i]);
+        }
+        return results;
+    }
+
+    @Benchmark
+    public void quaternionSetEulerYXZ(Blackhole bh) {
+        for (int i = 0; i < COUNT - 2; i++) {
+            bh.consume(quaternion.setEulerYXZ(angles[i], angles[i + 1], angles[i + 2]).w);
+        }
+    }
+
+    @Benchmark
+    public void quaternionSetEulerYXZFast(Blackhole bh) {
+        for (int i = 0; i < COUNT - 2; i++) {
+            bh.consume(quaternion.setEulerYXZFast(angles[i], angles[i + 1], angles[i + 2]).w);
+        }
+    }
+
+    @Benchmark
+    public void quaternionSetAxisAngle(Blackhole bh) {
+        for (int i = 0; i < COUNT; i++) {
+            bh.consume(quaternion.setAxisAngle(0.0f, 1.0f, 0.0f, angles[i]).w);
+        }
+    }
+
+    @Benchmark
+    public void quaternionSetAxisAngleFast(Blackhole bh) {
+        for (int i = 0; i < COUNT; i++) {
+            bh.consume(quaternion.setAxisAngleFast(0.0f, 1.0f, 0.0f, angles[i]).w);
+        }
+    }
+
+    @Benchmark
+    public void vec3Normalize(Blackhole bh) {
+        for (int i = 0; i < COUNT - 2; i++) {
+            bh.consume(vector.set(positives[i], positives[i + 1], positives[i + 2]).normalize().x);
+        }
+    }
+
+    @Benchmark
+    public void vec3NormalizeFast(Blackhole bh) {
+        for (int i = 0; i < COUNT - 2; i++) {
+            bh.consume(vector.set(positives[i], positives[i + 1], positives[i + 2]).normalizeFast().x);
+        }
+    }
+}
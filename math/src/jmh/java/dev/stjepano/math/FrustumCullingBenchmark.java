@@ -0,0 +1,123 @@
+package dev.stjepano.math;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/// Frustum culling of SoA bounds: per object test loop vs batch (SIMD) into bitset/index list vs parallel batch.
+///
+/// Roughly a quarter of objects is visible.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class FrustumCullingBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int objectCount;
+
+    private Frustum frustum;
+    private CullingExecutor executor;
+
+    private float[] centerX, centerY, centerZ, radius;
+    private float[] minX, minY, minZ, maxX, maxY, maxZ;
+    private long[] visibleBits;
+    private int[] visibleIndices;
+
+    @Setup
+    public void setup() {
+        frustum = new Frustum().set(new Projection().setPerspective((float) Math.toRadians(60), 16.0f / 9.0f, 0.1f, 500.0f),
+                new Transform().setPosition(0, 10, 0));
+        executor = new CullingExecutor();
+
+        Random random = new Random(42);
+        centerX = new float[objectCount];
+        centerY = new float[objectCount];
+        centerZ = new float[objectCount];
+        radius = new float[objectCount];
+        minX = new float[objectCount];
+        minY = new float[objectCount];
+        minZ = new float[objectCount];
+        maxX = new float[objectCount];
+        maxY = new float[objectCount];
+        maxZ = new float[objectCount];
+        for (int i = 0; i < objectCount; i++) {
+            centerX[i] = (random.nextFloat() * 2.0f - 1.0f) * 500.0f;
+            centerY[i] = random.nextFloat() * 20.0f;
+            centerZ[i] = (random.nextFloat() * 2.0f - 1.0f) * 500.0f;
+            radius[i] = 0.5f + random.nextFloat() * 2.0f;
+            minX[i] = centerX[i] - radius[i];
+            minY[i] = centerY[i] - radius[i];
+            minZ[i] = centerZ[i] - radius[i];
+            maxX[i] = centerX[i] + radius[i];
+            maxY[i] = centerY[i] + radius[i];
+            maxZ[i] = centerZ[i] + radius[i];
+        }
+        visibleBits = new long[(objectCount + 63) / 64];
+        visibleIndices = new int[objectCount];
+    }
+
+    @Benchmark
+    public int spheresSingleTests() {
+        int visibleCount = 0;
+        for (int i = 0; i < objectCount; i++) {
+            if (frustum.testSphere(centerX[i], centerY[i], centerZ[i], radius[i])) {
+                visibleIndices[visibleCount++] = i;
+            }
+        }
+        return visibleCount;
+    }
+
+    @Benchmark
+    public int spheresBatchBits() {
+        return frustum.cullSpheres(centerX, centerY, centerZ, radius, objectCount, visibleBits);
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Ddev.stjepano.math.simd=false")
+    public int spheresBatchBitsScalar() {
+        return frustum.cullSpheres(centerX, centerY, centerZ, radius, objectCount, visibleBits);
+    }
+
+    @Benchmark
+    public int spheresBatchIndices() {
+        return frustum.cullSpheres(centerX, centerY, centerZ, radius, objectCount, visibleIndices);
+    }
+
+    @Benchmark
+    public int spheresParallelBits() {
+        return executor.cullSpheres(frustum, centerX, centerY, centerZ, radius, objectCount, visibleBits);
+    }
+
+    @Benchmark
+    public int aabbsSingleTests() {
+        int visibleCount = 0;
+        for (int i = 0; i < objectCount; i++) {
+            if (frustum.testAabb(minX[i], minY[i], minZ[i], maxX[i], maxY[i], maxZ[i])) {
+                visibleIndices[visibleCount++] = i;
+            }
+        }
+        return visibleCount;
+    }
+
+    @Benchmark
+    public int aabbsBatchBits() {
+        return frustum.cullAabbs(minX, minY, minZ, maxX, maxY, maxZ, objectCount, visibleBits);
+    }
+
+    @Benchmark
+    public int aabbsBatchIndices() {
+        return frustum.cullAabbs(minX, minY, minZ, maxX, maxY, maxZ, objectCount, visibleIndices);
+    }
+
+    @Benchmark
+    public int aabbsParallelBits() {
+        return executor.cullAabbs(frustum, minX, minY, minZ, maxX, maxY, maxZ, objectCount, visibleBits);
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Ddev.stjepano.math.simd=false")
+    public int aabbsBatchBitsScalar() {
+        return frustum.cullAabbs(minX, minY, minZ, maxX, maxY, maxZ, objectCount, visibleBits);
+    }
+}
@@ -0,0 +1,65 @@
+package dev.stjepano.math;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/// General matrix multiply and inverse vs affine and rigid body specializations.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class Mat4AffineBenchmark {
+
+    private Mat4 model;
+    private Mat4 view;
+    private Mat4 result;
+
+    @Setup
+    public void setup() {
+        model = new Mat4();
+        new Transform()
+                .setPosition(-3, -4, 5)
+                .setScale(2, 3, 4)
+                .setRotation(new Vec3(1, 1, 1).normalize(), (float) Math.toRadians(30.0f))
+                .toMatrix(model);
+
+        view = new Mat4();
+        new Transform()
+                .setPosition(1, 2, 10)
+                .setRotation(new Vec3(0, 1, 0), (float) Math.toRadians(45.0f))
+                .toMatrix(view);
+
+        result = new Mat4();
+    }
+
+    @Benchmark
+    public void mul(Blackhole bh) {
+        bh.consume(result.set(view).mul(model));
+    }
+
+    @Benchmark
+    public void mulAffine(Blackhole bh) {
+        bh.consume(result.set(view).mulAffine(model));
+    }
+
+    @Benchmark
+    public void invert(Blackhole bh) {
+        bh.consume(result.set(model).invert());
+    }
+
+    @Benchmark
+    public void invertAffine(Blackhole bh) {
+        bh.consume(result.set(model).invertAffine());
+    }
+
+    @Benchmark
+    public void invertView(Blackhole bh) {
+        bh.consume(result.set(view).invert());
+    }
+
+    @Benchmark
+    public void invertViewRigid(Blackhole bh) {
+        bh.consume(result.set(view).invertRigid());
+    }
+}
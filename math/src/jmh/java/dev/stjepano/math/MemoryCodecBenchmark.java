@@ -0,0 +1,125 @@
+package dev.stjepano.math;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/// Bulk array codecs (layout var handles, one bounds check per call) vs per-element `toMemorySegment` /
+/// `fromMemorySegment` loops with explicit offset arithmetic.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class MemoryCodecBenchmark {
+
+    private static final int COUNT = 10000;
+
+    private Arena arena;
+    private MemorySegment vec3Segment;
+    private MemorySegment vec3Std140Segment;
+    private MemorySegment mat4Segment;
+    private Vec3[] vectors;
+    private Mat4[] matrices;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        vectors = new Vec3[COUNT];
+        matrices = new Mat4[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            vectors[i] = new Vec3(random.nextFloat(), random.nextFloat(), random.nextFloat());
+            matrices[i] = new Mat4();
+            matrices[i].setColumn(3, random.nextFloat(), random.nextFloat(), random.nextFloat(), 1.0f);
+        }
+        arena = Arena.ofConfined();
+        vec3Segment = arena.allocate(COUNT * MathLayouts.VEC3.byteSize(), 64);
+        vec3Std140Segment = arena.allocate(COUNT * MathLayouts.VEC3_STD140.byteSize(), 64);
+        mat4Segment = arena.allocate(COUNT * MathLayouts.MAT4.byteSize(), 64);
+        Vec3.toMemorySegment(vectors, 0, vec3Segment, 0, COUNT);
+        Vec3.toMemorySegmentStd140(vectors, 0, vec3Std140Segment, 0, COUNT);
+        Mat4.toMemorySegment(matrices, 0, mat4Segment, 0, COUNT);
+    }
+
+    @TearDown
+    public void tearDown() {
+        arena.close();
+    }
+
+    @Benchmark
+    public void vec3WriteLoop(Blackhole bh) {
+        final long stride = MathLayouts.VEC3.byteSize();
+        for (int i = 0; i < COUNT; i++) {
+            vectors[i].toMemorySegment(vec3Segment, i * stride);
+        }
+        bh.consume(vec3Segment);
+    }
+
+    @Benchmark
+    public void vec3WriteBulk(Blackhole bh) {
+        Vec3.toMemorySegment(vectors, 0, vec3Segment, 0, COUNT);
+        bh.consume(vec3Segment);
+    }
+
+    @Benchmark
+    public void vec3ReadLoop(Blackhole bh) {
+        final long stride = MathLayouts.VEC3.byteSize();
+        for (int i = 0; i < COUNT; i++) {
+            Vec3.fromMemorySegment(vec3Segment, i * stride, vectors[i]);
+        }
+        bh.consume(vectors);
+    }
+
+    @Benchmark
+    public void vec3ReadBulk(Blackhole bh) {
+        Vec3.fromMemorySegment(vec3Segment, 0, vectors, 0, COUNT);
+        bh.consume(vectors);
+    }
+
+    @Benchmark
+    public void vec3Std140WriteLoop(Blackhole bh) {
+        final long stride = MathLayouts.VEC3_STD140.byteSize();
+        for (int i = 0; i < COUNT; i++) {
+            vectors[i].toMemorySegment(vec3Std140Segment, i * stride);
+        }
+        bh.consume(vec3Std140Segment);
+    }
+
+    @Benchmark
+    public void vec3Std140WriteBulk(Blackhole bh) {
+        Vec3.toMemorySegmentStd140(vectors, 0, vec3Std140Segment, 0, COUNT);
+        bh.consume(vec3Std140Segment);
+    }
+
+    @Benchmark
+    public void mat4WriteLoop(Blackhole bh) {
+        final long stride = MathLayouts.MAT4.byteSize();
+        for (int i = 0; i < COUNT; i++) {
+            matrices[i].toMemorySegment(mat4Segment, i * stride);
+        }
+        bh.consume(mat4Segment);
+    }
+
+    @Benchmark
+    public void mat4WriteBulk(Blackhole bh) {
+        Mat4.toMemorySegment(matrices, 0, mat4Segment, 0, COUNT);
+        bh.consume(mat4Segment);
+    }
+
+    @Benchmark
+    public void mat4ReadLoop(Blackhole bh) {
+        final long stride = MathLayouts.MAT4.byteSize();
+        for (int i = 0; i < COUNT; i++) {
+            Mat4.fromMemorySegment(mat4Segment, i * stride, matrices[i]);
+        }
+        bh.consume(matrices);
+    }
+
+    @Benchmark
+    public void mat4ReadBulk(Blackhole bh) {
+        Mat4.fromMemorySegment(mat4Segment, 0, matrices, 0, COUNT);
+        bh.consume(matrices);
+    }
+}
@@ -0,0 +1,85 @@
+package dev.stjepano.math;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/// World to window projection of packed positions: per point `Vec4` math on `Projection.matrix()` vs batch
+/// `projectPoints` (SIMD and scalar).
+///
+/// Roughly a quarter of points is visible.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ProjectionBenchmark {
+
+    private static final float WIDTH = 1920.0f;
+    private static final float HEIGHT = 1080.0f;
+
+    @Param({"1000", "10000", "100000"})
+    private int pointCount;
+
+    private Projection projection;
+    private Mat4 view;
+    private Mat4 viewProjection;
+    private float[] positions;
+    private float[] window;
+    private float[] depth;
+    private long[] visibleBits;
+
+    @Setup
+    public void setup() {
+        projection = new Projection().setPerspective((float) Math.toRadians(60), WIDTH / HEIGHT, 0.1f, 500.0f);
+        view = new Mat4();
+        new Transform().setPosition(0, 10, 0).toInverseMatrix(view);
+        viewProjection = new Mat4().set(projection.matrix()).mul(view);
+
+        Random random = new Random(42);
+        positions = new float[3 * pointCount];
+        for (int i = 0; i < pointCount; i++) {
+            positions[3 * i] = (random.nextFloat() * 2.0f - 1.0f) * 500.0f;
+            positions[3 * i + 1] = random.nextFloat() * 20.0f;
+            positions[3 * i + 2] = (random.nextFloat() * 2.0f - 1.0f) * 500.0f;
+        }
+        window = new float[2 * pointCount];
+        depth = new float[pointCount];
+        visibleBits = new long[(pointCount + 63) / 64];
+    }
+
+    /// What callers did before: one `Vec4` per point, matrix rows read through `Mat4` fields.
+    @Benchmark
+    public int perPointVec4() {
+        final Mat4 m = viewProjection;
+        int visibleCount = 0;
+        for (int i = 0; i < pointCount; i++) {
+            final Vec4 p = new Vec4(positions[3 * i], positions[3 * i + 1], positions[3 * i + 2], 1.0f);
+            final Vec4 clip = new Vec4(
+                    m.m00 * p.x + m.m01 * p.y + m.m02 * p.z + m.m03 * p.w,
+                    m.m10 * p.x + m.m11 * p.y + m.m12 * p.z + m.m13 * p.w,
+                    m.m20 * p.x + m.m21 * p.y + m.m22 * p.z + m.m23 * p.w,
+                    m.m30 * p.x + m.m31 * p.y + m.m32 * p.z + m.m33 * p.w);
+            if (clip.w > 0 && Math.abs(clip.x) <= clip.w && Math.abs(clip.y) <= clip.w && Math.abs(clip.z) <= clip.w) {
+                visibleCount++;
+            }
+            clip.scale(1.0f / clip.w);
+            window[2 * i] = (clip.x + 1.0f) * 0.5f * WIDTH;
+            window[2 * i + 1] = (clip.y + 1.0f) * 0.5f * HEIGHT;
+            depth[i] = clip.z * 0.5f + 0.5f;
+        }
+        return visibleCount;
+    }
+
+    @Benchmark
+    public int projectPoints() {
+        return projection.projectPoints(view, positions, pointCount, 0, 3, 0, 0, WIDTH, HEIGHT, window, depth,
+                visibleBits);
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Ddev.stjepano.math.simd=false")
+    public int projectPointsScalar() {
+        return projection.projectPoints(view, positions, pointCount, 0, 3, 0, 0, WIDTH, HEIGHT, window, depth,
+                visibleBits);
+    }
+}
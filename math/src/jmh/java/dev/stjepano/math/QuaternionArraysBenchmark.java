@@ -0,0 +1,82 @@
+package dev.stjepano.math;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/// Interpolation of 10000 quaternion pairs: scalar `Quaternion.slerp` on objects vs packed array kernels.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class QuaternionArraysBenchmark {
+
+    private static final int COUNT = 10000;
+
+    private Quaternion[] qa;
+    private Quaternion[] qb;
+    private Quaternion result;
+
+    private float[] a;
+    private float[] b;
+    private float[] t;
+    private float[] dest;
+
+    @Setup
+    public void setup() {
+        qa = new Quaternion[COUNT];
+        qb = new Quaternion[COUNT];
+        result = new Quaternion();
+        a = new float[4 * COUNT];
+        b = new float[4 * COUNT];
+        t = new float[COUNT];
+        dest = new float[4 * COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            qa[i] = new Quaternion(new Vec3((float) Math.random(), 1, (float) Math.random()).normalize(), (float) (Math.random() * Math.PI));
+            qb[i] = new Quaternion(new Vec3(1, (float) Math.random(), (float) Math.random()).normalize(), (float) (Math.random() * Math.PI));
+            qa[i].toFloatArray(a, 4 * i);
+            qb[i].toFloatArray(b, 4 * i);
+            t[i] = (float) Math.random();
+        }
+    }
+
+    @Benchmark
+    public void quaternionSlerp(Blackhole bh) {
+        for (int i = 0; i < COUNT; i++) {
+            Quaternion.slerp(qa[i], qb[i], t[i], result);
+            bh.consume(result.w);
+        }
+    }
+
+    @Benchmark
+    public void slerp(Blackhole bh) {
+        QuaternionArrays.slerp(a, b, t, dest, COUNT);
+        bh.consume(dest);
+    }
+
+    @Benchmark
+    public void nlerp(Blackhole bh) {
+        QuaternionArrays.nlerp(a, b, t, dest, COUNT);
+        bh.consume(dest);
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Ddev.stjepano.math.simd=false")
+    public void nlerpScalar(Blackhole bh) {
+        QuaternionArrays.nlerp(a, b, t, dest, COUNT);
+        bh.consume(dest);
+    }
+
+    @Benchmark
+    public void slerpApprox(Blackhole bh) {
+        QuaternionArrays.slerpApprox(a, b, t, dest, COUNT);
+        bh.consume(dest);
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Ddev.stjepano.math.simd=false")
+    public void slerpApproxScalar(Blackhole bh) {
+        QuaternionArrays.slerpApprox(a, b, t, dest, COUNT);
+        bh.consume(dest);
+    }
+}
@@ -0,0 +1,100 @@
+package dev.stjepano.math;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/// Spatial hash grid over packed particle positions: sequential vs parallel rebuild and radius queries vs brute
+/// force distance test of every point.
+///
+/// Point density is constant (about 30 points within query radius) so query cost does not depend on point count.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SpatialHashGridBenchmark {
+
+    private static final float RADIUS = 1.0f;
+    private static final int QUERY_COUNT = 256;
+
+    @Param({"100000", "500000"})
+    private int pointCount;
+
+    private float[] positions;
+    private float[] queryPoints;
+    private SpatialHashGrid grid;
+    private int[] neighbors;
+    private int neighborCount;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        // 30 points per sphere of radius 1 is about 7 points per unit cube
+        final float extent = (float) Math.cbrt(pointCount / 7.0) * 0.5f;
+        positions = new float[3 * pointCount];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = (random.nextFloat() * 2.0f - 1.0f) * extent;
+        }
+        queryPoints = new float[3 * QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            System.arraycopy(positions, 3 * random.nextInt(pointCount), queryPoints, 3 * i, 3);
+        }
+        grid = new SpatialHashGrid(RADIUS);
+        grid.build(positions, pointCount, 0, 3);
+        neighbors = new int[pointCount];
+    }
+
+    @Benchmark
+    public int build() {
+        grid.build(positions, pointCount, 0, 3);
+        return grid.slotCount();
+    }
+
+    @Benchmark
+    public int buildParallel() {
+        grid.build(positions, pointCount, 0, 3, ForkJoinPool.commonPool());
+        return grid.slotCount();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERY_COUNT)
+    public void queryRadius(Blackhole bh) {
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            bh.consume(grid.queryRadius(queryPoints[3 * i], queryPoints[3 * i + 1], queryPoints[3 * i + 2], RADIUS,
+                    neighbors));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERY_COUNT)
+    public int forEachNeighbor() {
+        neighborCount = 0;
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            grid.forEachNeighbor(queryPoints[3 * i], queryPoints[3 * i + 1], queryPoints[3 * i + 2], RADIUS,
+                    (index, distanceSquared) -> neighborCount++);
+        }
+        return neighborCount;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERY_COUNT)
+    public void queryBruteForce(Blackhole bh) {
+        final float radiusSquared = RADIUS * RADIUS;
+        final float[] p = positions;
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            final float x = queryPoints[3 * i], y = queryPoints[3 * i + 1], z = queryPoints[3 * i + 2];
+            int found = 0;
+            for (int j = 0; j < pointCount; j++) {
+                final float dx = p[3 * j] - x;
+                final float dy = p[3 * j + 1] - y;
+                final float dz = p[3 * j + 2] - z;
+                if (dx * dx + dy * dy + dz * dz <= radiusSquared) {
+                    neighbors[found++] = j;
+                }
+            }
+            bh.consume(found);
+        }
+    }
+}
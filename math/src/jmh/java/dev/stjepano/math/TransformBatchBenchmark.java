@@ -0,0 +1,74 @@
+package dev.stjepano.math;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.concurrent.TimeUnit;
+
+/// Compares writing N model matrices from N individual `Transform` objects with `TransformBatch`, full 4x4 and
+/// packed 3x4 matrices.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TransformBatchBenchmark {
+
+    @Param({"1000", "50000"})
+    private int count;
+
+    private Transform[] transforms;
+    private TransformBatch batch;
+    private float[] matrices;
+    private Arena arena;
+    private MemorySegment matricesSegment;
+
+    @Setup
+    public void setup() {
+        transforms = new Transform[count];
+        batch = new TransformBatch(count);
+        for (int i = 0; i < count; i++) {
+            Transform transform = new Transform();
+            transform.setPosition((float) Math.random(), (float) Math.random(), (float) Math.random());
+            transform.setScale(1.0f + (float) Math.random());
+            transform.setRotation(new Vec3((float) Math.random(), 1, (float) Math.random()).normalize(), (float) Math.random());
+            transforms[i] = transform;
+            batch.set(i, transform);
+        }
+        matrices = new float[16 * count];
+        arena = Arena.ofConfined();
+        matricesSegment = arena.allocate(64L * count, 64);
+    }
+
+    @TearDown
+    public void tearDown() {
+        arena.close();
+    }
+
+    @Benchmark
+    public void individualTransforms(Blackhole bh) {
+        for (int i = 0; i < count; i++) {
+            transforms[i].toMatrixFloatArray(matrices, 16 * i);
+        }
+        bh.consume(matrices);
+    }
+
+    @Benchmark
+    public void batchToFloatArray(Blackhole bh) {
+        batch.toMatrices(matrices, 0);
+        bh.consume(matrices);
+    }
+
+    @Benchmark
+    public void batchToMemorySegment(Blackhole bh) {
+        batch.toMatrices(matricesSegment, 0);
+        bh.consume(matricesSegment);
+    }
+
+    @Benchmark
+    public void batchToMemorySegment3x4(Blackhole bh) {
+        batch.toMatrices3x4(matricesSegment, 0);
+        bh.consume(matricesSegment);
+    }
+
+}
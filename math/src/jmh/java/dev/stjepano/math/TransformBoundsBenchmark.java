@@ -0,0 +1,62 @@
+package dev.stjepano.math;
+
+import dev.stjepano.math.geometry.mesh.IndexedMesh;
+import dev.stjepano.math.geometry.mesh.TriangleMeshGen;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/// World space AABB of a mesh instance: transforming mesh bounds (Arvo) vs transforming every vertex.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class TransformBoundsBenchmark {
+
+    private Transform transform;
+    private IndexedMesh mesh;
+    private float[] positions;
+    private Vec3 min;
+    private Vec3 max;
+    private Vec3 destMin;
+    private Vec3 destMax;
+
+    @Setup
+    public void setup() {
+        transform = new Transform().setPosition(1, 2, 3).setRotationEulerYXZ(0.3f, 0.5f, 0.1f).setScale(2.0f);
+        TriangleMeshGen meshGen = new TriangleMeshGen(IndexedMesh.VertexFormat.AttributeType.NORMAL);
+        meshGen.addSphere(1.0f, 64, 32);
+        mesh = meshGen.build();
+        positions = new float[mesh.vertexData().length];
+        min = mesh.bounds().min(new Vec3());
+        max = mesh.bounds().max(new Vec3());
+        destMin = new Vec3();
+        destMax = new Vec3();
+    }
+
+    @Benchmark
+    public void transformBounds(Blackhole bh) {
+        transform.transformAabb(min, max, destMin, destMax);
+        bh.consume(destMin);
+        bh.consume(destMax);
+    }
+
+    @Benchmark
+    public void transformVertices(Blackhole bh) {
+        final int stride = mesh.vertexFormat().stride();
+        System.arraycopy(mesh.vertexData(), 0, positions, 0, positions.length);
+        transform.transformPosition(positions, mesh.vertexCount(), 0, stride);
+        float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < positions.length; i += stride) {
+            minX = Math.min(minX, positions[i]);
+            minY = Math.min(minY, positions[i + 1]);
+            minZ = Math.min(minZ, positions[i + 2]);
+            maxX = Math.max(maxX, positions[i]);
+            maxY = Math.max(maxY, positions[i + 1]);
+            maxZ = Math.max(maxZ, positions[i + 2]);
+        }
+        bh.consume(destMin.set(minX, minY, minZ));
+        bh.consume(destMax.set(maxX, maxY, maxZ));
+    }
+}
@@ -0,0 +1,58 @@
+package dev.stjepano.math;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/// Sequential vs parallel position transform. Shows where the parallel crossover is on the machine.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TransformExecutorBenchmark {
+
+    private static final int STRIDE = 3;
+
+    @Param({"10000", "1000000", "10000000"})
+    private int vertexCount;
+
+    private Transform transform;
+    private TransformExecutor executor;
+    private float[] positions;
+    private float[] positionsCopy;
+
+    @Setup
+    public void setup() {
+        transform = new Transform();
+        transform.setPosition(-3, -4, 5);
+        transform.setScale(2, 3, 4);
+        transform.setRotation(new Vec3(1, 1, 1).normalize(), (float) Math.toRadians(90.0f));
+
+        // Threshold 1 - always parallel so that overhead for small arrays is visible
+        executor = new TransformExecutor(ForkJoinPool.commonPool(), 1);
+
+        positions = new float[vertexCount * STRIDE];
+        positionsCopy = new float[vertexCount * STRIDE];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = (float) Math.random();
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void resetPositions() {
+        System.arraycopy(positions, 0, positionsCopy, 0, positions.length);
+    }
+
+    @Benchmark
+    public void sequential(Blackhole bh) {
+        transform.transformPosition(positionsCopy, vertexCount, 0, STRIDE);
+        bh.consume(positionsCopy);
+    }
+
+    @Benchmark
+    public void parallel(Blackhole bh) {
+        executor.transformPosition(transform, positionsCopy, vertexCount, 0, STRIDE);
+        bh.consume(positionsCopy);
+    }
+}
@@ -0,0 +1,128 @@
+package dev.stjepano.math;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/// Flat array `TransformHierarchy` vs naive recursive scene graph of node objects.
+///
+/// Shapes: `deep` - chains of 100 nodes, `wide` - root with 100 children each with 99 children.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TransformHierarchyBenchmark {
+
+    private static final int NODE_COUNT = 10000;
+    private static final int BRANCH = 100;
+
+    @Param({"deep", "wide"})
+    private String shape;
+
+    private TransformHierarchy hierarchy;
+    private float[] palette;
+
+    private List<Node> roots;
+    private Mat4 identity;
+
+    /// Naive scene graph node.
+    private static final class Node {
+        final Transform local;
+        final List<Node> children = new ArrayList<>();
+        final Mat4 world = new Mat4();
+        final Mat4 localMatrix = new Mat4();
+
+        Node(Transform local) {
+            this.local = local;
+        }
+
+        void update(Mat4 parentWorld) {
+            local.toMatrix(localMatrix);
+            world.set(parentWorld).mul(localMatrix);
+            for (Node child : children) {
+                child.update(world);
+            }
+        }
+    }
+
+    @Setup
+    public void setup() {
+        hierarchy = new TransformHierarchy(NODE_COUNT);
+        palette = new float[16 * NODE_COUNT];
+        roots = new ArrayList<>();
+        identity = new Mat4();
+
+        if (shape.equals("deep")) {
+            for (int chain = 0; chain < NODE_COUNT / BRANCH; chain++) {
+                int parent = -1;
+                Node parentNode = null;
+                for (int i = 0; i < BRANCH; i++) {
+                    Transform t = randomTransform();
+                    parent = hierarchy.addNode(parent, t);
+                    Node node = new Node(t);
+                    if (parentNode == null) {
+                        roots.add(node);
+                    } else {
+                        parentNode.children.add(node);
+                    }
+                    parentNode = node;
+                }
+            }
+        } else {
+            Transform rootTransform = randomTransform();
+            int root = hierarchy.addNode(-1, rootTransform);
+            Node rootNode = new Node(rootTransform);
+            roots.add(rootNode);
+            for (int c = 0; c < BRANCH && hierarchy.size() < NODE_COUNT; c++) {
+                Transform childTransform = randomTransform();
+                int child = hierarchy.addNode(root, childTransform);
+                Node childNode = new Node(childTransform);
+                rootNode.children.add(childNode);
+                for (int g = 0; g < BRANCH - 1 && hierarchy.size() < NODE_COUNT; g++) {
+                    Transform t = randomTransform();
+                    hierarchy.addNode(child, t);
+                    childNode.children.add(new Node(t));
+                }
+            }
+        }
+        hierarchy.update();
+    }
+
+    private static Transform randomTransform() {
+        return new Transform()
+                .setPosition((float) Math.random(), (float) Math.random(), (float) Math.random())
+                .setRotation(new Vec3((float) Math.random(), 1, (float) Math.random()).normalize(), (float) Math.random());
+    }
+
+    @Benchmark
+    public void naiveRecursion(Blackhole bh) {
+        for (Node root : roots) {
+            root.update(identity);
+        }
+        bh.consume(roots);
+    }
+
+    /// Every node dirty, full recompute and palette write.
+    @Benchmark
+    public void hierarchyAllDirty(Blackhole bh) {
+        for (int i = 0; i < hierarchy.size(); i++) {
+            if (hierarchy.parent(i) == -1) {
+                hierarchy.markDirty(i);
+            }
+        }
+        bh.consume(hierarchy.update());
+        hierarchy.toWorldMatrices(palette, 0);
+        bh.consume(palette);
+    }
+
+    /// Single leaf node dirty (typical frame where most objects are static).
+    @Benchmark
+    public void hierarchyOneLeafDirty(Blackhole bh) {
+        hierarchy.markDirty(hierarchy.size() - 1);
+        bh.consume(hierarchy.update());
+        hierarchy.toWorldMatrices(palette, 0);
+        bh.consume(palette);
+    }
+}
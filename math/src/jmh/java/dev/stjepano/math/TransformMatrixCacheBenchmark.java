@@ -0,0 +1,61 @@
+package dev.stjepano.math;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/// Matrix output of unchanged (cached) transforms vs transforms modified before every conversion.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TransformMatrixCacheBenchmark {
+
+    private static final int COUNT = 10000;
+
+    private Transform[] transforms;
+    private int[] uploadedVersions;
+    private float[] matrices;
+
+    @Setup
+    public void setup() {
+        transforms = new Transform[COUNT];
+        uploadedVersions = new int[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            transforms[i] = new Transform()
+                    .setPosition((float) Math.random(), (float) Math.random(), (float) Math.random())
+                    .setScale(1.0f + (float) Math.random())
+                    .setRotation(new Vec3((float) Math.random(), 1, (float) Math.random()).normalize(), (float) Math.random());
+            uploadedVersions[i] = transforms[i].version() - 1;
+        }
+        matrices = new float[16 * COUNT];
+    }
+
+    @Benchmark
+    public void staticTransforms(Blackhole bh) {
+        for (int i = 0; i < COUNT; i++) {
+            transforms[i].toMatrixFloatArray(matrices, 16 * i);
+        }
+        bh.consume(matrices);
+    }
+
+    @Benchmark
+    public void staticTransformsSkipUnchanged(Blackhole bh) {
+        for (int i = 0; i < COUNT; i++) {
+            Transform transform = transforms[i];
+            if (transform.version() != uploadedVersions[i]) {
+                transform.toMatrixFloatArray(matrices, 16 * i);
+                uploadedVersions[i] = transform.version();
+            }
+        }
+        bh.consume(matrices);
+    }
+
+    @Benchmark
+    public void movingTransforms(Blackhole bh) {
+        for (int i = 0; i < COUNT; i++) {
+            transforms[i].translate(0.0f, 0.0f, 0.0f).toMatrixFloatArray(matrices, 16 * i);
+        }
+        bh.consume(matrices);
+    }
+}
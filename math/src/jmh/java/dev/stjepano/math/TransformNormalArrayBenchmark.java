@@ -10,9 +10,15 @@ import java.util.concurrent.TimeUnit;
 @State(Scope.Benchmark)
 public class TransformNormalArrayBenchmark {
 
+    private static final int VERTEX_COUNT = 10000;
+
+    /// 3 - tightly packed normals, 8 - interleaved position, normal and texture coordinate
+    @Param({"3", "8"})
+    private int stride;
+
     private Transform transform;
-    private final float[] normals = new float[10000*3]; // vertex data for 10000 positions
-    private final float[] normalsCopy = new float[10000*3];
+    private float[] normals; // vertex data for 10000 normals
+    private float[] normalsCopy;
 
     @Setup
     public void setup() {
@@ -21,14 +27,16 @@ public class TransformNormalArrayBenchmark {
         transform.setScale(2, 3 ,4);
         transform.setRotation(new Vec3(1, 1, 1).normalize(), (float) Math.toRadians(90.0f));
 
-        for (int i = 0; i < normals.length/3; i++) {
+        normals = new float[VERTEX_COUNT * stride];
+        normalsCopy = new float[VERTEX_COUNT * stride];
+        for (int i = 0; i < VERTEX_COUNT; i++) {
             float x = (float) Math.random() + 0.2f;
             float y = (float) Math.random() + 0.2f;
             float z = (float) Math.random() + 0.2f;
             float oneOverLen = 1.0f/(float)Math.sqrt(x*x + y*y + z*z);
-            normals[i*3] = x * oneOverLen;
-            normals[i*3 + 1] = y * oneOverLen;
-            normals[i*3 + 2] = z * oneOverLen;
+            normals[i*stride] = x * oneOverLen;
+            normals[i*stride + 1] = y * oneOverLen;
+            normals[i*stride + 2] = z * oneOverLen;
         }
     }
 
@@ -37,9 +45,30 @@ public class TransformNormalArrayBenchmark {
         System.arraycopy(normals, 0, normalsCopy, 0, normals.length);
     }
 
+    /// SIMD code path (requires `--add-modules jdk.incubator.vector`).
     @Benchmark
     public void apply(Blackhole bh) {
-        transform.transformPosition(normalsCopy, 10000, 0, 3);
+        transform.transformNormal(normalsCopy, VERTEX_COUNT, 0, stride);
+        bh.consume(normalsCopy);
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Ddev.stjepano.math.simd=false")
+    public void applyScalar(Blackhole bh) {
+        transform.transformNormal(normalsCopy, VERTEX_COUNT, 0, stride);
+        bh.consume(normalsCopy);
+    }
+
+    @Benchmark
+    public void applyUnnormalized(Blackhole bh) {
+        transform.transformNormalUnnormalized(normalsCopy, VERTEX_COUNT, 0, stride);
+        bh.consume(normalsCopy);
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Ddev.stjepano.math.simd=false")
+    public void applyUnnormalizedScalar(Blackhole bh) {
+        transform.transformNormalUnnormalized(normalsCopy, VERTEX_COUNT, 0, stride);
         bh.consume(normalsCopy);
     }
 
@@ -10,9 +10,15 @@ import java.util.concurrent.TimeUnit;
 @State(Scope.Benchmark)
 public class TransformPositionArrayBenchmark {
 
+    private static final int VERTEX_COUNT = 10000;
+
+    /// 3 - tightly packed positions, 8 - interleaved position, normal and texture coordinate
+    @Param({"3", "8"})
+    private int stride;
+
     private Transform transform;
-    private final float[] positions = new float[10000*3]; // vertex data for 10000 positions
-    private final float[] positionsCopy = new float[10000*3];
+    private float[] positions; // vertex data for 10000 positions
+    private float[] positionsCopy;
 
     @Setup
     public void setup() {
@@ -21,6 +27,8 @@ public class TransformPositionArrayBenchmark {
         transform.setScale(2, 3 ,4);
         transform.setRotation(new Vec3(1, 1, 1).normalize(), (float) Math.toRadians(90.0f));
 
+        positions = new float[VERTEX_COUNT * stride];
+        positionsCopy = new float[VERTEX_COUNT * stride];
         for (int i = 0; i < positions.length; i++) {
             positions[i] = (float) Math.random();
         }
@@ -31,9 +39,17 @@ public class TransformPositionArrayBenchmark {
         System.arraycopy(positions, 0, positionsCopy, 0, positions.length);
     }
 
+    /// SIMD code path (requires `--add-modules jdk.incubator.vector`).
     @Benchmark
     public void apply(Blackhole bh) {
-        transform.transformPosition(positionsCopy, 10000, 0, 3);
+        transform.transformPosition(positionsCopy, VERTEX_COUNT, 0, stride);
+        bh.consume(positionsCopy);
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Ddev.stjepano.math.simd=false")
+    public void applyScalar(Blackhole bh) {
+        transform.transformPosition(positionsCopy, VERTEX_COUNT, 0, stride);
         bh.consume(positionsCopy);
     }
 
@@ -0,0 +1,71 @@
+package dev.stjepano.math;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.concurrent.TimeUnit;
+
+/// Transform positions and normals stored in off-heap memory (for example mapped GPU buffer). Compares in-place
+/// transform of memory segment with copy to heap array, transform and copy back.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TransformSegmentBenchmark {
+
+    private static final int VERTEX_COUNT = 10000;
+    private static final int STRIDE = 8;  // position, normal, texture coordinate
+    private static final long BYTE_STRIDE = STRIDE * ValueLayout.JAVA_FLOAT.byteSize();
+    private static final long NORMAL_BYTE_OFFSET = 3 * ValueLayout.JAVA_FLOAT.byteSize();
+
+    private Transform transform;
+    private Arena arena;
+    private float[] vertexData;
+    private float[] heapCopy;
+    private MemorySegment segment;
+
+    @Setup
+    public void setup() {
+        transform = new Transform();
+        transform.setPosition(-3, -4, 5);
+        transform.setScale(2, 3, 4);
+        transform.setRotation(new Vec3(1, 1, 1).normalize(), (float) Math.toRadians(90.0f));
+
+        vertexData = new float[VERTEX_COUNT * STRIDE];
+        heapCopy = new float[VERTEX_COUNT * STRIDE];
+        for (int i = 0; i < vertexData.length; i++) {
+            vertexData[i] = (float) Math.random();
+        }
+
+        arena = Arena.ofConfined();
+        segment = arena.allocate(vertexData.length * ValueLayout.JAVA_FLOAT.byteSize(), 64);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetVertexData() {
+        MemorySegment.copy(vertexData, 0, segment, ValueLayout.JAVA_FLOAT, 0, vertexData.length);
+    }
+
+    @TearDown
+    public void tearDown() {
+        arena.close();
+    }
+
+    @Benchmark
+    public void segmentInPlace(Blackhole bh) {
+        transform.transformPosition(segment, 0, VERTEX_COUNT, BYTE_STRIDE);
+        transform.transformNormal(segment, NORMAL_BYTE_OFFSET, VERTEX_COUNT, BYTE_STRIDE);
+        bh.consume(segment);
+    }
+
+    @Benchmark
+    public void copyToArrayAndBack(Blackhole bh) {
+        MemorySegment.copy(segment, ValueLayout.JAVA_FLOAT, 0, heapCopy, 0, heapCopy.length);
+        transform.transformPosition(heapCopy, VERTEX_COUNT, 0, STRIDE);
+        transform.transformNormal(heapCopy, VERTEX_COUNT, 3, STRIDE);
+        MemorySegment.copy(heapCopy, 0, segment, ValueLayout.JAVA_FLOAT, 0, heapCopy.length);
+        bh.consume(segment);
+    }
+}
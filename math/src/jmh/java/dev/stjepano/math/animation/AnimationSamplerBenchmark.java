@@ -0,0 +1,100 @@
+package dev.stjepano.math.animation;
+
+import dev.stjepano.math.Quaternion;
+import dev.stjepano.math.Transform;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/// One frame of skeletal animation for a crowd: 100 characters with 60 joints, each sampling its own clip time
+/// and writing the joint palette into off-heap memory.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class AnimationSamplerBenchmark {
+
+    private static final int CHARACTER_COUNT = 100;
+    private static final int JOINT_COUNT = 60;
+    private static final int KEY_COUNT = 30;
+    private static final float DURATION = 1.0f;
+    private static final float FRAME_TIME = 1.0f / 60.0f;
+
+    private AnimationClip clip;
+    private AnimationSampler[] samplers;
+    private float[] times;
+    private Arena arena;
+    private MemorySegment palettes;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        int[] parents = new int[JOINT_COUNT];
+        Transform[] restPose = new Transform[JOINT_COUNT];
+        for (int j = 0; j < JOINT_COUNT; j++) {
+            parents[j] = j == 0 ? -1 : random.nextInt(j);
+            restPose[j] = new Transform().setPosition(0, 0.1f, 0);
+        }
+        Skeleton skeleton = new Skeleton(parents, restPose, null);
+
+        float[] keyTimes = new float[KEY_COUNT];
+        for (int k = 0; k < KEY_COUNT; k++) {
+            keyTimes[k] = DURATION * k / (KEY_COUNT - 1);
+        }
+        KeyframeTrack[] translations = new KeyframeTrack[JOINT_COUNT];
+        KeyframeTrack[] rotations = new KeyframeTrack[JOINT_COUNT];
+        KeyframeTrack[] scales = new KeyframeTrack[JOINT_COUNT];
+        Quaternion q = new Quaternion();
+        for (int j = 0; j < JOINT_COUNT; j++) {
+            float[] translationValues = new float[3 * KEY_COUNT];
+            float[] rotationValues = new float[4 * KEY_COUNT];
+            for (int k = 0; k < KEY_COUNT; k++) {
+                translationValues[3 * k] = random.nextFloat() * 0.1f;
+                translationValues[3 * k + 1] = 0.1f;
+                translationValues[3 * k + 2] = random.nextFloat() * 0.1f;
+                q.setAxisAngle(1, 0, 0, random.nextFloat() - 0.5f).toFloatArray(rotationValues, 4 * k);
+            }
+            translations[j] = KeyframeTrack.ofVec3(keyTimes, translationValues);
+            rotations[j] = KeyframeTrack.ofQuaternion(keyTimes, rotationValues);
+        }
+        clip = new AnimationClip(DURATION, translations, rotations, scales);
+
+        samplers = new AnimationSampler[CHARACTER_COUNT];
+        times = new float[CHARACTER_COUNT];
+        for (int c = 0; c < CHARACTER_COUNT; c++) {
+            samplers[c] = new AnimationSampler(skeleton);
+            times[c] = random.nextFloat() * DURATION;
+        }
+        arena = Arena.ofConfined();
+        palettes = arena.allocate(64L * JOINT_COUNT * CHARACTER_COUNT, 16);
+    }
+
+    @TearDown
+    public void tearDown() {
+        arena.close();
+    }
+
+    @Benchmark
+    public MemorySegment sampleAndWritePalette() {
+        final long paletteSize = 64L * JOINT_COUNT;
+        for (int c = 0; c < CHARACTER_COUNT; c++) {
+            times[c] += FRAME_TIME;
+            samplers[c].sample(clip, times[c], true);
+            samplers[c].writePalette(palettes, paletteSize * c);
+        }
+        return palettes;
+    }
+
+    @Benchmark
+    public MemorySegment sampleAndWritePalette3x4() {
+        final long paletteSize = 48L * JOINT_COUNT;
+        for (int c = 0; c < CHARACTER_COUNT; c++) {
+            times[c] += FRAME_TIME;
+            samplers[c].sample(clip, times[c], true);
+            samplers[c].writePalette3x4(palettes, paletteSize * c);
+        }
+        return palettes;
+    }
+}
@@ -0,0 +1,128 @@
+package dev.stjepano.math.animation;
+
+import dev.stjepano.math.Mat4;
+import dev.stjepano.math.Transform;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/// CPU skinning of a character mesh (position + normal + uv, 4 influences per vertex, 60 joints): linear blend vs
+/// dual quaternion skinning, SIMD vs scalar, into array vs off-heap memory, sequential vs parallel.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SkinningBenchmark {
+
+    private static final int STRIDE = 8;
+    private static final int NORMAL_OFFSET = 3;
+    private static final int JOINT_COUNT = 60;
+
+    @Param({"10000", "100000"})
+    private int vertexCount;
+
+    private SkinnedMesh mesh;
+    private float[] palette;
+    private float[] dualQuaternionPalette;
+    private float[] dest;
+    private Arena arena;
+    private MemorySegment destSegment;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        float[] vertexData = new float[vertexCount * STRIDE];
+        int[] jointIndices = new int[SkinnedMesh.MAX_INFLUENCES * vertexCount];
+        float[] jointWeights = new float[SkinnedMesh.MAX_INFLUENCES * vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            final int base = i * STRIDE;
+            vertexData[base] = random.nextFloat() * 2.0f - 1.0f;
+            vertexData[base + 1] = random.nextFloat() * 2.0f;
+            vertexData[base + 2] = random.nextFloat() * 2.0f - 1.0f;
+            vertexData[base + NORMAL_OFFSET + 1] = 1.0f;
+            // Neighbouring joints as in a real character, weights sum to 1
+            final int joint = random.nextInt(JOINT_COUNT - 3);
+            float sum = 0.0f;
+            for (int k = 0; k < SkinnedMesh.MAX_INFLUENCES; k++) {
+                jointIndices[4 * i + k] = joint + k;
+                jointWeights[4 * i + k] = random.nextFloat();
+                sum += jointWeights[4 * i + k];
+            }
+            for (int k = 0; k < SkinnedMesh.MAX_INFLUENCES; k++) {
+                jointWeights[4 * i + k] /= sum;
+            }
+        }
+        mesh = new SkinnedMesh(vertexData, vertexCount, STRIDE, NORMAL_OFFSET, jointIndices, jointWeights);
+
+        palette = new float[12 * JOINT_COUNT];
+        Mat4 matrix = new Mat4();
+        for (int j = 0; j < JOINT_COUNT; j++) {
+            new Transform().setPosition(0, 0.1f * j, 0).setRotationX(random.nextFloat() - 0.5f).toMatrix(matrix);
+            matrix.toFloatArray3x4(palette, 12 * j);
+        }
+        dualQuaternionPalette = new float[8 * JOINT_COUNT];
+        SkinnedMesh.toDualQuaternions(palette, 0, dualQuaternionPalette, 0, JOINT_COUNT);
+
+        dest = vertexData.clone();
+        arena = Arena.ofConfined();
+        destSegment = arena.allocate((long) Float.BYTES * STRIDE * vertexCount, 64);
+    }
+
+    @TearDown
+    public void tearDown() {
+        arena.close();
+    }
+
+    @Benchmark
+    public float[] linear() {
+        mesh.skinLinear(palette, dest);
+        return dest;
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Ddev.stjepano.math.simd=false")
+    public float[] linearScalar() {
+        mesh.skinLinear(palette, dest);
+        return dest;
+    }
+
+    @Benchmark
+    public MemorySegment linearSegment() {
+        mesh.skinLinear(palette, destSegment, 0);
+        return destSegment;
+    }
+
+    @Benchmark
+    public float[] linearParallel() {
+        mesh.skinLinear(palette, dest, ForkJoinPool.commonPool());
+        return dest;
+    }
+
+    @Benchmark
+    public float[] dualQuaternion() {
+        mesh.skinDualQuaternion(dualQuaternionPalette, dest);
+        return dest;
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Ddev.stjepano.math.simd=false")
+    public float[] dualQuaternionScalar() {
+        mesh.skinDualQuaternion(dualQuaternionPalette, dest);
+        return dest;
+    }
+
+    @Benchmark
+    public MemorySegment dualQuaternionSegment() {
+        mesh.skinDualQuaternion(dualQuaternionPalette, destSegment, 0);
+        return destSegment;
+    }
+
+    @Benchmark
+    public float[] dualQuaternionParallel() {
+        mesh.skinDualQuaternion(dualQuaternionPalette, dest, ForkJoinPool.commonPool());
+        return dest;
+    }
+}
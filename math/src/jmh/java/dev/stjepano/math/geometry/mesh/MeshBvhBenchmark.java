@@ -0,0 +1,83 @@
+package dev.stjepano.math.geometry.mesh;
+
+import dev.stjepano.math.Transform;
+import dev.stjepano.math.Vec3;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/// `MeshBvh` build time (single threaded vs parallel) and ray query throughput.
+///
+/// Mesh is a tessellated sphere, `slices` = 64 gives ~8k triangles, 256 gives ~130k and 1024 gives ~2M triangles.
+/// Ray benchmarks report operations per second where one operation is one ray.
+@State(Scope.Benchmark)
+public class MeshBvhBenchmark {
+
+    private static final int RAY_COUNT = 1024;
+
+    @Param({"64", "256", "1024"})
+    private int slices;
+
+    private IndexedMesh mesh;
+    private MeshBvh bvh;
+    private Transform transform;
+    private Vec3[] origins;
+    private Vec3[] directions;
+    private MeshBvh.RayHit hit;
+
+    @Setup
+    public void setup() {
+        TriangleMeshGen meshGen = new TriangleMeshGen(IndexedMesh.VertexFormat.AttributeType.NORMAL);
+        meshGen.addSphere(1.0f, slices, slices / 2);
+        mesh = meshGen.build();
+        bvh = MeshBvh.build(mesh);
+        transform = new Transform().setPosition(0, 1, -5).setRotationY(0.5f).setScale(2.0f);
+        hit = new MeshBvh.RayHit();
+
+        // Rays from camera through random points around the sphere, about half of them hit
+        Random random = new Random(42);
+        origins = new Vec3[RAY_COUNT];
+        directions = new Vec3[RAY_COUNT];
+        for (int i = 0; i < RAY_COUNT; i++) {
+            origins[i] = new Vec3(0, 1, 5);
+            directions[i] = new Vec3(random.nextFloat() * 6 - 3, random.nextFloat() * 6 - 3, -10);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public MeshBvh buildSingleThreaded() {
+        return MeshBvh.build(mesh, null);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public MeshBvh buildParallel() {
+        return MeshBvh.build(mesh, ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(RAY_COUNT)
+    public void closestHit(Blackhole bh) {
+        for (int i = 0; i < RAY_COUNT; i++) {
+            bh.consume(bvh.closestHit(transform, origins[i], directions[i], Float.POSITIVE_INFINITY, hit));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(RAY_COUNT)
+    public void anyHit(Blackhole bh) {
+        for (int i = 0; i < RAY_COUNT; i++) {
+            bh.consume(bvh.anyHit(transform, origins[i], directions[i], Float.POSITIVE_INFINITY));
+        }
+    }
+}
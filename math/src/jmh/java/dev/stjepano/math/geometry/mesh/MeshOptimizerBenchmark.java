@@ -0,0 +1,50 @@
+package dev.stjepano.math.geometry.mesh;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/// Offline optimization time of a generated sphere (`slices` x `slices / 2`): vertex cache pass alone, vertex fetch
+/// pass alone and all passes ([MeshOptimizer#optimize(IndexedMesh)]).
+///
+/// Use [MeshOptimizer#analyzeVertexCache(int[], int, int)] and [MeshOptimizer#analyzeVertexFetch(int[], int, int)]
+/// for the effect on ACMR/ATVR and overfetch, this benchmark measures only the cost of the passes.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class MeshOptimizerBenchmark {
+
+    @Param({"256", "1024"})
+    private int slices;
+
+    private IndexedMesh mesh;
+    private int[] dest;
+    private float[] destVertexData;
+
+    @Setup
+    public void setup() {
+        TriangleMeshGen meshGen = new TriangleMeshGen(IndexedMesh.VertexFormat.AttributeType.NORMAL,
+                IndexedMesh.VertexFormat.AttributeType.TEX_COORD);
+        meshGen.addSphere(1.0f, slices, slices / 2);
+        mesh = meshGen.build();
+        dest = new int[mesh.indices().length];
+        destVertexData = new float[mesh.vertexData().length];
+    }
+
+    @Benchmark
+    public int[] vertexCache() {
+        MeshOptimizer.optimizeVertexCache(mesh.indices(), mesh.vertexCount(), MeshOptimizer.DEFAULT_CACHE_SIZE, dest);
+        return dest;
+    }
+
+    @Benchmark
+    public int vertexFetch() {
+        return MeshOptimizer.optimizeVertexFetch(mesh.indices(), mesh.vertexData(), mesh.vertexCount(),
+                mesh.vertexFormat().stride(), dest, destVertexData);
+    }
+
+    @Benchmark
+    public IndexedMesh allPasses() {
+        return MeshOptimizer.optimize(mesh);
+    }
+}
@@ -0,0 +1,37 @@
+package dev.stjepano.math.geometry.mesh;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/// Simplification time of a generated textured sphere (`slices` x `slices / 2`, 1024 slices is ~1M triangles):
+/// simplification to half of the triangles and a 6 level LOD chain which halves triangles per level.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class MeshSimplifierBenchmark {
+
+    @Param({"256", "1024"})
+    private int slices;
+
+    private IndexedMesh mesh;
+
+    @Setup
+    public void setup() {
+        TriangleMeshGen meshGen = new TriangleMeshGen(IndexedMesh.VertexFormat.AttributeType.NORMAL,
+                IndexedMesh.VertexFormat.AttributeType.TEX_COORD);
+        meshGen.addSphere(1.0f, slices, slices / 2);
+        mesh = meshGen.build();
+    }
+
+    @Benchmark
+    public MeshSimplifier.SimplifiedMesh simplifyHalf() {
+        return MeshSimplifier.simplify(mesh, mesh.indices().length / 6, Float.POSITIVE_INFINITY);
+    }
+
+    @Benchmark
+    public List<MeshSimplifier.SimplifiedMesh> lodChain() {
+        return MeshSimplifier.buildLodChain(mesh, 6, 0.5f, Float.POSITIVE_INFINITY);
+    }
+}
@@ -0,0 +1,51 @@
+package dev.stjepano.math.geometry.mesh;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/// Mesh generation time of high tessellation primitives (normals and texture coordinates). `slices` = 256 gives ~66k
+/// sphere vertices, 1024 gives ~1M.
+///
+/// Grid uses `slices` divisions along both axes, cylinder `slices / 2` rings. Parametric primitives emit ring vertices
+/// and indices directly (no vertex welding).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class TriangleMeshGenBenchmark {
+
+    @Param({"256", "1024"})
+    private int slices;
+
+    private TriangleMeshGen meshGen;
+
+    @Setup
+    public void setup() {
+        meshGen = new TriangleMeshGen(IndexedMesh.VertexFormat.AttributeType.NORMAL,
+                IndexedMesh.VertexFormat.AttributeType.TEX_COORD);
+    }
+
+    @Benchmark
+    public IndexedMesh sphere() {
+        meshGen.addSphere(1.0f, slices, slices / 2);
+        return meshGen.build();
+    }
+
+    @Benchmark
+    public IndexedMesh capsule() {
+        meshGen.addCapsule(0.5f, 1.0f, slices, slices / 4);
+        return meshGen.build();
+    }
+
+    @Benchmark
+    public IndexedMesh cylinder() {
+        meshGen.addCylinder(0.5f, 1.0f, slices, slices / 2, true);
+        return meshGen.build();
+    }
+
+    @Benchmark
+    public IndexedMesh grid() {
+        meshGen.addGrid(1.0f, 1.0f, slices, slices);
+        return meshGen.build();
+    }
+}
@@ -0,0 +1,127 @@
+package dev.stjepano.math;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/// Culls very large SoA bounds arrays against a [Frustum] using multiple threads.
+///
+/// Object range is split into chunks which are culled in parallel on a [ForkJoinPool] into a shared visibility
+/// bitset. Chunks start at multiples of 64 so every bitset word is written by exactly one task. When number of
+/// objects is less than `parallelThreshold` culling is done on the calling thread.
+///
+/// Only bitset output is supported, compacted index list can not be produced in parallel without a second pass.
+///
+/// #### Example
+/// ```java
+/// CullingExecutor executor = new CullingExecutor();
+/// int visibleCount = executor.cullSpheres(frustum, centerX, centerY, centerZ, radius, objectCount, visibleBits);
+/// ```
+///
+/// **NOTE**: frustum must not be modified while executor methods are running.
+public final class CullingExecutor {
+
+    /// Default number of objects at which parallel execution starts.
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 17;
+
+    /// Minimal number of objects processed by a single task (multiple of 64).
+    private static final int MIN_CHUNK_SIZE = 1 << 14;
+
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+
+    /// Create executor which uses common fork/join pool and default parallel threshold.
+    public CullingExecutor() {
+        this(ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /// Create executor.
+    /// @param pool fork/join pool used for parallel execution
+    /// @param parallelThreshold minimal number of objects for parallel execution
+    public CullingExecutor(ForkJoinPool pool, int parallelThreshold) {
+        if (pool == null) {
+            throw new NullPointerException("pool");
+        }
+        if (parallelThreshold <= 0) {
+            throw new IllegalArgumentException("parallelThreshold must be greater than 0");
+        }
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /// @return minimal number of objects for parallel execution
+    public int parallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /// Same as {@link Frustum#cullSpheres(float[], float[], float[], float[], int, long[])} but runs in parallel for
+    /// large arrays.
+    /// @return number of visible spheres
+    public int cullSpheres(Frustum frustum, float[] centerX, float[] centerY, float[] centerZ, float[] radius,
+                           int count, long[] visibleBits) {
+        Frustum.checkSpheres(centerX, centerY, centerZ, radius, count);
+        Frustum.checkBits(visibleBits, count);
+        if (count < parallelThreshold) {
+            return frustum.cullSpheres(centerX, centerY, centerZ, radius, 0, count, visibleBits);
+        }
+        return pool.invoke(new CullTask(frustum, new float[][] {centerX, centerY, centerZ, radius}, visibleBits,
+                0, count, chunkSize(count)));
+    }
+
+    /// Same as {@link Frustum#cullAabbs(float[], float[], float[], float[], float[], float[], int, long[])} but runs
+    /// in parallel for large arrays.
+    /// @return number of visible boxes
+    public int cullAabbs(Frustum frustum, float[] minX, float[] minY, float[] minZ, float[] maxX, float[] maxY,
+                         float[] maxZ, int count, long[] visibleBits) {
+        Frustum.checkAabbs(minX, minY, minZ, maxX, maxY, maxZ, count);
+        Frustum.checkBits(visibleBits, count);
+        if (count < parallelThreshold) {
+            return frustum.cullAabbs(minX, minY, minZ, maxX, maxY, maxZ, 0, count, visibleBits);
+        }
+        return pool.invoke(new CullTask(frustum, new float[][] {minX, minY, minZ, maxX, maxY, maxZ}, visibleBits,
+                0, count, chunkSize(count)));
+    }
+
+    private int chunkSize(int count) {
+        // A few chunks per worker so that work is balanced when some workers are busy
+        return Math.max(MIN_CHUNK_SIZE, count / (pool.getParallelism() * 4));
+    }
+
+    @SuppressWarnings("serial")
+    private static final class CullTask extends RecursiveTask<Integer> {
+        private final Frustum frustum;
+        /// Sphere streams (4 arrays) or box streams (6 arrays).
+        private final float[][] streams;
+        private final long[] visibleBits;
+        private final int start;
+        private final int end;
+        private final int chunkSize;
+
+        CullTask(Frustum frustum, float[][] streams, long[] visibleBits, int start, int end, int chunkSize) {
+            this.frustum = frustum;
+            this.streams = streams;
+            this.visibleBits = visibleBits;
+            this.start = start;
+            this.end = end;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected Integer compute() {
+            final int count = end - start;
+            if (count <= chunkSize) {
+                final float[][] s = streams;
+                if (s.length == 4) {
+                    return frustum.cullSpheres(s[0], s[1], s[2], s[3], start, end, visibleBits);
+                }
+                return frustum.cullAabbs(s[0], s[1], s[2], s[3], s[4], s[5], start, end, visibleBits);
+            }
+            // Split at multiple of 64 so tasks never share a bitset word
+            final int middle = start + ((count / 2) & ~63);
+            final CullTask left = new CullTask(frustum, streams, visibleBits, start, middle, chunkSize);
+            final CullTask right = new CullTask(frustum, streams, visibleBits, middle, end, chunkSize);
+            left.fork();
+            final int rightCount = right.compute();
+            return left.join() + rightCount;
+        }
+    }
+}
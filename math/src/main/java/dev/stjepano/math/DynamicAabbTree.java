@@ -0,0 +1,826 @@
+package dev.stjepano.math;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/// Dynamic bounding volume tree of axis aligned boxes, used as broad phase for many moving scene objects.
+///
+/// Every object is represented by a proxy (leaf node) which stores a fattened box: the object box enlarged by
+/// `margin` on all sides. Moving an object only touches the tree when its new box is no longer contained in the fat
+/// box (or the fat box became much larger than needed), so small per frame movements are free. When displacement is
+/// passed to `move` the fat box is also extended in direction of movement. Insertion picks the sibling with smallest
+/// surface area cost (branch and bound descent), insert, remove and move are `O(log n)` and the tree is kept
+/// balanced with rotations on the way back to the root.
+///
+/// Nodes are stored in pooled flat arrays (6 floats for bounds and 5 ints for links per node), freed nodes are
+/// reused through a free list. Proxy ids are node indices, they stay valid until the proxy is destroyed. Queries do
+/// not allocate, reported boxes are fat boxes so queries are conservative.
+///
+/// #### Example
+/// ```java
+/// DynamicAabbTree tree = new DynamicAabbTree();
+/// int proxy = tree.createProxy(objectTransform, localMin, localMax, objectId);
+/// // every frame
+/// tree.move(proxy, objectTransform, localMin, localMax);
+/// tree.queryPairs((proxyA, proxyB) -> narrowPhase(tree.getUserData(proxyA), tree.getUserData(proxyB)));
+/// int visibleCount = tree.queryFrustum(frustum, visibleProxies);
+/// ```
+///
+/// **NOTE**: tree is not thread safe, queries use a shared traversal stack. Query callbacks may run nested queries
+/// on the same tree (they traverse above the entries of the outer query), but must not create, destroy or move
+/// proxies.
+public final class DynamicAabbTree {
+
+    /// Default margin by which proxy boxes are fattened.
+    public static final float DEFAULT_MARGIN = 0.1f;
+
+    /// Invalid proxy (and node) index.
+    public static final int NULL_PROXY = -1;
+
+    /// Receives pairs of proxies with overlapping fat boxes.
+    @FunctionalInterface
+    public interface PairCallback {
+        /// Called once for every overlapping pair, `proxyA < proxyB`.
+        void pair(int proxyA, int proxyB);
+    }
+
+    /// Receives proxies whose fat boxes are hit by a ray.
+    @FunctionalInterface
+    public interface RayCallback {
+        /// Called for every proxy whose fat box is hit within `maxDistance`.
+        /// @param proxy proxy whose box is hit
+        /// @param maxDistance current maximal ray distance
+        /// @return new maximal ray distance: `maxDistance` to continue, smaller value to clip the ray (for example
+        ///         distance of the exact hit) or negative value to terminate the query
+        float hit(int proxy, float maxDistance);
+    }
+
+    private static final int PARENT = 0;  // next free node for nodes in free list
+    private static final int LEFT = 1;    // NULL_PROXY for leaves
+    private static final int RIGHT = 2;
+    private static final int HEIGHT = 3;  // 0 for leaves, -1 for free nodes
+    private static final int USER_DATA = 4;
+    private static final int STRIDE = 5;
+
+    private static final int INITIAL_CAPACITY = 16;
+    /// Fat box is refitted when it extends more than this many margins past the newly computed fat box.
+    private static final float MAX_MARGIN_MULTIPLIER = 4.0f;
+    /// Fat box is extended by this many displacements in direction of movement.
+    private static final float DISPLACEMENT_MULTIPLIER = 4.0f;
+
+    private final float margin;
+    private final Vec3 scratchMin = new Vec3();
+    private final Vec3 scratchMax = new Vec3();
+
+    private int capacity;
+    /// Node bounds, 6 floats per node (minX, minY, minZ, maxX, maxY, maxZ).
+    private float[] bounds;
+    /// Node links, `STRIDE` ints per node.
+    private int[] nodes;
+    private int root = NULL_PROXY;
+    private int freeList;
+    private int nodeCount;
+    private int proxyCount;
+    private int[] stack = new int[64];
+    /// Stack entries below `stackBase` belong to queries whose callback is running.
+    private int stackBase;
+
+    /// Create tree with [#DEFAULT_MARGIN].
+    public DynamicAabbTree() {
+        this(DEFAULT_MARGIN);
+    }
+
+    /// Create tree.
+    /// @param margin distance by which proxy boxes are fattened, larger margin means less tree updates for moving
+    ///               objects but more false positives in queries
+    public DynamicAabbTree(float margin) {
+        if (!(margin >= 0.0f) || margin == Float.POSITIVE_INFINITY) {
+            throw new IllegalArgumentException("margin must be finite and non-negative");
+        }
+        this.margin = margin;
+        this.capacity = INITIAL_CAPACITY;
+        this.bounds = new float[6 * INITIAL_CAPACITY];
+        this.nodes = new int[STRIDE * INITIAL_CAPACITY];
+        linkFreeNodes(0, INITIAL_CAPACITY);
+        this.freeList = 0;
+    }
+
+    /// @return distance by which proxy boxes are fattened
+    public float margin() {
+        return margin;
+    }
+
+    /// @return number of proxies in the tree
+    public int proxyCount() {
+        return proxyCount;
+    }
+
+    /// @return number of nodes (proxies and inner nodes) in the tree
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /// @return height of the tree, 0 for tree with single proxy and -1 for empty tree
+    public int height() {
+        return root == NULL_PROXY ? -1 : nodes[STRIDE * root + HEIGHT];
+    }
+
+    /// Add object with world space box.
+    /// @param min minimum corner of the box
+    /// @param max maximum corner of the box
+    /// @param userData user value associated with the proxy (for example object index)
+    /// @return proxy id
+    public int createProxy(Vec3 min, Vec3 max, int userData) {
+        return createProxy(min.x, min.y, min.z, max.x, max.y, max.z, userData);
+    }
+
+    /// Add object with local space box (for example [dev.stjepano.math.geometry.mesh.IndexedMesh.Bounds]) placed by
+    /// transform.
+    /// @param transform object transform
+    /// @param localMin minimum corner of the box in object space
+    /// @param localMax maximum corner of the box in object space
+    /// @param userData user value associated with the proxy (for example object index)
+    /// @return proxy id
+    public int createProxy(Transform transform, Vec3 localMin, Vec3 localMax, int userData) {
+        transform.transformAabb(localMin, localMax, scratchMin, scratchMax);
+        return createProxy(scratchMin, scratchMax, userData);
+    }
+
+    /// Add object with world space box.
+    /// @return proxy id
+    public int createProxy(float minX, float minY, float minZ, float maxX, float maxY, float maxZ, int userData) {
+        checkBox(minX, minY, minZ, maxX, maxY, maxZ);
+        final int proxy = allocateNode();
+        setFatBounds(proxy, minX, minY, minZ, maxX, maxY, maxZ);
+        nodes[STRIDE * proxy + USER_DATA] = userData;
+        insertLeaf(proxy);
+        proxyCount++;
+        return proxy;
+    }
+
+    /// Remove object from the tree, proxy id may be reused by later [#createProxy(Vec3, Vec3, int)] calls.
+    public void destroyProxy(int proxy) {
+        checkProxy(proxy);
+        removeLeaf(proxy);
+        freeNode(proxy);
+        proxyCount--;
+    }
+
+    /// Update box of moved object.
+    /// @param proxy proxy id
+    /// @param min new minimum corner of the box
+    /// @param max new maximum corner of the box
+    /// @return true if proxy was reinserted, false if new box is still covered by the fat box
+    public boolean move(int proxy, Vec3 min, Vec3 max) {
+        return move(proxy, min.x, min.y, min.z, max.x, max.y, max.z, 0.0f, 0.0f, 0.0f);
+    }
+
+    /// Update box of moved object, fat box is additionally extended in direction of movement so that objects which
+    /// keep moving the same way are reinserted less often.
+    /// @param proxy proxy id
+    /// @param min new minimum corner of the box
+    /// @param max new maximum corner of the box
+    /// @param displacement movement of the object since the last update (for example velocity times time step)
+    /// @return true if proxy was reinserted, false if new box is still covered by the fat box
+    public boolean move(int proxy, Vec3 min, Vec3 max, Vec3 displacement) {
+        return move(proxy, min.x, min.y, min.z, max.x, max.y, max.z, displacement.x, displacement.y, displacement.z);
+    }
+
+    /// Update box of moved object from its transform.
+    /// @param proxy proxy id
+    /// @param transform object transform
+    /// @param localMin minimum corner of the box in object space
+    /// @param localMax maximum corner of the box in object space
+    /// @return true if proxy was reinserted, false if new box is still covered by the fat box
+    public boolean move(int proxy, Transform transform, Vec3 localMin, Vec3 localMax) {
+        transform.transformAabb(localMin, localMax, scratchMin, scratchMax);
+        return move(proxy, scratchMin, scratchMax);
+    }
+
+    /// Update box of moved object from its transform, fat box is additionally extended in direction of movement.
+    /// @param proxy proxy id
+    /// @param transform object transform
+    /// @param localMin minimum corner of the box in object space
+    /// @param localMax maximum corner of the box in object space
+    /// @param displacement movement of the object since the last update (for example velocity times time step)
+    /// @return true if proxy was reinserted, false if new box is still covered by the fat box
+    public boolean move(int proxy, Transform transform, Vec3 localMin, Vec3 localMax, Vec3 displacement) {
+        transform.transformAabb(localMin, localMax, scratchMin, scratchMax);
+        return move(proxy, scratchMin, scratchMax, displacement);
+    }
+
+    /// Update box of moved object.
+    /// @return true if proxy was reinserted, false if new box is still covered by the fat box
+    public boolean move(int proxy, float minX, float minY, float minZ, float maxX, float maxY, float maxZ,
+                        float displacementX, float displacementY, float displacementZ) {
+        checkProxy(proxy);
+        checkBox(minX, minY, minZ, maxX, maxY, maxZ);
+        // New fat box, extended by predicted movement
+        final float dx = DISPLACEMENT_MULTIPLIER * displacementX;
+        final float dy = DISPLACEMENT_MULTIPLIER * displacementY;
+        final float dz = DISPLACEMENT_MULTIPLIER * displacementZ;
+        final float fatMinX = minX - margin + Math.min(dx, 0.0f);
+        final float fatMinY = minY - margin + Math.min(dy, 0.0f);
+        final float fatMinZ = minZ - margin + Math.min(dz, 0.0f);
+        final float fatMaxX = maxX + margin + Math.max(dx, 0.0f);
+        final float fatMaxY = maxY + margin + Math.max(dy, 0.0f);
+        final float fatMaxZ = maxZ + margin + Math.max(dz, 0.0f);
+
+        final float[] b = bounds;
+        final int i = 6 * proxy;
+        if (b[i] <= minX && b[i + 1] <= minY && b[i + 2] <= minZ
+                && b[i + 3] >= maxX && b[i + 4] >= maxY && b[i + 5] >= maxZ) {
+            // Contained, keep the current fat box unless it is much larger than the new one (object shrank, slowed
+            // down or teleported inside)
+            final float limit = MAX_MARGIN_MULTIPLIER * margin;
+            if (fatMinX - b[i] <= limit && fatMinY - b[i + 1] <= limit && fatMinZ - b[i + 2] <= limit
+                    && b[i + 3] - fatMaxX <= limit && b[i + 4] - fatMaxY <= limit && b[i + 5] - fatMaxZ <= limit) {
+                return false;
+            }
+        }
+        removeLeaf(proxy);
+        b[i] = fatMinX;
+        b[i + 1] = fatMinY;
+        b[i + 2] = fatMinZ;
+        b[i + 3] = fatMaxX;
+        b[i + 4] = fatMaxY;
+        b[i + 5] = fatMaxZ;
+        insertLeaf(proxy);
+        return true;
+    }
+
+    /// @return user value associated with the proxy
+    public int getUserData(int proxy) {
+        checkProxy(proxy);
+        return nodes[STRIDE * proxy + USER_DATA];
+    }
+
+    /// Change user value associated with the proxy.
+    public void setUserData(int proxy, int userData) {
+        checkProxy(proxy);
+        nodes[STRIDE * proxy + USER_DATA] = userData;
+    }
+
+    /// Get fat box of the proxy.
+    /// @param proxy proxy id
+    /// @param destMin receives minimum corner
+    /// @param destMax receives maximum corner
+    public void getFatBounds(int proxy, Vec3 destMin, Vec3 destMax) {
+        checkProxy(proxy);
+        final int i = 6 * proxy;
+        destMin.set(bounds[i], bounds[i + 1], bounds[i + 2]);
+        destMax.set(bounds[i + 3], bounds[i + 4], bounds[i + 5]);
+    }
+
+    /// Find proxies whose fat boxes overlap given box.
+    /// @param min minimum corner of the box
+    /// @param max maximum corner of the box
+    /// @param dest receives proxy ids
+    /// @return number of proxies written to `dest`, query stops when `dest` is full
+    public int queryAabb(Vec3 min, Vec3 max, int[] dest) {
+        if (root == NULL_PROXY || dest.length == 0) {
+            return 0;
+        }
+        final float minX = min.x, minY = min.y, minZ = min.z;
+        final float maxX = max.x, maxY = max.y, maxZ = max.z;
+        final float[] b = bounds;
+        final int[] n = nodes;
+        int count = 0;
+        final int base = stackBase;
+        int top = push(base, root);
+        while (top > base) {
+            final int node = stack[--top];
+            final int i = 6 * node;
+            if (b[i] > maxX || b[i + 1] > maxY || b[i + 2] > maxZ
+                    || b[i + 3] < minX || b[i + 4] < minY || b[i + 5] < minZ) {
+                continue;
+            }
+            final int left = n[STRIDE * node + LEFT];
+            if (left == NULL_PROXY) {
+                dest[count++] = node;
+                if (count == dest.length) {
+                    return count;
+                }
+            } else {
+                top = push(top, left, n[STRIDE * node + RIGHT]);
+            }
+        }
+        return count;
+    }
+
+    /// Find proxies whose fat boxes are inside or intersect the frustum. Subtrees fully inside the frustum are
+    /// reported without testing their proxies.
+    /// @param frustum view frustum
+    /// @param dest receives proxy ids
+    /// @return number of proxies written to `dest`, query stops when `dest` is full
+    public int queryFrustum(Frustum frustum, int[] dest) {
+        if (root == NULL_PROXY || dest.length == 0) {
+            return 0;
+        }
+        final float[] p = frustum.planes;
+        final float[] b = bounds;
+        final int[] n = nodes;
+        int count = 0;
+        final int base = stackBase;
+        int top = push(base, root);
+        while (top > base) {
+            final int node = stack[--top];
+            final int i = 6 * node;
+            boolean inside = true;
+            boolean outside = false;
+            for (int j = 0; j < 4 * Frustum.PLANE_COUNT; j += 4) {
+                final float nx = p[j], ny = p[j + 1], nz = p[j + 2];
+                // Box corners furthest and nearest along plane normal
+                final float far = nx * (nx >= 0.0f ? b[i + 3] : b[i]) + ny * (ny >= 0.0f ? b[i + 4] : b[i + 1])
+                        + nz * (nz >= 0.0f ? b[i + 5] : b[i + 2]) + p[j + 3];
+                if (far < 0.0f) {
+                    outside = true;
+                    break;
+                }
+                final float near = nx * (nx >= 0.0f ? b[i] : b[i + 3]) + ny * (ny >= 0.0f ? b[i + 1] : b[i + 4])
+                        + nz * (nz >= 0.0f ? b[i + 2] : b[i + 5]) + p[j + 3];
+                inside &= near >= 0.0f;
+            }
+            if (outside) {
+                continue;
+            }
+            final int left = n[STRIDE * node + LEFT];
+            if (left == NULL_PROXY) {
+                dest[count++] = node;
+                if (count == dest.length) {
+                    return count;
+                }
+            } else if (inside) {
+                count = appendLeaves(node, top, dest, count);
+                if (count == dest.length) {
+                    return count;
+                }
+            } else {
+                top = push(top, left, n[STRIDE * node + RIGHT]);
+            }
+        }
+        return count;
+    }
+
+    /// Cast ray against fat boxes. Callback decides how the query continues, typically it tests the exact object
+    /// shape and clips the ray to the hit distance so further boxes are skipped.
+    /// @param origin ray origin
+    /// @param direction ray direction (does not have to be normalized, distances are in units of its length)
+    /// @param maxDistance maximal ray distance
+    /// @param callback receives proxies whose boxes are hit
+    /// @return final maximal ray distance (as clipped by callback) or negative value if callback terminated query
+    public float raycast(Vec3 origin, Vec3 direction, float maxDistance, RayCallback callback) {
+        if (callback == null) {
+            throw new NullPointerException("callback");
+        }
+        if (root == NULL_PROXY) {
+            return maxDistance;
+        }
+        final float ox = origin.x, oy = origin.y, oz = origin.z;
+        final float invDx = 1.0f / direction.x, invDy = 1.0f / direction.y, invDz = 1.0f / direction.z;
+        final int[] n = nodes;
+        final int base = stackBase;
+        int top = push(base, root);
+        while (top > base) {
+            final int node = stack[--top];
+            if (!rayBox(node, ox, oy, oz, invDx, invDy, invDz, maxDistance)) {
+                continue;
+            }
+            final int left = n[STRIDE * node + LEFT];
+            if (left == NULL_PROXY) {
+                final float newMaxDistance;
+                stackBase = top;
+                try {
+                    newMaxDistance = callback.hit(node, maxDistance);
+                } finally {
+                    stackBase = base;
+                }
+                if (newMaxDistance < 0.0f) {
+                    return newMaxDistance;
+                }
+                maxDistance = Math.min(maxDistance, newMaxDistance);
+            } else {
+                top = push(top, left, n[STRIDE * node + RIGHT]);
+            }
+        }
+        return maxDistance;
+    }
+
+    /// Enumerate all pairs of proxies with overlapping fat boxes. Pairs are found by traversing the tree against
+    /// itself, so subtrees which do not overlap are never descended into.
+    /// @param callback receives every overlapping pair once
+    public void queryPairs(PairCallback callback) {
+        if (callback == null) {
+            throw new NullPointerException("callback");
+        }
+        if (root == NULL_PROXY) {
+            return;
+        }
+        final int[] n = nodes;
+        final int base = stackBase;
+        int top = push(base, root, root);
+        while (top > base) {
+            final int b = stack[--top];
+            final int a = stack[--top];
+            final int aLeft = n[STRIDE * a + LEFT];
+            if (a == b) {
+                // Pairs within a subtree are pairs within each child plus pairs between children
+                if (aLeft != NULL_PROXY) {
+                    final int aRight = n[STRIDE * a + RIGHT];
+                    top = push(top, aLeft, aLeft, aRight, aRight);
+                    top = push(top, aLeft, aRight);
+                }
+                continue;
+            }
+            if (!overlaps(a, b)) {
+                continue;
+            }
+            final int bLeft = n[STRIDE * b + LEFT];
+            if (aLeft == NULL_PROXY && bLeft == NULL_PROXY) {
+                stackBase = top;
+                try {
+                    callback.pair(Math.min(a, b), Math.max(a, b));
+                } finally {
+                    stackBase = base;
+                }
+            } else if (bLeft == NULL_PROXY
+                    || (aLeft != NULL_PROXY && n[STRIDE * a + HEIGHT] >= n[STRIDE * b + HEIGHT])) {
+                final int aRight = n[STRIDE * a + RIGHT];
+                top = push(top, aLeft, b, aRight, b);
+            } else {
+                final int bRight = n[STRIDE * b + RIGHT];
+                top = push(top, a, bLeft, a, bRight);
+            }
+        }
+    }
+
+    /// Check tree invariants (links, heights, bounds containment and counts).
+    /// @throws IllegalStateException if tree is corrupted
+    void validate() {
+        if (root != NULL_PROXY && nodes[STRIDE * root + PARENT] != NULL_PROXY) {
+            throw new IllegalStateException("root has parent");
+        }
+        final int[] counts = new int[2];
+        if (root != NULL_PROXY) {
+            validate(root, counts);
+        }
+        if (counts[0] != nodeCount || counts[1] != proxyCount) {
+            throw new IllegalStateException("node count " + counts[0] + "/" + nodeCount + ", proxy count "
+                    + counts[1] + "/" + proxyCount);
+        }
+        int freeCount = 0;
+        for (int node = freeList; node != NULL_PROXY; node = nodes[STRIDE * node + PARENT]) {
+            freeCount++;
+        }
+        if (freeCount + nodeCount != capacity) {
+            throw new IllegalStateException("free list has " + freeCount + " nodes");
+        }
+    }
+
+    private int validate(int node, int[] counts) {
+        counts[0]++;
+        final int s = STRIDE * node;
+        final int left = nodes[s + LEFT];
+        if (left == NULL_PROXY) {
+            counts[1]++;
+            if (nodes[s + HEIGHT] != 0) {
+                throw new IllegalStateException("leaf " + node + " has height " + nodes[s + HEIGHT]);
+            }
+            return 0;
+        }
+        final int right = nodes[s + RIGHT];
+        if (nodes[STRIDE * left + PARENT] != node || nodes[STRIDE * right + PARENT] != node) {
+            throw new IllegalStateException("broken parent link at node " + node);
+        }
+        final int leftHeight = validate(left, counts);
+        final int rightHeight = validate(right, counts);
+        final int height = 1 + Math.max(leftHeight, rightHeight);
+        if (nodes[s + HEIGHT] != height) {
+            throw new IllegalStateException("node " + node + " has height " + nodes[s + HEIGHT] + ", expected "
+                    + height);
+        }
+        for (int k = 0; k < 3; k++) {
+            if (bounds[6 * node + k] != Math.min(bounds[6 * left + k], bounds[6 * right + k])
+                    || bounds[6 * node + 3 + k] != Math.max(bounds[6 * left + 3 + k], bounds[6 * right + 3 + k])) {
+                throw new IllegalStateException("node " + node + " bounds do not enclose children");
+            }
+        }
+        return height;
+    }
+
+    private void checkProxy(int proxy) {
+        Objects.checkIndex(proxy, capacity);
+        final int s = STRIDE * proxy;
+        if (nodes[s + HEIGHT] != 0 || nodes[s + LEFT] != NULL_PROXY) {
+            throw new IllegalArgumentException("not a proxy: " + proxy);
+        }
+    }
+
+    private static void checkBox(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        // Negated comparison rejects NaN
+        if (!(minX <= maxX && minY <= maxY && minZ <= maxZ)) {
+            throw new IllegalArgumentException("box min must not be greater than max");
+        }
+    }
+
+    private void setFatBounds(int node, float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        final int i = 6 * node;
+        bounds[i] = minX - margin;
+        bounds[i + 1] = minY - margin;
+        bounds[i + 2] = minZ - margin;
+        bounds[i + 3] = maxX + margin;
+        bounds[i + 4] = maxY + margin;
+        bounds[i + 5] = maxZ + margin;
+    }
+
+    private int allocateNode() {
+        if (freeList == NULL_PROXY) {
+            final int newCapacity = capacity * 2;
+            bounds = Arrays.copyOf(bounds, 6 * newCapacity);
+            nodes = Arrays.copyOf(nodes, STRIDE * newCapacity);
+            linkFreeNodes(capacity, newCapacity);
+            freeList = capacity;
+            capacity = newCapacity;
+        }
+        final int node = freeList;
+        final int s = STRIDE * node;
+        freeList = nodes[s + PARENT];
+        nodes[s + PARENT] = NULL_PROXY;
+        nodes[s + LEFT] = NULL_PROXY;
+        nodes[s + RIGHT] = NULL_PROXY;
+        nodes[s + HEIGHT] = 0;
+        nodes[s + USER_DATA] = 0;
+        nodeCount++;
+        return node;
+    }
+
+    private void freeNode(int node) {
+        final int s = STRIDE * node;
+        nodes[s + PARENT] = freeList;
+        nodes[s + LEFT] = NULL_PROXY;
+        nodes[s + HEIGHT] = -1;
+        freeList = node;
+        nodeCount--;
+    }
+
+    private void linkFreeNodes(int from, int to) {
+        for (int node = from; node < to; node++) {
+            final int s = STRIDE * node;
+            nodes[s + PARENT] = node + 1 < to ? node + 1 : NULL_PROXY;
+            nodes[s + LEFT] = NULL_PROXY;
+            nodes[s + HEIGHT] = -1;
+        }
+    }
+
+    private void insertLeaf(int leaf) {
+        if (root == NULL_PROXY) {
+            root = leaf;
+            nodes[STRIDE * leaf + PARENT] = NULL_PROXY;
+            return;
+        }
+
+        // Descend to the sibling with smallest cost: area of new parent plus area growth of all ancestors
+        final int l = 6 * leaf;
+        final float minX = bounds[l], minY = bounds[l + 1], minZ = bounds[l + 2];
+        final float maxX = bounds[l + 3], maxY = bounds[l + 4], maxZ = bounds[l + 5];
+        int index = root;
+        while (nodes[STRIDE * index + LEFT] != NULL_PROXY) {
+            final int left = nodes[STRIDE * index + LEFT];
+            final int right = nodes[STRIDE * index + RIGHT];
+            final float area = area(index);
+            final float combinedArea = combinedArea(index, minX, minY, minZ, maxX, maxY, maxZ);
+            // Cost of creating a new parent for this node and the leaf
+            final float cost = 2.0f * combinedArea;
+            // Minimum cost of pushing the leaf further down the tree
+            final float inheritanceCost = 2.0f * (combinedArea - area);
+            final float leftCost = descendCost(left, minX, minY, minZ, maxX, maxY, maxZ) + inheritanceCost;
+            final float rightCost = descendCost(right, minX, minY, minZ, maxX, maxY, maxZ) + inheritanceCost;
+            if (cost < leftCost && cost < rightCost) {
+                break;
+            }
+            index = leftCost < rightCost ? left : right;
+        }
+
+        final int sibling = index;
+        final int oldParent = nodes[STRIDE * sibling + PARENT];
+        final int newParent = allocateNode();
+        final int p = STRIDE * newParent;
+        nodes[p + PARENT] = oldParent;
+        nodes[p + LEFT] = sibling;
+        nodes[p + RIGHT] = leaf;
+        nodes[p + HEIGHT] = nodes[STRIDE * sibling + HEIGHT] + 1;
+        nodes[STRIDE * sibling + PARENT] = newParent;
+        nodes[STRIDE * leaf + PARENT] = newParent;
+        replaceChild(oldParent, sibling, newParent);
+        refitAncestors(newParent);
+    }
+
+    private void removeLeaf(int leaf) {
+        if (leaf == root) {
+            root = NULL_PROXY;
+            return;
+        }
+        final int parent = nodes[STRIDE * leaf + PARENT];
+        final int grandParent = nodes[STRIDE * parent + PARENT];
+        final int sibling = nodes[STRIDE * parent + LEFT] == leaf
+                ? nodes[STRIDE * parent + RIGHT] : nodes[STRIDE * parent + LEFT];
+        nodes[STRIDE * sibling + PARENT] = grandParent;
+        replaceChild(grandParent, parent, sibling);
+        freeNode(parent);
+        if (grandParent != NULL_PROXY) {
+            refitAncestors(grandParent);
+        }
+    }
+
+    /// Make `newChild` take place of `oldChild` under `parent` (or as root when parent is null).
+    private void replaceChild(int parent, int oldChild, int newChild) {
+        if (parent == NULL_PROXY) {
+            root = newChild;
+        } else if (nodes[STRIDE * parent + LEFT] == oldChild) {
+            nodes[STRIDE * parent + LEFT] = newChild;
+        } else {
+            nodes[STRIDE * parent + RIGHT] = newChild;
+        }
+    }
+
+    /// Balance and refit bounds and heights from `node` to the root.
+    private void refitAncestors(int node) {
+        int index = node;
+        while (index != NULL_PROXY) {
+            index = balance(index);
+            final int s = STRIDE * index;
+            final int left = nodes[s + LEFT];
+            final int right = nodes[s + RIGHT];
+            nodes[s + HEIGHT] = 1 + Math.max(nodes[STRIDE * left + HEIGHT], nodes[STRIDE * right + HEIGHT]);
+            union(index, left, right);
+            index = nodes[s + PARENT];
+        }
+    }
+
+    /// If subtree at `a` is unbalanced rotate the higher child up.
+    /// @return index of the node which took place of `a`
+    private int balance(int a) {
+        final int[] n = nodes;
+        final int sa = STRIDE * a;
+        if (n[sa + LEFT] == NULL_PROXY || n[sa + HEIGHT] < 2) {
+            return a;
+        }
+        final int b = n[sa + LEFT];
+        final int c = n[sa + RIGHT];
+        final int balance = n[STRIDE * c + HEIGHT] - n[STRIDE * b + HEIGHT];
+        if (balance > 1) {
+            return rotateUp(a, c, b, RIGHT);
+        }
+        if (balance < -1) {
+            return rotateUp(a, b, c, LEFT);
+        }
+        return a;
+    }
+
+    /// Rotate child `up` (stored in `slot` of `a`) above `a`. The higher grandchild stays under `up`, the lower one
+    /// takes place of `up` under `a`.
+    private int rotateUp(int a, int up, int other, int slot) {
+        final int[] n = nodes;
+        final int sa = STRIDE * a;
+        final int su = STRIDE * up;
+        final int f = n[su + LEFT];
+        final int g = n[su + RIGHT];
+
+        n[su + LEFT] = a;
+        n[su + PARENT] = n[sa + PARENT];
+        n[sa + PARENT] = up;
+        replaceChild(n[su + PARENT], a, up);
+
+        final int higher = n[STRIDE * f + HEIGHT] > n[STRIDE * g + HEIGHT] ? f : g;
+        final int lower = higher == f ? g : f;
+        n[su + RIGHT] = higher;
+        n[sa + slot] = lower;
+        n[STRIDE * lower + PARENT] = a;
+
+        union(a, other, lower);
+        n[sa + HEIGHT] = 1 + Math.max(n[STRIDE * other + HEIGHT], n[STRIDE * lower + HEIGHT]);
+        union(up, a, higher);
+        n[su + HEIGHT] = 1 + Math.max(n[sa + HEIGHT], n[STRIDE * higher + HEIGHT]);
+        return up;
+    }
+
+    private void union(int dest, int a, int b) {
+        final float[] bs = bounds;
+        final int d = 6 * dest;
+        final int i = 6 * a;
+        final int j = 6 * b;
+        bs[d] = Math.min(bs[i], bs[j]);
+        bs[d + 1] = Math.min(bs[i + 1], bs[j + 1]);
+        bs[d + 2] = Math.min(bs[i + 2], bs[j + 2]);
+        bs[d + 3] = Math.max(bs[i + 3], bs[j + 3]);
+        bs[d + 4] = Math.max(bs[i + 4], bs[j + 4]);
+        bs[d + 5] = Math.max(bs[i + 5], bs[j + 5]);
+    }
+
+    /// Half surface area of node box.
+    private float area(int node) {
+        final int i = 6 * node;
+        return halfArea(bounds[i + 3] - bounds[i], bounds[i + 4] - bounds[i + 1], bounds[i + 5] - bounds[i + 2]);
+    }
+
+    /// Half surface area of node box enlarged to contain given box.
+    private float combinedArea(int node, float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        final int i = 6 * node;
+        return halfArea(Math.max(bounds[i + 3], maxX) - Math.min(bounds[i], minX),
+                Math.max(bounds[i + 4], maxY) - Math.min(bounds[i + 1], minY),
+                Math.max(bounds[i + 5], maxZ) - Math.min(bounds[i + 2], minZ));
+    }
+
+    /// Cost of descending into `node` when inserting box: new parent area for leaves, area growth for inner nodes.
+    private float descendCost(int node, float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        final float combinedArea = combinedArea(node, minX, minY, minZ, maxX, maxY, maxZ);
+        if (nodes[STRIDE * node + LEFT] == NULL_PROXY) {
+            return combinedArea;
+        }
+        return combinedArea - area(node);
+    }
+
+    private static float halfArea(float dx, float dy, float dz) {
+        return dx * dy + dy * dz + dz * dx;
+    }
+
+    private boolean overlaps(int a, int b) {
+        final float[] bs = bounds;
+        final int i = 6 * a;
+        final int j = 6 * b;
+        return bs[i] <= bs[j + 3] && bs[i + 3] >= bs[j]
+                && bs[i + 1] <= bs[j + 4] && bs[i + 4] >= bs[j + 1]
+                && bs[i + 2] <= bs[j + 5] && bs[i + 5] >= bs[j + 2];
+    }
+
+    /// Slab test, true if ray hits the node box within `[0, maxDistance]`.
+    private boolean rayBox(int node, float ox, float oy, float oz, float invDx, float invDy, float invDz,
+                           float maxDistance) {
+        final int i = 6 * node;
+        final float tx1 = (bounds[i] - ox) * invDx;
+        final float tx2 = (bounds[i + 3] - ox) * invDx;
+        final float ty1 = (bounds[i + 1] - oy) * invDy;
+        final float ty2 = (bounds[i + 4] - oy) * invDy;
+        final float tz1 = (bounds[i + 2] - oz) * invDz;
+        final float tz2 = (bounds[i + 5] - oz) * invDz;
+        // NaN (0 * infinity) is ignored by picking the other operand
+        final float tMin = max(max(min(tx1, tx2), min(ty1, ty2)), max(min(tz1, tz2), 0.0f));
+        final float tMax = min(min(max(tx1, tx2), max(ty1, ty2)), min(max(tz1, tz2), maxDistance));
+        return tMin <= tMax;
+    }
+
+    private static float min(float a, float b) {
+        return a < b || b != b ? a : b;
+    }
+
+    private static float max(float a, float b) {
+        return a > b || b != b ? a : b;
+    }
+
+    /// Append all leaves of subtree at `node` to `dest`, traversal stack above `top` is used as scratch.
+    private int appendLeaves(int node, int top, int[] dest, int count) {
+        final int base = top;
+        top = push(top, node);
+        while (top > base) {
+            final int index = stack[--top];
+            final int left = nodes[STRIDE * index + LEFT];
+            if (left == NULL_PROXY) {
+                dest[count++] = index;
+                if (count == dest.length) {
+                    return count;
+                }
+            } else {
+                top = push(top, left, nodes[STRIDE * index + RIGHT]);
+            }
+        }
+        return count;
+    }
+
+    private int push(int top, int a) {
+        if (top + 1 > stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[top] = a;
+        return top + 1;
+    }
+
+    private int push(int top, int a, int b) {
+        if (top + 2 > stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[top] = a;
+        stack[top + 1] = b;
+        return top + 2;
+    }
+
+    private int push(int top, int a, int b, int c, int d) {
+        if (top + 4 > stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[top] = a;
+        stack[top + 1] = b;
+        stack[top + 2] = c;
+        stack[top + 3] = d;
+        return top + 4;
+    }
+}
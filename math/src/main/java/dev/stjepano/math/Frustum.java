@@ -0,0 +1,295 @@
+package dev.stjepano.math;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/// View frustum defined by 6 planes, used for visibility culling of bounding spheres and axis aligned boxes.
+///
+/// Planes are extracted from view-projection matrix (Gribb-Hartmann method), plane normals point inside the frustum
+/// and are normalized so plane equation `a*x + b*y + c*z + d` gives signed distance of point from the plane.
+///
+/// Tests are conservative: object which is outside of the frustum may be reported as visible (near frustum
+/// corners), object which is inside or intersects the frustum is never reported as not visible.
+///
+/// Batch methods take bounds in SoA layout (one array per component) and write result either into a visibility
+/// bitset (bit `i % 64` of `visibleBits[i / 64]`, same layout as `java.util.BitSet.toLongArray()`) or into a
+/// compacted list of visible indices. SIMD code path is used when available, see {@link CullingExecutor} for
+/// parallel culling of very large arrays.
+///
+/// #### Example
+/// ```java
+/// Frustum frustum = new Frustum();
+/// frustum.set(projection, camera);
+/// int visibleCount = frustum.cullSpheres(centerX, centerY, centerZ, radius, objectCount, visibleIndices);
+/// for (int i = 0; i < visibleCount; i++) {
+///     draw(objects[visibleIndices[i]]);
+/// }
+/// ```
+public final class Frustum {
+
+    public static final int LEFT = 0;
+    public static final int RIGHT = 1;
+    public static final int BOTTOM = 2;
+    public static final int TOP = 3;
+    public static final int NEAR = 4;
+    public static final int FAR = 5;
+
+    /// Number of frustum planes.
+    public static final int PLANE_COUNT = 6;
+
+    /// Planes (a, b, c, d), 4 floats per plane.
+    final float[] planes = new float[4 * PLANE_COUNT];
+
+    private final Mat4 view = new Mat4();
+    private final Mat4 viewProjection = new Mat4();
+
+    /// Create frustum which contains everything between `-1` and `1` on every axis (identity view-projection).
+    public Frustum() {
+        set(viewProjection);
+    }
+
+    /// Extract frustum planes from view-projection matrix (`projection * view`).
+    ///
+    /// When matrix is model-view-projection matrix planes are in model space.
+    /// @return reference to this
+    public Frustum set(Mat4 viewProjection) {
+        final Mat4 m = viewProjection;
+        setPlane(LEFT, m.m30 + m.m00, m.m31 + m.m01, m.m32 + m.m02, m.m33 + m.m03);
+        setPlane(RIGHT, m.m30 - m.m00, m.m31 - m.m01, m.m32 - m.m02, m.m33 - m.m03);
+        setPlane(BOTTOM, m.m30 + m.m10, m.m31 + m.m11, m.m32 + m.m12, m.m33 + m.m13);
+        setPlane(TOP, m.m30 - m.m10, m.m31 - m.m11, m.m32 - m.m12, m.m33 - m.m13);
+        setPlane(NEAR, m.m30 + m.m20, m.m31 + m.m21, m.m32 + m.m22, m.m33 + m.m23);
+        setPlane(FAR, m.m30 - m.m20, m.m31 - m.m21, m.m32 - m.m22, m.m33 - m.m23);
+        return this;
+    }
+
+    /// Extract frustum planes from projection and view matrix.
+    /// @return reference to this
+    public Frustum set(Projection projection, Mat4 view) {
+        viewProjection.set(projection.matrix()).mul(view);
+        return set(viewProjection);
+    }
+
+    /// Extract frustum planes from projection and camera transform, view matrix is inverse of camera transform.
+    /// @return reference to this
+    public Frustum set(Projection projection, Transform camera) {
+        camera.toInverseMatrix(view);
+        return set(projection, view);
+    }
+
+    /// Get plane equation coefficients (a, b, c, d) of plane with given index ([#LEFT], [#RIGHT], ...).
+    public void getPlane(int index, Vec4 dest) {
+        Objects.checkIndex(index, PLANE_COUNT);
+        dest.x = planes[4 * index];
+        dest.y = planes[4 * index + 1];
+        dest.z = planes[4 * index + 2];
+        dest.w = planes[4 * index + 3];
+    }
+
+    /// Test if sphere is inside or intersects the frustum.
+    public boolean testSphere(Vec3 center, float radius) {
+        return testSphere(center.x, center.y, center.z, radius);
+    }
+
+    /// Test if sphere is inside or intersects the frustum.
+    public boolean testSphere(float centerX, float centerY, float centerZ, float radius) {
+        final float[] p = planes;
+        final float negRadius = -radius;
+        for (int i = 0; i < 4 * PLANE_COUNT; i += 4) {
+            if (p[i] * centerX + p[i + 1] * centerY + p[i + 2] * centerZ + p[i + 3] < negRadius) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /// Test if axis aligned box is inside or intersects the frustum.
+    public boolean testAabb(Vec3 min, Vec3 max) {
+        return testAabb(min.x, min.y, min.z, max.x, max.y, max.z);
+    }
+
+    /// Test if axis aligned box is inside or intersects the frustum.
+    public boolean testAabb(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        final float[] p = planes;
+        for (int i = 0; i < 4 * PLANE_COUNT; i += 4) {
+            // Box corner furthest along plane normal
+            final float x = p[i] >= 0.0f ? maxX : minX;
+            final float y = p[i + 1] >= 0.0f ? maxY : minY;
+            final float z = p[i + 2] >= 0.0f ? maxZ : minZ;
+            if (p[i] * x + p[i + 1] * y + p[i + 2] * z + p[i + 3] < 0.0f) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /// Cull spheres into visibility bitset.
+    /// @param centerX x coordinates of sphere centers
+    /// @param centerY y coordinates of sphere centers
+    /// @param centerZ z coordinates of sphere centers
+    /// @param radius sphere radii
+    /// @param count number of spheres
+    /// @param visibleBits receives visibility bits, must have at least `(count + 63) / 64` elements
+    /// @return number of visible spheres
+    public int cullSpheres(float[] centerX, float[] centerY, float[] centerZ, float[] radius, int count,
+                           long[] visibleBits) {
+        checkSpheres(centerX, centerY, centerZ, radius, count);
+        checkBits(visibleBits, count);
+        return cullSpheres(centerX, centerY, centerZ, radius, 0, count, visibleBits);
+    }
+
+    /// Cull spheres into compacted list of visible indices.
+    /// @param centerX x coordinates of sphere centers
+    /// @param centerY y coordinates of sphere centers
+    /// @param centerZ z coordinates of sphere centers
+    /// @param radius sphere radii
+    /// @param count number of spheres
+    /// @param visibleIndices receives indices of visible spheres in ascending order, must have at least `count`
+    ///                       elements
+    /// @return number of visible spheres (number of indices written)
+    public int cullSpheres(float[] centerX, float[] centerY, float[] centerZ, float[] radius, int count,
+                           int[] visibleIndices) {
+        checkSpheres(centerX, centerY, centerZ, radius, count);
+        Objects.checkFromIndexSize(0, count, visibleIndices.length);
+
+        int index = 0;
+        int visibleCount = 0;
+        if (SimdSupport.ENABLED) {
+            index = SimdFrustumKernels.blockedEnd(0, count);
+            visibleCount = SimdFrustumKernels.cullSpheres(planes, centerX, centerY, centerZ, radius, 0, index,
+                    visibleIndices);
+        }
+        for (; index < count; index++) {
+            if (testSphere(centerX[index], centerY[index], centerZ[index], radius[index])) {
+                visibleIndices[visibleCount++] = index;
+            }
+        }
+        return visibleCount;
+    }
+
+    /// Cull axis aligned boxes into visibility bitset.
+    /// @param minX minimum x coordinates of boxes
+    /// @param minY minimum y coordinates of boxes
+    /// @param minZ minimum z coordinates of boxes
+    /// @param maxX maximum x coordinates of boxes
+    /// @param maxY maximum y coordinates of boxes
+    /// @param maxZ maximum z coordinates of boxes
+    /// @param count number of boxes
+    /// @param visibleBits receives visibility bits, must have at least `(count + 63) / 64` elements
+    /// @return number of visible boxes
+    public int cullAabbs(float[] minX, float[] minY, float[] minZ, float[] maxX, float[] maxY, float[] maxZ,
+                         int count, long[] visibleBits) {
+        checkAabbs(minX, minY, minZ, maxX, maxY, maxZ, count);
+        checkBits(visibleBits, count);
+        return cullAabbs(minX, minY, minZ, maxX, maxY, maxZ, 0, count, visibleBits);
+    }
+
+    /// Cull axis aligned boxes into compacted list of visible indices.
+    /// @param minX minimum x coordinates of boxes
+    /// @param minY minimum y coordinates of boxes
+    /// @param minZ minimum z coordinates of boxes
+    /// @param maxX maximum x coordinates of boxes
+    /// @param maxY maximum y coordinates of boxes
+    /// @param maxZ maximum z coordinates of boxes
+    /// @param count number of boxes
+    /// @param visibleIndices receives indices of visible boxes in ascending order, must have at least `count`
+    ///                       elements
+    /// @return number of visible boxes (number of indices written)
+    public int cullAabbs(float[] minX, float[] minY, float[] minZ, float[] maxX, float[] maxY, float[] maxZ,
+                         int count, int[] visibleIndices) {
+        checkAabbs(minX, minY, minZ, maxX, maxY, maxZ, count);
+        Objects.checkFromIndexSize(0, count, visibleIndices.length);
+
+        int index = 0;
+        int visibleCount = 0;
+        if (SimdSupport.ENABLED) {
+            index = SimdFrustumKernels.blockedEnd(0, count);
+            visibleCount = SimdFrustumKernels.cullAabbs(planes, minX, minY, minZ, maxX, maxY, maxZ, 0, index,
+                    visibleIndices);
+        }
+        for (; index < count; index++) {
+            if (testAabb(minX[index], minY[index], minZ[index], maxX[index], maxY[index], maxZ[index])) {
+                visibleIndices[visibleCount++] = index;
+            }
+        }
+        return visibleCount;
+    }
+
+    /// Cull spheres `[from, to)` into bitset, `from` must be multiple of 64. Words covering the range are cleared.
+    /// @return number of visible spheres in range
+    int cullSpheres(float[] centerX, float[] centerY, float[] centerZ, float[] radius, int from, int to,
+                    long[] visibleBits) {
+        Arrays.fill(visibleBits, from >>> 6, (to + 63) >>> 6, 0L);
+        int index = from;
+        if (SimdSupport.ENABLED) {
+            index = SimdFrustumKernels.cullSpheres(planes, centerX, centerY, centerZ, radius, from, to, visibleBits);
+        }
+        for (; index < to; index++) {
+            if (testSphere(centerX[index], centerY[index], centerZ[index], radius[index])) {
+                visibleBits[index >>> 6] |= 1L << index;
+            }
+        }
+        return countBits(visibleBits, from, to);
+    }
+
+    /// Cull boxes `[from, to)` into bitset, `from` must be multiple of 64. Words covering the range are cleared.
+    /// @return number of visible boxes in range
+    int cullAabbs(float[] minX, float[] minY, float[] minZ, float[] maxX, float[] maxY, float[] maxZ, int from, int to,
+                  long[] visibleBits) {
+        Arrays.fill(visibleBits, from >>> 6, (to + 63) >>> 6, 0L);
+        int index = from;
+        if (SimdSupport.ENABLED) {
+            index = SimdFrustumKernels.cullAabbs(planes, minX, minY, minZ, maxX, maxY, maxZ, from, to, visibleBits);
+        }
+        for (; index < to; index++) {
+            if (testAabb(minX[index], minY[index], minZ[index], maxX[index], maxY[index], maxZ[index])) {
+                visibleBits[index >>> 6] |= 1L << index;
+            }
+        }
+        return countBits(visibleBits, from, to);
+    }
+
+    private static int countBits(long[] bits, int from, int to) {
+        int visibleCount = 0;
+        for (int word = from >>> 6; word < (to + 63) >>> 6; word++) {
+            visibleCount += Long.bitCount(bits[word]);
+        }
+        return visibleCount;
+    }
+
+    static void checkSpheres(float[] centerX, float[] centerY, float[] centerZ, float[] radius, int count) {
+        Objects.checkFromIndexSize(0, count, centerX.length);
+        Objects.checkFromIndexSize(0, count, centerY.length);
+        Objects.checkFromIndexSize(0, count, centerZ.length);
+        Objects.checkFromIndexSize(0, count, radius.length);
+    }
+
+    static void checkAabbs(float[] minX, float[] minY, float[] minZ, float[] maxX, float[] maxY, float[] maxZ,
+                           int count) {
+        Objects.checkFromIndexSize(0, count, minX.length);
+        Objects.checkFromIndexSize(0, count, minY.length);
+        Objects.checkFromIndexSize(0, count, minZ.length);
+        Objects.checkFromIndexSize(0, count, maxX.length);
+        Objects.checkFromIndexSize(0, count, maxY.length);
+        Objects.checkFromIndexSize(0, count, maxZ.length);
+    }
+
+    static void checkBits(long[] visibleBits, int count) {
+        if (visibleBits.length < (count + 63) >>> 6) {
+            throw new IllegalArgumentException("visibleBits must have at least (count + 63) / 64 elements");
+        }
+    }
+
+    private void setPlane(int index, float a, float b, float c, float d) {
+        final float invLength = MathUtil.safeOneOver((float) Math.sqrt(a * a + b * b + c * c), MathUtil.EPSILON8);
+        planes[4 * index] = a * invLength;
+        planes[4 * index + 1] = b * invLength;
+        planes[4 * index + 2] = c * invLength;
+        planes[4 * index + 3] = d * invLength;
+    }
+
+    @Override
+    public String toString() {
+        return "Frustum" + Arrays.toString(planes);
+    }
+}
@@ -2,6 +2,7 @@ package dev.stjepano.math;
 
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.ValueLayout;
+import java.util.List;
 import java.util.Objects;
 
 /// A 16 element 4x4 matrix.
@@ -283,6 +284,106 @@ public final class Mat4 {
         return this;
     }
 
+    /// Check if the matrix is affine (last row is exactly `(0, 0, 0, 1)`).
+    ///
+    /// Matrices produced by [Transform] and view matrices are affine, projection matrices are not.
+    public boolean isAffine() {
+        return m30 == 0.0f && m31 == 0.0f && m32 == 0.0f && m33 == 1.0f;
+    }
+
+    /// Mul of affine matrices: this *= other
+    ///
+    /// Faster than {@link Mat4#mul(Mat4)}, last row of both matrices is assumed to be `(0, 0, 0, 1)` and is not
+    /// read. Result is wrong if any of the matrices is not affine, see {@link Mat4#isAffine()}.
+    public Mat4 mulAffine(Mat4 other) {
+        float t00 = m00, t01 = m01, t02 = m02, t03 = m03;
+        float t10 = m10, t11 = m11, t12 = m12, t13 = m13;
+        float t20 = m20, t21 = m21, t22 = m22, t23 = m23;
+
+        m00 = t00 * other.m00 + t01 * other.m10 + t02 * other.m20;
+        m01 = t00 * other.m01 + t01 * other.m11 + t02 * other.m21;
+        m02 = t00 * other.m02 + t01 * other.m12 + t02 * other.m22;
+        m03 = t00 * other.m03 + t01 * other.m13 + t02 * other.m23 + t03;
+
+        m10 = t10 * other.m00 + t11 * other.m10 + t12 * other.m20;
+        m11 = t10 * other.m01 + t11 * other.m11 + t12 * other.m21;
+        m12 = t10 * other.m02 + t11 * other.m12 + t12 * other.m22;
+        m13 = t10 * other.m03 + t11 * other.m13 + t12 * other.m23 + t13;
+
+        m20 = t20 * other.m00 + t21 * other.m10 + t22 * other.m20;
+        m21 = t20 * other.m01 + t21 * other.m11 + t22 * other.m21;
+        m22 = t20 * other.m02 + t21 * other.m12 + t22 * other.m22;
+        m23 = t20 * other.m03 + t21 * other.m13 + t22 * other.m23 + t23;
+
+        m30 = 0; m31 = 0; m32 = 0; m33 = 1;
+
+        return this;
+    }
+
+    /// Invert affine matrix.
+    ///
+    /// Inverse of the upper 3x3 part is calculated with cofactors, translation is `-inverse(A) * t`. Faster than
+    /// {@link Mat4#invert()}, result is wrong if matrix is not affine, see {@link Mat4#isAffine()}. Matrix is not
+    /// modified if it is singular.
+    public Mat4 invertAffine() {
+        float c00 = m11 * m22 - m12 * m21;
+        float c01 = m12 * m20 - m10 * m22;
+        float c02 = m10 * m21 - m11 * m20;
+
+        float det = m00 * c00 + m01 * c01 + m02 * c02;
+        if (Math.abs(det) < 1e-8f) {
+            return this;
+        }
+        float oneOverDet = 1.0f / det;
+
+        float t00 = m00, t01 = m01, t02 = m02, t03 = m03;
+        float t10 = m10, t11 = m11, t12 = m12, t13 = m13;
+        float t20 = m20, t21 = m21, t22 = m22, t23 = m23;
+
+        m00 = c00 * oneOverDet;
+        m01 = (t02 * t21 - t01 * t22) * oneOverDet;
+        m02 = (t01 * t12 - t02 * t11) * oneOverDet;
+
+        m10 = c01 * oneOverDet;
+        m11 = (t00 * t22 - t02 * t20) * oneOverDet;
+        m12 = (t02 * t10 - t00 * t12) * oneOverDet;
+
+        m20 = c02 * oneOverDet;
+        m21 = (t01 * t20 - t00 * t21) * oneOverDet;
+        m22 = (t00 * t11 - t01 * t10) * oneOverDet;
+
+        m03 = -(m00 * t03 + m01 * t13 + m02 * t23);
+        m13 = -(m10 * t03 + m11 * t13 + m12 * t23);
+        m23 = -(m20 * t03 + m21 * t13 + m22 * t23);
+
+        m30 = 0; m31 = 0; m32 = 0; m33 = 1;
+
+        return this;
+    }
+
+    /// Invert rigid body matrix (rotation and translation only, no scale or shear).
+    ///
+    /// Inverse of rotation is its transpose and translation is `-transpose(R) * t`. Fastest inverse, use for view
+    /// matrices and transforms without scale. Result is wrong if upper 3x3 part is not orthonormal or matrix is not
+    /// affine.
+    public Mat4 invertRigid() {
+        float t01 = m01, t02 = m02, t03 = m03;
+        float t10 = m10, t12 = m12, t13 = m13;
+        float t20 = m20, t21 = m21, t23 = m23;
+
+        m01 = t10; m02 = t20;
+        m10 = t01; m12 = t21;
+        m20 = t02; m21 = t12;
+
+        m03 = -(m00 * t03 + m01 * t13 + m02 * t23);
+        m13 = -(m10 * t03 + m11 * t13 + m12 * t23);
+        m23 = -(m20 * t03 + m21 * t13 + m22 * t23);
+
+        m30 = 0; m31 = 0; m32 = 0; m33 = 1;
+
+        return this;
+    }
+
     /// Copy to float array. First component at dest + offset.
     ///
     /// **Row major order**
@@ -392,6 +493,195 @@ public final class Mat4 {
         dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 15, m33);
     }
 
+    /// Copy first 3 rows to float array (12 floats). First component at dest + offset.
+    ///
+    /// Use for affine matrices (last row is `(0, 0, 0, 1)`) when bandwidth matters, last row is not stored.
+    ///
+    /// **Row major order**
+    public void toFloatArray3x4(float[] dest, int offset) {
+        dest[offset] = m00;
+        dest[offset + 1] = m01;
+        dest[offset + 2] = m02;
+        dest[offset + 3] = m03;
+
+        dest[offset + 4] = m10;
+        dest[offset + 5] = m11;
+        dest[offset + 6] = m12;
+        dest[offset + 7] = m13;
+
+        dest[offset + 8] = m20;
+        dest[offset + 9] = m21;
+        dest[offset + 10] = m22;
+        dest[offset + 11] = m23;
+    }
+
+    /// Initialize Mat4 from packed affine matrix (12 floats) in float array, first component at src + offset.
+    /// Last row is set to `(0, 0, 0, 1)`.
+    ///
+    /// **Row major order**
+    public static void fromFloatArray3x4(float[] src, int offset, Mat4 dest) {
+        dest.m00 = src[offset];
+        dest.m01 = src[offset + 1];
+        dest.m02 = src[offset + 2];
+        dest.m03 = src[offset + 3];
+
+        dest.m10 = src[offset + 4];
+        dest.m11 = src[offset + 5];
+        dest.m12 = src[offset + 6];
+        dest.m13 = src[offset + 7];
+
+        dest.m20 = src[offset + 8];
+        dest.m21 = src[offset + 9];
+        dest.m22 = src[offset + 10];
+        dest.m23 = src[offset + 11];
+
+        dest.m30 = 0;
+        dest.m31 = 0;
+        dest.m32 = 0;
+        dest.m33 = 1;
+    }
+
+    /// Initialize Mat4 from packed affine matrix (12 floats) in memory segment, first component at src + byteOffset.
+    /// Last row is set to `(0, 0, 0, 1)`.
+    ///
+    /// **Row major order**
+    public static void fromMemorySegment3x4(MemorySegment src, long byteOffset, Mat4 dest) {
+        long stride = ValueLayout.JAVA_FLOAT.byteSize();
+        dest.m00 = src.get(ValueLayout.JAVA_FLOAT, byteOffset + stride * 0);
+        dest.m01 = src.get(ValueLayout.JAVA_FLOAT, byteOffset + stride * 1);
+        dest.m02 = src.get(ValueLayout.JAVA_FLOAT, byteOffset + stride * 2);
+        dest.m03 = src.get(ValueLayout.JAVA_FLOAT, byteOffset + stride * 3);
+
+        dest.m10 = src.get(ValueLayout.JAVA_FLOAT, byteOffset + stride * 4);
+        dest.m11 = src.get(ValueLayout.JAVA_FLOAT, byteOffset + stride * 5);
+        dest.m12 = src.get(ValueLayout.JAVA_FLOAT, byteOffset + stride * 6);
+        dest.m13 = src.get(ValueLayout.JAVA_FLOAT, byteOffset + stride * 7);
+
+        dest.m20 = src.get(ValueLayout.JAVA_FLOAT, byteOffset + stride * 8);
+        dest.m21 = src.get(ValueLayout.JAVA_FLOAT, byteOffset + stride * 9);
+        dest.m22 = src.get(ValueLayout.JAVA_FLOAT, byteOffset + stride * 10);
+        dest.m23 = src.get(ValueLayout.JAVA_FLOAT, byteOffset + stride * 11);
+
+        dest.m30 = 0;
+        dest.m31 = 0;
+        dest.m32 = 0;
+        dest.m33 = 1;
+    }
+
+    /// Copy first 3 rows to memory segment (12 floats), first element at dest + byteOffset.
+    ///
+    /// Use for affine matrices (last row is `(0, 0, 0, 1)`) when bandwidth matters, last row is not stored.
+    ///
+    /// **Row major order**
+    public void toMemorySegment3x4(MemorySegment dest, long byteOffset) {
+        long stride = ValueLayout.JAVA_FLOAT.byteSize();
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 0, m00);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 1, m01);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 2, m02);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 3, m03);
+
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 4, m10);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 5, m11);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 6, m12);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 7, m13);
+
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 8, m20);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 9, m21);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 10, m22);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 11, m23);
+    }
+
+    /// Copy `count` matrices starting at `src[srcIndex]` to memory segment ([MathLayouts#MAT4], 64 bytes per matrix),
+    /// first matrix at dest + byteOffset.
+    ///
+    /// **Row major order**
+    public static void toMemorySegment(Mat4[] src, int srcIndex, MemorySegment dest, long byteOffset, int count) {
+        Objects.checkFromIndexSize(srcIndex, count, src.length);
+        Objects.checkFromIndexSize(byteOffset, count * MathLayouts.MAT4.byteSize(), dest.byteSize());
+        for (int i = 0; i < count; i++) {
+            write(src[srcIndex + i], dest, byteOffset, i);
+        }
+    }
+
+    /// Copy all matrices from the list to memory segment ([MathLayouts#MAT4]), first matrix at dest + byteOffset. List
+    /// should support fast random access.
+    ///
+    /// **Row major order**
+    public static void toMemorySegment(List<Mat4> src, MemorySegment dest, long byteOffset) {
+        final int count = src.size();
+        Objects.checkFromIndexSize(byteOffset, count * MathLayouts.MAT4.byteSize(), dest.byteSize());
+        for (int i = 0; i < count; i++) {
+            write(src.get(i), dest, byteOffset, i);
+        }
+    }
+
+    /// Read `count` matrices ([MathLayouts#MAT4]) at src + byteOffset into existing matrices starting at
+    /// `dest[destIndex]`.
+    ///
+    /// **Row major order**
+    public static void fromMemorySegment(MemorySegment src, long byteOffset, Mat4[] dest, int destIndex, int count) {
+        Objects.checkFromIndexSize(destIndex, count, dest.length);
+        Objects.checkFromIndexSize(byteOffset, count * MathLayouts.MAT4.byteSize(), src.byteSize());
+        for (int i = 0; i < count; i++) {
+            read(src, byteOffset, i, dest[destIndex + i]);
+        }
+    }
+
+    /// Read matrices ([MathLayouts#MAT4]) at src + byteOffset into all (existing) matrices of the list.
+    ///
+    /// **Row major order**
+    public static void fromMemorySegment(MemorySegment src, long byteOffset, List<Mat4> dest) {
+        final int count = dest.size();
+        Objects.checkFromIndexSize(byteOffset, count * MathLayouts.MAT4.byteSize(), src.byteSize());
+        for (int i = 0; i < count; i++) {
+            read(src, byteOffset, i, dest.get(i));
+        }
+    }
+
+    private static void write(Mat4 m, MemorySegment dest, long byteOffset, long index) {
+        MathLayouts.MAT4_ELEMENT.set(dest, byteOffset, index, 0L, m.m00);
+        MathLayouts.MAT4_ELEMENT.set(dest, byteOffset, index, 1L, m.m01);
+        MathLayouts.MAT4_ELEMENT.set(dest, byteOffset, index, 2L, m.m02);
+        MathLayouts.MAT4_ELEMENT.set(dest, byteOffset, index, 3L, m.m03);
+
+        MathLayouts.MAT4_ELEMENT.set(dest, byteOffset, index, 4L, m.m10);
+        MathLayouts.MAT4_ELEMENT.set(dest, byteOffset, index, 5L, m.m11);
+        MathLayouts.MAT4_ELEMENT.set(dest, byteOffset, index, 6L, m.m12);
+        MathLayouts.MAT4_ELEMENT.set(dest, byteOffset, index, 7L, m.m13);
+
+        MathLayouts.MAT4_ELEMENT.set(dest, byteOffset, index, 8L, m.m20);
+        MathLayouts.MAT4_ELEMENT.set(dest, byteOffset, index, 9L, m.m21);
+        MathLayouts.MAT4_ELEMENT.set(dest, byteOffset, index, 10L, m.m22);
+        MathLayouts.MAT4_ELEMENT.set(dest, byteOffset, index, 11L, m.m23);
+
+        MathLayouts.MAT4_ELEMENT.set(dest, byteOffset, index, 12L, m.m30);
+        MathLayouts.MAT4_ELEMENT.set(dest, byteOffset, index, 13L, m.m31);
+        MathLayouts.MAT4_ELEMENT.set(dest, byteOffset, index, 14L, m.m32);
+        MathLayouts.MAT4_ELEMENT.set(dest, byteOffset, index, 15L, m.m33);
+    }
+
+    private static void read(MemorySegment src, long byteOffset, long index, Mat4 dest) {
+        dest.m00 = (float) MathLayouts.MAT4_ELEMENT.get(src, byteOffset, index, 0L);
+        dest.m01 = (float) MathLayouts.MAT4_ELEMENT.get(src, byteOffset, index, 1L);
+        dest.m02 = (float) MathLayouts.MAT4_ELEMENT.get(src, byteOffset, index, 2L);
+        dest.m03 = (float) MathLayouts.MAT4_ELEMENT.get(src, byteOffset, index, 3L);
+
+        dest.m10 = (float) MathLayouts.MAT4_ELEMENT.get(src, byteOffset, index, 4L);
+        dest.m11 = (float) MathLayouts.MAT4_ELEMENT.get(src, byteOffset, index, 5L);
+        dest.m12 = (float) MathLayouts.MAT4_ELEMENT.get(src, byteOffset, index, 6L);
+        dest.m13 = (float) MathLayouts.MAT4_ELEMENT.get(src, byteOffset, index, 7L);
+
+        dest.m20 = (float) MathLayouts.MAT4_ELEMENT.get(src, byteOffset, index, 8L);
+        dest.m21 = (float) MathLayouts.MAT4_ELEMENT.get(src, byteOffset, index, 9L);
+        dest.m22 = (float) MathLayouts.MAT4_ELEMENT.get(src, byteOffset, index, 10L);
+        dest.m23 = (float) MathLayouts.MAT4_ELEMENT.get(src, byteOffset, index, 11L);
+
+        dest.m30 = (float) MathLayouts.MAT4_ELEMENT.get(src, byteOffset, index, 12L);
+        dest.m31 = (float) MathLayouts.MAT4_ELEMENT.get(src, byteOffset, index, 13L);
+        dest.m32 = (float) MathLayouts.MAT4_ELEMENT.get(src, byteOffset, index, 14L);
+        dest.m33 = (float) MathLayouts.MAT4_ELEMENT.get(src, byteOffset, index, 15L);
+    }
+
     @Override
     public String toString() {
         return String.format("Mat4({%f, %f, %f, %f}, {%f, %f, %f, %f}, {%f, %f, %f, %f}, {%f, %f, %f, %f})",
@@ -0,0 +1,88 @@
+package dev.stjepano.math;
+
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.SequenceLayout;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.VarHandle;
+
+import static java.lang.foreign.MemoryLayout.PathElement.groupElement;
+import static java.lang.foreign.MemoryLayout.PathElement.sequenceElement;
+
+/// Memory layouts of math types, as written to [java.lang.foreign.MemorySegment] by `toMemorySegment` methods.
+///
+/// Layouts can be used to describe vertex, uniform and storage buffer contents. Bulk array codecs (for example
+/// {@link Vec3#toMemorySegment(Vec3[], int, java.lang.foreign.MemorySegment, long, int)}) access elements through
+/// strided var handles derived from these layouts, so element offsets are computed by the var handle and bounds are
+/// checked once per call.
+///
+/// Layouts:
+/// * [#VEC3] - 3 floats, 12 bytes, tightly packed (vertex attributes)
+/// * [#VEC3_STD140], [#VEC3_STD430] - 3 floats padded to 16 bytes, stride of `vec3` array elements in uniform
+///   (std140) and shader storage (std430) blocks
+/// * [#VEC4], [#QUATERNION] - 4 floats, 16 bytes
+/// * [#MAT4] - 16 floats, 64 bytes, **row-major**
+///
+/// **NOTE**: layouts have 4 byte alignment so they can be used with heap segments. Base offset of std140/std430
+/// arrays must be multiple of 16 bytes in the buffer, this is not checked.
+public final class MathLayouts {
+
+    /// Tightly packed `Vec3` (x, y, z).
+    public static final StructLayout VEC3 = MemoryLayout.structLayout(
+            ValueLayout.JAVA_FLOAT.withName("x"),
+            ValueLayout.JAVA_FLOAT.withName("y"),
+            ValueLayout.JAVA_FLOAT.withName("z")
+    ).withName("vec3");
+
+    /// `Vec3` array element in std140 uniform block (x, y, z, 4 bytes padding).
+    public static final StructLayout VEC3_STD140 = MemoryLayout.structLayout(
+            ValueLayout.JAVA_FLOAT.withName("x"),
+            ValueLayout.JAVA_FLOAT.withName("y"),
+            ValueLayout.JAVA_FLOAT.withName("z"),
+            MemoryLayout.paddingLayout(4)
+    ).withName("vec3_std140");
+
+    /// `Vec3` array element in std430 shader storage block. In std430 arrays of `vec3` are aligned like `vec4`, so
+    /// the layout is the same as [#VEC3_STD140].
+    public static final StructLayout VEC3_STD430 = VEC3_STD140.withName("vec3_std430");
+
+    /// `Vec4` (x, y, z, w).
+    public static final StructLayout VEC4 = MemoryLayout.structLayout(
+            ValueLayout.JAVA_FLOAT.withName("x"),
+            ValueLayout.JAVA_FLOAT.withName("y"),
+            ValueLayout.JAVA_FLOAT.withName("z"),
+            ValueLayout.JAVA_FLOAT.withName("w")
+    ).withName("vec4");
+
+    /// `Quaternion` (x, y, z, w).
+    public static final StructLayout QUATERNION = MemoryLayout.structLayout(
+            ValueLayout.JAVA_FLOAT.withName("x"),
+            ValueLayout.JAVA_FLOAT.withName("y"),
+            ValueLayout.JAVA_FLOAT.withName("z"),
+            ValueLayout.JAVA_FLOAT.withName("w")
+    ).withName("quaternion");
+
+    /// `Mat4`, 16 floats in **row-major** order.
+    public static final SequenceLayout MAT4 = MemoryLayout.sequenceLayout(16, ValueLayout.JAVA_FLOAT).withName("mat4");
+
+    // Strided var handles, coordinates are (segment, base byte offset, array index)
+    static final VarHandle VEC3_X = VEC3.arrayElementVarHandle(groupElement("x"));
+    static final VarHandle VEC3_Y = VEC3.arrayElementVarHandle(groupElement("y"));
+    static final VarHandle VEC3_Z = VEC3.arrayElementVarHandle(groupElement("z"));
+    static final VarHandle VEC3_STD140_X = VEC3_STD140.arrayElementVarHandle(groupElement("x"));
+    static final VarHandle VEC3_STD140_Y = VEC3_STD140.arrayElementVarHandle(groupElement("y"));
+    static final VarHandle VEC3_STD140_Z = VEC3_STD140.arrayElementVarHandle(groupElement("z"));
+    static final VarHandle VEC4_X = VEC4.arrayElementVarHandle(groupElement("x"));
+    static final VarHandle VEC4_Y = VEC4.arrayElementVarHandle(groupElement("y"));
+    static final VarHandle VEC4_Z = VEC4.arrayElementVarHandle(groupElement("z"));
+    static final VarHandle VEC4_W = VEC4.arrayElementVarHandle(groupElement("w"));
+    static final VarHandle QUATERNION_X = QUATERNION.arrayElementVarHandle(groupElement("x"));
+    static final VarHandle QUATERNION_Y = QUATERNION.arrayElementVarHandle(groupElement("y"));
+    static final VarHandle QUATERNION_Z = QUATERNION.arrayElementVarHandle(groupElement("z"));
+    static final VarHandle QUATERNION_W = QUATERNION.arrayElementVarHandle(groupElement("w"));
+    /// Coordinates are (segment, base byte offset, array index, element index).
+    static final VarHandle MAT4_ELEMENT = MAT4.arrayElementVarHandle(sequenceElement());
+
+    private MathLayouts() {
+    }
+}
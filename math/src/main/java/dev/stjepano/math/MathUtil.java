@@ -24,4 +24,71 @@ public final class MathUtil {
         return 1.0f / value;
     }
 
+    private static final double TWO_PI = 2.0 * Math.PI;
+    private static final double INV_TWO_PI = 1.0 / TWO_PI;
+    private static final double HALF_PI = 0.5 * Math.PI;
+
+    // Minimax coefficients of sin(x) ~ x + c3*x^3 + c5*x^5 + c7*x^7 + c9*x^9 on [-pi/2, pi/2], max error 4.6e-9
+    private static final float SIN_C3 = -0.16666657f;
+    private static final float SIN_C5 = 0.008333017f;
+    private static final float SIN_C7 = -1.9806615e-4f;
+    private static final float SIN_C9 = 2.6000550e-6f;
+
+    /// Fast approximation of `Math.sin`.
+    ///
+    /// Angle is reduced to `[-pi/2, pi/2]` and sine is evaluated with 9th degree minimax polynomial.
+    /// Maximum absolute error is `2e-7` for `|angleRad| <= 1e5`, for larger angles error grows with float
+    /// precision of the angle itself.
+    public static float fastSin(float angleRad) {
+        double x = angleRad - Math.rint(angleRad * INV_TWO_PI) * TWO_PI;   // [-pi, pi]
+        if (x > HALF_PI) {
+            x = Math.PI - x;
+        } else if (x < -HALF_PI) {
+            x = -Math.PI - x;
+        }
+        return sinPoly((float) x);
+    }
+
+    /// Fast approximation of `Math.cos`, same accuracy as [#fastSin(float)].
+    public static float fastCos(float angleRad) {
+        double x = angleRad - Math.rint(angleRad * INV_TWO_PI) * TWO_PI;   // [-pi, pi]
+        return sinPoly((float) (HALF_PI - Math.abs(x)));
+    }
+
+    /// Fast approximation of sine and cosine of the same angle, range reduction is done once.
+    ///
+    /// Same accuracy as [#fastSin(float)].
+    /// @param angleRad angle in radians
+    /// @param dest receives `(cos, sin)` - point on unit circle
+    /// @return reference to dest
+    public static Vec2 fastSinCos(float angleRad, Vec2 dest) {
+        double x = angleRad - Math.rint(angleRad * INV_TWO_PI) * TWO_PI;   // [-pi, pi]
+        dest.x = sinPoly((float) (HALF_PI - Math.abs(x)));
+        if (x > HALF_PI) {
+            x = Math.PI - x;
+        } else if (x < -HALF_PI) {
+            x = -Math.PI - x;
+        }
+        dest.y = sinPoly((float) x);
+        return dest;
+    }
+
+    /// Fast approximation of `1.0f / (float) Math.sqrt(value)`.
+    ///
+    /// Bit level initial guess refined with two Newton-Raphson iterations. Maximum relative error is `5e-6` for
+    /// positive normal float values. Result is undefined for zero, negative, subnormal, infinite and NaN values.
+    public static float fastInvSqrt(float value) {
+        float half = 0.5f * value;
+        float y = Float.intBitsToFloat(0x5f375a86 - (Float.floatToRawIntBits(value) >> 1));
+        y = y * (1.5f - half * y * y);
+        y = y * (1.5f - half * y * y);
+        return y;
+    }
+
+    /// Evaluate sine polynomial, x must be in `[-pi/2, pi/2]`.
+    private static float sinPoly(float x) {
+        float x2 = x * x;
+        return x + x * x2 * (SIN_C3 + x2 * (SIN_C5 + x2 * (SIN_C7 + x2 * SIN_C9)));
+    }
+
 }
@@ -1,6 +1,7 @@
 package dev.stjepano.math;
 
 import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
 import java.util.Objects;
 
 public final class Projection {
@@ -128,6 +129,113 @@ public final class Projection {
         this.matrix.toMemorySegment(dest, byteOffset);
     }
 
+    /// Project packed world positions to window coordinates (nameplates, particles, screen space effects).
+    ///
+    /// Every point is transformed to clip space with `projection * view`, divided by `w` and mapped to the viewport
+    /// the same way as OpenGL does it: window x and y are relative to the lower-left corner of the window (as in
+    /// `glViewport`) and depth is in `[0, 1]` (default `glDepthRange`).
+    ///
+    /// A point is visible when it is inside the clip volume (`w > 0` and `-w <= x, y, z <= w`). Window coordinates
+    /// of points which are in front of the camera but outside the frustum are valid (outside of the viewport or depth
+    /// range), window coordinates of points behind the camera (`w <= 0`) are meaningless.
+    ///
+    /// Scalar code path does not allocate. **NOTE**: uses SIMD code path when `jdk.incubator.vector` module is
+    /// available, it may allocate (see [SimdSupport]).
+    ///
+    /// #### Example
+    /// Position of each particle is followed by 4 component color.
+    /// ```java
+    /// camera.toInverseMatrix(view);
+    /// projection.projectPoints(view, particleData, particleCount, 0, 7, 0, 0, width, height,
+    ///         windowXY, depth, visibleBits);
+    /// ```
+    /// @param view view matrix (inverse of camera transform)
+    /// @param positions world positions, may be interleaved with other vertex data
+    /// @param count number of points
+    /// @param offset array offset to first component of first position
+    /// @param stride number of components per point
+    /// @param viewportX x of lower-left corner of the viewport in pixels
+    /// @param viewportY y of lower-left corner of the viewport in pixels
+    /// @param viewportWidth viewport width in pixels
+    /// @param viewportHeight viewport height in pixels
+    /// @param window receives window x and y, 2 floats per point, must have at least `2 * count` elements
+    /// @param depth receives window depth, must have at least `count` elements
+    /// @param visibleBits receives visibility bits (bit `i % 64` of `visibleBits[i / 64]`), must have at least
+    ///                    `(count + 63) / 64` elements
+    /// @return number of visible points
+    public int projectPoints(Mat4 view, float[] positions, int count, int offset, int stride,
+                             float viewportX, float viewportY, float viewportWidth, float viewportHeight,
+                             float[] window, float[] depth, long[] visibleBits) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative");
+        }
+        if (stride < 3) {
+            throw new IllegalArgumentException("stride must be at least 3");
+        }
+        if (count > 0) {
+            Objects.checkFromIndexSize(offset, (count - 1) * stride + 3, positions.length);
+        }
+        Objects.checkFromIndexSize(0, 2 * count, window.length);
+        Objects.checkFromIndexSize(0, count, depth.length);
+        Frustum.checkBits(visibleBits, count);
+
+        // viewProjection = matrix * view
+        final Mat4 p = this.matrix;
+        final Mat4 v = view;
+        final float m00 = p.m00 * v.m00 + p.m01 * v.m10 + p.m02 * v.m20 + p.m03 * v.m30;
+        final float m01 = p.m00 * v.m01 + p.m01 * v.m11 + p.m02 * v.m21 + p.m03 * v.m31;
+        final float m02 = p.m00 * v.m02 + p.m01 * v.m12 + p.m02 * v.m22 + p.m03 * v.m32;
+        final float m03 = p.m00 * v.m03 + p.m01 * v.m13 + p.m02 * v.m23 + p.m03 * v.m33;
+        final float m10 = p.m10 * v.m00 + p.m11 * v.m10 + p.m12 * v.m20 + p.m13 * v.m30;
+        final float m11 = p.m10 * v.m01 + p.m11 * v.m11 + p.m12 * v.m21 + p.m13 * v.m31;
+        final float m12 = p.m10 * v.m02 + p.m11 * v.m12 + p.m12 * v.m22 + p.m13 * v.m32;
+        final float m13 = p.m10 * v.m03 + p.m11 * v.m13 + p.m12 * v.m23 + p.m13 * v.m33;
+        final float m20 = p.m20 * v.m00 + p.m21 * v.m10 + p.m22 * v.m20 + p.m23 * v.m30;
+        final float m21 = p.m20 * v.m01 + p.m21 * v.m11 + p.m22 * v.m21 + p.m23 * v.m31;
+        final float m22 = p.m20 * v.m02 + p.m21 * v.m12 + p.m22 * v.m22 + p.m23 * v.m32;
+        final float m23 = p.m20 * v.m03 + p.m21 * v.m13 + p.m22 * v.m23 + p.m23 * v.m33;
+        final float m30 = p.m30 * v.m00 + p.m31 * v.m10 + p.m32 * v.m20 + p.m33 * v.m30;
+        final float m31 = p.m30 * v.m01 + p.m31 * v.m11 + p.m32 * v.m21 + p.m33 * v.m31;
+        final float m32 = p.m30 * v.m02 + p.m31 * v.m12 + p.m32 * v.m22 + p.m33 * v.m32;
+        final float m33 = p.m30 * v.m03 + p.m31 * v.m13 + p.m32 * v.m23 + p.m33 * v.m33;
+        final float halfWidth = 0.5f * viewportWidth;
+        final float halfHeight = 0.5f * viewportHeight;
+
+        Arrays.fill(visibleBits, 0, (count + 63) >>> 6, 0L);
+        int index = 0;
+        if (SimdSupport.ENABLED) {
+            index = SimdProjectionKernels.projectPoints(positions, count, offset, stride,
+                    m00, m01, m02, m03, m10, m11, m12, m13, m20, m21, m22, m23, m30, m31, m32, m33,
+                    viewportX, viewportY, halfWidth, halfHeight, window, depth, visibleBits);
+        }
+
+        for (; index < count; index++) {
+            final int base = offset + index * stride;
+            final float px = positions[base];
+            final float py = positions[base + 1];
+            final float pz = positions[base + 2];
+
+            final float cx = m00 * px + m01 * py + m02 * pz + m03;
+            final float cy = m10 * px + m11 * py + m12 * pz + m13;
+            final float cz = m20 * px + m21 * py + m22 * pz + m23;
+            final float cw = m30 * px + m31 * py + m32 * pz + m33;
+
+            if (cw > 0.0f && cx >= -cw && cx <= cw && cy >= -cw && cy <= cw && cz >= -cw && cz <= cw) {
+                visibleBits[index >>> 6] |= 1L << index;
+            }
+            final float invW = 1.0f / cw;
+            window[2 * index] = (cx * invW + 1.0f) * halfWidth + viewportX;
+            window[2 * index + 1] = (cy * invW + 1.0f) * halfHeight + viewportY;
+            depth[index] = cz * invW * 0.5f + 0.5f;
+        }
+
+        int visibleCount = 0;
+        for (int word = 0; word < (count + 63) >>> 6; word++) {
+            visibleCount += Long.bitCount(visibleBits[word]);
+        }
+        return visibleCount;
+    }
+
     @Override
     public String toString() {
         return "Projection(" + this.matrix + ")";
@@ -2,6 +2,7 @@ package dev.stjepano.math;
 
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.ValueLayout;
+import java.util.List;
 import java.util.Objects;
 
 import static dev.stjepano.math.MathUtil.EPSILON8;
@@ -69,6 +70,23 @@ public final class Quaternion {
         return this;
     }
 
+    /// Same as [#setAxisAngle(Vec3, float)] but uses [MathUtil#fastSin(float)] and [MathUtil#fastCos(float)].
+    public Quaternion setAxisAngleFast(Vec3 normalizedAxis, float angleRad) {
+        return setAxisAngleFast(normalizedAxis.x, normalizedAxis.y, normalizedAxis.z, angleRad);
+    }
+
+    /// Same as [#setAxisAngle(float, float, float, float)] but uses [MathUtil#fastSin(float)] and
+    /// [MathUtil#fastCos(float)], components differ by at most `2e-7` from exact version.
+    public Quaternion setAxisAngleFast(float axisX, float axisY, float axisZ, float angleRad) {
+        float halfAngle = angleRad * 0.5f;
+        float s = MathUtil.fastSin(halfAngle);
+        this.x = axisX * s;
+        this.y = axisY * s;
+        this.z = axisZ * s;
+        this.w = MathUtil.fastCos(halfAngle);
+        return this;
+    }
+
     public Quaternion setRotationX(float angleRad) {
         return setAxisAngle(1, 0, 0, angleRad);
     }
@@ -131,8 +149,6 @@ public final class Quaternion {
     /// @param rollRad roll angle in radians (about Z axis)
     /// @return reference to this
     public Quaternion setEulerYXZ(float pitchRad, float yawRad, float rollRad) {
-        // NOTE: qRoll * qPitch * qYaw
-
         float halfPitch = pitchRad * 0.5f;
         float halfYaw = yawRad * 0.5f;
         float halfRoll = rollRad * 0.5f;
@@ -144,6 +160,28 @@ public final class Quaternion {
         float ry = (float) Math.sin(halfRoll);
         float rw = (float) Math.cos(halfRoll);
 
+        return setEulerYXZ(px, pw, yy, yw, ry, rw);
+    }
+
+    /// Same as [#setEulerYXZ(float, float, float)] but uses [MathUtil#fastSin(float)] and [MathUtil#fastCos(float)].
+    public Quaternion setEulerYXZFast(float pitchRad, float yawRad, float rollRad) {
+        float halfPitch = pitchRad * 0.5f;
+        float halfYaw = yawRad * 0.5f;
+        float halfRoll = rollRad * 0.5f;
+
+        float px = MathUtil.fastSin(halfPitch);
+        float pw = MathUtil.fastCos(halfPitch);
+        float yy = MathUtil.fastSin(halfYaw);
+        float yw = MathUtil.fastCos(halfYaw);
+        float ry = MathUtil.fastSin(halfRoll);
+        float rw = MathUtil.fastCos(halfRoll);
+
+        return setEulerYXZ(px, pw, yy, yw, ry, rw);
+    }
+
+    /// Combine sines and cosines of half angles (`p` - pitch, `y` - yaw, `r` - roll).
+    private Quaternion setEulerYXZ(float px, float pw, float yy, float yw, float ry, float rw) {
+        // NOTE: qRoll * qPitch * qYaw
         this.x = px*rw*yw - pw*ry*yy;
         this.y = px*ry*yw + pw*rw*yy;
         this.z = pw*ry*yw + px*rw*yy;
@@ -159,7 +197,6 @@ public final class Quaternion {
     /// @param rollRad roll angle in radians (about Z axis)
     /// @return reference to this
     public Quaternion setEulerZXY(float pitchRad, float yawRad, float rollRad) {
-        // NOTE: qYaw * qPitch * qRoll
         float halfPitch = pitchRad * 0.5f;
         float halfYaw = yawRad * 0.5f;
         float halfRoll = rollRad * 0.5f;
@@ -171,6 +208,28 @@ public final class Quaternion {
         float ry = (float) Math.sin(halfRoll);
         float rw = (float) Math.cos(halfRoll);
 
+        return setEulerZXY(px, pw, yy, yw, ry, rw);
+    }
+
+    /// Same as [#setEulerZXY(float, float, float)] but uses [MathUtil#fastSin(float)] and [MathUtil#fastCos(float)].
+    public Quaternion setEulerZXYFast(float pitchRad, float yawRad, float rollRad) {
+        float halfPitch = pitchRad * 0.5f;
+        float halfYaw = yawRad * 0.5f;
+        float halfRoll = rollRad * 0.5f;
+
+        float px = MathUtil.fastSin(halfPitch);
+        float pw = MathUtil.fastCos(halfPitch);
+        float yy = MathUtil.fastSin(halfYaw);
+        float yw = MathUtil.fastCos(halfYaw);
+        float ry = MathUtil.fastSin(halfRoll);
+        float rw = MathUtil.fastCos(halfRoll);
+
+        return setEulerZXY(px, pw, yy, yw, ry, rw);
+    }
+
+    /// Combine sines and cosines of half angles (`p` - pitch, `y` - yaw, `r` - roll).
+    private Quaternion setEulerZXY(float px, float pw, float yy, float yw, float ry, float rw) {
+        // NOTE: qYaw * qPitch * qRoll
         this.x = px*rw*yw + pw*ry*yy;
         this.y = -px*ry*yw + pw*rw*yy;
         this.z = pw*ry*yw - px*rw*yy;
@@ -186,7 +245,6 @@ public final class Quaternion {
     /// @param rollRad roll angle in radians (about Z axis)
     /// @return reference to this
     public Quaternion setEulerZYX(float pitchRad, float yawRad, float rollRad) {
-        // NOTE: qPitch * qYaw * qRoll
         float halfPitch = pitchRad * 0.5f;
         float halfYaw = yawRad * 0.5f;
         float halfRoll = rollRad * 0.5f;
@@ -198,6 +256,28 @@ public final class Quaternion {
         float ry = (float) Math.sin(halfRoll);
         float rw = (float) Math.cos(halfRoll);
 
+        return setEulerZYX(px, pw, yy, yw, ry, rw);
+    }
+
+    /// Same as [#setEulerZYX(float, float, float)] but uses [MathUtil#fastSin(float)] and [MathUtil#fastCos(float)].
+    public Quaternion setEulerZYXFast(float pitchRad, float yawRad, float rollRad) {
+        float halfPitch = pitchRad * 0.5f;
+        float halfYaw = yawRad * 0.5f;
+        float halfRoll = rollRad * 0.5f;
+
+        float px = MathUtil.fastSin(halfPitch);
+        float pw = MathUtil.fastCos(halfPitch);
+        float yy = MathUtil.fastSin(halfYaw);
+        float yw = MathUtil.fastCos(halfYaw);
+        float ry = MathUtil.fastSin(halfRoll);
+        float rw = MathUtil.fastCos(halfRoll);
+
+        return setEulerZYX(px, pw, yy, yw, ry, rw);
+    }
+
+    /// Combine sines and cosines of half angles (`p` - pitch, `y` - yaw, `r` - roll).
+    private Quaternion setEulerZYX(float px, float pw, float yy, float yw, float ry, float rw) {
+        // NOTE: qPitch * qYaw * qRoll
         this.x = px*rw*yw + pw*ry*yy;
         this.y = -px*ry*yw + pw*rw*yy;
         this.z = pw*ry*yw + px*rw*yy;
@@ -242,6 +322,20 @@ public final class Quaternion {
         return this;
     }
 
+    /// Same as [#normalize()] but uses [MathUtil#fastInvSqrt(float)], relative error of length is at most `5e-6`.
+    public Quaternion normalizeFast() {
+        float lenSqr = lengthSqr();
+        if (lenSqr < 1e-16f) {
+            return this;
+        }
+        float invLen = MathUtil.fastInvSqrt(lenSqr);
+        x *= invLen;
+        y *= invLen;
+        z *= invLen;
+        w *= invLen;
+        return this;
+    }
+
     /// Conjugate this quaternion. Note that when quaternion is unit length, conjugate equals inverse.
     public Quaternion conjugate() {
         this.x *= -1;
@@ -482,6 +576,59 @@ public final class Quaternion {
         dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 3, w);
     }
 
+    /// Copy `count` quaternions starting at `src[srcIndex]` to memory segment ([MathLayouts#QUATERNION], 16 bytes per quaternion),
+    /// first quaternion at dest + byteOffset.
+    public static void toMemorySegment(Quaternion[] src, int srcIndex, MemorySegment dest, long byteOffset, int count) {
+        Objects.checkFromIndexSize(srcIndex, count, src.length);
+        Objects.checkFromIndexSize(byteOffset, count * MathLayouts.QUATERNION.byteSize(), dest.byteSize());
+        for (int i = 0; i < count; i++) {
+            write(src[srcIndex + i], dest, byteOffset, i);
+        }
+    }
+
+    /// Copy all quaternions from the list to memory segment ([MathLayouts#QUATERNION]), first quaternion at dest + byteOffset. List
+    /// should support fast random access.
+    public static void toMemorySegment(List<Quaternion> src, MemorySegment dest, long byteOffset) {
+        final int count = src.size();
+        Objects.checkFromIndexSize(byteOffset, count * MathLayouts.QUATERNION.byteSize(), dest.byteSize());
+        for (int i = 0; i < count; i++) {
+            write(src.get(i), dest, byteOffset, i);
+        }
+    }
+
+    /// Read `count` quaternions ([MathLayouts#QUATERNION]) at src + byteOffset into existing quaternions starting at
+    /// `dest[destIndex]`.
+    public static void fromMemorySegment(MemorySegment src, long byteOffset, Quaternion[] dest, int destIndex, int count) {
+        Objects.checkFromIndexSize(destIndex, count, dest.length);
+        Objects.checkFromIndexSize(byteOffset, count * MathLayouts.QUATERNION.byteSize(), src.byteSize());
+        for (int i = 0; i < count; i++) {
+            read(src, byteOffset, i, dest[destIndex + i]);
+        }
+    }
+
+    /// Read quaternions ([MathLayouts#QUATERNION]) at src + byteOffset into all (existing) quaternions of the list.
+    public static void fromMemorySegment(MemorySegment src, long byteOffset, List<Quaternion> dest) {
+        final int count = dest.size();
+        Objects.checkFromIndexSize(byteOffset, count * MathLayouts.QUATERNION.byteSize(), src.byteSize());
+        for (int i = 0; i < count; i++) {
+            read(src, byteOffset, i, dest.get(i));
+        }
+    }
+
+    private static void write(Quaternion q, MemorySegment dest, long byteOffset, long index) {
+        MathLayouts.QUATERNION_X.set(dest, byteOffset, index, q.x);
+        MathLayouts.QUATERNION_Y.set(dest, byteOffset, index, q.y);
+        MathLayouts.QUATERNION_Z.set(dest, byteOffset, index, q.z);
+        MathLayouts.QUATERNION_W.set(dest, byteOffset, index, q.w);
+    }
+
+    private static void read(MemorySegment src, long byteOffset, long index, Quaternion dest) {
+        dest.x = (float) MathLayouts.QUATERNION_X.get(src, byteOffset, index);
+        dest.y = (float) MathLayouts.QUATERNION_Y.get(src, byteOffset, index);
+        dest.z = (float) MathLayouts.QUATERNION_Z.get(src, byteOffset, index);
+        dest.w = (float) MathLayouts.QUATERNION_W.get(src, byteOffset, index);
+    }
+
     /// Spherical linear interpolation between two quaternions.
     /// Both quaternions should be unit length.
     public static void slerp(Quaternion a, Quaternion b, float t, Quaternion dest) {
@@ -0,0 +1,296 @@
+package dev.stjepano.math;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Objects;
+
+/// Interpolation of packed quaternion streams, for example animation sampling of many joints.
+///
+/// Quaternions are packed as 4 floats (x, y, z, w), quaternion `i` starts at index `4 * i` of the array (or byte
+/// offset `16 * i` of the memory segment). Each quaternion pair has its own interpolation factor, `t[i]`. All input
+/// quaternions should be unit length. Destination may be same array as one of the inputs.
+///
+/// Available interpolations:
+/// * {@link #slerp(float[], float[], float[], float[], int)} - exact, same results as {@link Quaternion#slerp}
+/// * {@link #nlerp(float[], float[], float[], float[], int)} - normalized linear interpolation, fastest, does not
+///   have constant angular velocity (max rotation angle error compared to slerp is about 0.15 rad, error grows with
+///   the angle between quaternions and is small for close keys)
+/// * {@link #slerpApprox(float[], float[], float[], float[], int)} - nlerp with corrected `t`, max rotation angle
+///   error compared to slerp is about 2e-3 rad, almost as fast as nlerp
+///
+/// **NOTE**: float array `nlerp` and `slerpApprox` use SIMD code path when `jdk.incubator.vector` module is
+/// available.
+public final class QuaternionArrays {
+
+    private QuaternionArrays() {
+    }
+
+    /// Spherical linear interpolation, `dest[i] = slerp(a[i], b[i], t[i])`.
+    /// @param a packed start quaternions
+    /// @param b packed end quaternions
+    /// @param t interpolation factors, one per quaternion
+    /// @param dest destination for packed interpolated quaternions
+    /// @param count number of quaternions
+    public static void slerp(float[] a, float[] b, float[] t, float[] dest, int count) {
+        checkArrays(a, b, t, dest, count);
+        for (int i = 0; i < count; i++) {
+            final int base = 4 * i;
+            slerp(a[base], a[base + 1], a[base + 2], a[base + 3],
+                    b[base], b[base + 1], b[base + 2], b[base + 3], t[i], dest, base);
+        }
+    }
+
+    /// Normalized linear interpolation, `dest[i] = normalize(lerp(a[i], b[i], t[i]))` (shorter path).
+    /// @param a packed start quaternions
+    /// @param b packed end quaternions
+    /// @param t interpolation factors, one per quaternion
+    /// @param dest destination for packed interpolated quaternions
+    /// @param count number of quaternions
+    public static void nlerp(float[] a, float[] b, float[] t, float[] dest, int count) {
+        checkArrays(a, b, t, dest, count);
+        int index = 0;
+        if (SimdSupport.ENABLED) {
+            index = SimdQuaternionKernels.nlerp(a, b, t, dest, count, false);
+        }
+        for (; index < count; index++) {
+            final int base = 4 * index;
+            nlerp(a[base], a[base + 1], a[base + 2], a[base + 3],
+                    b[base], b[base + 1], b[base + 2], b[base + 3], t[index], false, dest, base);
+        }
+    }
+
+    /// Approximate spherical linear interpolation.
+    ///
+    /// Normalized linear interpolation with `t` corrected by a polynomial fitted to slerp (depends on the angle
+    /// between quaternions), so that angular velocity is almost constant. Max rotation angle error compared to
+    /// {@link Quaternion#slerp} is about 2e-3 rad.
+    /// @param a packed start quaternions
+    /// @param b packed end quaternions
+    /// @param t interpolation factors, one per quaternion
+    /// @param dest destination for packed interpolated quaternions
+    /// @param count number of quaternions
+    public static void slerpApprox(float[] a, float[] b, float[] t, float[] dest, int count) {
+        checkArrays(a, b, t, dest, count);
+        int index = 0;
+        if (SimdSupport.ENABLED) {
+            index = SimdQuaternionKernels.nlerp(a, b, t, dest, count, true);
+        }
+        for (; index < count; index++) {
+            final int base = 4 * index;
+            nlerp(a[base], a[base + 1], a[base + 2], a[base + 3],
+                    b[base], b[base + 1], b[base + 2], b[base + 3], t[index], true, dest, base);
+        }
+    }
+
+    /// Same as {@link #slerp(float[], float[], float[], float[], int)} for quaternions stored in memory segments.
+    public static void slerp(MemorySegment a, MemorySegment b, float[] t, MemorySegment dest, int count) {
+        Objects.checkFromIndexSize(0, count, t.length);
+        final long stride = ValueLayout.JAVA_FLOAT.byteSize();
+        for (int i = 0; i < count; i++) {
+            final long base = 4 * stride * i;
+            slerp(a.get(ValueLayout.JAVA_FLOAT, base), a.get(ValueLayout.JAVA_FLOAT, base + stride),
+                    a.get(ValueLayout.JAVA_FLOAT, base + 2 * stride), a.get(ValueLayout.JAVA_FLOAT, base + 3 * stride),
+                    b.get(ValueLayout.JAVA_FLOAT, base), b.get(ValueLayout.JAVA_FLOAT, base + stride),
+                    b.get(ValueLayout.JAVA_FLOAT, base + 2 * stride), b.get(ValueLayout.JAVA_FLOAT, base + 3 * stride),
+                    t[i], dest, base);
+        }
+    }
+
+    /// Same as {@link #nlerp(float[], float[], float[], float[], int)} for quaternions stored in memory segments.
+    public static void nlerp(MemorySegment a, MemorySegment b, float[] t, MemorySegment dest, int count) {
+        nlerp(a, b, t, dest, count, false);
+    }
+
+    /// Same as {@link #slerpApprox(float[], float[], float[], float[], int)} for quaternions stored in memory
+    /// segments.
+    public static void slerpApprox(MemorySegment a, MemorySegment b, float[] t, MemorySegment dest, int count) {
+        nlerp(a, b, t, dest, count, true);
+    }
+
+    private static void nlerp(MemorySegment a, MemorySegment b, float[] t, MemorySegment dest, int count, boolean approxSlerp) {
+        Objects.checkFromIndexSize(0, count, t.length);
+        final long stride = ValueLayout.JAVA_FLOAT.byteSize();
+        for (int i = 0; i < count; i++) {
+            final long base = 4 * stride * i;
+            nlerp(a.get(ValueLayout.JAVA_FLOAT, base), a.get(ValueLayout.JAVA_FLOAT, base + stride),
+                    a.get(ValueLayout.JAVA_FLOAT, base + 2 * stride), a.get(ValueLayout.JAVA_FLOAT, base + 3 * stride),
+                    b.get(ValueLayout.JAVA_FLOAT, base), b.get(ValueLayout.JAVA_FLOAT, base + stride),
+                    b.get(ValueLayout.JAVA_FLOAT, base + 2 * stride), b.get(ValueLayout.JAVA_FLOAT, base + 3 * stride),
+                    t[i], approxSlerp, dest, base);
+        }
+    }
+
+    /// Same as {@link Quaternion#slerp(Quaternion, Quaternion, float, Quaternion)}, result is written to dest.
+    static void slerp(float ax, float ay, float az, float aw,
+                      float bx, float by, float bz, float bw,
+                      float t, float[] dest, int offset) {
+        float dot = ax * bx + ay * by + az * bz + aw * bw;
+        if (dot < 0.0f) {
+            // if dot product negative, negate one quaternion to take shorter path
+            bx = -bx;
+            by = -by;
+            bz = -bz;
+            bw = -bw;
+            dot = -dot;
+        }
+
+        if (dot > 0.9995f) {
+            // if very close, interpolate linearly
+            float x = ax + t * (bx - ax);
+            float y = ay + t * (by - ay);
+            float z = az + t * (bz - az);
+            float w = aw + t * (bw - aw);
+            float len = (float) Math.sqrt(x*x + y*y + z*z + w*w);
+            if (len >= 1e-8) {
+                float invLen = 1.0f/len;
+                x *= invLen;
+                y *= invLen;
+                z *= invLen;
+                w *= invLen;
+            }
+            dest[offset] = x;
+            dest[offset + 1] = y;
+            dest[offset + 2] = z;
+            dest[offset + 3] = w;
+            return;
+        }
+
+        float theta = (float) Math.acos(dot);
+        float sinTheta = (float) Math.sin(theta);
+        float wa = (float) Math.sin((1.0f - t) * theta) / sinTheta;
+        float wb = (float) Math.sin(t * theta) / sinTheta;
+
+        dest[offset] = ax * wa + bx * wb;
+        dest[offset + 1] = ay * wa + by * wb;
+        dest[offset + 2] = az * wa + bz * wb;
+        dest[offset + 3] = aw * wa + bw * wb;
+    }
+
+    /// Normalized linear interpolation, when `approxSlerp` is true `t` is corrected to approximate slerp.
+    /// Keep operation order in sync with {@link SimdQuaternionKernels#nlerp}.
+    static void nlerp(float ax, float ay, float az, float aw,
+                      float bx, float by, float bz, float bw,
+                      float t, boolean approxSlerp, float[] dest, int offset) {
+        float dot = ax * bx + ay * by + az * bz + aw * bw;
+        if (dot < 0.0f) {
+            bx = -bx;
+            by = -by;
+            bz = -bz;
+            bw = -bw;
+            dot = -dot;
+        }
+
+        if (approxSlerp) {
+            // Polynomial fit of slerp `t` correction as function of cos(angle), see
+            // "Approximating slerp" by Arseny Kapoulkine
+            final float ka = 1.0904f + dot * (-3.2452f + dot * (3.55645f - dot * 1.43519f));
+            final float kb = 0.848013f + dot * (-1.06021f + dot * 0.215638f);
+            final float tc = t - 0.5f;
+            final float k = ka * tc * tc + kb;
+            t = t + t * tc * (t - 1.0f) * k;
+        }
+
+        final float x = (bx - ax) * t + ax;
+        final float y = (by - ay) * t + ay;
+        final float z = (bz - az) * t + az;
+        final float w = (bw - aw) * t + aw;
+        final float len = (float) Math.sqrt(x*x + y*y + z*z + w*w);
+        final float invLen = 1.0f / len;
+
+        dest[offset] = x * invLen;
+        dest[offset + 1] = y * invLen;
+        dest[offset + 2] = z * invLen;
+        dest[offset + 3] = w * invLen;
+    }
+
+    /// Same as {@link #slerp(float, float, float, float, float, float, float, float, float, float[], int)}, result is
+    /// written to memory segment without temporary array.
+    static void slerp(float ax, float ay, float az, float aw,
+                      float bx, float by, float bz, float bw,
+                      float t, MemorySegment dest, long byteOffset) {
+        float dot = ax * bx + ay * by + az * bz + aw * bw;
+        if (dot < 0.0f) {
+            // if dot product negative, negate one quaternion to take shorter path
+            bx = -bx;
+            by = -by;
+            bz = -bz;
+            bw = -bw;
+            dot = -dot;
+        }
+
+        if (dot > 0.9995f) {
+            // if very close, interpolate linearly
+            float x = ax + t * (bx - ax);
+            float y = ay + t * (by - ay);
+            float z = az + t * (bz - az);
+            float w = aw + t * (bw - aw);
+            float len = (float) Math.sqrt(x*x + y*y + z*z + w*w);
+            if (len >= 1e-8) {
+                float invLen = 1.0f/len;
+                x *= invLen;
+                y *= invLen;
+                z *= invLen;
+                w *= invLen;
+            }
+            dest.set(ValueLayout.JAVA_FLOAT, byteOffset, x);
+            dest.set(ValueLayout.JAVA_FLOAT, byteOffset + Float.BYTES, y);
+            dest.set(ValueLayout.JAVA_FLOAT, byteOffset + 2 * Float.BYTES, z);
+            dest.set(ValueLayout.JAVA_FLOAT, byteOffset + 3 * Float.BYTES, w);
+            return;
+        }
+
+        float theta = (float) Math.acos(dot);
+        float sinTheta = (float) Math.sin(theta);
+        float wa = (float) Math.sin((1.0f - t) * theta) / sinTheta;
+        float wb = (float) Math.sin(t * theta) / sinTheta;
+
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset, ax * wa + bx * wb);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + Float.BYTES, ay * wa + by * wb);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + 2 * Float.BYTES, az * wa + bz * wb);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + 3 * Float.BYTES, aw * wa + bw * wb);
+    }
+
+    /// Same as {@link #nlerp(float, float, float, float, float, float, float, float, float, boolean, float[], int)},
+    /// result is written to memory segment without temporary array.
+    static void nlerp(float ax, float ay, float az, float aw,
+                      float bx, float by, float bz, float bw,
+                      float t, boolean approxSlerp, MemorySegment dest, long byteOffset) {
+        float dot = ax * bx + ay * by + az * bz + aw * bw;
+        if (dot < 0.0f) {
+            bx = -bx;
+            by = -by;
+            bz = -bz;
+            bw = -bw;
+            dot = -dot;
+        }
+
+        if (approxSlerp) {
+            // Polynomial fit of slerp `t` correction as function of cos(angle), see
+            // "Approximating slerp" by Arseny Kapoulkine
+            final float ka = 1.0904f + dot * (-3.2452f + dot * (3.55645f - dot * 1.43519f));
+            final float kb = 0.848013f + dot * (-1.06021f + dot * 0.215638f);
+            final float tc = t - 0.5f;
+            final float k = ka * tc * tc + kb;
+            t = t + t * tc * (t - 1.0f) * k;
+        }
+
+        final float x = (bx - ax) * t + ax;
+        final float y = (by - ay) * t + ay;
+        final float z = (bz - az) * t + az;
+        final float w = (bw - aw) * t + aw;
+        final float len = (float) Math.sqrt(x*x + y*y + z*z + w*w);
+        final float invLen = 1.0f / len;
+
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset, x * invLen);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + Float.BYTES, y * invLen);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + 2 * Float.BYTES, z * invLen);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + 3 * Float.BYTES, w * invLen);
+    }
+
+    private static void checkArrays(float[] a, float[] b, float[] t, float[] dest, int count) {
+        Objects.checkFromIndexSize(0, 4 * count, a.length);
+        Objects.checkFromIndexSize(0, 4 * count, b.length);
+        Objects.checkFromIndexSize(0, count, t.length);
+        Objects.checkFromIndexSize(0, 4 * count, dest.length);
+    }
+}
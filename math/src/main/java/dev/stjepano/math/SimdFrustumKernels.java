@@ -0,0 +1,112 @@
+package dev.stjepano.math;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/// SIMD (Vector API) kernels which test SoA bounds streams against frustum planes.
+///
+/// Kernels process blocks of `LANES` objects in range `[from, blockedEnd(from, to))`, the caller is responsible for
+/// processing the remaining objects with scalar code. Use only when `SimdSupport.ENABLED` is true.
+///
+/// Bounds are stored in SoA layout so components are loaded directly without gathering. Plane distances are
+/// computed in same order as in [Frustum#testSphere(float, float, float, float)] and
+/// [Frustum#testAabb(float, float, float, float, float, float)], so results are identical to scalar code.
+final class SimdFrustumKernels {
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    private SimdFrustumKernels() {
+    }
+
+    /// End of the range which is processed by kernels (`from` plus largest multiple of `LANES` not greater than
+    /// `to - from`).
+    static int blockedEnd(int from, int to) {
+        return from + ((to - from) / LANES) * LANES;
+    }
+
+    /// Cull spheres into bitset, `from` must be a multiple of 64. Words must be cleared by the caller.
+    /// @return end of processed range
+    static int cullSpheres(float[] planes, float[] centerX, float[] centerY, float[] centerZ, float[] radius,
+                           int from, int to, long[] visibleBits) {
+        final int end = blockedEnd(from, to);
+        for (int index = from; index < end; index += LANES) {
+            final long mask = sphereMask(planes, centerX, centerY, centerZ, radius, index).toLong();
+            visibleBits[index >>> 6] |= mask << index;
+        }
+        return end;
+    }
+
+    /// Cull spheres `[from, to)` into compacted index list, `to` must be returned by [#blockedEnd(int, int)].
+    /// @return number of visible spheres
+    static int cullSpheres(float[] planes, float[] centerX, float[] centerY, float[] centerZ, float[] radius,
+                           int from, int to, int[] visibleIndices) {
+        int visibleCount = 0;
+        for (int index = from; index < to; index += LANES) {
+            long mask = sphereMask(planes, centerX, centerY, centerZ, radius, index).toLong();
+            while (mask != 0) {
+                visibleIndices[visibleCount++] = index + Long.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+            }
+        }
+        return visibleCount;
+    }
+
+    /// Cull boxes into bitset, `from` must be a multiple of 64. Words must be cleared by the caller.
+    /// @return end of processed range
+    static int cullAabbs(float[] planes, float[] minX, float[] minY, float[] minZ, float[] maxX, float[] maxY,
+                         float[] maxZ, int from, int to, long[] visibleBits) {
+        final int end = blockedEnd(from, to);
+        for (int index = from; index < end; index += LANES) {
+            final long mask = aabbMask(planes, minX, minY, minZ, maxX, maxY, maxZ, index).toLong();
+            visibleBits[index >>> 6] |= mask << index;
+        }
+        return end;
+    }
+
+    /// Cull boxes `[from, to)` into compacted index list, `to` must be returned by [#blockedEnd(int, int)].
+    /// @return number of visible boxes
+    static int cullAabbs(float[] planes, float[] minX, float[] minY, float[] minZ, float[] maxX, float[] maxY,
+                         float[] maxZ, int from, int to, int[] visibleIndices) {
+        int visibleCount = 0;
+        for (int index = from; index < to; index += LANES) {
+            long mask = aabbMask(planes, minX, minY, minZ, maxX, maxY, maxZ, index).toLong();
+            while (mask != 0) {
+                visibleIndices[visibleCount++] = index + Long.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+            }
+        }
+        return visibleCount;
+    }
+
+    private static VectorMask<Float> sphereMask(float[] planes, float[] centerX, float[] centerY, float[] centerZ,
+                                                float[] radius, int index) {
+        final FloatVector cx = FloatVector.fromArray(SPECIES, centerX, index);
+        final FloatVector cy = FloatVector.fromArray(SPECIES, centerY, index);
+        final FloatVector cz = FloatVector.fromArray(SPECIES, centerZ, index);
+        final FloatVector negRadius = FloatVector.fromArray(SPECIES, radius, index).neg();
+        VectorMask<Float> visible = SPECIES.maskAll(true);
+        for (int i = 0; i < 4 * Frustum.PLANE_COUNT; i += 4) {
+            final FloatVector distance = cx.mul(planes[i]).add(cy.mul(planes[i + 1])).add(cz.mul(planes[i + 2]))
+                    .add(planes[i + 3]);
+            visible = visible.andNot(distance.compare(VectorOperators.LT, negRadius));
+        }
+        return visible;
+    }
+
+    private static VectorMask<Float> aabbMask(float[] planes, float[] minX, float[] minY, float[] minZ, float[] maxX,
+                                              float[] maxY, float[] maxZ, int index) {
+        VectorMask<Float> visible = SPECIES.maskAll(true);
+        for (int i = 0; i < 4 * Frustum.PLANE_COUNT; i += 4) {
+            // Box corner furthest along plane normal, selection is same for all lanes
+            final FloatVector x = FloatVector.fromArray(SPECIES, planes[i] >= 0.0f ? maxX : minX, index);
+            final FloatVector y = FloatVector.fromArray(SPECIES, planes[i + 1] >= 0.0f ? maxY : minY, index);
+            final FloatVector z = FloatVector.fromArray(SPECIES, planes[i + 2] >= 0.0f ? maxZ : minZ, index);
+            final FloatVector distance = x.mul(planes[i]).add(y.mul(planes[i + 1])).add(z.mul(planes[i + 2]))
+                    .add(planes[i + 3]);
+            visible = visible.andNot(distance.compare(VectorOperators.LT, 0.0f));
+        }
+        return visible;
+    }
+}
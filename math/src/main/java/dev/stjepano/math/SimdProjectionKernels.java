@@ -0,0 +1,85 @@
+package dev.stjepano.math;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/// SIMD (Vector API) kernel which projects packed world positions to window coordinates.
+///
+/// Kernel processes blocks of `LANES` points and returns the number of processed points, the caller is responsible
+/// for processing the remaining points with scalar code. Use only when `SimdSupport.ENABLED` is true.
+///
+/// Positions are gathered with stride offsets, depth is stored directly, window x and y are interleaved through a
+/// per thread scratch array and visibility mask of a block is stored into bitset word (`LANES` divides 64).
+///
+/// Operations are done in same order as in [Projection#projectPoints], so results are bit-identical to scalar code.
+final class SimdProjectionKernels {
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private SimdProjectionKernels() {
+    }
+
+    /// Project points with view-projection matrix `m`, visibility words must be cleared by the caller.
+    /// @return number of processed points (multiple of `LANES`)
+    static int projectPoints(float[] positions, int count, int offset, int stride,
+                             float m00, float m01, float m02, float m03,
+                             float m10, float m11, float m12, float m13,
+                             float m20, float m21, float m22, float m23,
+                             float m30, float m31, float m32, float m33,
+                             float viewportX, float viewportY, float halfWidth, float halfHeight,
+                             float[] window, float[] depth, long[] visibleBits) {
+        final int blockedCount = count - (count % LANES);
+        final Scratch state = SCRATCH.get();
+        final int[] laneOffsets = state.laneOffsets(stride);
+        final float[] scratch = state.values;
+        for (int index = 0; index < blockedCount; index += LANES) {
+            final int base = offset + index * stride;
+            final FloatVector px = FloatVector.fromArray(SPECIES, positions, base, laneOffsets, 0);
+            final FloatVector py = FloatVector.fromArray(SPECIES, positions, base + 1, laneOffsets, 0);
+            final FloatVector pz = FloatVector.fromArray(SPECIES, positions, base + 2, laneOffsets, 0);
+
+            final FloatVector cx = px.mul(m00).add(py.mul(m01)).add(pz.mul(m02)).add(m03);
+            final FloatVector cy = px.mul(m10).add(py.mul(m11)).add(pz.mul(m12)).add(m13);
+            final FloatVector cz = px.mul(m20).add(py.mul(m21)).add(pz.mul(m22)).add(m23);
+            final FloatVector cw = px.mul(m30).add(py.mul(m31)).add(pz.mul(m32)).add(m33);
+
+            final FloatVector negW = cw.neg();
+            final VectorMask<Float> visible = cw.compare(VectorOperators.GT, 0.0f)
+                    .and(cx.compare(VectorOperators.GE, negW)).and(cx.compare(VectorOperators.LE, cw))
+                    .and(cy.compare(VectorOperators.GE, negW)).and(cy.compare(VectorOperators.LE, cw))
+                    .and(cz.compare(VectorOperators.GE, negW)).and(cz.compare(VectorOperators.LE, cw));
+            visibleBits[index >>> 6] |= visible.toLong() << index;
+
+            final FloatVector invW = cw.broadcast(1.0f).div(cw);
+            cx.mul(invW).add(1.0f).mul(halfWidth).add(viewportX).intoArray(scratch, 0);
+            cy.mul(invW).add(1.0f).mul(halfHeight).add(viewportY).intoArray(scratch, LANES);
+            cz.mul(invW).mul(0.5f).add(0.5f).intoArray(depth, index);
+
+            for (int lane = 0; lane < LANES; lane++) {
+                window[2 * (index + lane)] = scratch[lane];
+                window[2 * (index + lane) + 1] = scratch[LANES + lane];
+            }
+        }
+        return blockedCount;
+    }
+
+    /// Per thread scratch, lane offsets are recomputed only when stride changes.
+    private static final class Scratch {
+        final float[] values = new float[2 * LANES];
+        final int[] laneOffsets = new int[LANES];
+        int stride = -1;
+
+        int[] laneOffsets(int stride) {
+            if (this.stride != stride) {
+                for (int lane = 0; lane < LANES; lane++) {
+                    laneOffsets[lane] = lane * stride;
+                }
+                this.stride = stride;
+            }
+            return laneOffsets;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package dev.stjepano.math;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/// SIMD (Vector API) kernels which interpolate packed quaternion streams (x, y, z, w per quaternion).
+///
+/// Kernels process blocks of `LANES` quaternions and return the number of processed quaternions, the caller is
+/// responsible for processing the remaining quaternions with scalar code. Use only when `SimdSupport.ENABLED` is true.
+///
+/// Components are gathered into 4 vectors and results are scattered back through a small per thread scratch array,
+/// same as in {@link SimdTransformKernels}. Operations are done in same order as in scalar code, so results are
+/// bit-identical to scalar code.
+final class SimdQuaternionKernels {
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+    private static final int[] LANE_OFFSETS = laneOffsets();
+    private static final ThreadLocal<float[]> SCRATCH = ThreadLocal.withInitial(() -> new float[4 * LANES]);
+
+    private SimdQuaternionKernels() {
+    }
+
+    /// Normalized linear interpolation, optionally with corrected `t` which approximates slerp
+    /// (see {@link QuaternionArrays#slerpApprox(float[], float[], float[], float[], int)}).
+    /// @return number of processed quaternions (multiple of `LANES`)
+    static int nlerp(float[] a, float[] b, float[] t, float[] dest, int count, boolean approxSlerp) {
+        final int blockedCount = count - (count % LANES);
+        final float[] scratch = SCRATCH.get();
+        for (int index = 0; index < blockedCount; index += LANES) {
+            final int base = 4 * index;
+            final FloatVector ax = FloatVector.fromArray(SPECIES, a, base, LANE_OFFSETS, 0);
+            final FloatVector ay = FloatVector.fromArray(SPECIES, a, base + 1, LANE_OFFSETS, 0);
+            final FloatVector az = FloatVector.fromArray(SPECIES, a, base + 2, LANE_OFFSETS, 0);
+            final FloatVector aw = FloatVector.fromArray(SPECIES, a, base + 3, LANE_OFFSETS, 0);
+            FloatVector bx = FloatVector.fromArray(SPECIES, b, base, LANE_OFFSETS, 0);
+            FloatVector by = FloatVector.fromArray(SPECIES, b, base + 1, LANE_OFFSETS, 0);
+            FloatVector bz = FloatVector.fromArray(SPECIES, b, base + 2, LANE_OFFSETS, 0);
+            FloatVector bw = FloatVector.fromArray(SPECIES, b, base + 3, LANE_OFFSETS, 0);
+            FloatVector tv = FloatVector.fromArray(SPECIES, t, index);
+
+            FloatVector dot = ax.mul(bx).add(ay.mul(by)).add(az.mul(bz)).add(aw.mul(bw));
+            final VectorMask<Float> negative = dot.compare(VectorOperators.LT, 0.0f);
+            bx = bx.blend(bx.neg(), negative);
+            by = by.blend(by.neg(), negative);
+            bz = bz.blend(bz.neg(), negative);
+            bw = bw.blend(bw.neg(), negative);
+            dot = dot.blend(dot.neg(), negative);
+
+            if (approxSlerp) {
+                final FloatVector ka = dot.mul(-1.43519f).add(3.55645f).mul(dot).add(-3.2452f).mul(dot).add(1.0904f);
+                final FloatVector kb = dot.mul(0.215638f).add(-1.06021f).mul(dot).add(0.848013f);
+                final FloatVector tc = tv.sub(0.5f);
+                final FloatVector k = ka.mul(tc).mul(tc).add(kb);
+                tv = tv.add(tv.mul(tc).mul(tv.sub(1.0f)).mul(k));
+            }
+
+            final FloatVector x = bx.sub(ax).mul(tv).add(ax);
+            final FloatVector y = by.sub(ay).mul(tv).add(ay);
+            final FloatVector z = bz.sub(az).mul(tv).add(az);
+            final FloatVector w = bw.sub(aw).mul(tv).add(aw);
+            final FloatVector len = x.mul(x).add(y.mul(y)).add(z.mul(z)).add(w.mul(w)).sqrt();
+            final FloatVector invLen = len.broadcast(1.0f).div(len);
+
+            x.mul(invLen).intoArray(scratch, 0);
+            y.mul(invLen).intoArray(scratch, LANES);
+            z.mul(invLen).intoArray(scratch, 2 * LANES);
+            w.mul(invLen).intoArray(scratch, 3 * LANES);
+
+            for (int lane = 0; lane < LANES; lane++) {
+                final int dst = base + 4 * lane;
+                dest[dst] = scratch[lane];
+                dest[dst + 1] = scratch[LANES + lane];
+                dest[dst + 2] = scratch[2 * LANES + lane];
+                dest[dst + 3] = scratch[3 * LANES + lane];
+            }
+        }
+        return blockedCount;
+    }
+
+    private static int[] laneOffsets() {
+        final int[] result = new int[LANES];
+        for (int lane = 0; lane < LANES; lane++) {
+            result[lane] = 4 * lane;
+        }
+        return result;
+    }
+}
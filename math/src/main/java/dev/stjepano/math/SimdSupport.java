@@ -0,0 +1,26 @@
+package dev.stjepano.math;
+
+/// Tells if SIMD (Vector API) code paths can be used.
+///
+/// Vector API lives in incubator module `jdk.incubator.vector` which must be explicitly added to the JVM with
+/// `--add-modules jdk.incubator.vector`. When module is not resolved all math functions use scalar code paths.
+///
+/// SIMD paths can be disabled with `-Ddev.stjepano.math.simd=false`.
+///
+/// Methods documented as allocation free guarantee it for scalar code paths. SIMD paths do not allocate scratch memory,
+/// but whether Vector API vectors and masks stay in registers or are boxed on the heap depends on which operations the
+/// JIT intrinsifies for the JDK version and CPU, so SIMD paths may allocate. Disable SIMD where allocation must be
+/// zero.
+///
+/// Public so that subpackages (for example `dev.stjepano.math.animation`) can select SIMD code paths.
+///
+/// **NOTE**: this class must not reference any class from `jdk.incubator.vector`.
+public final class SimdSupport {
+
+    /// True if SIMD code paths are enabled.
+    public static final boolean ENABLED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+            && !"false".equalsIgnoreCase(System.getProperty("dev.stjepano.math.simd"));
+
+    private SimdSupport() {
+    }
+}
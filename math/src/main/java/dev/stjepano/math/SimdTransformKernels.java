@@ -0,0 +1,118 @@
+package dev.stjepano.math;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import static dev.stjepano.math.MathUtil.EPSILON8;
+
+/// SIMD (Vector API) kernels which transform 3 component vectors stored in (possibly interleaved) vertex data.
+///
+/// Kernels process blocks of `LANES` vertices and return the number of processed vertices, the caller is responsible
+/// for processing the remaining vertices with scalar code. Use only when `SimdSupport.ENABLED` is true.
+///
+/// X, Y and Z components of a block are gathered into 3 vectors, transformed and scattered back through a small
+/// scratch array. This works for both tightly packed (stride 3) and interleaved vertex data. De-interleaving packed
+/// data with lane shuffles was measured to be slower than hardware gather. Scratch arrays are per thread so kernels do
+/// not allocate scratch memory, vectors may still be boxed when the JIT does not intrinsify an operation (see
+/// [SimdSupport]).
+///
+/// Operations are done in same order as in scalar code, so results are bit-identical to scalar code.
+final class SimdTransformKernels {
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private SimdTransformKernels() {
+    }
+
+    /// Positions: p' = M * p + t (M is 3x3 rotation-scale matrix, t is translation).
+    /// @return number of processed vertices (multiple of `LANES`)
+    static int transformPositions(float[] array, int count, int offset, int stride,
+                                  float m00, float m01, float m02, float m03,
+                                  float m10, float m11, float m12, float m13,
+                                  float m20, float m21, float m22, float m23) {
+        final int blockedCount = count - (count % LANES);
+        final Scratch state = SCRATCH.get();
+        final int[] laneOffsets = state.laneOffsets(stride);
+        final float[] scratch = state.values;
+        for (int index = 0; index < blockedCount; index += LANES) {
+            final int base = offset + index * stride;
+            final FloatVector px = FloatVector.fromArray(SPECIES, array, base, laneOffsets, 0);
+            final FloatVector py = FloatVector.fromArray(SPECIES, array, base + 1, laneOffsets, 0);
+            final FloatVector pz = FloatVector.fromArray(SPECIES, array, base + 2, laneOffsets, 0);
+
+            px.mul(m00).add(py.mul(m01)).add(pz.mul(m02)).add(m03).intoArray(scratch, 0);
+            px.mul(m10).add(py.mul(m11)).add(pz.mul(m12)).add(m13).intoArray(scratch, LANES);
+            px.mul(m20).add(py.mul(m21)).add(pz.mul(m22)).add(m23).intoArray(scratch, 2 * LANES);
+
+            scatter(scratch, array, base, laneOffsets);
+        }
+        return blockedCount;
+    }
+
+    /// Normals (or any direction): n' = M * n, optionally normalized. If length of transformed normal is
+    /// less than `EPSILON8` the normal is not modified (same as in scalar code).
+    /// @return number of processed vertices (multiple of `LANES`)
+    static int transformNormals(float[] array, int count, int offset, int stride, boolean normalize,
+                                float m00, float m01, float m02,
+                                float m10, float m11, float m12,
+                                float m20, float m21, float m22) {
+        final int blockedCount = count - (count % LANES);
+        final Scratch state = SCRATCH.get();
+        final int[] laneOffsets = state.laneOffsets(stride);
+        final float[] scratch = state.values;
+        for (int index = 0; index < blockedCount; index += LANES) {
+            final int base = offset + index * stride;
+            final FloatVector x = FloatVector.fromArray(SPECIES, array, base, laneOffsets, 0);
+            final FloatVector y = FloatVector.fromArray(SPECIES, array, base + 1, laneOffsets, 0);
+            final FloatVector z = FloatVector.fromArray(SPECIES, array, base + 2, laneOffsets, 0);
+
+            FloatVector nx = x.mul(m00).add(y.mul(m01)).add(z.mul(m02));
+            FloatVector ny = x.mul(m10).add(y.mul(m11)).add(z.mul(m12));
+            FloatVector nz = x.mul(m20).add(y.mul(m21)).add(z.mul(m22));
+            if (normalize) {
+                final FloatVector len = nx.mul(nx).add(ny.mul(ny)).add(nz.mul(nz)).sqrt();
+                final VectorMask<Float> valid = len.compare(VectorOperators.GT, EPSILON8);
+                nx = x.blend(nx.div(len), valid);
+                ny = y.blend(ny.div(len), valid);
+                nz = z.blend(nz.div(len), valid);
+            }
+
+            nx.intoArray(scratch, 0);
+            ny.intoArray(scratch, LANES);
+            nz.intoArray(scratch, 2 * LANES);
+            scatter(scratch, array, base, laneOffsets);
+        }
+        return blockedCount;
+    }
+
+    /// Per thread scratch, lane offsets are recomputed only when stride changes.
+    private static final class Scratch {
+        final float[] values = new float[3 * LANES];
+        final int[] laneOffsets = new int[LANES];
+        int stride = -1;
+
+        int[] laneOffsets(int stride) {
+            if (this.stride != stride) {
+                for (int lane = 0; lane < LANES; lane++) {
+                    laneOffsets[lane] = lane * stride;
+                }
+                this.stride = stride;
+            }
+            return laneOffsets;
+        }
+    }
+
+    /// Scatter [x0..xN, y0..yN, z0..zN] from scratch into interleaved array. Vector API scatter is not hardware
+    /// accelerated on most CPUs, plain stores are faster.
+    private static void scatter(float[] scratch, float[] array, int base, int[] laneOffsets) {
+        for (int lane = 0; lane < LANES; lane++) {
+            final int dst = base + laneOffsets[lane];
+            array[dst] = scratch[lane];
+            array[dst + 1] = scratch[LANES + lane];
+            array[dst + 2] = scratch[2 * LANES + lane];
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package dev.stjepano.math;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/// Uniform grid over packed point positions for fast radius (neighbor) queries, meant to be rebuilt every frame for
+/// particle and flocking workloads.
+///
+/// Points are read from float array with same layout as [Transform#transformPosition(float[], int, int, int)]
+/// (`count` positions starting at `offset`, `stride` floats apart). Space is divided into cubic cells of
+/// `cellSize` which are hashed into a power of two table of slots by wrapping cell coordinates per axis, so cells
+/// which are close to each other never share a slot. Build is a counting sort of points by slot into flat arrays:
+/// slot start offsets, original point indices and copy of positions in sorted order. Neighboring cells along x are
+/// adjacent in the table, so queries scan contiguous runs of points.
+///
+/// Best query performance is when `cellSize` is close to the query radius. Queries do not allocate and can be done
+/// concurrently from multiple threads, the grid must not be rebuilt while queries are running.
+///
+/// #### Example
+/// ```java
+/// SpatialHashGrid grid = new SpatialHashGrid(neighborRadius);
+/// // every frame
+/// grid.build(particlePositions, particleCount, 0, 3);
+/// grid.forEachNeighbor(x, y, z, neighborRadius, (index, distanceSquared) -> ...);
+/// ```
+public final class SpatialHashGrid {
+
+    /// Default number of points at which parallel build starts.
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 16;
+
+    /// Receives points found by radius query.
+    @FunctionalInterface
+    public interface NeighborCallback {
+        /// Called for every point within the query radius.
+        /// @param index index of the point in the array the grid was built from
+        /// @param distanceSquared squared distance of the point from query center
+        void neighbor(int index, float distanceSquared);
+    }
+
+    private static final VarHandle INT_ARRAY = MethodHandles.arrayElementVarHandle(int[].class);
+
+    /// Minimal number of points processed by a single build task.
+    private static final int MIN_CHUNK_SIZE = 1 << 13;
+    /// Largest table is 2^MAX_SLOT_BITS slots.
+    private static final int MAX_SLOT_BITS = 24;
+
+    private final float cellSize;
+    private final float invCellSize;
+
+    private int count;
+    private int bitsX;
+    private int bitsXY;
+    private int maskX;
+    private int maskY;
+    private int maskZ;
+    /// Points of slot `s` are at sorted positions `[slotStart[s], slotStart[s + 1])`.
+    private int[] slotStart = new int[2];
+    /// Original index of each point in sorted order.
+    private int[] sortedIndices = new int[0];
+    /// Positions in sorted order, 3 floats per point.
+    private float[] sortedPositions = new float[0];
+    /// Slot of each point in original order (build scratch).
+    private int[] pointSlots = new int[0];
+    /// Position of each point within its slot in original order (parallel build scratch).
+    private int[] pointRanks = new int[0];
+
+    /// Create grid.
+    /// @param cellSize size of cubic grid cell, usually equal to the query radius
+    public SpatialHashGrid(float cellSize) {
+        if (!(cellSize > 0.0f) || cellSize == Float.POSITIVE_INFINITY) {
+            throw new IllegalArgumentException("cellSize must be finite and greater than 0");
+        }
+        this.cellSize = cellSize;
+        this.invCellSize = 1.0f / cellSize;
+    }
+
+    /// @return size of grid cell
+    public float cellSize() {
+        return cellSize;
+    }
+
+    /// @return number of points in the grid
+    public int count() {
+        return count;
+    }
+
+    /// @return number of slots in the hash table
+    public int slotCount() {
+        return slotStart.length - 1;
+    }
+
+    /// Rebuild the grid from packed positions on the calling thread.
+    /// @param positionArray reference to vertex data with position data
+    /// @param count number of points
+    /// @param offset array offset to first component of first position
+    /// @param stride number of components per point
+    public void build(float[] positionArray, int count, int offset, int stride) {
+        prepare(positionArray, count, offset, stride);
+        computeSlots(positionArray, offset, stride, 0, count);
+        final int[] start = slotStart;
+        for (int i = 0; i < count; i++) {
+            start[pointSlots[i] + 1]++;
+        }
+        prefixSum();
+        scatter(positionArray, offset, stride, 0, count);
+        finish();
+    }
+
+    /// Rebuild the grid from packed positions, large point sets are built in parallel. Order of points within a cell
+    /// is unspecified when built in parallel.
+    /// @param positionArray reference to vertex data with position data
+    /// @param count number of points
+    /// @param offset array offset to first component of first position
+    /// @param stride number of components per point
+    /// @param pool fork/join pool used for at least [#DEFAULT_PARALLEL_THRESHOLD] points
+    public void build(float[] positionArray, int count, int offset, int stride, ForkJoinPool pool) {
+        if (pool == null) {
+            throw new NullPointerException("pool");
+        }
+        if (count < DEFAULT_PARALLEL_THRESHOLD) {
+            build(positionArray, count, offset, stride);
+            return;
+        }
+        prepare(positionArray, count, offset, stride);
+        if (pointRanks.length < count) {
+            pointRanks = new int[count];
+        }
+        // A few chunks per worker so that work is balanced when some workers are busy
+        final int chunkSize = Math.max(MIN_CHUNK_SIZE, count / (pool.getParallelism() * 4));
+        pool.invoke(new BuildTask(this, positionArray, offset, stride, 0, count, chunkSize, false));
+        prefixSum();
+        // Slot starts are not advanced by the parallel scatter, no finish
+        pool.invoke(new BuildTask(this, positionArray, offset, stride, 0, count, chunkSize, true));
+    }
+
+    /// Find points within radius.
+    /// @param center query center
+    /// @param radius query radius
+    /// @param dest receives indices of points in the array the grid was built from
+    /// @return number of indices written to `dest`, query stops when `dest` is full
+    public int queryRadius(Vec3 center, float radius, int[] dest) {
+        return queryRadius(center.x, center.y, center.z, radius, dest);
+    }
+
+    /// Find points within radius.
+    /// @return number of indices written to `dest`, query stops when `dest` is full
+    public int queryRadius(float x, float y, float z, float radius, int[] dest) {
+        if (count == 0 || dest.length == 0 || !(radius >= 0.0f)) {
+            return 0;
+        }
+        final float radiusSquared = radius * radius;
+        final float[] positions = sortedPositions;
+        int found = 0;
+        final int x0 = cell(x - radius);
+        final int y0 = cell(y - radius);
+        final int z0 = cell(z - radius);
+        final int xCount = cellCount(x, radius, maskX);
+        final int yCount = cellCount(y, radius, maskY);
+        final int zCount = cellCount(z, radius, maskZ);
+        for (int iz = 0; iz < zCount; iz++) {
+            for (int iy = 0; iy < yCount; iy++) {
+                // Cell coordinates may wrap around int range, only their low bits are used
+                final int row = (((z0 + iz) & maskZ) << bitsXY) | (((y0 + iy) & maskY) << bitsX);
+                // Cells along x are consecutive slots, scan at most two runs when range wraps around
+                final int first = x0 & maskX;
+                final int firstCount = Math.min(xCount, maskX + 1 - first);
+                for (int run = 0; run < 2; run++) {
+                    final int slot = row | (run == 0 ? first : 0);
+                    final int end = slotStart[slot + (run == 0 ? firstCount : xCount - firstCount)];
+                    for (int j = slotStart[slot]; j < end; j++) {
+                        final float dx = positions[3 * j] - x;
+                        final float dy = positions[3 * j + 1] - y;
+                        final float dz = positions[3 * j + 2] - z;
+                        if (dx * dx + dy * dy + dz * dz <= radiusSquared) {
+                            dest[found++] = sortedIndices[j];
+                            if (found == dest.length) {
+                                return found;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /// Visit points within radius.
+    /// @param center query center
+    /// @param radius query radius
+    /// @param callback receives every point within radius
+    public void forEachNeighbor(Vec3 center, float radius, NeighborCallback callback) {
+        forEachNeighbor(center.x, center.y, center.z, radius, callback);
+    }
+
+    /// Visit points within radius.
+    public void forEachNeighbor(float x, float y, float z, float radius, NeighborCallback callback) {
+        if (callback == null) {
+            throw new NullPointerException("callback");
+        }
+        if (count == 0 || !(radius >= 0.0f)) {
+            return;
+        }
+        final float radiusSquared = radius * radius;
+        final float[] positions = sortedPositions;
+        final int x0 = cell(x - radius);
+        final int y0 = cell(y - radius);
+        final int z0 = cell(z - radius);
+        final int xCount = cellCount(x, radius, maskX);
+        final int yCount = cellCount(y, radius, maskY);
+        final int zCount = cellCount(z, radius, maskZ);
+        for (int iz = 0; iz < zCount; iz++) {
+            for (int iy = 0; iy < yCount; iy++) {
+                // Cell coordinates may wrap around int range, only their low bits are used
+                final int row = (((z0 + iz) & maskZ) << bitsXY) | (((y0 + iy) & maskY) << bitsX);
+                final int first = x0 & maskX;
+                final int firstCount = Math.min(xCount, maskX + 1 - first);
+                for (int run = 0; run < 2; run++) {
+                    final int slot = row | (run == 0 ? first : 0);
+                    final int end = slotStart[slot + (run == 0 ? firstCount : xCount - firstCount)];
+                    for (int j = slotStart[slot]; j < end; j++) {
+                        final float dx = positions[3 * j] - x;
+                        final float dy = positions[3 * j + 1] - y;
+                        final float dz = positions[3 * j + 2] - z;
+                        final float distanceSquared = dx * dx + dy * dy + dz * dz;
+                        if (distanceSquared <= radiusSquared) {
+                            callback.neighbor(sortedIndices[j], distanceSquared);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private int cell(float coordinate) {
+        return (int) Math.floor(coordinate * invCellSize);
+    }
+
+    /// Number of cells of the query range along axis, range is limited to table size so that no slot is visited twice.
+    /// Computed in long because cells of huge ranges saturate at int limits.
+    private int cellCount(float coordinate, float radius, int mask) {
+        final long span = (long) cell(coordinate + radius) - cell(coordinate - radius);
+        return (int) Math.min(span + 1, mask + 1);
+    }
+
+    private void prepare(float[] positionArray, int count, int offset, int stride) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative");
+        }
+        if (stride < 3) {
+            throw new IllegalArgumentException("stride must be at least 3");
+        }
+        if (count > 0) {
+            Objects.checkFromIndexSize(offset, (count - 1) * stride + 3, positionArray.length);
+        }
+
+        // About one slot per point, bits are distributed between axes
+        final int bits = Math.min(MAX_SLOT_BITS, 32 - Integer.numberOfLeadingZeros(Math.max(count - 1, 0)));
+        final int bitsY = (bits + 1) / 3;
+        final int bitsZ = bits / 3;
+        bitsX = bits - bitsY - bitsZ;
+        bitsXY = bitsX + bitsY;
+        maskX = (1 << bitsX) - 1;
+        maskY = (1 << bitsY) - 1;
+        maskZ = (1 << bitsZ) - 1;
+
+        final int slotCount = 1 << bits;
+        if (slotStart.length != slotCount + 1) {
+            slotStart = new int[slotCount + 1];
+        } else {
+            Arrays.fill(slotStart, 0);
+        }
+        if (sortedIndices.length < count) {
+            sortedIndices = new int[count];
+            sortedPositions = new float[3 * count];
+            pointSlots = new int[count];
+        }
+        this.count = count;
+    }
+
+    private void computeSlots(float[] positionArray, int offset, int stride, int from, int to) {
+        final float inv = invCellSize;
+        for (int i = from; i < to; i++) {
+            final int p = offset + i * stride;
+            final int cx = (int) Math.floor(positionArray[p] * inv);
+            final int cy = (int) Math.floor(positionArray[p + 1] * inv);
+            final int cz = (int) Math.floor(positionArray[p + 2] * inv);
+            pointSlots[i] = ((cz & maskZ) << bitsXY) | ((cy & maskY) << bitsX) | (cx & maskX);
+        }
+    }
+
+    /// Turn counts stored at `slotStart[s + 1]` into start offsets.
+    private void prefixSum() {
+        final int[] start = slotStart;
+        for (int s = 1; s < start.length; s++) {
+            start[s] += start[s - 1];
+        }
+    }
+
+    private void scatter(float[] positionArray, int offset, int stride, int from, int to) {
+        final int[] start = slotStart;
+        for (int i = from; i < to; i++) {
+            final int j = start[pointSlots[i]]++;
+            copyPoint(positionArray, offset, stride, i, j);
+        }
+    }
+
+    private void copyPoint(float[] positionArray, int offset, int stride, int i, int j) {
+        final int p = offset + i * stride;
+        sortedIndices[j] = i;
+        sortedPositions[3 * j] = positionArray[p];
+        sortedPositions[3 * j + 1] = positionArray[p + 1];
+        sortedPositions[3 * j + 2] = positionArray[p + 2];
+    }
+
+    /// Scatter advanced every slot start to the start of the next slot, shift them back.
+    private void finish() {
+        final int[] start = slotStart;
+        System.arraycopy(start, 0, start, 1, start.length - 2);
+        start[0] = 0;
+    }
+
+    @SuppressWarnings("serial")
+    private static final class BuildTask extends RecursiveAction {
+        private final SpatialHashGrid grid;
+        private final float[] positionArray;
+        private final int offset;
+        private final int stride;
+        private final int start;
+        private final int end;
+        private final int chunkSize;
+        /// First pass computes slots and ranks of points within their slots, second pass scatters points.
+        private final boolean scatter;
+
+        BuildTask(SpatialHashGrid grid, float[] positionArray, int offset, int stride, int start, int end,
+                  int chunkSize, boolean scatter) {
+            this.grid = grid;
+            this.positionArray = positionArray;
+            this.offset = offset;
+            this.stride = stride;
+            this.start = start;
+            this.end = end;
+            this.chunkSize = chunkSize;
+            this.scatter = scatter;
+        }
+
+        @Override
+        protected void compute() {
+            final int count = end - start;
+            if (count <= chunkSize) {
+                final int[] slots = grid.pointSlots;
+                final int[] ranks = grid.pointRanks;
+                final int[] slotStart = grid.slotStart;
+                if (scatter) {
+                    final int[] sortedIndices = grid.sortedIndices;
+                    final float[] sortedPositions = grid.sortedPositions;
+                    for (int i = start; i < end; i++) {
+                        final int j = slotStart[slots[i]] + ranks[i];
+                        final int p = offset + i * stride;
+                        sortedIndices[j] = i;
+                        sortedPositions[3 * j] = positionArray[p];
+                        sortedPositions[3 * j + 1] = positionArray[p + 1];
+                        sortedPositions[3 * j + 2] = positionArray[p + 2];
+                    }
+                } else {
+                    grid.computeSlots(positionArray, offset, stride, start, end);
+                    // Count before the increment is the rank of the point, so scatter needs no atomic updates
+                    for (int i = start; i < end; i++) {
+                        ranks[i] = (int) INT_ARRAY.getAndAdd(slotStart, slots[i] + 1, 1);
+                    }
+                }
+                return;
+            }
+            final int middle = start + count / 2;
+            invokeAll(new BuildTask(grid, positionArray, offset, stride, start, middle, chunkSize, scatter),
+                    new BuildTask(grid, positionArray, offset, stride, middle, end, chunkSize, scatter));
+        }
+    }
+}
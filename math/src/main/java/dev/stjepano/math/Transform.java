@@ -1,5 +1,7 @@
 package dev.stjepano.math;
 
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
 import java.util.Objects;
 
 import static dev.stjepano.math.MathUtil.*;
@@ -19,34 +21,81 @@ import static dev.stjepano.math.MathUtil.*;
 /// Because of how transformations are applied to objects, the `scale` is always in local space.
 ///
 /// **NOTE** that normals have special transform functions, they can not be transformed in same way as positions.
+///
+/// Every modification of the transform increments its {@link #version()}. Transform matrix and inverse transform
+/// matrix are computed lazily and cached until next modification, so converting an unchanged transform to matrix is a
+/// plain copy. Renderers can compare the version with the one seen last frame to skip uploading unchanged data.
+/// If you modify vectors returned by {@link #position()}, {@link #scale()} or {@link #rotation()} directly you must
+/// call {@link #markChanged()}.
+///
+/// Transform is not thread safe for modification, but methods which only read it (including conversions to matrices
+/// which fill the cache) can be called from multiple threads concurrently when no thread modifies it.
 public final class Transform {
     private final Vec3 position = new Vec3();
     private final Vec3 scale = new Vec3(1, 1, 1);
     private final Quaternion rotation = new Quaternion();
 
+    private int version;
+
+    // Cached transform matrix (first 3 rows), valid when matrixVersion == version. Initially identity.
+    // Versions of the caches are volatile and written after the cached values, so concurrent readers which see the
+    // current version also see the values (readers which both recompute the cache write identical values).
+    private volatile int matrixVersion = 0;
+    private float c00 = 1, c01, c02, c03;
+    private float c10, c11 = 1, c12, c13;
+    private float c20, c21, c22 = 1, c23;
+
+    // Cached inverse transform matrix (first 3 rows), valid when inverseVersion == version. Initially identity.
+    private volatile int inverseVersion = 0;
+    private float i00 = 1, i01, i02, i03;
+    private float i10, i11 = 1, i12, i13;
+    private float i20, i21, i22 = 1, i23;
+
     /// A position of the object in space relative to parent.
+    ///
+    /// **NOTE**: call {@link #markChanged()} after modifying the returned vector.
     /// @return reference to _position_ vector.
     public Vec3 position() {
         return this.position;
     }
 
     /// Scale of the object. Always local scale.
+    ///
+    /// **NOTE**: call {@link #markChanged()} after modifying the returned vector.
     /// @return reference to _scale_ vector.
     public Vec3 scale() {
         return this.scale;
     }
 
     /// Rotation of the object in space relative to parent.
+    ///
+    /// **NOTE**: call {@link #markChanged()} after modifying the returned quaternion.
     /// @return reference to _rotation_ vector.
     public Quaternion rotation() {
         return this.rotation;
     }
 
+    /// Modification counter, incremented by every method which changes the transform. Wraps around on overflow,
+    /// compare for equality only.
+    /// @return current version of the transform
+    public int version() {
+        return this.version;
+    }
+
+    /// Tell the transform that it was modified through references returned by {@link #position()}, {@link #scale()}
+    /// or {@link #rotation()}. Invalidates cached matrices and increments the version.
+    /// @return reference to this for chaining
+    public Transform markChanged() {
+        version++;
+        return this;
+    }
+
     /// Set this transform to identity (position = 0,0,0; scale = 1,1,1; rotation = no rotation).
     public Transform setIdentity() {
         this.position.set(0, 0, 0);
         this.scale.set(1, 1, 1);
         this.rotation.set(0, 0, 0, 1);
+        version++;
         return this;
     }
 
@@ -57,6 +106,7 @@ public final class Transform {
     /// @return reference to this for chaining
     public Transform setPosition(float x, float y, float z) {
         this.position.set(x, y, z);
+        version++;
         return this;
     }
 
@@ -65,6 +115,7 @@ public final class Transform {
     /// @return reference to this for chaining
     public Transform setPosition(Vec3 pos) {
         this.position.set(pos);
+        version++;
         return this;
     }
 
@@ -74,6 +125,7 @@ public final class Transform {
     /// @return reference to this for chaining
     public Transform setRotation(Quaternion rot) {
         this.rotation.set(rot);
+        version++;
         return this;
     }
 
@@ -82,6 +134,7 @@ public final class Transform {
     /// @return reference to this for chaining
     public Transform setRotationX(float angleRad) {
         this.rotation.setRotationX(angleRad);
+        version++;
         return this;
     }
 
@@ -90,6 +143,7 @@ public final class Transform {
     /// @return reference to this for chaining
     public Transform setRotationY(float angleRad) {
         this.rotation.setRotationY(angleRad);
+        version++;
         return this;
     }
 
@@ -98,6 +152,7 @@ public final class Transform {
     /// @return reference to this for chaining
     public Transform setRotationZ(float angleRad) {
         this.rotation.setRotationZ(angleRad);
+        version++;
         return this;
     }
 
@@ -108,6 +163,7 @@ public final class Transform {
     /// @return reference to this for chaining
     public Transform setRotation(Vec3 unitAxis, float angleRad) {
         this.rotation.setAxisAngle(unitAxis, angleRad);
+        version++;
         return this;
     }
 
@@ -118,6 +174,7 @@ public final class Transform {
     /// @return reference to this for chaining
     public Transform setRotationEulerYXZ(float pitchRad, float yawRad, float rollRad) {
         this.rotation.setEulerYXZ(pitchRad, yawRad, rollRad);
+        version++;
         return this;
     }
 
@@ -128,6 +185,7 @@ public final class Transform {
     /// @return reference to this for chaining
     public Transform setRotationEulerZXY(float pitchRad, float yawRad, float rollRad) {
         this.rotation.setEulerZXY(pitchRad, yawRad, rollRad);
+        version++;
         return this;
     }
 
@@ -138,6 +196,7 @@ public final class Transform {
     /// @return reference to this for chaining
     public Transform setRotationEulerZYX(float pitchRad, float yawRad, float rollRad) {
         this.rotation.setEulerZYX(pitchRad, yawRad, rollRad);
+        version++;
         return this;
     }
 
@@ -148,6 +207,7 @@ public final class Transform {
     /// @return reference to this for chaining
     public Transform setScale(float x, float y, float z) {
         this.scale.set(x, y, z);
+        version++;
         return this;
     }
 
@@ -156,6 +216,7 @@ public final class Transform {
     /// @return reference to this for chaining
     public Transform setScale(float uniformScale) {
         this.scale.set(uniformScale, uniformScale, uniformScale);
+        version++;
         return this;
     }
 
@@ -166,6 +227,7 @@ public final class Transform {
     /// @return reference to this for chaining
     public Transform translate(float x, float y, float z) {
         this.position.add(x, y, z);
+        version++;
         return this;
     }
 
@@ -176,6 +238,7 @@ public final class Transform {
     /// @return reference to this for chaining
     public Transform translateLocal(float x, float y, float z) {
         translateLocalBasis(x, y, -z);
+        version++;
         return this;
     }
 
@@ -214,6 +277,7 @@ public final class Transform {
         this.position.y += rotOffsetY;
         this.position.z += rotOffsetZ;
 
+        version++;
         return this;
     }
 
@@ -222,6 +286,7 @@ public final class Transform {
     /// @return reference to this for chaining
     public Transform translate(Vec3 offset) {
         this.position.add(offset);
+        version++;
         return this;
     }
 
@@ -230,6 +295,7 @@ public final class Transform {
     /// @return reference to this for chaining
     public Transform translateLocal(Vec3 offset) {
         this.translateLocal(offset.x, offset.y, offset.z);
+        version++;
         return this;
     }
 
@@ -238,6 +304,7 @@ public final class Transform {
     /// @return reference to this for chaining
     public Transform translateLocalBasis(Vec3 offset) {
         this.translateLocalBasis(offset.x, offset.y, offset.z);
+        version++;
         return this;
     }
 
@@ -247,6 +314,7 @@ public final class Transform {
     public Transform rotate(Quaternion rot) {
         // World rotation: this.rotation = rot * this.rotation (premultiply)
         this.rotation.preMul(rot);
+        version++;
         return this;
     }
 
@@ -256,6 +324,7 @@ public final class Transform {
     public Transform rotateLocal(Quaternion rot) {
         // Convert to axis angle and use that
         this.rotation.mul(rot.x, rot.y, -rot.z, rot.w);
+        version++;
         return this;
     }
 
@@ -265,6 +334,7 @@ public final class Transform {
     public Transform rotateLocalBasis(Quaternion rot) {
         // Local rotation: this.rotation = this.rotation * rot
         this.rotation.mul(rot);
+        version++;
         return this;
     }
 
@@ -282,6 +352,7 @@ public final class Transform {
         float qz = s * unitAxis.z;
         float qw = (float) Math.cos(halfAngle);
         this.rotation.preMul(qx, qy, qz, qw);
+        version++;
         return this;
     }
 
@@ -298,6 +369,7 @@ public final class Transform {
         float qz = s * -unitAxis.z;
         float qw = (float) Math.cos(halfAngle);
         this.rotation.mul(qx, qy, qz, qw);
+        version++;
         return this;
     }
 
@@ -314,6 +386,7 @@ public final class Transform {
         float qz = s * unitAxis.z;
         float qw = (float) Math.cos(halfAngle);
         this.rotation.mul(qx, qy, qz, qw);
+        version++;
         return this;
     }
 
@@ -391,6 +464,7 @@ public final class Transform {
     /// @return reference to this for chaining
     public Transform scaleBy(float x, float y, float z) {
         this.scale.scale(x, y, z);
+        version++;
         return this;
     }
 
@@ -399,6 +473,7 @@ public final class Transform {
     /// @return reference to this for chaining
     public Transform scaleBy(Vec3 scale) {
         this.scale.scale(scale.x, scale.y, scale.z);
+        version++;
         return this;
     }
 
@@ -407,6 +482,7 @@ public final class Transform {
     /// @return reference to this for chaining
     public Transform scaleBy(float uniformScale) {
         this.scale.scale(uniformScale);
+        version++;
         return this;
     }
 
@@ -414,52 +490,73 @@ public final class Transform {
     /// @param target the position of the target
     /// @param worldUp global UP axis
     public Transform lookAt(Vec3 target, Vec3 worldUp) {
+        // Scalar math, lookAt is often called every frame and should not allocate
+
         // 1. Calculate direction to target
         //    direction = normalize(target - position)
-        Vec3 direction = new Vec3()
-                .set(target)
-                .sub(position)
-                .normalize();
+        float dx = target.x - position.x;
+        float dy = target.y - position.y;
+        float dz = target.z - position.z;
+        float invLength = invLength(dx, dy, dz);
+        dx *= invLength;
+        dy *= invLength;
+        dz *= invLength;
 
         // 2. Compute the right vector
         //    right = normalize(direction x worldUp)
-        Vec3 right = new Vec3()
-                .set(direction)
-                .cross(worldUp)
-                .normalize();
+        float rx = dy * worldUp.z - dz * worldUp.y;
+        float ry = dz * worldUp.x - dx * worldUp.z;
+        float rz = dx * worldUp.y - dy * worldUp.x;
 
         // 3. Handle case when direction is parallel to world up by picking perpendicular up vector
-        if (right.lengthSqr() < EPSILON8) {
+        if (rx * rx + ry * ry + rz * rz < EPSILON8) {
             if (Math.abs(worldUp.y) < 0.9f) {
-                // worldUp is not Y dominant use Y
-                right.set(direction).cross(0, 1, 0).normalize();
+                // worldUp is not Y dominant use Y: direction x (0, 1, 0)
+                rx = -dz;
+                ry = 0.0f;
+                rz = dx;
             } else {
-                // worldUp is Y dominant, use X
-                right.set(direction).cross(1, 0, 0).normalize();
+                // worldUp is Y dominant, use X: direction x (1, 0, 0)
+                rx = 0.0f;
+                ry = dz;
+                rz = -dy;
             }
         }
+        invLength = invLength(rx, ry, rz);
+        rx *= invLength;
+        ry *= invLength;
+        rz *= invLength;
 
         // 4. Compute actual up vector
-        Vec3 up = new Vec3()
-                .set(right)
-                .cross(direction)
-                .normalize();
-
-        //noinspection UnnecessaryLocalVariable
-        Vec3 xBasis = right;
-        //noinspection UnnecessaryLocalVariable
-        Vec3 yBasis = up;
-        Vec3 zBasis = direction.negate();   // negates the direction itself and returns reference to it
-
-        float m00 = xBasis.x; float m01 = yBasis.x; float m02 = zBasis.x;
-        float m10 = xBasis.y; float m11 = yBasis.y; float m12 = zBasis.y;
-        float m20 = xBasis.z; float m21 = yBasis.z; float m22 = zBasis.z;
+        //    up = normalize(right x direction)
+        float ux = ry * dz - rz * dy;
+        float uy = rz * dx - rx * dz;
+        float uz = rx * dy - ry * dx;
+        invLength = invLength(ux, uy, uz);
+        ux *= invLength;
+        uy *= invLength;
+        uz *= invLength;
+
+        // Basis: X = right, Y = up, Z = -direction
+        float m00 = rx; float m01 = ux; float m02 = -dx;
+        float m10 = ry; float m11 = uy; float m12 = -dy;
+        float m20 = rz; float m21 = uz; float m22 = -dz;
 
         rotation.setFromRotationMatrix(m00, m01, m02, m10, m11, m12, m20, m21, m22);
 
+        version++;
         return this;
     }
 
+    /// Reciprocal length of the vector, 1 for (near) zero vectors (same as [Vec3#normalize()]).
+    private static float invLength(float x, float y, float z) {
+        final float len = (float) Math.sqrt(x * x + y * y + z * z);
+        if (len < 1e-8f) {
+            return 1.0f;
+        }
+        return 1.0f / len;
+    }
+
     /// Get basis vectors (mathematical local space)
     /// @param destX the X vector (right from object's perspective)
     /// @param destY the Y vector (up from object's perspective)
@@ -595,6 +692,8 @@ public final class Transform {
     /// transformer.transformPosition(vertexData, vertexData.length/5, 0, 5);
     /// ```
     ///
+    /// **NOTE**: uses SIMD code path when `jdk.incubator.vector` module is available.
+    ///
     /// @param positionArray reference to vertex data with position data
     /// @param count number of vertices to process
     /// @param offset array offset to first component of first position
@@ -615,7 +714,13 @@ public final class Transform {
         final float m22 = (1 - 2*(rotation.x*rotation.x + rotation.y*rotation.y))*scale.z;
         final float m23 = position.z;
 
-        for (int index = 0; index < count; index++) {
+        int index = 0;
+        if (SimdSupport.ENABLED) {
+            index = SimdTransformKernels.transformPositions(positionArray, count, offset, stride,
+                    m00, m01, m02, m03, m10, m11, m12, m13, m20, m21, m22, m23);
+        }
+
+        for (; index < count; index++) {
             float px = positionArray[offset + (index * stride)];
             float py = positionArray[offset + (index * stride) + 1];
             float pz = positionArray[offset + (index * stride) + 2];
@@ -630,6 +735,53 @@ public final class Transform {
         }
     }
 
+    /// Transforms positions in vertex data stored in memory segment (for example mapped `Buffer`). Designed for raw
+    /// data that can be interleaved. Transform is done in-place, no copy to/from heap is required.
+    ///
+    /// #### Example
+    /// Vertex data with 3 component position followed by 2 component texture coordinate (20 bytes per vertex).
+    /// ```java
+    /// MemorySegment vertexData = buffer.map(...);
+    /// transformer.transformPosition(vertexData, 0, vertexCount, 20);
+    /// ```
+    ///
+    /// @param positionSegment memory segment with position data
+    /// @param byteOffset offset in bytes to first component of first position
+    /// @param count number of vertices to process
+    /// @param byteStride number of bytes per vertex
+    public void transformPosition(MemorySegment positionSegment, long byteOffset, int count, long byteStride) {
+        final float m00 = (1 - 2*(rotation.y * rotation.y + rotation.z * rotation.z))*scale.x;
+        final float m01 = 2*(rotation.x*rotation.y - rotation.w*rotation.z)*scale.y;
+        final float m02 = 2*(rotation.w*rotation.y + rotation.x*rotation.z)*scale.z;
+        final float m03 = position.x;
+
+        final float m10 = 2*(rotation.x*rotation.y + rotation.w*rotation.z)*scale.x;
+        final float m11 = (1 - 2*(rotation.x*rotation.x + rotation.z*rotation.z))*scale.y;
+        final float m12 = 2*((-rotation.w)*rotation.x + rotation.y*rotation.z)*scale.z;
+        final float m13 = position.y;
+
+        final float m20 = 2*((-rotation.w)*rotation.y + rotation.x*rotation.z)*scale.x;
+        final float m21 = 2*(rotation.w*rotation.x + rotation.y*rotation.z)*scale.y;
+        final float m22 = (1 - 2*(rotation.x*rotation.x + rotation.y*rotation.y))*scale.z;
+        final float m23 = position.z;
+
+        final long componentSize = ValueLayout.JAVA_FLOAT.byteSize();
+        for (int index = 0; index < count; index++) {
+            final long base = byteOffset + index * byteStride;
+            final float px = positionSegment.get(ValueLayout.JAVA_FLOAT, base);
+            final float py = positionSegment.get(ValueLayout.JAVA_FLOAT, base + componentSize);
+            final float pz = positionSegment.get(ValueLayout.JAVA_FLOAT, base + 2 * componentSize);
+
+            final float nx = m00 * px + m01 * py + m02 * pz + m03;
+            final float ny = m10 * px + m11 * py + m12 * pz + m13;
+            final float nz = m20 * px + m21 * py + m22 * pz + m23;
+
+            positionSegment.set(ValueLayout.JAVA_FLOAT, base, nx);
+            positionSegment.set(ValueLayout.JAVA_FLOAT, base + componentSize, ny);
+            positionSegment.set(ValueLayout.JAVA_FLOAT, base + 2 * componentSize, nz);
+        }
+    }
+
     /// Transform a _normal_ to space given by this _transform_. Normal is transformed in-place.
     ///
     /// **NOTE**: not efficient for arrays
@@ -718,6 +870,8 @@ public final class Transform {
     /// transformer.transformNormal(vertexData, vertexData.length/6, 3, 6);
     /// ```
     ///
+    /// **NOTE**: uses SIMD code path when `jdk.incubator.vector` module is available.
+    ///
     /// @param normalArray reference to vertex data with normal data
     /// @param count number of vertices to process
     /// @param offset array offset to first component of first normal
@@ -739,7 +893,13 @@ public final class Transform {
         final float m21 = 2*(rotation.w*rotation.x + rotation.y*rotation.z)*oneOverSy;
         final float m22 = (1 - 2*(rotation.x*rotation.x + rotation.y*rotation.y))*oneOverSz;
 
-        for (int index = 0; index < count; index++) {
+        int index = 0;
+        if (SimdSupport.ENABLED) {
+            index = SimdTransformKernels.transformNormals(normalArray, count, offset, stride, true,
+                    m00, m01, m02, m10, m11, m12, m20, m21, m22);
+        }
+
+        for (; index < count; index++) {
             int baseIndex = offset + (index * stride);
             final float normx = normalArray[baseIndex];
             final float normy = normalArray[baseIndex + 1];
@@ -758,6 +918,57 @@ public final class Transform {
         }
     }
 
+    /// Transforms normals in vertex data stored in memory segment (for example mapped `Buffer`). Designed for raw
+    /// data that can be interleaved. Transform is done in-place, no copy to/from heap is required.
+    ///
+    /// #### Example
+    /// Vertex data with 3 component position followed by 3 component normal (24 bytes per vertex).
+    /// ```java
+    /// MemorySegment vertexData = buffer.map(...);
+    /// transformer.transformNormal(vertexData, 12, vertexCount, 24);
+    /// ```
+    ///
+    /// @param normalSegment memory segment with normal data
+    /// @param byteOffset offset in bytes to first component of first normal
+    /// @param count number of vertices to process
+    /// @param byteStride number of bytes per vertex
+    public void transformNormal(MemorySegment normalSegment, long byteOffset, int count, long byteStride) {
+        final float oneOverSx = 1.0f / scale.x;
+        final float oneOverSy = 1.0f / scale.y;
+        final float oneOverSz = 1.0f / scale.z;
+
+        final float m00 = (1 - 2*(rotation.y * rotation.y + rotation.z * rotation.z))*oneOverSx;
+        final float m01 = 2*(rotation.x*rotation.y - rotation.w*rotation.z)*oneOverSy;
+        final float m02 = 2*(rotation.w*rotation.y + rotation.x*rotation.z)*oneOverSz;
+
+        final float m10 = 2*(rotation.x*rotation.y + rotation.w*rotation.z)*oneOverSx;
+        final float m11 = (1 - 2*(rotation.x*rotation.x + rotation.z*rotation.z))*oneOverSy;
+        final float m12 = 2*((-rotation.w)*rotation.x + rotation.y*rotation.z)*oneOverSz;
+
+        final float m20 = 2*((-rotation.w)*rotation.y + rotation.x*rotation.z)*oneOverSx;
+        final float m21 = 2*(rotation.w*rotation.x + rotation.y*rotation.z)*oneOverSy;
+        final float m22 = (1 - 2*(rotation.x*rotation.x + rotation.y*rotation.y))*oneOverSz;
+
+        final long componentSize = ValueLayout.JAVA_FLOAT.byteSize();
+        for (int index = 0; index < count; index++) {
+            final long base = byteOffset + index * byteStride;
+            final float normx = normalSegment.get(ValueLayout.JAVA_FLOAT, base);
+            final float normy = normalSegment.get(ValueLayout.JAVA_FLOAT, base + componentSize);
+            final float normz = normalSegment.get(ValueLayout.JAVA_FLOAT, base + 2 * componentSize);
+
+            final float nx = m00 * normx + m01 * normy + m02 * normz;
+            final float ny = m10 * normx + m11 * normy + m12 * normz;
+            final float nz = m20 * normx + m21 * normy + m22 * normz;
+
+            final float len = (float) Math.sqrt(nx*nx + ny*ny + nz*nz);
+            if (len > EPSILON8) {
+                normalSegment.set(ValueLayout.JAVA_FLOAT, base, nx / len);
+                normalSegment.set(ValueLayout.JAVA_FLOAT, base + componentSize, ny / len);
+                normalSegment.set(ValueLayout.JAVA_FLOAT, base + 2 * componentSize, nz / len);
+            }
+        }
+    }
+
     /// Same as {@link Transform#transformNormal(Vec3)} but does not normalize the normal.
     /// @param normal reference to normal that is transformed in-place
     /// @return reference to `normal`
@@ -844,7 +1055,13 @@ public final class Transform {
         final float m21 = 2*(rotation.w*rotation.x + rotation.y*rotation.z)*oneOverSy;
         final float m22 = (1 - 2*(rotation.x*rotation.x + rotation.y*rotation.y))*oneOverSz;
 
-        for (int index = 0; index < count; index++) {
+        int index = 0;
+        if (SimdSupport.ENABLED) {
+            index = SimdTransformKernels.transformNormals(normalArray, count, offset, stride, false,
+                    m00, m01, m02, m10, m11, m12, m20, m21, m22);
+        }
+
+        for (; index < count; index++) {
             final float normx = normalArray[offset + (index * stride)];
             final float normy = normalArray[offset + (index * stride) + 1];
             final float normz = normalArray[offset + (index * stride) + 2];
@@ -859,61 +1076,125 @@ public final class Transform {
         }
     }
 
-    /// Convert the transform into transform matrix (4x4).
-    /// @param dest Mat4 where result is stored
-    public void toMatrix(Mat4 dest) {
-        // Matrix transform order Scale -> Rotation -> Translation
-        // Matrix = Translation * Rotation * Scale
-        dest.m00 = (1 - 2*(rotation.y * rotation.y + rotation.z * rotation.z))*scale.x;
-        dest.m01 = 2*(rotation.x*rotation.y - rotation.w*rotation.z)*scale.y;
-        dest.m02 = 2*(rotation.w*rotation.y + rotation.x*rotation.z)*scale.z;
-        dest.m03 = position.x;
+    /// Same as {@link Transform#transformNormal(MemorySegment, long, int, long)} but does not normalize the normals.
+    /// @param normalSegment memory segment with normal data
+    /// @param byteOffset offset in bytes to first component of first normal
+    /// @param count number of vertices to process
+    /// @param byteStride number of bytes per vertex
+    public void transformNormalUnnormalized(MemorySegment normalSegment, long byteOffset, int count, long byteStride) {
+        final float oneOverSx = 1.0f / scale.x;
+        final float oneOverSy = 1.0f / scale.y;
+        final float oneOverSz = 1.0f / scale.z;
 
-        dest.m10 = 2*(rotation.x*rotation.y + rotation.w*rotation.z)*scale.x;
-        dest.m11 = (1 - 2*(rotation.x*rotation.x + rotation.z*rotation.z))*scale.y;
-        dest.m12 = 2*((-rotation.w)*rotation.x + rotation.y*rotation.z)*scale.z;
-        dest.m13 = position.y;
+        final float m00 = (1 - 2*(rotation.y * rotation.y + rotation.z * rotation.z))*oneOverSx;
+        final float m01 = 2*(rotation.x*rotation.y - rotation.w*rotation.z)*oneOverSy;
+        final float m02 = 2*(rotation.w*rotation.y + rotation.x*rotation.z)*oneOverSz;
 
-        dest.m20 = 2*((-rotation.w)*rotation.y + rotation.x*rotation.z)*scale.x;
-        dest.m21 = 2*(rotation.w*rotation.x + rotation.y*rotation.z)*scale.y;
-        dest.m22 = (1 - 2*(rotation.x*rotation.x + rotation.y*rotation.y))*scale.z;
-        dest.m23 = position.z;
+        final float m10 = 2*(rotation.x*rotation.y + rotation.w*rotation.z)*oneOverSx;
+        final float m11 = (1 - 2*(rotation.x*rotation.x + rotation.z*rotation.z))*oneOverSy;
+        final float m12 = 2*((-rotation.w)*rotation.x + rotation.y*rotation.z)*oneOverSz;
 
-        dest.m30 = 0;
-        dest.m31 = 0;
-        dest.m32 = 0;
-        dest.m33 = 1;
+        final float m20 = 2*((-rotation.w)*rotation.y + rotation.x*rotation.z)*oneOverSx;
+        final float m21 = 2*(rotation.w*rotation.x + rotation.y*rotation.z)*oneOverSy;
+        final float m22 = (1 - 2*(rotation.x*rotation.x + rotation.y*rotation.y))*oneOverSz;
+
+        final long componentSize = ValueLayout.JAVA_FLOAT.byteSize();
+        for (int index = 0; index < count; index++) {
+            final long base = byteOffset + index * byteStride;
+            final float normx = normalSegment.get(ValueLayout.JAVA_FLOAT, base);
+            final float normy = normalSegment.get(ValueLayout.JAVA_FLOAT, base + componentSize);
+            final float normz = normalSegment.get(ValueLayout.JAVA_FLOAT, base + 2 * componentSize);
+
+            final float nx = m00 * normx + m01 * normy + m02 * normz;
+            final float ny = m10 * normx + m11 * normy + m12 * normz;
+            final float nz = m20 * normx + m21 * normy + m22 * normz;
+
+            normalSegment.set(ValueLayout.JAVA_FLOAT, base, nx);
+            normalSegment.set(ValueLayout.JAVA_FLOAT, base + componentSize, ny);
+            normalSegment.set(ValueLayout.JAVA_FLOAT, base + 2 * componentSize, nz);
+        }
     }
 
-    /// Convert the transform into transform matrix and store its coefficients into an array.
-    /// @param dest destination array
-    /// @param offset offset in array where first element is stored
-    public void toMatrixFloatArray(float[] dest, int offset) {
-        //noinspection PointlessArithmeticExpression
-        dest[offset + 0] = (1 - 2*(rotation.y * rotation.y + rotation.z * rotation.z))*scale.x;
-        dest[offset + 1] = 2*(rotation.x*rotation.y - rotation.w*rotation.z)*scale.y;
-        dest[offset + 2] = 2*(rotation.w*rotation.y + rotation.x*rotation.z)*scale.z;
-        dest[offset + 3] = position.x;
+    /// Transform axis aligned box to space given by this _transform_ and compute axis aligned box which contains
+    /// the transformed box (Arvo's method).
+    ///
+    /// The cost is O(1), box center is transformed as position and box half extents are transformed by absolute
+    /// values of rotation-scale matrix. Destination may be same as source.
+    /// @param min minimum corner of the box
+    /// @param max maximum corner of the box
+    /// @param destMin receives minimum corner of transformed box
+    /// @param destMax receives maximum corner of transformed box
+    public void transformAabb(Vec3 min, Vec3 max, Vec3 destMin, Vec3 destMax) {
+        updateMatrix();
+        final float cx = (min.x + max.x) * 0.5f;
+        final float cy = (min.y + max.y) * 0.5f;
+        final float cz = (min.z + max.z) * 0.5f;
+        final float ex = (max.x - min.x) * 0.5f;
+        final float ey = (max.y - min.y) * 0.5f;
+        final float ez = (max.z - min.z) * 0.5f;
+
+        final float ncx = c00 * cx + c01 * cy + c02 * cz + c03;
+        final float ncy = c10 * cx + c11 * cy + c12 * cz + c13;
+        final float ncz = c20 * cx + c21 * cy + c22 * cz + c23;
+        final float nex = Math.abs(c00) * ex + Math.abs(c01) * ey + Math.abs(c02) * ez;
+        final float ney = Math.abs(c10) * ex + Math.abs(c11) * ey + Math.abs(c12) * ez;
+        final float nez = Math.abs(c20) * ex + Math.abs(c21) * ey + Math.abs(c22) * ez;
+
+        destMin.set(ncx - nex, ncy - ney, ncz - nez);
+        destMax.set(ncx + nex, ncy + ney, ncz + nez);
+    }
+
+    /// Transform bounding sphere to space given by this _transform_.
+    ///
+    /// Center is transformed as position, radius is scaled by largest absolute scale component so the result
+    /// contains the transformed sphere (exact for uniform scale). Destination may be same as source.
+    /// @param center center of the sphere
+    /// @param radius radius of the sphere
+    /// @param destCenter receives transformed center
+    /// @return transformed radius
+    public float transformSphere(Vec3 center, float radius, Vec3 destCenter) {
+        updateMatrix();
+        final float x = center.x;
+        final float y = center.y;
+        final float z = center.z;
+        destCenter.set(c00 * x + c01 * y + c02 * z + c03,
+                c10 * x + c11 * y + c12 * z + c13,
+                c20 * x + c21 * y + c22 * z + c23);
+        final float maxScale = Math.max(Math.abs(scale.x), Math.max(Math.abs(scale.y), Math.abs(scale.z)));
+        return radius * maxScale;
+    }
+
+    /// Recompute cached transform matrix if transform was modified since it was last computed.
+    private void updateMatrix() {
+        if (matrixVersion == version) {
+            return;
+        }
+        // Matrix transform order Scale -> Rotation -> Translation
+        // Matrix = Translation * Rotation * Scale
+        c00 = (1 - 2*(rotation.y * rotation.y + rotation.z * rotation.z))*scale.x;
+        c01 = 2*(rotation.x*rotation.y - rotation.w*rotation.z)*scale.y;
+        c02 = 2*(rotation.w*rotation.y + rotation.x*rotation.z)*scale.z;
+        c03 = position.x;
 
-        dest[offset + 4] = 2*(rotation.x*rotation.y + rotation.w*rotation.z)*scale.x;
-        dest[offset + 5] = (1 - 2*(rotation.x*rotation.x + rotation.z*rotation.z))*scale.y;
-        dest[offset + 6] = 2*((-rotation.w)*rotation.x + rotation.y*rotation.z)*scale.z;
-        dest[offset + 7] = position.y;
+        c10 = 2*(rotation.x*rotation.y + rotation.w*rotation.z)*scale.x;
+        c11 = (1 - 2*(rotation.x*rotation.x + rotation.z*rotation.z))*scale.y;
+        c12 = 2*((-rotation.w)*rotation.x + rotation.y*rotation.z)*scale.z;
+        c13 = position.y;
 
-        dest[offset + 8] = 2*((-rotation.w)*rotation.y + rotation.x*rotation.z)*scale.x;
-        dest[offset + 9] = 2*(rotation.w*rotation.x + rotation.y*rotation.z)*scale.y;
-        dest[offset + 10] = (1 - 2*(rotation.x*rotation.x + rotation.y*rotation.y))*scale.z;
-        dest[offset + 11] = position.z;
+        c20 = 2*((-rotation.w)*rotation.y + rotation.x*rotation.z)*scale.x;
+        c21 = 2*(rotation.w*rotation.x + rotation.y*rotation.z)*scale.y;
+        c22 = (1 - 2*(rotation.x*rotation.x + rotation.y*rotation.y))*scale.z;
+        c23 = position.z;
 
-        dest[offset + 12] = 0;
-        dest[offset + 13] = 0;
-        dest[offset + 14] = 0;
-        dest[offset + 15] = 1;
+        // Publish after the values
+        matrixVersion = version;
     }
 
-    /// Convert the transform into inverse transform matrix (4x4).
-    /// @param dest Mat4 where result is stored
-    public void toInverseMatrix(Mat4 dest) {
+    /// Recompute cached inverse transform matrix if transform was modified since it was last computed.
+    private void updateInverseMatrix() {
+        if (inverseVersion == version) {
+            return;
+        }
         // Matrix transform order Scale -> Rotation -> Translation
         // Matrix = Translation * Rotation * Scale
         // Inverse = Inverse(Scale) * Inverse(Rotation) * Inverse(Translation)
@@ -931,22 +1212,146 @@ public final class Transform {
         float tz = position.z;
 
         float oneOverX = safeOneOver(scale.x, EPSILON6);
-        dest.m00 = (1 - 2 * (qy*qy + qz*qz)) * oneOverX;
-        dest.m01 = (2 * (qx * qy + qw * qz)) * oneOverX;
-        dest.m02 = (2 * (-qw * qy + qx * qz)) * oneOverX;
-        dest.m03 = ((-1 + 2*qy*qy + 2*qz*qz)*tx - 2*(qx*qy*ty + qw*qz*ty - qw*qy*tz + qx*qz*tz)) * oneOverX;
+        i00 = (1 - 2 * (qy*qy + qz*qz)) * oneOverX;
+        i01 = (2 * (qx * qy + qw * qz)) * oneOverX;
+        i02 = (2 * (-qw * qy + qx * qz)) * oneOverX;
+        i03 = ((-1 + 2*qy*qy + 2*qz*qz)*tx - 2*(qx*qy*ty + qw*qz*ty - qw*qy*tz + qx*qz*tz)) * oneOverX;
 
         float oneOverY = safeOneOver(scale.y, EPSILON6);
-        dest.m10 = (2*qx*qy - 2*qw*qz) * oneOverY;
-        dest.m11 = (1 - 2*(qx*qx + qz*qz)) * oneOverY;
-        dest.m12 = (2*(qw*qx + qy*qz)) * oneOverY;
-        dest.m13 = -(2*qx*qy*tx - 2*qw*qz*tx + ty - 2*qx*qx*ty - 2*qz*qz*ty + 2*qw*qx*tz + 2*qy*qz*tz) * oneOverY;
+        i10 = (2*qx*qy - 2*qw*qz) * oneOverY;
+        i11 = (1 - 2*(qx*qx + qz*qz)) * oneOverY;
+        i12 = (2*(qw*qx + qy*qz)) * oneOverY;
+        i13 = -(2*qx*qy*tx - 2*qw*qz*tx + ty - 2*qx*qx*ty - 2*qz*qz*ty + 2*qw*qx*tz + 2*qy*qz*tz) * oneOverY;
 
         float oneOverZ = safeOneOver(scale.z, EPSILON6);
-        dest.m20 = 2*(qw*qy + qx*qz) * oneOverZ;
-        dest.m21 = 2*(-qw*qx + qy*qz) * oneOverZ;
-        dest.m22 = (1 - 2*(qx*qx + qy*qy)) * oneOverZ;
-        dest.m23 = -(2*qw*qy*tx + 2*qx*qz*tx - 2*qw*qx*ty + 2*qy*qz*ty + tz - 2*qx*qx*tz - 2*qy*qy*tz) * oneOverZ;
+        i20 = 2*(qw*qy + qx*qz) * oneOverZ;
+        i21 = 2*(-qw*qx + qy*qz) * oneOverZ;
+        i22 = (1 - 2*(qx*qx + qy*qy)) * oneOverZ;
+        i23 = -(2*qw*qy*tx + 2*qx*qz*tx - 2*qw*qx*ty + 2*qy*qz*ty + tz - 2*qx*qx*tz - 2*qy*qy*tz) * oneOverZ;
+
+        // Publish after the values
+        inverseVersion = version;
+    }
+
+    /// Convert the transform into transform matrix (4x4).
+    /// @param dest Mat4 where result is stored
+    public void toMatrix(Mat4 dest) {
+        updateMatrix();
+        dest.m00 = c00;
+        dest.m01 = c01;
+        dest.m02 = c02;
+        dest.m03 = c03;
+
+        dest.m10 = c10;
+        dest.m11 = c11;
+        dest.m12 = c12;
+        dest.m13 = c13;
+
+        dest.m20 = c20;
+        dest.m21 = c21;
+        dest.m22 = c22;
+        dest.m23 = c23;
+
+        dest.m30 = 0;
+        dest.m31 = 0;
+        dest.m32 = 0;
+        dest.m33 = 1;
+    }
+
+    /// Convert the transform into transform matrix and store its coefficients into an array.
+    /// @param dest destination array
+    /// @param offset offset in array where first element is stored
+    public void toMatrixFloatArray(float[] dest, int offset) {
+        updateMatrix();
+        //noinspection PointlessArithmeticExpression
+        dest[offset + 0] = c00;
+        dest[offset + 1] = c01;
+        dest[offset + 2] = c02;
+        dest[offset + 3] = c03;
+
+        dest[offset + 4] = c10;
+        dest[offset + 5] = c11;
+        dest[offset + 6] = c12;
+        dest[offset + 7] = c13;
+
+        dest[offset + 8] = c20;
+        dest[offset + 9] = c21;
+        dest[offset + 10] = c22;
+        dest[offset + 11] = c23;
+
+        dest[offset + 12] = 0;
+        dest[offset + 13] = 0;
+        dest[offset + 14] = 0;
+        dest[offset + 15] = 1;
+    }
+
+    /// Convert the transform into packed affine transform matrix (3x4) and store its coefficients into an array.
+    ///
+    /// Last row of transform matrix is always `(0, 0, 0, 1)` so it is not stored, 12 floats are written instead of 16.
+    /// Use for instance data or uniform buffers where bandwidth matters. Layout is same as first 12 elements of
+    /// {@link Transform#toMatrixFloatArray(float[], int)} (**row major**, 3 rows of 4 floats).
+    /// @param dest destination array
+    /// @param offset offset in array where first element is stored
+    public void toMatrix3x4FloatArray(float[] dest, int offset) {
+        updateMatrix();
+        //noinspection PointlessArithmeticExpression
+        dest[offset + 0] = c00;
+        dest[offset + 1] = c01;
+        dest[offset + 2] = c02;
+        dest[offset + 3] = c03;
+
+        dest[offset + 4] = c10;
+        dest[offset + 5] = c11;
+        dest[offset + 6] = c12;
+        dest[offset + 7] = c13;
+
+        dest[offset + 8] = c20;
+        dest[offset + 9] = c21;
+        dest[offset + 10] = c22;
+        dest[offset + 11] = c23;
+    }
+
+    /// Convert the transform into packed affine transform matrix (3x4) and store its coefficients into memory segment.
+    /// See {@link Transform#toMatrix3x4FloatArray(float[], int)} for layout.
+    /// @param dest destination memory segment
+    /// @param byteOffset offset in bytes where first element is stored
+    public void toMatrix3x4MemorySegment(MemorySegment dest, long byteOffset) {
+        updateMatrix();
+        long stride = ValueLayout.JAVA_FLOAT.byteSize();
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 0, c00);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 1, c01);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 2, c02);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 3, c03);
+
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 4, c10);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 5, c11);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 6, c12);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 7, c13);
+
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 8, c20);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 9, c21);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 10, c22);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 11, c23);
+    }
+
+    /// Convert the transform into inverse transform matrix (4x4).
+    /// @param dest Mat4 where result is stored
+    public void toInverseMatrix(Mat4 dest) {
+        updateInverseMatrix();
+        dest.m00 = i00;
+        dest.m01 = i01;
+        dest.m02 = i02;
+        dest.m03 = i03;
+
+        dest.m10 = i10;
+        dest.m11 = i11;
+        dest.m12 = i12;
+        dest.m13 = i13;
+
+        dest.m20 = i20;
+        dest.m21 = i21;
+        dest.m22 = i22;
+        dest.m23 = i23;
 
         dest.m30 = 0;
         dest.m31 = 0;
@@ -958,32 +1363,22 @@ public final class Transform {
     /// @param dest destination array
     /// @param offset offset in array where first element is stored
     public void toInverseMatrixFloatArray(float[] dest, int offset) {
-        float qx = rotation.x;
-        float qy = rotation.y;
-        float qz = rotation.z;
-        float qw = rotation.w;
-        float tx = position.x;
-        float ty = position.y;
-        float tz = position.z;
-
-        float oneOverX = safeOneOver(scale.x, EPSILON6);
+        updateInverseMatrix();
         //noinspection PointlessArithmeticExpression
-        dest[offset + 0] = (1 - 2 * (qy*qy + qz*qz)) * oneOverX;
-        dest[offset + 1] = (2 * (qx * qy + qw * qz)) * oneOverX;
-        dest[offset + 2] = (2 * (-qw * qy + qx * qz)) * oneOverX;
-        dest[offset + 3] = ((-1 + 2*qy*qy + 2*qz*qz)*tx - 2*(qx*qy*ty + qw*qz*ty - qw*qy*tz + qx*qz*tz)) * oneOverX;
+        dest[offset + 0] = i00;
+        dest[offset + 1] = i01;
+        dest[offset + 2] = i02;
+        dest[offset + 3] = i03;
 
-        float oneOverY = safeOneOver(scale.y, EPSILON6);
-        dest[offset + 4] = (2*qx*qy - 2*qw*qz) * oneOverY;
-        dest[offset + 5] = (1 - 2*(qx*qx + qz*qz)) * oneOverY;
-        dest[offset + 6] = (2*(qw*qx + qy*qz)) * oneOverY;
-        dest[offset + 7] = -(2*qx*qy*tx - 2*qw*qz*tx + ty - 2*qx*qx*ty - 2*qz*qz*ty + 2*qw*qx*tz + 2*qy*qz*tz) * oneOverY;
+        dest[offset + 4] = i10;
+        dest[offset + 5] = i11;
+        dest[offset + 6] = i12;
+        dest[offset + 7] = i13;
 
-        float oneOverZ = safeOneOver(scale.z, EPSILON6);
-        dest[offset + 8] = 2*(qw*qy + qx*qz) * oneOverZ;
-        dest[offset + 9] = 2*(-qw*qx + qy*qz) * oneOverZ;
-        dest[offset + 10] = (1 - 2*(qx*qx + qy*qy)) * oneOverZ;
-        dest[offset + 11] = -(2*qw*qy*tx + 2*qx*qz*tx - 2*qw*qx*ty + 2*qy*qz*ty + tz - 2*qx*qx*tz - 2*qy*qy*tz) * oneOverZ;
+        dest[offset + 8] = i20;
+        dest[offset + 9] = i21;
+        dest[offset + 10] = i22;
+        dest[offset + 11] = i23;
 
         dest[offset + 12] = 0;
         dest[offset + 13] = 0;
@@ -991,6 +1386,51 @@ public final class Transform {
         dest[offset + 15] = 1;
     }
 
+    /// Convert the transform into packed affine inverse transform matrix (3x4) and store its coefficients into an array.
+    /// See {@link Transform#toMatrix3x4FloatArray(float[], int)} for layout.
+    /// @param dest destination array
+    /// @param offset offset in array where first element is stored
+    public void toInverseMatrix3x4FloatArray(float[] dest, int offset) {
+        updateInverseMatrix();
+        //noinspection PointlessArithmeticExpression
+        dest[offset + 0] = i00;
+        dest[offset + 1] = i01;
+        dest[offset + 2] = i02;
+        dest[offset + 3] = i03;
+
+        dest[offset + 4] = i10;
+        dest[offset + 5] = i11;
+        dest[offset + 6] = i12;
+        dest[offset + 7] = i13;
+
+        dest[offset + 8] = i20;
+        dest[offset + 9] = i21;
+        dest[offset + 10] = i22;
+        dest[offset + 11] = i23;
+    }
+
+    /// Convert the transform into packed affine inverse transform matrix (3x4) and store its coefficients into memory
+    /// segment. See {@link Transform#toMatrix3x4FloatArray(float[], int)} for layout.
+    /// @param dest destination memory segment
+    /// @param byteOffset offset in bytes where first element is stored
+    public void toInverseMatrix3x4MemorySegment(MemorySegment dest, long byteOffset) {
+        updateInverseMatrix();
+        long stride = ValueLayout.JAVA_FLOAT.byteSize();
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 0, i00);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 1, i01);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 2, i02);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 3, i03);
+
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 4, i10);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 5, i11);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 6, i12);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 7, i13);
+
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 8, i20);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 9, i21);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 10, i22);
+        dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 11, i23);
+    }
 
     @Override
     public String toString() {
@@ -0,0 +1,551 @@
+package dev.stjepano.math;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Objects;
+
+/// A fixed size batch of transforms stored as structure of arrays.
+///
+/// Each transform in the batch has the same semantics as {@link Transform} (T * R * S, forward is -Z in local object
+/// space, scale is always local), but position, rotation and scale components are stored in separate float arrays.
+/// This makes it cheap to write all model matrices in one pass with {@link #toMatrices(float[], int)} or
+/// {@link #toMatrices(MemorySegment, long)}.
+///
+/// Transforms are addressed by index in range `[0, size())`.
+///
+/// #### Example
+/// ```java
+/// TransformBatch batch = new TransformBatch(50000);
+/// batch.setPosition(0, 1, 2, 3).rotateLocalY(0, angle);
+/// ...
+/// batch.toMatrices(instanceBuffer, 0);
+/// ```
+public final class TransformBatch {
+    private final int size;
+
+    private final float[] positionX;
+    private final float[] positionY;
+    private final float[] positionZ;
+
+    private final float[] rotationX;
+    private final float[] rotationY;
+    private final float[] rotationZ;
+    private final float[] rotationW;
+
+    private final float[] scaleX;
+    private final float[] scaleY;
+    private final float[] scaleZ;
+
+    /// Construct a batch of `size` identity transforms.
+    /// @param size number of transforms in the batch
+    public TransformBatch(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size must not be negative");
+        }
+        this.size = size;
+        this.positionX = new float[size];
+        this.positionY = new float[size];
+        this.positionZ = new float[size];
+        this.rotationX = new float[size];
+        this.rotationY = new float[size];
+        this.rotationZ = new float[size];
+        this.rotationW = new float[size];
+        this.scaleX = new float[size];
+        this.scaleY = new float[size];
+        this.scaleZ = new float[size];
+        setIdentity();
+    }
+
+    /// Number of transforms in the batch.
+    public int size() {
+        return this.size;
+    }
+
+    /// Set all transforms to identity.
+    public TransformBatch setIdentity() {
+        for (int i = 0; i < size; i++) {
+            setIdentity(i);
+        }
+        return this;
+    }
+
+    /// Set transform at `index` to identity (position = 0,0,0; scale = 1,1,1; rotation = no rotation).
+    public TransformBatch setIdentity(int index) {
+        Objects.checkIndex(index, size);
+        positionX[index] = 0.0f;
+        positionY[index] = 0.0f;
+        positionZ[index] = 0.0f;
+        rotationX[index] = 0.0f;
+        rotationY[index] = 0.0f;
+        rotationZ[index] = 0.0f;
+        rotationW[index] = 1.0f;
+        scaleX[index] = 1.0f;
+        scaleY[index] = 1.0f;
+        scaleZ[index] = 1.0f;
+        return this;
+    }
+
+    /// Copy transform into batch at `index`.
+    public TransformBatch set(int index, Transform transform) {
+        Objects.checkIndex(index, size);
+        Vec3 position = transform.position();
+        Quaternion rotation = transform.rotation();
+        Vec3 scale = transform.scale();
+        positionX[index] = position.x;
+        positionY[index] = position.y;
+        positionZ[index] = position.z;
+        rotationX[index] = rotation.x;
+        rotationY[index] = rotation.y;
+        rotationZ[index] = rotation.z;
+        rotationW[index] = rotation.w;
+        scaleX[index] = scale.x;
+        scaleY[index] = scale.y;
+        scaleZ[index] = scale.z;
+        return this;
+    }
+
+    /// Copy transform at `index` into `dest`.
+    public void get(int index, Transform dest) {
+        Objects.checkIndex(index, size);
+        dest.setPosition(positionX[index], positionY[index], positionZ[index]);
+        dest.rotation().set(rotationX[index], rotationY[index], rotationZ[index], rotationW[index]);
+        dest.markChanged();
+        dest.setScale(scaleX[index], scaleY[index], scaleZ[index]);
+    }
+
+    /// Copy position of transform at `index` into `dest`.
+    public Vec3 getPosition(int index, Vec3 dest) {
+        Objects.checkIndex(index, size);
+        return dest.set(positionX[index], positionY[index], positionZ[index]);
+    }
+
+    /// Copy rotation of transform at `index` into `dest`.
+    public Quaternion getRotation(int index, Quaternion dest) {
+        Objects.checkIndex(index, size);
+        return dest.set(rotationX[index], rotationY[index], rotationZ[index], rotationW[index]);
+    }
+
+    /// Copy scale of transform at `index` into `dest`.
+    public Vec3 getScale(int index, Vec3 dest) {
+        Objects.checkIndex(index, size);
+        return dest.set(scaleX[index], scaleY[index], scaleZ[index]);
+    }
+
+    /// Set position of transform at `index`.
+    public TransformBatch setPosition(int index, float x, float y, float z) {
+        Objects.checkIndex(index, size);
+        positionX[index] = x;
+        positionY[index] = y;
+        positionZ[index] = z;
+        return this;
+    }
+
+    /// Set rotation of transform at `index`. Quaternion must represent rotation.
+    public TransformBatch setRotation(int index, Quaternion rot) {
+        return setRotation(index, rot.x, rot.y, rot.z, rot.w);
+    }
+
+    /// Set rotation of transform at `index` from quaternion components.
+    public TransformBatch setRotation(int index, float qx, float qy, float qz, float qw) {
+        Objects.checkIndex(index, size);
+        rotationX[index] = qx;
+        rotationY[index] = qy;
+        rotationZ[index] = qz;
+        rotationW[index] = qw;
+        return this;
+    }
+
+    /// Set rotation of transform at `index` to be rotation of `angleRad` about the specified `unitAxis`.
+    public TransformBatch setRotation(int index, Vec3 unitAxis, float angleRad) {
+        float halfAngle = angleRad * 0.5f;
+        float s = (float) Math.sin(halfAngle);
+        return setRotation(index, unitAxis.x * s, unitAxis.y * s, unitAxis.z * s, (float) Math.cos(halfAngle));
+    }
+
+    /// Set scale of transform at `index`.
+    public TransformBatch setScale(int index, float x, float y, float z) {
+        Objects.checkIndex(index, size);
+        scaleX[index] = x;
+        scaleY[index] = y;
+        scaleZ[index] = z;
+        return this;
+    }
+
+    /// Set uniform scale of transform at `index`.
+    public TransformBatch setScale(int index, float uniformScale) {
+        return setScale(index, uniformScale, uniformScale, uniformScale);
+    }
+
+    /// Global translate the transform at `index`.
+    public TransformBatch translate(int index, float x, float y, float z) {
+        Objects.checkIndex(index, size);
+        positionX[index] += x;
+        positionY[index] += y;
+        positionZ[index] += z;
+        return this;
+    }
+
+    /// Local (object-space) translate the transform at `index`.
+    public TransformBatch translateLocal(int index, float x, float y, float z) {
+        return translateLocalBasis(index, x, y, -z);
+    }
+
+    /// Local (mathematical object-space) translate the transform at `index`.
+    public TransformBatch translateLocalBasis(int index, float x, float y, float z) {
+        Objects.checkIndex(index, size);
+        final float qx = rotationX[index];
+        final float qy = rotationY[index];
+        final float qz = rotationZ[index];
+        final float qw = rotationW[index];
+
+        // rotOffset = rotation * (x, y, z, 0) * conjugate(rotation), see Transform.translateLocalBasis
+        final float tx = qw * x + qy * z - qz * y;
+        final float ty = qw * y + qz * x - qx * z;
+        final float tz = qw * z + qx * y - qy * x;
+        final float tw = -qx * x - qy * y - qz * z;
+
+        positionX[index] += -tw * qx + tx * qw - ty * qz + tz * qy;
+        positionY[index] += -tw * qy + ty * qw - tz * qx + tx * qz;
+        positionZ[index] += -tw * qz + tz * qw - tx * qy + ty * qx;
+        return this;
+    }
+
+    /// Global rotate the transform at `index`.
+    public TransformBatch rotate(int index, Quaternion rot) {
+        preMulRotation(index, rot.x, rot.y, rot.z, rot.w);
+        return this;
+    }
+
+    /// Local (object-space) rotate the transform at `index`.
+    public TransformBatch rotateLocal(int index, Quaternion rot) {
+        mulRotation(index, rot.x, rot.y, -rot.z, rot.w);
+        return this;
+    }
+
+    /// Local (mathematical object-space) rotate the transform at `index`.
+    public TransformBatch rotateLocalBasis(int index, Quaternion rot) {
+        mulRotation(index, rot.x, rot.y, rot.z, rot.w);
+        return this;
+    }
+
+    /// Global rotate the transform at `index` about `unitAxis`.
+    public TransformBatch rotate(int index, Vec3 unitAxis, float angleRad) {
+        float halfAngle = angleRad * 0.5f;
+        float s = (float) Math.sin(halfAngle);
+        preMulRotation(index, s * unitAxis.x, s * unitAxis.y, s * unitAxis.z, (float) Math.cos(halfAngle));
+        return this;
+    }
+
+    /// Local (object-space) rotate the transform at `index` about `unitAxis`.
+    public TransformBatch rotateLocal(int index, Vec3 unitAxis, float angleRad) {
+        float halfAngle = angleRad * 0.5f;
+        float s = (float) Math.sin(halfAngle);
+        mulRotation(index, s * unitAxis.x, s * unitAxis.y, s * -unitAxis.z, (float) Math.cos(halfAngle));
+        return this;
+    }
+
+    /// Local (mathematical object-space) rotate the transform at `index` about `unitAxis`.
+    public TransformBatch rotateLocalBasis(int index, Vec3 unitAxis, float angleRad) {
+        float halfAngle = angleRad * 0.5f;
+        float s = (float) Math.sin(halfAngle);
+        mulRotation(index, s * unitAxis.x, s * unitAxis.y, s * unitAxis.z, (float) Math.cos(halfAngle));
+        return this;
+    }
+
+    /// Global rotate the transform at `index` about X axis.
+    public TransformBatch rotateX(int index, float angleRad) {
+        float halfAngle = angleRad * 0.5f;
+        preMulRotation(index, (float) Math.sin(halfAngle), 0, 0, (float) Math.cos(halfAngle));
+        return this;
+    }
+
+    /// Global rotate the transform at `index` about Y axis.
+    public TransformBatch rotateY(int index, float angleRad) {
+        float halfAngle = angleRad * 0.5f;
+        preMulRotation(index, 0, (float) Math.sin(halfAngle), 0, (float) Math.cos(halfAngle));
+        return this;
+    }
+
+    /// Global rotate the transform at `index` about Z axis.
+    public TransformBatch rotateZ(int index, float angleRad) {
+        float halfAngle = angleRad * 0.5f;
+        preMulRotation(index, 0, 0, (float) Math.sin(halfAngle), (float) Math.cos(halfAngle));
+        return this;
+    }
+
+    /// Local (object-space) rotate the transform at `index` about X axis.
+    public TransformBatch rotateLocalX(int index, float angleRad) {
+        float halfAngle = angleRad * 0.5f;
+        mulRotation(index, (float) Math.sin(halfAngle), 0, 0, (float) Math.cos(halfAngle));
+        return this;
+    }
+
+    /// Local (object-space) rotate the transform at `index` about Y axis.
+    public TransformBatch rotateLocalY(int index, float angleRad) {
+        float halfAngle = angleRad * 0.5f;
+        mulRotation(index, 0, (float) Math.sin(halfAngle), 0, (float) Math.cos(halfAngle));
+        return this;
+    }
+
+    /// Local (object-space) rotate the transform at `index` about Z axis.
+    public TransformBatch rotateLocalZ(int index, float angleRad) {
+        float halfAngle = angleRad * 0.5f;
+        mulRotation(index, 0, 0, -(float) Math.sin(halfAngle), (float) Math.cos(halfAngle));
+        return this;
+    }
+
+    /// Scale the transform at `index` by given scaling factors. Always local space.
+    public TransformBatch scaleBy(int index, float x, float y, float z) {
+        Objects.checkIndex(index, size);
+        scaleX[index] *= x;
+        scaleY[index] *= y;
+        scaleZ[index] *= z;
+        return this;
+    }
+
+    /// Uniformly scale the transform at `index`. Always local space.
+    public TransformBatch scaleBy(int index, float uniformScale) {
+        return scaleBy(index, uniformScale, uniformScale, uniformScale);
+    }
+
+    /// rotation[index] = Quaternion(qx, qy, qz, qw) * rotation[index]
+    private void preMulRotation(int index, float qx, float qy, float qz, float qw) {
+        Objects.checkIndex(index, size);
+        final float tx = rotationX[index];
+        final float ty = rotationY[index];
+        final float tz = rotationZ[index];
+        final float tw = rotationW[index];
+        rotationX[index] = qx*tw + qw*tx - qz*ty + qy*tz;
+        rotationY[index] = qy*tw + qz*tx + qw*ty - qx*tz;
+        rotationZ[index] = qz*tw - qy*tx + qx*ty + qw*tz;
+        rotationW[index] = qw*tw - qx*tx - qy*ty - qz*tz;
+    }
+
+    /// rotation[index] = rotation[index] * Quaternion(qx, qy, qz, qw)
+    private void mulRotation(int index, float qx, float qy, float qz, float qw) {
+        Objects.checkIndex(index, size);
+        final float tx = rotationX[index];
+        final float ty = rotationY[index];
+        final float tz = rotationZ[index];
+        final float tw = rotationW[index];
+        rotationX[index] = tw * qx + tx * qw + ty * qz - tz * qy;
+        rotationY[index] = tw * qy + ty * qw + tz * qx - tx * qz;
+        rotationZ[index] = tw * qz + tz * qw + tx * qy - ty * qx;
+        rotationW[index] = tw * qw - tx * qx - ty * qy - tz * qz;
+    }
+
+    /// Convert the transform at `index` into transform matrix (4x4).
+    public void toMatrix(int index, Mat4 dest) {
+        Objects.checkIndex(index, size);
+        final float qx = rotationX[index];
+        final float qy = rotationY[index];
+        final float qz = rotationZ[index];
+        final float qw = rotationW[index];
+        final float sx = scaleX[index];
+        final float sy = scaleY[index];
+        final float sz = scaleZ[index];
+
+        dest.m00 = (1 - 2*(qy*qy + qz*qz))*sx;
+        dest.m01 = 2*(qx*qy - qw*qz)*sy;
+        dest.m02 = 2*(qw*qy + qx*qz)*sz;
+        dest.m03 = positionX[index];
+
+        dest.m10 = 2*(qx*qy + qw*qz)*sx;
+        dest.m11 = (1 - 2*(qx*qx + qz*qz))*sy;
+        dest.m12 = 2*((-qw)*qx + qy*qz)*sz;
+        dest.m13 = positionY[index];
+
+        dest.m20 = 2*((-qw)*qy + qx*qz)*sx;
+        dest.m21 = 2*(qw*qx + qy*qz)*sy;
+        dest.m22 = (1 - 2*(qx*qx + qy*qy))*sz;
+        dest.m23 = positionZ[index];
+
+        dest.m30 = 0;
+        dest.m31 = 0;
+        dest.m32 = 0;
+        dest.m33 = 1;
+    }
+
+    /// Convert the transform at `index` into packed affine transform matrix (3x4) and store its coefficients into an
+    /// array. Layout is same as {@link Transform#toMatrix3x4FloatArray(float[], int)}.
+    public void toMatrix3x4(int index, float[] dest, int offset) {
+        Objects.checkIndex(index, size);
+        final float qx = rotationX[index];
+        final float qy = rotationY[index];
+        final float qz = rotationZ[index];
+        final float qw = rotationW[index];
+        final float sx = scaleX[index];
+        final float sy = scaleY[index];
+        final float sz = scaleZ[index];
+
+        //noinspection PointlessArithmeticExpression
+        dest[offset + 0] = (1 - 2*(qy*qy + qz*qz))*sx;
+        dest[offset + 1] = 2*(qx*qy - qw*qz)*sy;
+        dest[offset + 2] = 2*(qw*qy + qx*qz)*sz;
+        dest[offset + 3] = positionX[index];
+
+        dest[offset + 4] = 2*(qx*qy + qw*qz)*sx;
+        dest[offset + 5] = (1 - 2*(qx*qx + qz*qz))*sy;
+        dest[offset + 6] = 2*((-qw)*qx + qy*qz)*sz;
+        dest[offset + 7] = positionY[index];
+
+        dest[offset + 8] = 2*((-qw)*qy + qx*qz)*sx;
+        dest[offset + 9] = 2*(qw*qx + qy*qz)*sy;
+        dest[offset + 10] = (1 - 2*(qx*qx + qy*qy))*sz;
+        dest[offset + 11] = positionZ[index];
+    }
+
+    /// Write model matrices of all transforms into array, 16 floats per transform.
+    ///
+    /// **Row major order**, each matrix has same layout as {@link Transform#toMatrixFloatArray(float[], int)}.
+    /// @param dest destination array, must have room for `16 * size()` floats starting at `offset`
+    /// @param offset offset in array where first element of first matrix is stored
+    public void toMatrices(float[] dest, int offset) {
+        Objects.checkFromIndexSize(offset, 16 * size, dest.length);
+        for (int i = 0; i < size; i++) {
+            final float qx = rotationX[i];
+            final float qy = rotationY[i];
+            final float qz = rotationZ[i];
+            final float qw = rotationW[i];
+            final float sx = scaleX[i];
+            final float sy = scaleY[i];
+            final float sz = scaleZ[i];
+            final int base = offset + 16 * i;
+
+            //noinspection PointlessArithmeticExpression
+            dest[base + 0] = (1 - 2*(qy*qy + qz*qz))*sx;
+            dest[base + 1] = 2*(qx*qy - qw*qz)*sy;
+            dest[base + 2] = 2*(qw*qy + qx*qz)*sz;
+            dest[base + 3] = positionX[i];
+
+            dest[base + 4] = 2*(qx*qy + qw*qz)*sx;
+            dest[base + 5] = (1 - 2*(qx*qx + qz*qz))*sy;
+            dest[base + 6] = 2*((-qw)*qx + qy*qz)*sz;
+            dest[base + 7] = positionY[i];
+
+            dest[base + 8] = 2*((-qw)*qy + qx*qz)*sx;
+            dest[base + 9] = 2*(qw*qx + qy*qz)*sy;
+            dest[base + 10] = (1 - 2*(qx*qx + qy*qy))*sz;
+            dest[base + 11] = positionZ[i];
+
+            dest[base + 12] = 0;
+            dest[base + 13] = 0;
+            dest[base + 14] = 0;
+            dest[base + 15] = 1;
+        }
+    }
+
+    /// Write model matrices of all transforms into memory segment, 16 floats (64 bytes) per transform.
+    ///
+    /// **Row major order**, each matrix has same layout as {@link Mat4#toMemorySegment(MemorySegment, long)}.
+    /// @param dest destination memory segment, must have room for `64 * size()` bytes starting at `byteOffset`
+    /// @param byteOffset offset in bytes where first element of first matrix is stored
+    public void toMatrices(MemorySegment dest, long byteOffset) {
+        final long stride = ValueLayout.JAVA_FLOAT.byteSize();
+        for (int i = 0; i < size; i++) {
+            final float qx = rotationX[i];
+            final float qy = rotationY[i];
+            final float qz = rotationZ[i];
+            final float qw = rotationW[i];
+            final float sx = scaleX[i];
+            final float sy = scaleY[i];
+            final float sz = scaleZ[i];
+            final long base = byteOffset + 16 * stride * i;
+
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 0, (1 - 2*(qy*qy + qz*qz))*sx);
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 1, 2*(qx*qy - qw*qz)*sy);
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 2, 2*(qw*qy + qx*qz)*sz);
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 3, positionX[i]);
+
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 4, 2*(qx*qy + qw*qz)*sx);
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 5, (1 - 2*(qx*qx + qz*qz))*sy);
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 6, 2*((-qw)*qx + qy*qz)*sz);
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 7, positionY[i]);
+
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 8, 2*((-qw)*qy + qx*qz)*sx);
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 9, 2*(qw*qx + qy*qz)*sy);
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 10, (1 - 2*(qx*qx + qy*qy))*sz);
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 11, positionZ[i]);
+
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 12, 0.0f);
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 13, 0.0f);
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 14, 0.0f);
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 15, 1.0f);
+        }
+    }
+
+    /// Write packed affine model matrices (3x4) of all transforms into array, 12 floats per transform.
+    ///
+    /// **Row major order**, each matrix has same layout as {@link Transform#toMatrix3x4FloatArray(float[], int)}.
+    /// @param dest destination array, must have room for `12 * size()` floats starting at `offset`
+    /// @param offset offset in array where first element of first matrix is stored
+    public void toMatrices3x4(float[] dest, int offset) {
+        Objects.checkFromIndexSize(offset, 12 * size, dest.length);
+        for (int i = 0; i < size; i++) {
+            final float qx = rotationX[i];
+            final float qy = rotationY[i];
+            final float qz = rotationZ[i];
+            final float qw = rotationW[i];
+            final float sx = scaleX[i];
+            final float sy = scaleY[i];
+            final float sz = scaleZ[i];
+            final int base = offset + 12 * i;
+
+            //noinspection PointlessArithmeticExpression
+            dest[base + 0] = (1 - 2*(qy*qy + qz*qz))*sx;
+            dest[base + 1] = 2*(qx*qy - qw*qz)*sy;
+            dest[base + 2] = 2*(qw*qy + qx*qz)*sz;
+            dest[base + 3] = positionX[i];
+
+            dest[base + 4] = 2*(qx*qy + qw*qz)*sx;
+            dest[base + 5] = (1 - 2*(qx*qx + qz*qz))*sy;
+            dest[base + 6] = 2*((-qw)*qx + qy*qz)*sz;
+            dest[base + 7] = positionY[i];
+
+            dest[base + 8] = 2*((-qw)*qy + qx*qz)*sx;
+            dest[base + 9] = 2*(qw*qx + qy*qz)*sy;
+            dest[base + 10] = (1 - 2*(qx*qx + qy*qy))*sz;
+            dest[base + 11] = positionZ[i];
+        }
+    }
+
+    /// Write packed affine model matrices (3x4) of all transforms into memory segment, 12 floats (48 bytes) per
+    /// transform.
+    ///
+    /// **Row major order**, each matrix has same layout as {@link Mat4#toMemorySegment3x4(MemorySegment, long)}.
+    /// @param dest destination memory segment, must have room for `48 * size()` bytes starting at `byteOffset`
+    /// @param byteOffset offset in bytes where first element of first matrix is stored
+    public void toMatrices3x4(MemorySegment dest, long byteOffset) {
+        final long stride = ValueLayout.JAVA_FLOAT.byteSize();
+        for (int i = 0; i < size; i++) {
+            final float qx = rotationX[i];
+            final float qy = rotationY[i];
+            final float qz = rotationZ[i];
+            final float qw = rotationW[i];
+            final float sx = scaleX[i];
+            final float sy = scaleY[i];
+            final float sz = scaleZ[i];
+            final long base = byteOffset + 12 * stride * i;
+
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 0, (1 - 2*(qy*qy + qz*qz))*sx);
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 1, 2*(qx*qy - qw*qz)*sy);
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 2, 2*(qw*qy + qx*qz)*sz);
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 3, positionX[i]);
+
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 4, 2*(qx*qy + qw*qz)*sx);
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 5, (1 - 2*(qx*qx + qz*qz))*sy);
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 6, 2*((-qw)*qx + qy*qz)*sz);
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 7, positionY[i]);
+
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 8, 2*((-qw)*qy + qx*qz)*sx);
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 9, 2*(qw*qx + qy*qz)*sy);
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 10, (1 - 2*(qx*qx + qy*qy))*sz);
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 11, positionZ[i]);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TransformBatch(size = " + size + ")";
+    }
+}
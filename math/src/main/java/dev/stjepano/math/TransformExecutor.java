@@ -0,0 +1,145 @@
+package dev.stjepano.math;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/// Applies [Transform] to very large vertex arrays using multiple threads.
+///
+/// Vertex range is split into chunks which are transformed in parallel on a [ForkJoinPool]. Each chunk is processed
+/// with regular [Transform] array methods (SIMD code path is used when available). When number of vertices is less
+/// than `parallelThreshold` the transform is done on the calling thread, for small arrays the cost of scheduling
+/// tasks is greater than the gain.
+///
+/// #### Example
+/// ```java
+/// TransformExecutor executor = new TransformExecutor();
+/// executor.transformPosition(transform, vertexData, vertexCount, 0, 8);
+/// executor.transformNormal(transform, vertexData, vertexCount, 3, 8);
+/// ```
+///
+/// **NOTE**: transform must not be modified while executor methods are running.
+public final class TransformExecutor {
+
+    /// Default number of vertices at which parallel execution starts.
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 16;
+
+    /// Minimal number of vertices processed by a single task.
+    private static final int MIN_CHUNK_SIZE = 1 << 13;
+
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+
+    /// Create executor which uses common fork/join pool and default parallel threshold.
+    public TransformExecutor() {
+        this(ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /// Create executor.
+    /// @param pool fork/join pool used for parallel execution
+    /// @param parallelThreshold minimal number of vertices for parallel execution
+    public TransformExecutor(ForkJoinPool pool, int parallelThreshold) {
+        if (pool == null) {
+            throw new NullPointerException("pool");
+        }
+        if (parallelThreshold <= 0) {
+            throw new IllegalArgumentException("parallelThreshold must be greater than 0");
+        }
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /// @return minimal number of vertices for parallel execution
+    public int parallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /// Same as {@link Transform#transformPosition(float[], int, int, int)} but runs in parallel for large arrays.
+    /// @param transform the transform to apply
+    /// @param positionArray reference to vertex data with position data
+    /// @param count number of vertices to process
+    /// @param offset array offset to first component of first position
+    /// @param stride number of components per vertex
+    public void transformPosition(Transform transform, float[] positionArray, int count, int offset, int stride) {
+        execute(transform, positionArray, count, offset, stride, Kind.POSITION);
+    }
+
+    /// Same as {@link Transform#transformNormal(float[], int, int, int)} but runs in parallel for large arrays.
+    /// @param transform the transform to apply
+    /// @param normalArray reference to vertex data with normal data
+    /// @param count number of vertices to process
+    /// @param offset array offset to first component of first normal
+    /// @param stride number of components per vertex
+    public void transformNormal(Transform transform, float[] normalArray, int count, int offset, int stride) {
+        execute(transform, normalArray, count, offset, stride, Kind.NORMAL);
+    }
+
+    /// Same as {@link Transform#transformNormalUnnormalized(float[], int, int, int)} but runs in parallel for large
+    /// arrays.
+    /// @param transform the transform to apply
+    /// @param normalArray reference to vertex data with normal data
+    /// @param count number of vertices to process
+    /// @param offset array offset to first component of first normal
+    /// @param stride number of components per vertex
+    public void transformNormalUnnormalized(Transform transform, float[] normalArray, int count, int offset, int stride) {
+        execute(transform, normalArray, count, offset, stride, Kind.NORMAL_UNNORMALIZED);
+    }
+
+    private void execute(Transform transform, float[] array, int count, int offset, int stride, Kind kind) {
+        if (count < parallelThreshold) {
+            kind.apply(transform, array, count, offset, stride);
+            return;
+        }
+        // A few chunks per worker so that work is balanced when some workers are busy
+        final int chunkSize = Math.max(MIN_CHUNK_SIZE, count / (pool.getParallelism() * 4));
+        pool.invoke(new TransformTask(transform, array, 0, count, offset, stride, chunkSize, kind));
+    }
+
+    private enum Kind {
+        POSITION,
+        NORMAL,
+        NORMAL_UNNORMALIZED;
+
+        void apply(Transform transform, float[] array, int count, int offset, int stride) {
+            switch (this) {
+                case POSITION -> transform.transformPosition(array, count, offset, stride);
+                case NORMAL -> transform.transformNormal(array, count, offset, stride);
+                case NORMAL_UNNORMALIZED -> transform.transformNormalUnnormalized(array, count, offset, stride);
+            }
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class TransformTask extends RecursiveAction {
+        private final Transform transform;
+        private final float[] array;
+        private final int start;
+        private final int end;
+        private final int offset;
+        private final int stride;
+        private final int chunkSize;
+        private final Kind kind;
+
+        TransformTask(Transform transform, float[] array, int start, int end, int offset, int stride, int chunkSize, Kind kind) {
+            this.transform = transform;
+            this.array = array;
+            this.start = start;
+            this.end = end;
+            this.offset = offset;
+            this.stride = stride;
+            this.chunkSize = chunkSize;
+            this.kind = kind;
+        }
+
+        @Override
+        protected void compute() {
+            final int count = end - start;
+            if (count <= chunkSize) {
+                kind.apply(transform, array, count, offset + start * stride, stride);
+                return;
+            }
+            final int middle = start + count / 2;
+            invokeAll(new TransformTask(transform, array, start, middle, offset, stride, chunkSize, kind),
+                    new TransformTask(transform, array, middle, end, offset, stride, chunkSize, kind));
+        }
+    }
+}
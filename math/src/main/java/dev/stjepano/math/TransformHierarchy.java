@@ -0,0 +1,290 @@
+package dev.stjepano.math;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+import java.util.Objects;
+
+/// A hierarchy (scene graph) of transforms stored in flat arrays.
+///
+/// Nodes are stored in depth first order, parent of every node has lower index than the node itself. Each node has
+/// a local transform (relative to parent, same semantics as {@link Transform}) and a world matrix (parent world
+/// matrix * local matrix). Root nodes have parent index `-1`, their world matrix is the local matrix.
+///
+/// Changing the local transform of a node marks it dirty. {@link #update()} recomputes world matrices of dirty nodes
+/// and their descendants in one linear pass over the arrays, unchanged subtrees are skipped. World matrices are stored
+/// as packed affine matrices (3x4, 12 floats per node) and can be written as a palette into float array or memory
+/// segment.
+///
+/// #### Example
+/// ```java
+/// TransformHierarchy hierarchy = new TransformHierarchy(100);
+/// int body = hierarchy.addNode(-1);
+/// int arm = hierarchy.addNode(body);
+/// int hand = hierarchy.addNode(arm);
+/// int head = hierarchy.addNode(body);
+/// ...
+/// hierarchy.setLocalRotation(arm, armRotation);
+/// hierarchy.update();
+/// hierarchy.toWorldMatrices(instanceBuffer, 0);
+/// ```
+public final class TransformHierarchy {
+    private static final int MATRIX_SIZE = 12;
+
+    private final int capacity;
+    private int size;
+
+    private final int[] parents;
+    private final boolean[] dirty;
+    private int firstDirty;
+
+    private final TransformBatch local;
+    private final float[] world;
+    private final float[] localScratch = new float[MATRIX_SIZE];
+
+    /// Construct empty hierarchy.
+    /// @param capacity maximal number of nodes
+    public TransformHierarchy(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative");
+        }
+        this.capacity = capacity;
+        this.size = 0;
+        this.parents = new int[capacity];
+        this.dirty = new boolean[capacity];
+        this.firstDirty = Integer.MAX_VALUE;
+        this.local = new TransformBatch(capacity);
+        this.world = new float[MATRIX_SIZE * capacity];
+    }
+
+    /// Maximal number of nodes.
+    public int capacity() {
+        return capacity;
+    }
+
+    /// Number of nodes in the hierarchy.
+    public int size() {
+        return size;
+    }
+
+    /// Parent index of the node at `index`, `-1` for root nodes.
+    public int parent(int index) {
+        Objects.checkIndex(index, size);
+        return parents[index];
+    }
+
+    /// Append a node with identity local transform.
+    ///
+    /// Nodes must be added in depth first order: `parentIndex` is `-1` (new root) or the last added node or one of
+    /// its ancestors.
+    /// @param parentIndex index of the parent node or `-1`
+    /// @return index of the new node
+    public int addNode(int parentIndex) {
+        if (size == capacity) {
+            throw new IllegalStateException("Hierarchy is full.");
+        }
+        if (parentIndex != -1) {
+            Objects.checkIndex(parentIndex, size);
+            int ancestor = size - 1;
+            while (ancestor != -1 && ancestor != parentIndex) {
+                ancestor = parents[ancestor];
+            }
+            if (ancestor == -1) {
+                throw new IllegalArgumentException("Nodes must be added in depth first order, " + parentIndex
+                        + " is not the last node or its ancestor.");
+            }
+        }
+        final int index = size++;
+        parents[index] = parentIndex;
+        local.setIdentity(index);
+        markDirty(index);
+        return index;
+    }
+
+    /// Append a node.
+    /// @param parentIndex index of the parent node or `-1`
+    /// @param localTransform local transform of the node (copied)
+    /// @return index of the new node
+    /// @see #addNode(int)
+    public int addNode(int parentIndex, Transform localTransform) {
+        final int index = addNode(parentIndex);
+        local.set(index, localTransform);
+        return index;
+    }
+
+    /// Remove all nodes.
+    public void clear() {
+        Arrays.fill(dirty, 0, size, false);
+        size = 0;
+        firstDirty = Integer.MAX_VALUE;
+    }
+
+    /// Set local transform of the node at `index`.
+    public TransformHierarchy setLocal(int index, Transform localTransform) {
+        Objects.checkIndex(index, size);
+        local.set(index, localTransform);
+        markDirty(index);
+        return this;
+    }
+
+    /// Copy local transform of the node at `index` into `dest`.
+    public void getLocal(int index, Transform dest) {
+        Objects.checkIndex(index, size);
+        local.get(index, dest);
+    }
+
+    /// Set local position of the node at `index`.
+    public TransformHierarchy setLocalPosition(int index, float x, float y, float z) {
+        Objects.checkIndex(index, size);
+        local.setPosition(index, x, y, z);
+        markDirty(index);
+        return this;
+    }
+
+    /// Set local rotation of the node at `index`.
+    public TransformHierarchy setLocalRotation(int index, Quaternion rotation) {
+        Objects.checkIndex(index, size);
+        local.setRotation(index, rotation);
+        markDirty(index);
+        return this;
+    }
+
+    /// Set local scale of the node at `index`.
+    public TransformHierarchy setLocalScale(int index, float x, float y, float z) {
+        Objects.checkIndex(index, size);
+        local.setScale(index, x, y, z);
+        markDirty(index);
+        return this;
+    }
+
+    /// Mark the node at `index` dirty, its world matrix and world matrices of its descendants are recomputed in
+    /// next {@link #update()}. Setters call this automatically.
+    public void markDirty(int index) {
+        Objects.checkIndex(index, size);
+        dirty[index] = true;
+        if (index < firstDirty) {
+            firstDirty = index;
+        }
+    }
+
+    /// Check if the node at `index` was modified since last {@link #update()}. Does not check ancestors.
+    public boolean isDirty(int index) {
+        Objects.checkIndex(index, size);
+        return dirty[index];
+    }
+
+    /// Recompute world matrices of dirty nodes and their descendants.
+    ///
+    /// Nodes are visited in index order starting from the first dirty node, a node is recomputed if it is dirty or
+    /// its parent was recomputed in this pass.
+    /// @return number of recomputed world matrices
+    public int update() {
+        if (firstDirty >= size) {
+            firstDirty = Integer.MAX_VALUE;
+            return 0;
+        }
+
+        int updated = 0;
+        final float[] l = localScratch;
+        for (int i = firstDirty; i < size; i++) {
+            final int parent = parents[i];
+            if (parent != -1 && dirty[parent]) {
+                dirty[i] = true;
+            }
+            if (!dirty[i]) {
+                continue;
+            }
+
+            final int w = MATRIX_SIZE * i;
+            local.toMatrix3x4(i, l, 0);
+            if (parent == -1) {
+                System.arraycopy(l, 0, world, w, MATRIX_SIZE);
+            } else {
+                // world = parentWorld * local, both affine
+                final int p = MATRIX_SIZE * parent;
+                for (int row = 0; row < 3; row++) {
+                    final float p0 = world[p + 4 * row];
+                    final float p1 = world[p + 4 * row + 1];
+                    final float p2 = world[p + 4 * row + 2];
+                    final float p3 = world[p + 4 * row + 3];
+                    final int r = w + 4 * row;
+                    world[r] = p0 * l[0] + p1 * l[4] + p2 * l[8];
+                    world[r + 1] = p0 * l[1] + p1 * l[5] + p2 * l[9];
+                    world[r + 2] = p0 * l[2] + p1 * l[6] + p2 * l[10];
+                    world[r + 3] = p0 * l[3] + p1 * l[7] + p2 * l[11] + p3;
+                }
+            }
+            updated++;
+        }
+
+        Arrays.fill(dirty, firstDirty, size, false);
+        firstDirty = Integer.MAX_VALUE;
+        return updated;
+    }
+
+    /// World matrix of the node at `index`. Valid after {@link #update()}.
+    public void getWorldMatrix(int index, Mat4 dest) {
+        Objects.checkIndex(index, size);
+        Mat4.fromFloatArray3x4(world, MATRIX_SIZE * index, dest);
+    }
+
+    /// Write world matrices of all nodes into array, 16 floats per node. Valid after {@link #update()}.
+    ///
+    /// **Row major order**, same layout as {@link Mat4#toFloatArray(float[], int)}.
+    /// @param dest destination array, must have room for `16 * size()` floats starting at `offset`
+    /// @param offset offset in array where first element of first matrix is stored
+    public void toWorldMatrices(float[] dest, int offset) {
+        Objects.checkFromIndexSize(offset, 16 * size, dest.length);
+        for (int i = 0; i < size; i++) {
+            final int base = offset + 16 * i;
+            System.arraycopy(world, MATRIX_SIZE * i, dest, base, MATRIX_SIZE);
+            dest[base + 12] = 0;
+            dest[base + 13] = 0;
+            dest[base + 14] = 0;
+            dest[base + 15] = 1;
+        }
+    }
+
+    /// Write world matrices of all nodes into memory segment, 16 floats (64 bytes) per node. Valid after
+    /// {@link #update()}.
+    ///
+    /// **Row major order**, same layout as {@link Mat4#toMemorySegment(MemorySegment, long)}.
+    /// @param dest destination memory segment, must have room for `64 * size()` bytes starting at `byteOffset`
+    /// @param byteOffset offset in bytes where first element of first matrix is stored
+    public void toWorldMatrices(MemorySegment dest, long byteOffset) {
+        final long stride = ValueLayout.JAVA_FLOAT.byteSize();
+        for (int i = 0; i < size; i++) {
+            final long base = byteOffset + 16 * stride * i;
+            MemorySegment.copy(world, MATRIX_SIZE * i, dest, ValueLayout.JAVA_FLOAT, base, MATRIX_SIZE);
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 12, 0.0f);
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 13, 0.0f);
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 14, 0.0f);
+            dest.set(ValueLayout.JAVA_FLOAT, base + stride * 15, 1.0f);
+        }
+    }
+
+    /// Write packed affine world matrices (3x4) of all nodes into array, 12 floats per node. Valid after
+    /// {@link #update()}.
+    ///
+    /// **Row major order**, same layout as {@link Mat4#toFloatArray3x4(float[], int)}.
+    /// @param dest destination array, must have room for `12 * size()` floats starting at `offset`
+    /// @param offset offset in array where first element of first matrix is stored
+    public void toWorldMatrices3x4(float[] dest, int offset) {
+        System.arraycopy(world, 0, dest, offset, MATRIX_SIZE * size);
+    }
+
+    /// Write packed affine world matrices (3x4) of all nodes into memory segment, 12 floats (48 bytes) per node.
+    /// Valid after {@link #update()}.
+    ///
+    /// **Row major order**, same layout as {@link Mat4#toMemorySegment3x4(MemorySegment, long)}.
+    /// @param dest destination memory segment, must have room for `48 * size()` bytes starting at `byteOffset`
+    /// @param byteOffset offset in bytes where first element of first matrix is stored
+    public void toWorldMatrices3x4(MemorySegment dest, long byteOffset) {
+        MemorySegment.copy(world, 0, dest, ValueLayout.JAVA_FLOAT, byteOffset, MATRIX_SIZE * size);
+    }
+
+    @Override
+    public String toString() {
+        return "TransformHierarchy(size = " + size + ", capacity = " + capacity + ")";
+    }
+}
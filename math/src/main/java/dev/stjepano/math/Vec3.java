@@ -3,6 +3,7 @@ package dev.stjepano.math;
 
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.ValueLayout;
+import java.util.List;
 import java.util.Objects;
 
 public final class Vec3 {
@@ -175,6 +176,15 @@ public final class Vec3 {
         return scale(1.0f / len);
     }
 
+    /// Same as [#normalize()] but uses [MathUtil#fastInvSqrt(float)], relative error of length is at most `5e-6`.
+    public Vec3 normalizeFast() {
+        float lenSqr = lengthSqr();
+        if (lenSqr < 1e-16f) {
+            return this;
+        }
+        return scale(MathUtil.fastInvSqrt(lenSqr));
+    }
+
     /// Squared distance between this vector and other vector.
     public float distanceSqr(Vec3 other) {
         float dx = x - other.x;
@@ -280,6 +290,129 @@ public final class Vec3 {
         dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 2, z);
     }
 
+    /// Copy `count` vectors starting at `src[srcIndex]` to memory segment as tightly packed array
+    /// ([MathLayouts#VEC3], 12 bytes per vector), first vector at dest + byteOffset.
+    public static void toMemorySegment(Vec3[] src, int srcIndex, MemorySegment dest, long byteOffset, int count) {
+        Objects.checkFromIndexSize(srcIndex, count, src.length);
+        Objects.checkFromIndexSize(byteOffset, count * MathLayouts.VEC3.byteSize(), dest.byteSize());
+        for (int i = 0; i < count; i++) {
+            writePacked(src[srcIndex + i], dest, byteOffset, i);
+        }
+    }
+
+    /// Copy all vectors from the list to memory segment as tightly packed array ([MathLayouts#VEC3]), first vector at
+    /// dest + byteOffset. List should support fast random access.
+    public static void toMemorySegment(List<Vec3> src, MemorySegment dest, long byteOffset) {
+        final int count = src.size();
+        Objects.checkFromIndexSize(byteOffset, count * MathLayouts.VEC3.byteSize(), dest.byteSize());
+        for (int i = 0; i < count; i++) {
+            writePacked(src.get(i), dest, byteOffset, i);
+        }
+    }
+
+    /// Read `count` vectors from tightly packed array ([MathLayouts#VEC3]) at src + byteOffset into existing vectors
+    /// starting at `dest[destIndex]`.
+    public static void fromMemorySegment(MemorySegment src, long byteOffset, Vec3[] dest, int destIndex, int count) {
+        Objects.checkFromIndexSize(destIndex, count, dest.length);
+        Objects.checkFromIndexSize(byteOffset, count * MathLayouts.VEC3.byteSize(), src.byteSize());
+        for (int i = 0; i < count; i++) {
+            readPacked(src, byteOffset, i, dest[destIndex + i]);
+        }
+    }
+
+    /// Read tightly packed array ([MathLayouts#VEC3]) at src + byteOffset into all (existing) vectors of the list.
+    public static void fromMemorySegment(MemorySegment src, long byteOffset, List<Vec3> dest) {
+        final int count = dest.size();
+        Objects.checkFromIndexSize(byteOffset, count * MathLayouts.VEC3.byteSize(), src.byteSize());
+        for (int i = 0; i < count; i++) {
+            readPacked(src, byteOffset, i, dest.get(i));
+        }
+    }
+
+    /// Copy `count` vectors starting at `src[srcIndex]` to memory segment as std140 array ([MathLayouts#VEC3_STD140],
+    /// 16 bytes per vector, padding is not written), first vector at dest + byteOffset.
+    public static void toMemorySegmentStd140(Vec3[] src, int srcIndex, MemorySegment dest, long byteOffset, int count) {
+        Objects.checkFromIndexSize(srcIndex, count, src.length);
+        Objects.checkFromIndexSize(byteOffset, count * MathLayouts.VEC3_STD140.byteSize(), dest.byteSize());
+        for (int i = 0; i < count; i++) {
+            writePadded(src[srcIndex + i], dest, byteOffset, i);
+        }
+    }
+
+    /// Copy all vectors from the list to memory segment as std140 array ([MathLayouts#VEC3_STD140]), first vector at
+    /// dest + byteOffset. List should support fast random access.
+    public static void toMemorySegmentStd140(List<Vec3> src, MemorySegment dest, long byteOffset) {
+        final int count = src.size();
+        Objects.checkFromIndexSize(byteOffset, count * MathLayouts.VEC3_STD140.byteSize(), dest.byteSize());
+        for (int i = 0; i < count; i++) {
+            writePadded(src.get(i), dest, byteOffset, i);
+        }
+    }
+
+    /// Read `count` vectors from std140 array ([MathLayouts#VEC3_STD140]) at src + byteOffset into existing vectors
+    /// starting at `dest[destIndex]`.
+    public static void fromMemorySegmentStd140(MemorySegment src, long byteOffset, Vec3[] dest, int destIndex, int count) {
+        Objects.checkFromIndexSize(destIndex, count, dest.length);
+        Objects.checkFromIndexSize(byteOffset, count * MathLayouts.VEC3_STD140.byteSize(), src.byteSize());
+        for (int i = 0; i < count; i++) {
+            readPadded(src, byteOffset, i, dest[destIndex + i]);
+        }
+    }
+
+    /// Read std140 array ([MathLayouts#VEC3_STD140]) at src + byteOffset into all (existing) vectors of the list.
+    public static void fromMemorySegmentStd140(MemorySegment src, long byteOffset, List<Vec3> dest) {
+        final int count = dest.size();
+        Objects.checkFromIndexSize(byteOffset, count * MathLayouts.VEC3_STD140.byteSize(), src.byteSize());
+        for (int i = 0; i < count; i++) {
+            readPadded(src, byteOffset, i, dest.get(i));
+        }
+    }
+
+    /// Same as [#toMemorySegmentStd140(Vec3[], int, MemorySegment, long, int)], `vec3` array stride is 16 bytes in
+    /// std430 too ([MathLayouts#VEC3_STD430]).
+    public static void toMemorySegmentStd430(Vec3[] src, int srcIndex, MemorySegment dest, long byteOffset, int count) {
+        toMemorySegmentStd140(src, srcIndex, dest, byteOffset, count);
+    }
+
+    /// Same as [#toMemorySegmentStd140(List, MemorySegment, long)].
+    public static void toMemorySegmentStd430(List<Vec3> src, MemorySegment dest, long byteOffset) {
+        toMemorySegmentStd140(src, dest, byteOffset);
+    }
+
+    /// Same as [#fromMemorySegmentStd140(MemorySegment, long, Vec3[], int, int)].
+    public static void fromMemorySegmentStd430(MemorySegment src, long byteOffset, Vec3[] dest, int destIndex, int count) {
+        fromMemorySegmentStd140(src, byteOffset, dest, destIndex, count);
+    }
+
+    /// Same as [#fromMemorySegmentStd140(MemorySegment, long, List)].
+    public static void fromMemorySegmentStd430(MemorySegment src, long byteOffset, List<Vec3> dest) {
+        fromMemorySegmentStd140(src, byteOffset, dest);
+    }
+
+    private static void writePacked(Vec3 v, MemorySegment dest, long byteOffset, long index) {
+        MathLayouts.VEC3_X.set(dest, byteOffset, index, v.x);
+        MathLayouts.VEC3_Y.set(dest, byteOffset, index, v.y);
+        MathLayouts.VEC3_Z.set(dest, byteOffset, index, v.z);
+    }
+
+    private static void readPacked(MemorySegment src, long byteOffset, long index, Vec3 dest) {
+        dest.x = (float) MathLayouts.VEC3_X.get(src, byteOffset, index);
+        dest.y = (float) MathLayouts.VEC3_Y.get(src, byteOffset, index);
+        dest.z = (float) MathLayouts.VEC3_Z.get(src, byteOffset, index);
+    }
+
+    private static void writePadded(Vec3 v, MemorySegment dest, long byteOffset, long index) {
+        MathLayouts.VEC3_STD140_X.set(dest, byteOffset, index, v.x);
+        MathLayouts.VEC3_STD140_Y.set(dest, byteOffset, index, v.y);
+        MathLayouts.VEC3_STD140_Z.set(dest, byteOffset, index, v.z);
+    }
+
+    private static void readPadded(MemorySegment src, long byteOffset, long index, Vec3 dest) {
+        dest.x = (float) MathLayouts.VEC3_STD140_X.get(src, byteOffset, index);
+        dest.y = (float) MathLayouts.VEC3_STD140_Y.get(src, byteOffset, index);
+        dest.z = (float) MathLayouts.VEC3_STD140_Z.get(src, byteOffset, index);
+    }
+
     @Override
     public String toString() {
         return "Vec3(" + this.x + ", " + this.y + ", " + this.z + ")";
@@ -2,6 +2,7 @@ package dev.stjepano.math;
 
 import java.lang.foreign.MemorySegment;
   import java.lang.foreign.ValueLayout;
+  import java.util.List;
   import java.util.Objects;
 
   public final class Vec4 {
@@ -195,6 +196,59 @@ import java.lang.foreign.MemorySegment;
           dest.set(ValueLayout.JAVA_FLOAT, byteOffset + stride * 3, w);
       }
 
+      /// Copy `count` vectors starting at `src[srcIndex]` to memory segment ([MathLayouts#VEC4], 16 bytes per vector),
+      /// first vector at dest + byteOffset.
+      public static void toMemorySegment(Vec4[] src, int srcIndex, MemorySegment dest, long byteOffset, int count) {
+          Objects.checkFromIndexSize(srcIndex, count, src.length);
+          Objects.checkFromIndexSize(byteOffset, count * MathLayouts.VEC4.byteSize(), dest.byteSize());
+          for (int i = 0; i < count; i++) {
+              write(src[srcIndex + i], dest, byteOffset, i);
+          }
+      }
+
+      /// Copy all vectors from the list to memory segment ([MathLayouts#VEC4]), first vector at dest + byteOffset. List
+      /// should support fast random access.
+      public static void toMemorySegment(List<Vec4> src, MemorySegment dest, long byteOffset) {
+          final int count = src.size();
+          Objects.checkFromIndexSize(byteOffset, count * MathLayouts.VEC4.byteSize(), dest.byteSize());
+          for (int i = 0; i < count; i++) {
+              write(src.get(i), dest, byteOffset, i);
+          }
+      }
+
+      /// Read `count` vectors ([MathLayouts#VEC4]) at src + byteOffset into existing vectors starting at
+      /// `dest[destIndex]`.
+      public static void fromMemorySegment(MemorySegment src, long byteOffset, Vec4[] dest, int destIndex, int count) {
+          Objects.checkFromIndexSize(destIndex, count, dest.length);
+          Objects.checkFromIndexSize(byteOffset, count * MathLayouts.VEC4.byteSize(), src.byteSize());
+          for (int i = 0; i < count; i++) {
+              read(src, byteOffset, i, dest[destIndex + i]);
+          }
+      }
+
+      /// Read vectors ([MathLayouts#VEC4]) at src + byteOffset into all (existing) vectors of the list.
+      public static void fromMemorySegment(MemorySegment src, long byteOffset, List<Vec4> dest) {
+          final int count = dest.size();
+          Objects.checkFromIndexSize(byteOffset, count * MathLayouts.VEC4.byteSize(), src.byteSize());
+          for (int i = 0; i < count; i++) {
+              read(src, byteOffset, i, dest.get(i));
+          }
+      }
+
+      private static void write(Vec4 v, MemorySegment dest, long byteOffset, long index) {
+          MathLayouts.VEC4_X.set(dest, byteOffset, index, v.x);
+          MathLayouts.VEC4_Y.set(dest, byteOffset, index, v.y);
+          MathLayouts.VEC4_Z.set(dest, byteOffset, index, v.z);
+          MathLayouts.VEC4_W.set(dest, byteOffset, index, v.w);
+      }
+
+      private static void read(MemorySegment src, long byteOffset, long index, Vec4 dest) {
+          dest.x = (float) MathLayouts.VEC4_X.get(src, byteOffset, index);
+          dest.y = (float) MathLayouts.VEC4_Y.get(src, byteOffset, index);
+          dest.z = (float) MathLayouts.VEC4_Z.get(src, byteOffset, index);
+          dest.w = (float) MathLayouts.VEC4_W.get(src, byteOffset, index);
+      }
+
       @Override
       public String toString() {
           return "Vec4(" + this.x + ", " + this.y + ", " + this.z + ", " + this.w + ")";
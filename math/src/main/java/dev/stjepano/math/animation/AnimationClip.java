@@ -0,0 +1,81 @@
+package dev.stjepano.math.animation;
+
+import java.util.Objects;
+
+/// Animation of a skeleton: translation, rotation and scale keyframe track per joint.
+///
+/// Track arrays are indexed by joint index. A `null` track means that the property is not animated and rest pose
+/// value from [Skeleton] is used.
+public final class AnimationClip {
+    private final float duration;
+    final KeyframeTrack[] translations;
+    final KeyframeTrack[] rotations;
+    final KeyframeTrack[] scales;
+
+    /// Create animation clip.
+    /// @param duration duration of the clip in seconds
+    /// @param translations translation track of each joint (entries may be null)
+    /// @param rotations rotation track of each joint (entries may be null)
+    /// @param scales scale track of each joint (entries may be null)
+    public AnimationClip(float duration, KeyframeTrack[] translations, KeyframeTrack[] rotations, KeyframeTrack[] scales) {
+        if (duration <= 0.0f) {
+            throw new IllegalArgumentException("duration must be greater than 0");
+        }
+        if (translations == null) {
+            throw new NullPointerException("translations");
+        }
+        if (rotations == null) {
+            throw new NullPointerException("rotations");
+        }
+        if (scales == null) {
+            throw new NullPointerException("scales");
+        }
+        if (rotations.length != translations.length || scales.length != translations.length) {
+            throw new IllegalArgumentException("All track arrays must have same length (joint count).");
+        }
+        checkComponents(translations, 3);
+        checkComponents(rotations, 4);
+        checkComponents(scales, 3);
+
+        this.duration = duration;
+        this.translations = translations.clone();
+        this.rotations = rotations.clone();
+        this.scales = scales.clone();
+    }
+
+    /// Duration of the clip in seconds.
+    public float duration() {
+        return duration;
+    }
+
+    /// Number of joints this clip animates.
+    public int jointCount() {
+        return translations.length;
+    }
+
+    /// Translation track of the joint or null.
+    public KeyframeTrack translationTrack(int joint) {
+        Objects.checkIndex(joint, translations.length);
+        return translations[joint];
+    }
+
+    /// Rotation track of the joint or null.
+    public KeyframeTrack rotationTrack(int joint) {
+        Objects.checkIndex(joint, rotations.length);
+        return rotations[joint];
+    }
+
+    /// Scale track of the joint or null.
+    public KeyframeTrack scaleTrack(int joint) {
+        Objects.checkIndex(joint, scales.length);
+        return scales[joint];
+    }
+
+    private static void checkComponents(KeyframeTrack[] tracks, int components) {
+        for (KeyframeTrack track : tracks) {
+            if (track != null && track.components() != components) {
+                throw new IllegalArgumentException("Expected track with " + components + " components.");
+            }
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package dev.stjepano.math.animation;
+
+import dev.stjepano.math.Mat4;
+import dev.stjepano.math.QuaternionArrays;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+import java.util.Objects;
+
+/// Samples [AnimationClip] for one skeleton instance (one character) and produces joint matrix palette for skinning.
+///
+/// Each sampler keeps a key cursor per track, so sampling a clip with increasing time is O(1) amortized per track.
+/// All working memory is allocated in the constructor, sampling and writing the palette does not allocate.
+///
+/// Sampling steps:
+/// 1. find keys around sample time and interpolate local translation, rotation (approximate slerp, see
+///    {@link QuaternionArrays#slerpApprox(float[], float[], float[], float[], int)}) and scale of every joint
+/// 2. compose local transforms into model space transforms in one pass over the joints (parents come first)
+/// 3. skinning matrix of a joint is `model * inverseBind`, written by {@link #writePalette(MemorySegment, long)}
+///
+/// #### Example
+/// ```java
+/// AnimationSampler sampler = new AnimationSampler(skeleton);
+/// ...
+/// sampler.sample(walkClip, time, true);
+/// sampler.writePalette(paletteSegment, 0);
+/// paletteBuffer.update(0, paletteSegment);
+/// ```
+public final class AnimationSampler {
+    private final Skeleton skeleton;
+    private final int jointCount;
+
+    private AnimationClip cursorClip;
+    private final int[] translationCursors;
+    private final int[] rotationCursors;
+    private final int[] scaleCursors;
+
+    private final float[] translations;
+    private final float[] scales;
+    private final float[] rotationsA;
+    private final float[] rotationsB;
+    private final float[] rotationsT;
+    private final float[] rotations;
+
+    private final float[] modelMatrices;
+    private final float[] palette3x4;
+
+    /// Create sampler for skeleton, initial pose is rest pose.
+    public AnimationSampler(Skeleton skeleton) {
+        if (skeleton == null) {
+            throw new NullPointerException("skeleton");
+        }
+        this.skeleton = skeleton;
+        this.jointCount = skeleton.jointCount();
+        this.translationCursors = new int[jointCount];
+        this.rotationCursors = new int[jointCount];
+        this.scaleCursors = new int[jointCount];
+        this.translations = skeleton.restTranslations.clone();
+        this.scales = skeleton.restScales.clone();
+        this.rotationsA = new float[4 * jointCount];
+        this.rotationsB = new float[4 * jointCount];
+        this.rotationsT = new float[jointCount];
+        this.rotations = skeleton.restRotations.clone();
+        this.modelMatrices = new float[12 * jointCount];
+        this.palette3x4 = new float[12 * jointCount];
+        composePose();
+    }
+
+    /// The skeleton.
+    public Skeleton skeleton() {
+        return skeleton;
+    }
+
+    /// Sample the clip at given time and compute model space pose.
+    /// @param clip the clip, must have same joint count as skeleton
+    /// @param time time in seconds
+    /// @param loop if true time wraps around clip duration, otherwise it is clamped to `[0, duration]`
+    public void sample(AnimationClip clip, float time, boolean loop) {
+        if (clip.jointCount() != jointCount) {
+            throw new IllegalArgumentException("Clip joint count does not match skeleton joint count.");
+        }
+        if (clip != cursorClip) {
+            Arrays.fill(translationCursors, 0);
+            Arrays.fill(rotationCursors, 0);
+            Arrays.fill(scaleCursors, 0);
+            cursorClip = clip;
+        }
+
+        final float duration = clip.duration();
+        if (loop) {
+            time = time - (float) Math.floor(time / duration) * duration;
+        } else {
+            time = Math.max(0.0f, Math.min(time, duration));
+        }
+
+        for (int j = 0; j < jointCount; j++) {
+            final KeyframeTrack translationTrack = clip.translations[j];
+            if (translationTrack != null) {
+                translationCursors[j] = sampleVec3(translationTrack, time, translationCursors[j], translations, 3 * j);
+            } else {
+                System.arraycopy(skeleton.restTranslations, 3 * j, translations, 3 * j, 3);
+            }
+
+            final KeyframeTrack scaleTrack = clip.scales[j];
+            if (scaleTrack != null) {
+                scaleCursors[j] = sampleVec3(scaleTrack, time, scaleCursors[j], scales, 3 * j);
+            } else {
+                System.arraycopy(skeleton.restScales, 3 * j, scales, 3 * j, 3);
+            }
+
+            final KeyframeTrack rotationTrack = clip.rotations[j];
+            if (rotationTrack != null) {
+                final int key = rotationTrack.findKey(time, rotationCursors[j]);
+                rotationCursors[j] = key;
+                final int next = Math.min(key + 1, rotationTrack.keyCount() - 1);
+                System.arraycopy(rotationTrack.values(), 4 * key, rotationsA, 4 * j, 4);
+                System.arraycopy(rotationTrack.values(), 4 * next, rotationsB, 4 * j, 4);
+                rotationsT[j] = interpolationFactor(rotationTrack.times(), key, next, time);
+            } else {
+                System.arraycopy(skeleton.restRotations, 4 * j, rotationsA, 4 * j, 4);
+                System.arraycopy(skeleton.restRotations, 4 * j, rotationsB, 4 * j, 4);
+                rotationsT[j] = 0.0f;
+            }
+        }
+        // Interpolate all joint rotations in one batch
+        QuaternionArrays.slerpApprox(rotationsA, rotationsB, rotationsT, rotations, jointCount);
+
+        composePose();
+    }
+
+    /// Model space matrix of the joint (without inverse bind matrix).
+    public void getModelMatrix(int joint, Mat4 dest) {
+        Objects.checkIndex(joint, jointCount);
+        Mat4.fromFloatArray3x4(modelMatrices, 12 * joint, dest);
+    }
+
+    /// Skinning matrix of the joint (`model * inverseBind`).
+    public void getSkinningMatrix(int joint, Mat4 dest) {
+        Objects.checkIndex(joint, jointCount);
+        final float[] m = modelMatrices;
+        final float[] b = skeleton.inverseBindMatrices;
+        final int mi = 12 * joint;
+        dest.m00 = m[mi] * b[mi] + m[mi + 1] * b[mi + 4] + m[mi + 2] * b[mi + 8];
+        dest.m01 = m[mi] * b[mi + 1] + m[mi + 1] * b[mi + 5] + m[mi + 2] * b[mi + 9];
+        dest.m02 = m[mi] * b[mi + 2] + m[mi + 1] * b[mi + 6] + m[mi + 2] * b[mi + 10];
+        dest.m03 = m[mi] * b[mi + 3] + m[mi + 1] * b[mi + 7] + m[mi + 2] * b[mi + 11] + m[mi + 3];
+
+        dest.m10 = m[mi + 4] * b[mi] + m[mi + 5] * b[mi + 4] + m[mi + 6] * b[mi + 8];
+        dest.m11 = m[mi + 4] * b[mi + 1] + m[mi + 5] * b[mi + 5] + m[mi + 6] * b[mi + 9];
+        dest.m12 = m[mi + 4] * b[mi + 2] + m[mi + 5] * b[mi + 6] + m[mi + 6] * b[mi + 10];
+        dest.m13 = m[mi + 4] * b[mi + 3] + m[mi + 5] * b[mi + 7] + m[mi + 6] * b[mi + 11] + m[mi + 7];
+
+        dest.m20 = m[mi + 8] * b[mi] + m[mi + 9] * b[mi + 4] + m[mi + 10] * b[mi + 8];
+        dest.m21 = m[mi + 8] * b[mi + 1] + m[mi + 9] * b[mi + 5] + m[mi + 10] * b[mi + 9];
+        dest.m22 = m[mi + 8] * b[mi + 2] + m[mi + 9] * b[mi + 6] + m[mi + 10] * b[mi + 10];
+        dest.m23 = m[mi + 8] * b[mi + 3] + m[mi + 9] * b[mi + 7] + m[mi + 10] * b[mi + 11] + m[mi + 11];
+
+        dest.m30 = 0;
+        dest.m31 = 0;
+        dest.m32 = 0;
+        dest.m33 = 1;
+    }
+
+    /// Write skinning matrices of all joints into memory segment, 16 floats (64 bytes) per joint.
+    ///
+    /// **Row major order**, same layout as {@link Mat4#toMemorySegment(MemorySegment, long)}.
+    /// @param dest destination memory segment, must have room for `64 * jointCount` bytes starting at `byteOffset`
+    /// @param byteOffset offset in bytes where first element of first matrix is stored
+    public void writePalette(MemorySegment dest, long byteOffset) {
+        writePalette(dest, byteOffset, 16);
+    }
+
+    /// Write packed affine skinning matrices (3x4) of all joints into memory segment, 12 floats (48 bytes) per joint.
+    ///
+    /// **Row major order**, same layout as {@link Mat4#toMemorySegment3x4(MemorySegment, long)}.
+    /// @param dest destination memory segment, must have room for `48 * jointCount` bytes starting at `byteOffset`
+    /// @param byteOffset offset in bytes where first element of first matrix is stored
+    public void writePalette3x4(MemorySegment dest, long byteOffset) {
+        writePalette(dest, byteOffset, 12);
+    }
+
+    /// Write packed affine skinning matrices (3x4) of all joints into float array, 12 floats per joint.
+    ///
+    /// **Row major order**, same layout as {@link Mat4#toFloatArray3x4(float[], int)}, this is the palette format
+    /// of {@link SkinnedMesh#skinLinear(float[], float[])}.
+    /// @param dest destination array, must have room for `12 * jointCount` floats starting at `offset`
+    /// @param offset index where first element of first matrix is stored
+    public void writePalette3x4(float[] dest, int offset) {
+        Objects.checkFromIndexSize(offset, 12 * jointCount, dest.length);
+        final float[] m = modelMatrices;
+        final float[] b = skeleton.inverseBindMatrices;
+        for (int j = 0; j < jointCount; j++) {
+            final int i = 12 * j;
+            final int base = offset + i;
+            for (int row = 0; row < 3; row++) {
+                final float r0 = m[i + 4 * row];
+                final float r1 = m[i + 4 * row + 1];
+                final float r2 = m[i + 4 * row + 2];
+                final float r3 = m[i + 4 * row + 3];
+                final int rowBase = base + 4 * row;
+                dest[rowBase] = r0 * b[i] + r1 * b[i + 4] + r2 * b[i + 8];
+                dest[rowBase + 1] = r0 * b[i + 1] + r1 * b[i + 5] + r2 * b[i + 9];
+                dest[rowBase + 2] = r0 * b[i + 2] + r1 * b[i + 6] + r2 * b[i + 10];
+                dest[rowBase + 3] = r0 * b[i + 3] + r1 * b[i + 7] + r2 * b[i + 11] + r3;
+            }
+        }
+    }
+
+    /// Write skinning transforms of all joints as unit dual quaternions into float array, 8 floats per joint.
+    ///
+    /// Layout is `[rx, ry, rz, rw, dx, dy, dz, dw]` (real part, dual part), this is the palette format of
+    /// {@link SkinnedMesh#skinDualQuaternion(float[], float[])}. Scale of skinning matrices is discarded, see
+    /// {@link SkinnedMesh#toDualQuaternions(float[], int, float[], int, int)}.
+    /// @param dest destination array, must have room for `8 * jointCount` floats starting at `offset`
+    /// @param offset index where first element of first dual quaternion is stored
+    public void writeDualQuaternionPalette(float[] dest, int offset) {
+        Objects.checkFromIndexSize(offset, 8 * jointCount, dest.length);
+        writePalette3x4(palette3x4, 0);
+        SkinnedMesh.toDualQuaternions(palette3x4, 0, dest, offset, jointCount);
+    }
+
+    private void writePalette(MemorySegment dest, long byteOffset, int floatsPerMatrix) {
+        final long stride = ValueLayout.JAVA_FLOAT.byteSize();
+        final float[] m = modelMatrices;
+        final float[] b = skeleton.inverseBindMatrices;
+        for (int j = 0; j < jointCount; j++) {
+            final int i = 12 * j;
+            final long base = byteOffset + floatsPerMatrix * stride * j;
+            for (int row = 0; row < 3; row++) {
+                final float r0 = m[i + 4 * row];
+                final float r1 = m[i + 4 * row + 1];
+                final float r2 = m[i + 4 * row + 2];
+                final float r3 = m[i + 4 * row + 3];
+                final long rowBase = base + 4 * stride * row;
+                dest.set(ValueLayout.JAVA_FLOAT, rowBase, r0 * b[i] + r1 * b[i + 4] + r2 * b[i + 8]);
+                dest.set(ValueLayout.JAVA_FLOAT, rowBase + stride, r0 * b[i + 1] + r1 * b[i + 5] + r2 * b[i + 9]);
+                dest.set(ValueLayout.JAVA_FLOAT, rowBase + 2 * stride, r0 * b[i + 2] + r1 * b[i + 6] + r2 * b[i + 10]);
+                dest.set(ValueLayout.JAVA_FLOAT, rowBase + 3 * stride, r0 * b[i + 3] + r1 * b[i + 7] + r2 * b[i + 11] + r3);
+            }
+            if (floatsPerMatrix == 16) {
+                dest.set(ValueLayout.JAVA_FLOAT, base + stride * 12, 0.0f);
+                dest.set(ValueLayout.JAVA_FLOAT, base + stride * 13, 0.0f);
+                dest.set(ValueLayout.JAVA_FLOAT, base + stride * 14, 0.0f);
+                dest.set(ValueLayout.JAVA_FLOAT, base + stride * 15, 1.0f);
+            }
+        }
+    }
+
+    /// Build local matrices from sampled TRS and compose them into model space matrices.
+    private void composePose() {
+        final float[] m = modelMatrices;
+        final int[] parents = skeleton.parents;
+        for (int j = 0; j < jointCount; j++) {
+            final float qx = rotations[4 * j];
+            final float qy = rotations[4 * j + 1];
+            final float qz = rotations[4 * j + 2];
+            final float qw = rotations[4 * j + 3];
+            final float sx = scales[3 * j];
+            final float sy = scales[3 * j + 1];
+            final float sz = scales[3 * j + 2];
+
+            // Local matrix = T * R * S, same as Transform
+            final float l00 = (1 - 2*(qy*qy + qz*qz))*sx;
+            final float l01 = 2*(qx*qy - qw*qz)*sy;
+            final float l02 = 2*(qw*qy + qx*qz)*sz;
+            final float l03 = translations[3 * j];
+
+            final float l10 = 2*(qx*qy + qw*qz)*sx;
+            final float l11 = (1 - 2*(qx*qx + qz*qz))*sy;
+            final float l12 = 2*((-qw)*qx + qy*qz)*sz;
+            final float l13 = translations[3 * j + 1];
+
+            final float l20 = 2*((-qw)*qy + qx*qz)*sx;
+            final float l21 = 2*(qw*qx + qy*qz)*sy;
+            final float l22 = (1 - 2*(qx*qx + qy*qy))*sz;
+            final float l23 = translations[3 * j + 2];
+
+            final int i = 12 * j;
+            final int parent = parents[j];
+            if (parent == -1) {
+                m[i] = l00; m[i + 1] = l01; m[i + 2] = l02; m[i + 3] = l03;
+                m[i + 4] = l10; m[i + 5] = l11; m[i + 6] = l12; m[i + 7] = l13;
+                m[i + 8] = l20; m[i + 9] = l21; m[i + 10] = l22; m[i + 11] = l23;
+                continue;
+            }
+
+            // model = parentModel * local
+            final int p = 12 * parent;
+            for (int row = 0; row < 3; row++) {
+                final float p0 = m[p + 4 * row];
+                final float p1 = m[p + 4 * row + 1];
+                final float p2 = m[p + 4 * row + 2];
+                final float p3 = m[p + 4 * row + 3];
+                final int r = i + 4 * row;
+                m[r] = p0 * l00 + p1 * l10 + p2 * l20;
+                m[r + 1] = p0 * l01 + p1 * l11 + p2 * l21;
+                m[r + 2] = p0 * l02 + p1 * l12 + p2 * l22;
+                m[r + 3] = p0 * l03 + p1 * l13 + p2 * l23 + p3;
+            }
+        }
+    }
+
+    private static int sampleVec3(KeyframeTrack track, float time, int cursor, float[] dest, int offset) {
+        final int key = track.findKey(time, cursor);
+        final int next = Math.min(key + 1, track.keyCount() - 1);
+        final float t = interpolationFactor(track.times(), key, next, time);
+        final float[] values = track.values();
+        final int a = 3 * key;
+        final int b = 3 * next;
+        dest[offset] = values[a] + t * (values[b] - values[a]);
+        dest[offset + 1] = values[a + 1] + t * (values[b + 1] - values[a + 1]);
+        dest[offset + 2] = values[a + 2] + t * (values[b + 2] - values[a + 2]);
+        return key;
+    }
+
+    private static float interpolationFactor(float[] times, int key, int next, float time) {
+        final float span = times[next] - times[key];
+        if (span <= 0.0f) {
+            return 0.0f;
+        }
+        return Math.max(0.0f, Math.min((time - times[key]) / span, 1.0f));
+    }
+}
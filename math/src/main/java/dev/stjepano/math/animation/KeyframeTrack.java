@@ -0,0 +1,61 @@
+package dev.stjepano.math.animation;
+
+/// Keyframes of one animated property of one joint (translation, rotation or scale).
+///
+/// Key `k` has time `times[k]` and value stored at `values[components * k]`. Translation and scale tracks have 3
+/// components (x, y, z), rotation tracks have 4 components (quaternion x, y, z, w, unit length).
+/// @param times key times in seconds, ascending
+/// @param values packed key values
+/// @param components number of components per key (3 or 4)
+public record KeyframeTrack(float[] times, float[] values, int components) {
+
+    public KeyframeTrack {
+        if (times == null || times.length == 0) {
+            throw new IllegalArgumentException("Null or empty times.");
+        }
+        if (values == null) {
+            throw new NullPointerException("values");
+        }
+        if (components != 3 && components != 4) {
+            throw new IllegalArgumentException("components must be 3 or 4");
+        }
+        if (values.length != components * times.length) {
+            throw new IllegalArgumentException("values.length must be components * times.length");
+        }
+        for (int k = 1; k < times.length; k++) {
+            if (times[k] < times[k - 1]) {
+                throw new IllegalArgumentException("Key times must be ascending.");
+            }
+        }
+    }
+
+    /// Create translation or scale track.
+    public static KeyframeTrack ofVec3(float[] times, float[] values) {
+        return new KeyframeTrack(times, values, 3);
+    }
+
+    /// Create rotation track.
+    public static KeyframeTrack ofQuaternion(float[] times, float[] values) {
+        return new KeyframeTrack(times, values, 4);
+    }
+
+    /// Number of keys.
+    public int keyCount() {
+        return times.length;
+    }
+
+    /// Find key `k` such that `times[k] <= time < times[k + 1]`, starting the search at `cursor`.
+    ///
+    /// When time moves forward (normal playback) the search is O(1) amortized. When time is before the cursor
+    /// (loop restart or seek back) search restarts from the first key.
+    /// @return index of key, `0` when time is before the first key, last key index when time is after the last key
+    int findKey(float time, int cursor) {
+        if (cursor >= times.length || times[cursor] > time) {
+            cursor = 0;
+        }
+        while (cursor + 1 < times.length && times[cursor + 1] <= time) {
+            cursor++;
+        }
+        return cursor;
+    }
+}
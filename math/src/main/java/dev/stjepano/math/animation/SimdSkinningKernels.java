@@ -0,0 +1,244 @@
+package dev.stjepano.math.animation;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.lang.foreign.MemorySegment;
+
+import static dev.stjepano.math.MathUtil.EPSILON8;
+
+/// SIMD (Vector API) skinning kernels, one vertex per lane.
+///
+/// Kernels process blocks of `LANES` vertices starting at `start` and return the index of the first vertex which was
+/// not processed, the caller is responsible for processing the remaining vertices with scalar code. Use only when
+/// `SimdSupport.ENABLED` is true.
+///
+/// Palette entries of vertex joints are gathered with per block index maps (joint index times palette entry size),
+/// vertex components and weights are gathered with stride offsets. Results are stored through a small per thread
+/// scratch array (SoA, 6 floats per lane) so both array and memory segment destinations are supported.
+///
+/// Operations are done in same order as in scalar code in [SkinnedMesh], so results are bit-identical to scalar code.
+final class SimdSkinningKernels {
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+    private static final int INFLUENCES = SkinnedMesh.MAX_INFLUENCES;
+    private static final int[] INFLUENCE_OFFSETS = laneOffsets(INFLUENCES);
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private SimdSkinningKernels() {
+    }
+
+    /// Linear blend skinning of vertices in `[start, end)`.
+    /// @return index of first vertex which was not processed
+    static int linear(float[] vertexData, int stride, int normalOffset, int[] jointIndices, float[] jointWeights,
+                      float[] palette, int start, int end, float[] destArray, MemorySegment destSegment,
+                      long byteOffset) {
+        final int blockedEnd = start + (end - start) / LANES * LANES;
+        final Scratch scratch = SCRATCH.get();
+        final int[] vertexOffsets = scratch.vertexOffsets(stride);
+        final int[] joints = scratch.joints;
+        final float[] values = scratch.values;
+        for (int vertex = start; vertex < blockedEnd; vertex += LANES) {
+            scratch.gatherJoints(jointIndices, vertex, SkinnedMesh.MATRIX_FLOATS);
+            final FloatVector w0 = FloatVector.fromArray(SPECIES, jointWeights, INFLUENCES * vertex, INFLUENCE_OFFSETS, 0);
+            final FloatVector w1 = FloatVector.fromArray(SPECIES, jointWeights, INFLUENCES * vertex + 1, INFLUENCE_OFFSETS, 0);
+            final FloatVector w2 = FloatVector.fromArray(SPECIES, jointWeights, INFLUENCES * vertex + 2, INFLUENCE_OFFSETS, 0);
+            final FloatVector w3 = FloatVector.fromArray(SPECIES, jointWeights, INFLUENCES * vertex + 3, INFLUENCE_OFFSETS, 0);
+
+            final FloatVector m00 = blend(palette, 0, joints, w0, w1, w2, w3);
+            final FloatVector m01 = blend(palette, 1, joints, w0, w1, w2, w3);
+            final FloatVector m02 = blend(palette, 2, joints, w0, w1, w2, w3);
+            final FloatVector m03 = blend(palette, 3, joints, w0, w1, w2, w3);
+            final FloatVector m10 = blend(palette, 4, joints, w0, w1, w2, w3);
+            final FloatVector m11 = blend(palette, 5, joints, w0, w1, w2, w3);
+            final FloatVector m12 = blend(palette, 6, joints, w0, w1, w2, w3);
+            final FloatVector m13 = blend(palette, 7, joints, w0, w1, w2, w3);
+            final FloatVector m20 = blend(palette, 8, joints, w0, w1, w2, w3);
+            final FloatVector m21 = blend(palette, 9, joints, w0, w1, w2, w3);
+            final FloatVector m22 = blend(palette, 10, joints, w0, w1, w2, w3);
+            final FloatVector m23 = blend(palette, 11, joints, w0, w1, w2, w3);
+
+            final int base = vertex * stride;
+            final FloatVector x = FloatVector.fromArray(SPECIES, vertexData, base, vertexOffsets, 0);
+            final FloatVector y = FloatVector.fromArray(SPECIES, vertexData, base + 1, vertexOffsets, 0);
+            final FloatVector z = FloatVector.fromArray(SPECIES, vertexData, base + 2, vertexOffsets, 0);
+            m00.mul(x).add(m01.mul(y)).add(m02.mul(z)).add(m03).intoArray(values, 0);
+            m10.mul(x).add(m11.mul(y)).add(m12.mul(z)).add(m13).intoArray(values, LANES);
+            m20.mul(x).add(m21.mul(y)).add(m22.mul(z)).add(m23).intoArray(values, 2 * LANES);
+
+            if (normalOffset != -1) {
+                final int n = base + normalOffset;
+                final FloatVector nx = FloatVector.fromArray(SPECIES, vertexData, n, vertexOffsets, 0);
+                final FloatVector ny = FloatVector.fromArray(SPECIES, vertexData, n + 1, vertexOffsets, 0);
+                final FloatVector nz = FloatVector.fromArray(SPECIES, vertexData, n + 2, vertexOffsets, 0);
+                final FloatVector sx = m00.mul(nx).add(m01.mul(ny)).add(m02.mul(nz));
+                final FloatVector sy = m10.mul(nx).add(m11.mul(ny)).add(m12.mul(nz));
+                final FloatVector sz = m20.mul(nx).add(m21.mul(ny)).add(m22.mul(nz));
+                final FloatVector len = sx.mul(sx).add(sy.mul(sy)).add(sz.mul(sz)).sqrt();
+                final VectorMask<Float> valid = len.compare(VectorOperators.GT, EPSILON8);
+                nx.blend(sx.div(len), valid).intoArray(values, 3 * LANES);
+                ny.blend(sy.div(len), valid).intoArray(values, 4 * LANES);
+                nz.blend(sz.div(len), valid).intoArray(values, 5 * LANES);
+            }
+            scatter(values, base, stride, normalOffset, destArray, destSegment, byteOffset);
+        }
+        return blockedEnd;
+    }
+
+    /// Dual quaternion skinning of vertices in `[start, end)`.
+    /// @return index of first vertex which was not processed
+    static int dualQuaternion(float[] vertexData, int stride, int normalOffset, int[] jointIndices,
+                              float[] jointWeights, float[] palette, int start, int end, float[] destArray,
+                              MemorySegment destSegment, long byteOffset) {
+        final int blockedEnd = start + (end - start) / LANES * LANES;
+        final Scratch scratch = SCRATCH.get();
+        final int[] vertexOffsets = scratch.vertexOffsets(stride);
+        final int[] joints = scratch.joints;
+        final float[] values = scratch.values;
+        for (int vertex = start; vertex < blockedEnd; vertex += LANES) {
+            scratch.gatherJoints(jointIndices, vertex, SkinnedMesh.DUAL_QUATERNION_FLOATS);
+
+            // Blend in hemisphere of first influence
+            final FloatVector ax = FloatVector.fromArray(SPECIES, palette, 0, joints, 0);
+            final FloatVector ay = FloatVector.fromArray(SPECIES, palette, 1, joints, 0);
+            final FloatVector az = FloatVector.fromArray(SPECIES, palette, 2, joints, 0);
+            final FloatVector aw = FloatVector.fromArray(SPECIES, palette, 3, joints, 0);
+            final FloatVector w0 = FloatVector.fromArray(SPECIES, jointWeights, INFLUENCES * vertex, INFLUENCE_OFFSETS, 0);
+            final FloatVector w1 = hemisphereWeight(palette, joints, 1, ax, ay, az, aw,
+                    FloatVector.fromArray(SPECIES, jointWeights, INFLUENCES * vertex + 1, INFLUENCE_OFFSETS, 0));
+            final FloatVector w2 = hemisphereWeight(palette, joints, 2, ax, ay, az, aw,
+                    FloatVector.fromArray(SPECIES, jointWeights, INFLUENCES * vertex + 2, INFLUENCE_OFFSETS, 0));
+            final FloatVector w3 = hemisphereWeight(palette, joints, 3, ax, ay, az, aw,
+                    FloatVector.fromArray(SPECIES, jointWeights, INFLUENCES * vertex + 3, INFLUENCE_OFFSETS, 0));
+
+            FloatVector rx = blend(palette, 0, joints, w0, w1, w2, w3);
+            FloatVector ry = blend(palette, 1, joints, w0, w1, w2, w3);
+            FloatVector rz = blend(palette, 2, joints, w0, w1, w2, w3);
+            FloatVector rw = blend(palette, 3, joints, w0, w1, w2, w3);
+            FloatVector dx = blend(palette, 4, joints, w0, w1, w2, w3);
+            FloatVector dy = blend(palette, 5, joints, w0, w1, w2, w3);
+            FloatVector dz = blend(palette, 6, joints, w0, w1, w2, w3);
+            FloatVector dw = blend(palette, 7, joints, w0, w1, w2, w3);
+
+            final FloatVector len = rx.mul(rx).add(ry.mul(ry)).add(rz.mul(rz)).add(rw.mul(rw)).sqrt();
+            final FloatVector invLen = len.broadcast(1.0f).div(len);
+            rx = rx.mul(invLen);
+            ry = ry.mul(invLen);
+            rz = rz.mul(invLen);
+            rw = rw.mul(invLen);
+            dx = dx.mul(invLen);
+            dy = dy.mul(invLen);
+            dz = dz.mul(invLen);
+            dw = dw.mul(invLen);
+
+            final FloatVector tx = rw.mul(dx).sub(dw.mul(rx)).add(ry.mul(dz).sub(rz.mul(dy))).mul(2.0f);
+            final FloatVector ty = rw.mul(dy).sub(dw.mul(ry)).add(rz.mul(dx).sub(rx.mul(dz))).mul(2.0f);
+            final FloatVector tz = rw.mul(dz).sub(dw.mul(rz)).add(rx.mul(dy).sub(ry.mul(dx))).mul(2.0f);
+
+            final int base = vertex * stride;
+            final FloatVector x = FloatVector.fromArray(SPECIES, vertexData, base, vertexOffsets, 0);
+            final FloatVector y = FloatVector.fromArray(SPECIES, vertexData, base + 1, vertexOffsets, 0);
+            final FloatVector z = FloatVector.fromArray(SPECIES, vertexData, base + 2, vertexOffsets, 0);
+            rotate(rx, ry, rz, rw, x, y, z, values, 0);
+            FloatVector.fromArray(SPECIES, values, 0).add(tx).intoArray(values, 0);
+            FloatVector.fromArray(SPECIES, values, LANES).add(ty).intoArray(values, LANES);
+            FloatVector.fromArray(SPECIES, values, 2 * LANES).add(tz).intoArray(values, 2 * LANES);
+
+            if (normalOffset != -1) {
+                final int n = base + normalOffset;
+                final FloatVector nx = FloatVector.fromArray(SPECIES, vertexData, n, vertexOffsets, 0);
+                final FloatVector ny = FloatVector.fromArray(SPECIES, vertexData, n + 1, vertexOffsets, 0);
+                final FloatVector nz = FloatVector.fromArray(SPECIES, vertexData, n + 2, vertexOffsets, 0);
+                rotate(rx, ry, rz, rw, nx, ny, nz, values, 3 * LANES);
+            }
+            scatter(values, base, stride, normalOffset, destArray, destSegment, byteOffset);
+        }
+        return blockedEnd;
+    }
+
+    /// `w0 * p[j0 + element] + w1 * p[j1 + element] + w2 * p[j2 + element] + w3 * p[j3 + element]`
+    private static FloatVector blend(float[] palette, int element, int[] joints,
+                                     FloatVector w0, FloatVector w1, FloatVector w2, FloatVector w3) {
+        return FloatVector.fromArray(SPECIES, palette, element, joints, 0).mul(w0)
+                .add(FloatVector.fromArray(SPECIES, palette, element, joints, LANES).mul(w1))
+                .add(FloatVector.fromArray(SPECIES, palette, element, joints, 2 * LANES).mul(w2))
+                .add(FloatVector.fromArray(SPECIES, palette, element, joints, 3 * LANES).mul(w3));
+    }
+
+    private static FloatVector hemisphereWeight(float[] palette, int[] joints, int influence,
+                                                FloatVector ax, FloatVector ay, FloatVector az, FloatVector aw,
+                                                FloatVector weight) {
+        final int map = influence * LANES;
+        final FloatVector dot = ax.mul(FloatVector.fromArray(SPECIES, palette, 0, joints, map))
+                .add(ay.mul(FloatVector.fromArray(SPECIES, palette, 1, joints, map)))
+                .add(az.mul(FloatVector.fromArray(SPECIES, palette, 2, joints, map)))
+                .add(aw.mul(FloatVector.fromArray(SPECIES, palette, 3, joints, map)));
+        return weight.blend(weight.neg(), dot.compare(VectorOperators.LT, 0.0f));
+    }
+
+    /// `v' = v + 2 * cross(r, cross(r, v) + rw * v)`, stored to `values` (SoA) at `offset`.
+    private static void rotate(FloatVector rx, FloatVector ry, FloatVector rz, FloatVector rw,
+                               FloatVector x, FloatVector y, FloatVector z, float[] values, int offset) {
+        final FloatVector cx = ry.mul(z).sub(rz.mul(y)).add(rw.mul(x));
+        final FloatVector cy = rz.mul(x).sub(rx.mul(z)).add(rw.mul(y));
+        final FloatVector cz = rx.mul(y).sub(ry.mul(x)).add(rw.mul(z));
+        x.add(ry.mul(cz).sub(rz.mul(cy)).mul(2.0f)).intoArray(values, offset);
+        y.add(rz.mul(cx).sub(rx.mul(cz)).mul(2.0f)).intoArray(values, offset + LANES);
+        z.add(rx.mul(cy).sub(ry.mul(cx)).mul(2.0f)).intoArray(values, offset + 2 * LANES);
+    }
+
+    /// Store [x0..xN, y0..yN, z0..zN, nx0..nxN, ny0..nyN, nz0..nzN] from scratch into interleaved destination.
+    private static void scatter(float[] values, int base, int stride, int normalOffset, float[] destArray,
+                                MemorySegment destSegment, long byteOffset) {
+        for (int lane = 0; lane < LANES; lane++) {
+            final int dst = base + lane * stride;
+            SkinnedMesh.store(destArray, destSegment, byteOffset, dst, values[lane]);
+            SkinnedMesh.store(destArray, destSegment, byteOffset, dst + 1, values[LANES + lane]);
+            SkinnedMesh.store(destArray, destSegment, byteOffset, dst + 2, values[2 * LANES + lane]);
+            if (normalOffset != -1) {
+                final int n = dst + normalOffset;
+                SkinnedMesh.store(destArray, destSegment, byteOffset, n, values[3 * LANES + lane]);
+                SkinnedMesh.store(destArray, destSegment, byteOffset, n + 1, values[4 * LANES + lane]);
+                SkinnedMesh.store(destArray, destSegment, byteOffset, n + 2, values[5 * LANES + lane]);
+            }
+        }
+    }
+
+    private static int[] laneOffsets(int stride) {
+        final int[] result = new int[LANES];
+        for (int lane = 0; lane < LANES; lane++) {
+            result[lane] = lane * stride;
+        }
+        return result;
+    }
+
+    /// Per thread scratch, vertex offsets are recomputed only when stride changes.
+    private static final class Scratch {
+        /// Palette offsets of vertex joints, `LANES` entries per influence.
+        final int[] joints = new int[INFLUENCES * LANES];
+        final int[] vertexOffsets = new int[LANES];
+        final float[] values = new float[6 * LANES];
+        int stride = -1;
+
+        int[] vertexOffsets(int stride) {
+            if (this.stride != stride) {
+                for (int lane = 0; lane < LANES; lane++) {
+                    vertexOffsets[lane] = lane * stride;
+                }
+                this.stride = stride;
+            }
+            return vertexOffsets;
+        }
+
+        void gatherJoints(int[] jointIndices, int vertex, int floatsPerJoint) {
+            for (int lane = 0; lane < LANES; lane++) {
+                final int influence = INFLUENCES * (vertex + lane);
+                for (int k = 0; k < INFLUENCES; k++) {
+                    joints[k * LANES + lane] = floatsPerJoint * jointIndices[influence + k];
+                }
+            }
+        }
+    }
+}
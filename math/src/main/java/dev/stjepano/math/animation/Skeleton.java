@@ -0,0 +1,71 @@
+package dev.stjepano.math.animation;
+
+import dev.stjepano.math.Mat4;
+import dev.stjepano.math.Transform;
+
+import java.util.Objects;
+
+/// Joint hierarchy of a skinned mesh.
+///
+/// Joints are stored in flat arrays in depth first order, parent of every joint has lower index than the joint itself
+/// (root joints have parent `-1`). Each joint has a rest (bind) pose local transform, used when a clip has no track
+/// for the joint, and an inverse bind matrix which transforms mesh vertices from model space to joint space.
+///
+/// Skeleton is immutable and can be shared by many [AnimationSampler] instances.
+public final class Skeleton {
+    private final int jointCount;
+    final int[] parents;
+    final float[] restTranslations;
+    final float[] restRotations;
+    final float[] restScales;
+    final float[] inverseBindMatrices;
+
+    /// Create skeleton.
+    /// @param parents parent index of each joint, `parents[i] < i`, `-1` for root joints
+    /// @param restPose rest pose local transform of each joint
+    /// @param inverseBindMatrices inverse bind matrix of each joint (must be affine) or `null` for identity matrices
+    public Skeleton(int[] parents, Transform[] restPose, Mat4[] inverseBindMatrices) {
+        if (parents == null) {
+            throw new NullPointerException("parents");
+        }
+        if (restPose == null) {
+            throw new NullPointerException("restPose");
+        }
+        this.jointCount = parents.length;
+        if (restPose.length != jointCount) {
+            throw new IllegalArgumentException("restPose.length must be equal to parents.length");
+        }
+        if (inverseBindMatrices != null && inverseBindMatrices.length != jointCount) {
+            throw new IllegalArgumentException("inverseBindMatrices.length must be equal to parents.length");
+        }
+
+        this.parents = parents.clone();
+        this.restTranslations = new float[3 * jointCount];
+        this.restRotations = new float[4 * jointCount];
+        this.restScales = new float[3 * jointCount];
+        this.inverseBindMatrices = new float[12 * jointCount];
+        final Mat4 identity = new Mat4();
+        for (int i = 0; i < jointCount; i++) {
+            if (parents[i] < -1 || parents[i] >= i) {
+                throw new IllegalArgumentException("Joints must be in depth first order, invalid parent of joint " + i);
+            }
+            final Transform rest = restPose[i];
+            rest.position().toFloatArray(restTranslations, 3 * i);
+            rest.rotation().toFloatArray(restRotations, 4 * i);
+            rest.scale().toFloatArray(restScales, 3 * i);
+            final Mat4 inverseBind = inverseBindMatrices != null ? inverseBindMatrices[i] : identity;
+            inverseBind.toFloatArray3x4(this.inverseBindMatrices, 12 * i);
+        }
+    }
+
+    /// Number of joints.
+    public int jointCount() {
+        return jointCount;
+    }
+
+    /// Parent index of the joint, `-1` for root joints.
+    public int parent(int joint) {
+        Objects.checkIndex(joint, jointCount);
+        return parents[joint];
+    }
+}
@@ -0,0 +1,504 @@
+package dev.stjepano.math.animation;
+
+import dev.stjepano.math.SimdSupport;
+import dev.stjepano.math.geometry.mesh.IndexedMesh;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static dev.stjepano.math.MathUtil.EPSILON8;
+
+/// Bind pose vertex data with joint influences, skinned on the CPU with linear blend skinning (LBS) or dual
+/// quaternion skinning (DQS). Use for culling bounds, physics proxies and picking of animated characters.
+///
+/// Vertex data has the same interleaved layout as [IndexedMesh#vertexData()]: position at offset 0 and optional
+/// normal at `normalOffset`. Every vertex has [#MAX_INFLUENCES] joint influences, `jointIndices` and `jointWeights`
+/// hold 4 entries per vertex. Weights of a vertex should sum to 1, unused influences have weight 0 (and any valid
+/// joint index).
+///
+/// Joint palettes:
+/// * LBS - 12 floats per joint, affine skinning matrix in **row-major** 3x4 layout (same as
+///   [AnimationSampler#writePalette3x4(float[], int)] and [dev.stjepano.math.Mat4#toFloatArray3x4(float[], int)])
+/// * DQS - 8 floats per joint, unit dual quaternion (real x, y, z, w, dual x, y, z, w), see
+///   [AnimationSampler#writeDualQuaternionPalette(float[], int)] and
+///   [#toDualQuaternions(float[], int, float[], int, int)]
+///
+/// LBS supports scaled joints but loses volume at twisted joints ("candy wrapper"), DQS preserves volume but
+/// supports rigid joint transforms only.
+///
+/// Skinned positions and normals are written to `dest` at the same offsets as in the bind pose, other attributes
+/// in `dest` are not written (copy them once). LBS normals are renormalized. Skinning uses SIMD code path when
+/// available, scalar code path does not allocate (SIMD path may, see [dev.stjepano.math.SimdSupport]). Methods with
+/// [ForkJoinPool] argument skin meshes with at least [#PARALLEL_THRESHOLD] vertices in parallel, vertex range is split
+/// into chunks.
+///
+/// Arrays are not copied, they must not be modified while skinning.
+///
+/// #### Example
+/// ```java
+/// SkinnedMesh skinnedMesh = new SkinnedMesh(mesh, jointIndices, jointWeights);
+/// ...
+/// sampler.sample(runClip, time, true);
+/// sampler.writeDualQuaternionPalette(palette, 0);
+/// skinnedMesh.skinDualQuaternion(palette, skinnedVertexData, ForkJoinPool.commonPool());
+/// ```
+public final class SkinnedMesh {
+
+    /// Number of joint influences per vertex.
+    public static final int MAX_INFLUENCES = 4;
+
+    /// Number of vertices at which skinning is done in parallel.
+    public static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    /// Minimal number of vertices skinned by a single task.
+    private static final int MIN_CHUNK_SIZE = 1 << 12;
+
+    static final int MATRIX_FLOATS = 12;
+    static final int DUAL_QUATERNION_FLOATS = 8;
+
+    private final float[] vertexData;
+    private final int vertexCount;
+    private final int stride;
+    private final int normalOffset;
+    private final int[] jointIndices;
+    private final float[] jointWeights;
+    private final int jointCount;
+
+    /// Create skinned mesh from interleaved bind pose vertex data.
+    /// @param vertexData bind pose vertex data, position at offset 0
+    /// @param vertexCount number of vertices
+    /// @param stride number of components per vertex
+    /// @param normalOffset offset of normal in vertex, `-1` if there are no normals
+    /// @param jointIndices joint indices, [#MAX_INFLUENCES] per vertex
+    /// @param jointWeights joint weights, [#MAX_INFLUENCES] per vertex
+    public SkinnedMesh(float[] vertexData, int vertexCount, int stride, int normalOffset, int[] jointIndices,
+                       float[] jointWeights) {
+        if (vertexData == null) {
+            throw new NullPointerException("vertexData");
+        }
+        if (jointIndices == null) {
+            throw new NullPointerException("jointIndices");
+        }
+        if (jointWeights == null) {
+            throw new NullPointerException("jointWeights");
+        }
+        if (vertexCount < 0) {
+            throw new IllegalArgumentException("vertexCount must not be negative");
+        }
+        if (stride < 3) {
+            throw new IllegalArgumentException("stride must be at least 3");
+        }
+        if (normalOffset != -1 && (normalOffset < 3 || normalOffset + 3 > stride)) {
+            throw new IllegalArgumentException("normalOffset must be -1 or in range [3, stride - 3]");
+        }
+        Objects.checkFromIndexSize(0, vertexCount * stride, vertexData.length);
+        Objects.checkFromIndexSize(0, MAX_INFLUENCES * vertexCount, jointIndices.length);
+        Objects.checkFromIndexSize(0, MAX_INFLUENCES * vertexCount, jointWeights.length);
+
+        int maxJoint = -1;
+        for (int i = 0; i < MAX_INFLUENCES * vertexCount; i++) {
+            if (jointIndices[i] < 0) {
+                throw new IllegalArgumentException("Negative joint index of vertex " + i / MAX_INFLUENCES);
+            }
+            maxJoint = Math.max(maxJoint, jointIndices[i]);
+        }
+
+        this.vertexData = vertexData;
+        this.vertexCount = vertexCount;
+        this.stride = stride;
+        this.normalOffset = normalOffset;
+        this.jointIndices = jointIndices;
+        this.jointWeights = jointWeights;
+        this.jointCount = maxJoint + 1;
+    }
+
+    /// Create skinned mesh from mesh vertex data (positions and normals of the mesh are the bind pose).
+    /// @param mesh the mesh
+    /// @param jointIndices joint indices, [#MAX_INFLUENCES] per vertex
+    /// @param jointWeights joint weights, [#MAX_INFLUENCES] per vertex
+    public SkinnedMesh(IndexedMesh mesh, int[] jointIndices, float[] jointWeights) {
+        this(mesh.vertexData(), mesh.vertexCount(), mesh.vertexFormat().stride(), mesh.vertexFormat().normalOffset(),
+                jointIndices, jointWeights);
+    }
+
+    /// Number of vertices.
+    public int vertexCount() {
+        return vertexCount;
+    }
+
+    /// Number of components per vertex.
+    public int stride() {
+        return stride;
+    }
+
+    /// Offset of normal in vertex, `-1` if there are no normals.
+    public int normalOffset() {
+        return normalOffset;
+    }
+
+    /// Minimal number of joints in palette (largest joint index + 1).
+    public int jointCount() {
+        return jointCount;
+    }
+
+    /// Linear blend skinning on calling thread, see [#skinLinear(float[], float[], ForkJoinPool)].
+    public void skinLinear(float[] palette, float[] dest) {
+        skinLinear(palette, dest, null);
+    }
+
+    /// Linear blend skinning: `p' = sum(w[i] * M[j[i]]) * p`.
+    /// @param palette skinning matrices, 12 floats (row-major 3x4) per joint
+    /// @param dest destination vertex data, same layout as bind pose vertex data
+    /// @param pool fork/join pool used for meshes with at least [#PARALLEL_THRESHOLD] vertices, `null` to skin on
+    ///             calling thread
+    public void skinLinear(float[] palette, float[] dest, ForkJoinPool pool) {
+        Objects.checkFromIndexSize(0, vertexCount * stride, dest.length);
+        skin(false, palette, dest, null, 0, pool);
+    }
+
+    /// Linear blend skinning on calling thread, see [#skinLinear(float[], MemorySegment, long, ForkJoinPool)].
+    public void skinLinear(float[] palette, MemorySegment dest, long byteOffset) {
+        skinLinear(palette, dest, byteOffset, null);
+    }
+
+    /// Linear blend skinning into memory segment (for example mapped vertex buffer).
+    /// @param palette skinning matrices, 12 floats (row-major 3x4) per joint
+    /// @param dest destination, same layout as bind pose vertex data (`4 * stride` bytes per vertex)
+    /// @param byteOffset offset in bytes of first vertex
+    /// @param pool fork/join pool used for meshes with at least [#PARALLEL_THRESHOLD] vertices, `null` to skin on
+    ///             calling thread. When a pool is given `dest` must be accessible from its threads (for example
+    ///             allocated from a shared or global arena, not a confined one).
+    public void skinLinear(float[] palette, MemorySegment dest, long byteOffset, ForkJoinPool pool) {
+        Objects.checkFromIndexSize(byteOffset, (long) Float.BYTES * stride * vertexCount, dest.byteSize());
+        skin(false, palette, null, dest, byteOffset, pool);
+    }
+
+    /// Dual quaternion skinning on calling thread, see [#skinDualQuaternion(float[], float[], ForkJoinPool)].
+    public void skinDualQuaternion(float[] palette, float[] dest) {
+        skinDualQuaternion(palette, dest, null);
+    }
+
+    /// Dual quaternion skinning: dual quaternions of vertex joints are blended (in the hemisphere of the first
+    /// influence), normalized and applied to position and normal.
+    /// @param palette unit dual quaternions, 8 floats per joint
+    /// @param dest destination vertex data, same layout as bind pose vertex data
+    /// @param pool fork/join pool used for meshes with at least [#PARALLEL_THRESHOLD] vertices, `null` to skin on
+    ///             calling thread
+    public void skinDualQuaternion(float[] palette, float[] dest, ForkJoinPool pool) {
+        Objects.checkFromIndexSize(0, vertexCount * stride, dest.length);
+        skin(true, palette, dest, null, 0, pool);
+    }
+
+    /// Dual quaternion skinning on calling thread, see
+    /// [#skinDualQuaternion(float[], MemorySegment, long, ForkJoinPool)].
+    public void skinDualQuaternion(float[] palette, MemorySegment dest, long byteOffset) {
+        skinDualQuaternion(palette, dest, byteOffset, null);
+    }
+
+    /// Dual quaternion skinning into memory segment (for example mapped vertex buffer).
+    /// @param palette unit dual quaternions, 8 floats per joint
+    /// @param dest destination, same layout as bind pose vertex data (`4 * stride` bytes per vertex)
+    /// @param byteOffset offset in bytes of first vertex
+    /// @param pool fork/join pool used for meshes with at least [#PARALLEL_THRESHOLD] vertices, `null` to skin on
+    ///             calling thread. When a pool is given `dest` must be accessible from its threads (for example
+    ///             allocated from a shared or global arena, not a confined one).
+    public void skinDualQuaternion(float[] palette, MemorySegment dest, long byteOffset, ForkJoinPool pool) {
+        Objects.checkFromIndexSize(byteOffset, (long) Float.BYTES * stride * vertexCount, dest.byteSize());
+        skin(true, palette, null, dest, byteOffset, pool);
+    }
+
+    /// Convert affine matrices to unit dual quaternions for [#skinDualQuaternion(float[], float[], ForkJoinPool)].
+    ///
+    /// Scale is removed from matrices (basis vectors are normalized), matrices must not have shear.
+    /// @param palette matrices, 12 floats (row-major 3x4) per joint
+    /// @param paletteOffset offset of first matrix
+    /// @param dest dual quaternions, 8 floats per joint
+    /// @param destOffset offset of first dual quaternion
+    /// @param jointCount number of joints
+    public static void toDualQuaternions(float[] palette, int paletteOffset, float[] dest, int destOffset,
+                                         int jointCount) {
+        Objects.checkFromIndexSize(paletteOffset, MATRIX_FLOATS * jointCount, palette.length);
+        Objects.checkFromIndexSize(destOffset, DUAL_QUATERNION_FLOATS * jointCount, dest.length);
+        for (int j = 0; j < jointCount; j++) {
+            final int m = paletteOffset + MATRIX_FLOATS * j;
+            final int d = destOffset + DUAL_QUATERNION_FLOATS * j;
+            final float sx = length(palette[m], palette[m + 4], palette[m + 8]);
+            final float sy = length(palette[m + 1], palette[m + 5], palette[m + 9]);
+            final float sz = length(palette[m + 2], palette[m + 6], palette[m + 10]);
+            rotationToQuaternion(
+                    palette[m] / sx, palette[m + 1] / sy, palette[m + 2] / sz,
+                    palette[m + 4] / sx, palette[m + 5] / sy, palette[m + 6] / sz,
+                    palette[m + 8] / sx, palette[m + 9] / sy, palette[m + 10] / sz,
+                    dest, d);
+
+            // dual = 0.5 * (t, 0) * real
+            final float rx = dest[d];
+            final float ry = dest[d + 1];
+            final float rz = dest[d + 2];
+            final float rw = dest[d + 3];
+            final float tx = palette[m + 3];
+            final float ty = palette[m + 7];
+            final float tz = palette[m + 11];
+            dest[d + 4] = 0.5f * (tx * rw + ty * rz - tz * ry);
+            dest[d + 5] = 0.5f * (ty * rw + tz * rx - tx * rz);
+            dest[d + 6] = 0.5f * (tz * rw + tx * ry - ty * rx);
+            dest[d + 7] = -0.5f * (tx * rx + ty * ry + tz * rz);
+        }
+    }
+
+    private void skin(boolean dualQuaternion, float[] palette, float[] destArray, MemorySegment destSegment,
+                      long byteOffset, ForkJoinPool pool) {
+        final int floatsPerJoint = dualQuaternion ? DUAL_QUATERNION_FLOATS : MATRIX_FLOATS;
+        Objects.checkFromIndexSize(0, floatsPerJoint * jointCount, palette.length);
+        if (pool == null || vertexCount < PARALLEL_THRESHOLD) {
+            skinRange(dualQuaternion, palette, destArray, destSegment, byteOffset, 0, vertexCount);
+            return;
+        }
+        // A few chunks per worker so that work is balanced when some workers are busy
+        final int chunkSize = Math.max(MIN_CHUNK_SIZE, vertexCount / (pool.getParallelism() * 4));
+        pool.invoke(new SkinTask(this, dualQuaternion, palette, destArray, destSegment, byteOffset, 0, vertexCount,
+                chunkSize));
+    }
+
+    private void skinRange(boolean dualQuaternion, float[] palette, float[] destArray, MemorySegment destSegment,
+                           long byteOffset, int start, int end) {
+        int vertex = start;
+        if (SimdSupport.ENABLED) {
+            if (dualQuaternion) {
+                vertex = SimdSkinningKernels.dualQuaternion(vertexData, stride, normalOffset, jointIndices,
+                        jointWeights, palette, start, end, destArray, destSegment, byteOffset);
+            } else {
+                vertex = SimdSkinningKernels.linear(vertexData, stride, normalOffset, jointIndices, jointWeights,
+                        palette, start, end, destArray, destSegment, byteOffset);
+            }
+        }
+        for (; vertex < end; vertex++) {
+            if (dualQuaternion) {
+                skinDualQuaternion(palette, vertex, destArray, destSegment, byteOffset);
+            } else {
+                skinLinear(palette, vertex, destArray, destSegment, byteOffset);
+            }
+        }
+    }
+
+    /// Keep operation order in sync with [SimdSkinningKernels#linear], results are bit-identical.
+    private void skinLinear(float[] palette, int vertex, float[] destArray, MemorySegment destSegment,
+                            long byteOffset) {
+        final int influence = MAX_INFLUENCES * vertex;
+        final int p0 = MATRIX_FLOATS * jointIndices[influence];
+        final int p1 = MATRIX_FLOATS * jointIndices[influence + 1];
+        final int p2 = MATRIX_FLOATS * jointIndices[influence + 2];
+        final int p3 = MATRIX_FLOATS * jointIndices[influence + 3];
+        final float w0 = jointWeights[influence];
+        final float w1 = jointWeights[influence + 1];
+        final float w2 = jointWeights[influence + 2];
+        final float w3 = jointWeights[influence + 3];
+        final float[] p = palette;
+
+        final float m00 = w0 * p[p0] + w1 * p[p1] + w2 * p[p2] + w3 * p[p3];
+        final float m01 = w0 * p[p0 + 1] + w1 * p[p1 + 1] + w2 * p[p2 + 1] + w3 * p[p3 + 1];
+        final float m02 = w0 * p[p0 + 2] + w1 * p[p1 + 2] + w2 * p[p2 + 2] + w3 * p[p3 + 2];
+        final float m03 = w0 * p[p0 + 3] + w1 * p[p1 + 3] + w2 * p[p2 + 3] + w3 * p[p3 + 3];
+        final float m10 = w0 * p[p0 + 4] + w1 * p[p1 + 4] + w2 * p[p2 + 4] + w3 * p[p3 + 4];
+        final float m11 = w0 * p[p0 + 5] + w1 * p[p1 + 5] + w2 * p[p2 + 5] + w3 * p[p3 + 5];
+        final float m12 = w0 * p[p0 + 6] + w1 * p[p1 + 6] + w2 * p[p2 + 6] + w3 * p[p3 + 6];
+        final float m13 = w0 * p[p0 + 7] + w1 * p[p1 + 7] + w2 * p[p2 + 7] + w3 * p[p3 + 7];
+        final float m20 = w0 * p[p0 + 8] + w1 * p[p1 + 8] + w2 * p[p2 + 8] + w3 * p[p3 + 8];
+        final float m21 = w0 * p[p0 + 9] + w1 * p[p1 + 9] + w2 * p[p2 + 9] + w3 * p[p3 + 9];
+        final float m22 = w0 * p[p0 + 10] + w1 * p[p1 + 10] + w2 * p[p2 + 10] + w3 * p[p3 + 10];
+        final float m23 = w0 * p[p0 + 11] + w1 * p[p1 + 11] + w2 * p[p2 + 11] + w3 * p[p3 + 11];
+
+        final int base = vertex * stride;
+        final float x = vertexData[base];
+        final float y = vertexData[base + 1];
+        final float z = vertexData[base + 2];
+        store(destArray, destSegment, byteOffset, base, m00 * x + m01 * y + m02 * z + m03);
+        store(destArray, destSegment, byteOffset, base + 1, m10 * x + m11 * y + m12 * z + m13);
+        store(destArray, destSegment, byteOffset, base + 2, m20 * x + m21 * y + m22 * z + m23);
+
+        if (normalOffset != -1) {
+            final int n = base + normalOffset;
+            final float nx = vertexData[n];
+            final float ny = vertexData[n + 1];
+            final float nz = vertexData[n + 2];
+            float sx = m00 * nx + m01 * ny + m02 * nz;
+            float sy = m10 * nx + m11 * ny + m12 * nz;
+            float sz = m20 * nx + m21 * ny + m22 * nz;
+            final float len = (float) Math.sqrt(sx * sx + sy * sy + sz * sz);
+            if (len > EPSILON8) {
+                sx = sx / len;
+                sy = sy / len;
+                sz = sz / len;
+            } else {
+                sx = nx;
+                sy = ny;
+                sz = nz;
+            }
+            store(destArray, destSegment, byteOffset, n, sx);
+            store(destArray, destSegment, byteOffset, n + 1, sy);
+            store(destArray, destSegment, byteOffset, n + 2, sz);
+        }
+    }
+
+    /// Keep operation order in sync with [SimdSkinningKernels#dualQuaternion], results are bit-identical.
+    private void skinDualQuaternion(float[] palette, int vertex, float[] destArray, MemorySegment destSegment,
+                                    long byteOffset) {
+        final int influence = MAX_INFLUENCES * vertex;
+        final int p0 = DUAL_QUATERNION_FLOATS * jointIndices[influence];
+        final int p1 = DUAL_QUATERNION_FLOATS * jointIndices[influence + 1];
+        final int p2 = DUAL_QUATERNION_FLOATS * jointIndices[influence + 2];
+        final int p3 = DUAL_QUATERNION_FLOATS * jointIndices[influence + 3];
+        final float[] p = palette;
+
+        // Blend in hemisphere of first influence (q and -q are the same transform)
+        final float w0 = jointWeights[influence];
+        final float w1 = hemisphereWeight(p, p0, p1, jointWeights[influence + 1]);
+        final float w2 = hemisphereWeight(p, p0, p2, jointWeights[influence + 2]);
+        final float w3 = hemisphereWeight(p, p0, p3, jointWeights[influence + 3]);
+
+        float rx = w0 * p[p0] + w1 * p[p1] + w2 * p[p2] + w3 * p[p3];
+        float ry = w0 * p[p0 + 1] + w1 * p[p1 + 1] + w2 * p[p2 + 1] + w3 * p[p3 + 1];
+        float rz = w0 * p[p0 + 2] + w1 * p[p1 + 2] + w2 * p[p2 + 2] + w3 * p[p3 + 2];
+        float rw = w0 * p[p0 + 3] + w1 * p[p1 + 3] + w2 * p[p2 + 3] + w3 * p[p3 + 3];
+        float dx = w0 * p[p0 + 4] + w1 * p[p1 + 4] + w2 * p[p2 + 4] + w3 * p[p3 + 4];
+        float dy = w0 * p[p0 + 5] + w1 * p[p1 + 5] + w2 * p[p2 + 5] + w3 * p[p3 + 5];
+        float dz = w0 * p[p0 + 6] + w1 * p[p1 + 6] + w2 * p[p2 + 6] + w3 * p[p3 + 6];
+        float dw = w0 * p[p0 + 7] + w1 * p[p1 + 7] + w2 * p[p2 + 7] + w3 * p[p3 + 7];
+
+        final float invLen = 1.0f / (float) Math.sqrt(rx * rx + ry * ry + rz * rz + rw * rw);
+        rx = rx * invLen;
+        ry = ry * invLen;
+        rz = rz * invLen;
+        rw = rw * invLen;
+        dx = dx * invLen;
+        dy = dy * invLen;
+        dz = dz * invLen;
+        dw = dw * invLen;
+
+        // translation = 2 * dual * conjugate(real)
+        final float tx = 2.0f * (rw * dx - dw * rx + (ry * dz - rz * dy));
+        final float ty = 2.0f * (rw * dy - dw * ry + (rz * dx - rx * dz));
+        final float tz = 2.0f * (rw * dz - dw * rz + (rx * dy - ry * dx));
+
+        // v' = v + 2 * cross(r, cross(r, v) + rw * v)
+        final int base = vertex * stride;
+        final float x = vertexData[base];
+        final float y = vertexData[base + 1];
+        final float z = vertexData[base + 2];
+        float cx = ry * z - rz * y + rw * x;
+        float cy = rz * x - rx * z + rw * y;
+        float cz = rx * y - ry * x + rw * z;
+        store(destArray, destSegment, byteOffset, base, x + 2.0f * (ry * cz - rz * cy) + tx);
+        store(destArray, destSegment, byteOffset, base + 1, y + 2.0f * (rz * cx - rx * cz) + ty);
+        store(destArray, destSegment, byteOffset, base + 2, z + 2.0f * (rx * cy - ry * cx) + tz);
+
+        if (normalOffset != -1) {
+            final int n = base + normalOffset;
+            final float nx = vertexData[n];
+            final float ny = vertexData[n + 1];
+            final float nz = vertexData[n + 2];
+            cx = ry * nz - rz * ny + rw * nx;
+            cy = rz * nx - rx * nz + rw * ny;
+            cz = rx * ny - ry * nx + rw * nz;
+            store(destArray, destSegment, byteOffset, n, nx + 2.0f * (ry * cz - rz * cy));
+            store(destArray, destSegment, byteOffset, n + 1, ny + 2.0f * (rz * cx - rx * cz));
+            store(destArray, destSegment, byteOffset, n + 2, nz + 2.0f * (rx * cy - ry * cx));
+        }
+    }
+
+    /// Weight negated when real part of dual quaternion at `pk` is in opposite hemisphere of real part at `p0`.
+    private static float hemisphereWeight(float[] p, int p0, int pk, float weight) {
+        final float dot = p[p0] * p[pk] + p[p0 + 1] * p[pk + 1] + p[p0 + 2] * p[pk + 2] + p[p0 + 3] * p[pk + 3];
+        if (dot < 0.0f) {
+            return -weight;
+        }
+        return weight;
+    }
+
+    static void store(float[] destArray, MemorySegment destSegment, long byteOffset, int index, float value) {
+        if (destArray != null) {
+            destArray[index] = value;
+        } else {
+            destSegment.set(ValueLayout.JAVA_FLOAT, byteOffset + (long) Float.BYTES * index, value);
+        }
+    }
+
+    private static float length(float x, float y, float z) {
+        return (float) Math.sqrt(x * x + y * y + z * z);
+    }
+
+    /// Shepperd's algorithm, same as [dev.stjepano.math.Quaternion#setFromRotationMatrix(float, float, float, float,
+    /// float, float, float, float, float)] but writes (x, y, z, w) to array.
+    private static void rotationToQuaternion(float m00, float m01, float m02, float m10, float m11, float m12,
+                                             float m20, float m21, float m22, float[] dest, int offset) {
+        final float trace = m00 + m11 + m22;
+        if (trace > 0.0f) {
+            final float s = (float) Math.sqrt(trace + 1.0f) * 2.0f;
+            dest[offset] = (m21 - m12) / s;
+            dest[offset + 1] = (m02 - m20) / s;
+            dest[offset + 2] = (m10 - m01) / s;
+            dest[offset + 3] = 0.25f * s;
+        } else if ((m00 > m11) && (m00 > m22)) {
+            final float s = (float) Math.sqrt(1.0f + m00 - m11 - m22) * 2.0f;
+            dest[offset] = 0.25f * s;
+            dest[offset + 1] = (m01 + m10) / s;
+            dest[offset + 2] = (m02 + m20) / s;
+            dest[offset + 3] = (m21 - m12) / s;
+        } else if (m11 > m22) {
+            final float s = (float) Math.sqrt(1.0f + m11 - m00 - m22) * 2.0f;
+            dest[offset] = (m01 + m10) / s;
+            dest[offset + 1] = 0.25f * s;
+            dest[offset + 2] = (m12 + m21) / s;
+            dest[offset + 3] = (m02 - m20) / s;
+        } else {
+            final float s = (float) Math.sqrt(1.0f + m22 - m00 - m11) * 2.0f;
+            dest[offset] = (m02 + m20) / s;
+            dest[offset + 1] = (m12 + m21) / s;
+            dest[offset + 2] = 0.25f * s;
+            dest[offset + 3] = (m10 - m01) / s;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class SkinTask extends RecursiveAction {
+        private final SkinnedMesh mesh;
+        private final boolean dualQuaternion;
+        private final float[] palette;
+        private final float[] destArray;
+        private final MemorySegment destSegment;
+        private final long byteOffset;
+        private final int start;
+        private final int end;
+        private final int chunkSize;
+
+        SkinTask(SkinnedMesh mesh, boolean dualQuaternion, float[] palette, float[] destArray,
+                 MemorySegment destSegment, long byteOffset, int start, int end, int chunkSize) {
+            this.mesh = mesh;
+            this.dualQuaternion = dualQuaternion;
+            this.palette = palette;
+            this.destArray = destArray;
+            this.destSegment = destSegment;
+            this.byteOffset = byteOffset;
+            this.start = start;
+            this.end = end;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            final int count = end - start;
+            if (count <= chunkSize) {
+                mesh.skinRange(dualQuaternion, palette, destArray, destSegment, byteOffset, start, end);
+                return;
+            }
+            final int middle = start + count / 2;
+            invokeAll(new SkinTask(mesh, dualQuaternion, palette, destArray, destSegment, byteOffset, start, middle,
+                            chunkSize),
+                    new SkinTask(mesh, dualQuaternion, palette, destArray, destSegment, byteOffset, middle, end,
+                            chunkSize));
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package dev.stjepano.math.geometry.mesh;
 
+import dev.stjepano.math.Vec3;
+
 import java.util.Arrays;
 
 /// Simplest possible representation of an indexed mesh (it could be triangle mesh or line mesh).
@@ -8,7 +10,9 @@ import java.util.Arrays;
 /// @param primitiveType tells us if this is line or triangle mesh
 /// @param vertexData contains vertex data, take care, vertexData.length is not number of vertices
 /// @param indices each pair or triplet indexes into vertexData and represents one line or triangle
-public record IndexedMesh(VertexFormat vertexFormat, PrimitiveType primitiveType, float[] vertexData, int[] indices) {
+/// @param bounds local space bounds of all vertices
+public record IndexedMesh(VertexFormat vertexFormat, PrimitiveType primitiveType, float[] vertexData, int[] indices,
+                          Bounds bounds) {
 
     public IndexedMesh {
         if (vertexFormat == null) {
@@ -23,8 +27,23 @@ public record IndexedMesh(VertexFormat vertexFormat, PrimitiveType primitiveType
         if (indices == null || indices.length == 0) {
             throw new IllegalArgumentException("Null or empty indices.");
         }
+        if (bounds == null) {
+            throw new NullPointerException("bounds");
+        }
     }
 
+    /// Create mesh and compute its bounds from vertex positions.
+    public IndexedMesh(VertexFormat vertexFormat, PrimitiveType primitiveType, float[] vertexData, int[] indices) {
+        this(vertexFormat, primitiveType, vertexData, indices, computeBounds(vertexFormat, vertexData));
+    }
+
+    /// Bounds of vertex data or null when arguments are invalid (canonical constructor reports the error).
+    private static Bounds computeBounds(VertexFormat vertexFormat, float[] vertexData) {
+        if (vertexFormat == null || vertexData == null || vertexData.length < vertexFormat.stride()) {
+            return null;
+        }
+        return Bounds.compute(vertexData, vertexData.length / vertexFormat.stride(), vertexFormat.stride());
+    }
 
     /// Return the number of vertices (calculated as vertexData.length / stride).
     public int vertexCount() {
@@ -149,6 +168,68 @@ public record IndexedMesh(VertexFormat vertexFormat, PrimitiveType primitiveType
         }
     }
 
+    /// Axis aligned bounding box and bounding sphere of mesh vertices, both in mesh local space.
+    ///
+    /// Use [dev.stjepano.math.Transform#transformAabb(Vec3, Vec3, Vec3, Vec3)] and
+    /// [dev.stjepano.math.Transform#transformSphere(Vec3, float, Vec3)] to get world space bounds of a mesh instance.
+    public record Bounds(float minX, float minY, float minZ, float maxX, float maxY, float maxZ,
+                         float centerX, float centerY, float centerZ, float radius) {
+
+        /// Compute bounds of vertex positions (first 3 components of every vertex).
+        ///
+        /// Sphere center is the center of the box and radius is distance to the furthest vertex, this is not the
+        /// smallest enclosing sphere but it is computed in two passes and contains all vertices.
+        /// @param vertexData vertex data
+        /// @param vertexCount number of vertices
+        /// @param stride number of components per vertex
+        public static Bounds compute(float[] vertexData, int vertexCount, int stride) {
+            if (vertexCount <= 0) {
+                throw new IllegalArgumentException("vertexCount must be greater than 0");
+            }
+            float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+            float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+            for (int i = 0, base = 0; i < vertexCount; i++, base += stride) {
+                final float x = vertexData[base];
+                final float y = vertexData[base + 1];
+                final float z = vertexData[base + 2];
+                minX = Math.min(minX, x);
+                minY = Math.min(minY, y);
+                minZ = Math.min(minZ, z);
+                maxX = Math.max(maxX, x);
+                maxY = Math.max(maxY, y);
+                maxZ = Math.max(maxZ, z);
+            }
+
+            final float centerX = (minX + maxX) * 0.5f;
+            final float centerY = (minY + maxY) * 0.5f;
+            final float centerZ = (minZ + maxZ) * 0.5f;
+            float radiusSqr = 0.0f;
+            for (int i = 0, base = 0; i < vertexCount; i++, base += stride) {
+                final float dx = vertexData[base] - centerX;
+                final float dy = vertexData[base + 1] - centerY;
+                final float dz = vertexData[base + 2] - centerZ;
+                radiusSqr = Math.max(radiusSqr, dx * dx + dy * dy + dz * dz);
+            }
+            return new Bounds(minX, minY, minZ, maxX, maxY, maxZ, centerX, centerY, centerZ,
+                    (float) Math.sqrt(radiusSqr));
+        }
+
+        /// Copy minimum corner of the box to dest.
+        public Vec3 min(Vec3 dest) {
+            return dest.set(minX, minY, minZ);
+        }
+
+        /// Copy maximum corner of the box to dest.
+        public Vec3 max(Vec3 dest) {
+            return dest.set(maxX, maxY, maxZ);
+        }
+
+        /// Copy center of the sphere to dest.
+        public Vec3 center(Vec3 dest) {
+            return dest.set(centerX, centerY, centerZ);
+        }
+    }
+
     public enum PrimitiveType {
         LINES,
         TRIANGLES
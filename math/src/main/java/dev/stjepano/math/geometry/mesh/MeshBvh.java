@@ -0,0 +1,737 @@
+package dev.stjepano.math.geometry.mesh;
+
+import dev.stjepano.math.Transform;
+import dev.stjepano.math.Vec3;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/// Bounding volume hierarchy over triangles of an [IndexedMesh], used for ray casts (picking, line of sight) and
+/// box overlap queries.
+///
+/// Tree is built top-down with binned surface area heuristic (SAH). Large meshes are built in parallel on a
+/// [ForkJoinPool], subtrees with many triangles are built by separate tasks. Nodes are stored in flat arrays
+/// (bounds, child/first triangle, triangle count), children of a node are stored next to each other. Triangle vertex
+/// positions are copied into BVH order so leaf triangles are contiguous in memory.
+///
+/// Queries are done in mesh (local) space. Methods which take a [Transform] transform the ray into mesh space with
+/// inverse transform matrix instead of transforming the mesh. Ray distances are ray parameters `t` (hit point is
+/// `origin + t * direction`), they are the same in world and mesh space.
+///
+/// BVH is immutable after build, queries can be done concurrently from multiple threads. Queries which take a
+/// [Transform] read its cached inverse matrix, they are safe only while no thread modifies the transform (see
+/// [Transform]). Many rays against one mesh instance can use the overloads which take the inverse matrix, computed
+/// once with [Transform#toInverseMatrix3x4FloatArray(float[], int)].
+///
+/// #### Example
+/// ```java
+/// MeshBvh bvh = MeshBvh.build(mesh);
+/// MeshBvh.RayHit hit = new MeshBvh.RayHit();
+/// if (bvh.closestHit(meshTransform, rayOrigin, rayDirection, Float.POSITIVE_INFINITY, hit)) {
+///     System.out.println("picked triangle " + hit.triangle + " at distance " + hit.distance);
+/// }
+/// ```
+public final class MeshBvh {
+
+    /// Number of triangles at which subtree is built by a separate fork/join task.
+    public static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    private static final int BIN_COUNT = 16;
+    private static final int MAX_LEAF_SIZE = 8;
+    private static final int MAX_DEPTH = 64;
+    private static final float TRAVERSAL_COST = 1.0f;
+
+    private static final ThreadLocal<QueryScratch> SCRATCH = ThreadLocal.withInitial(QueryScratch::new);
+
+    private final int nodeCount;
+    /// Node bounds, 6 floats per node (minX, minY, minZ, maxX, maxY, maxZ).
+    private final float[] nodeBounds;
+    /// Inner node: index of left child (right child is next). Leaf: index of first triangle in BVH order.
+    private final int[] nodeChild;
+    /// Number of triangles in leaf, 0 for inner nodes.
+    private final int[] nodeTriangleCount;
+    /// Triangle vertex positions in BVH order, 9 floats per triangle.
+    private final float[] triangles;
+    /// Mesh triangle index of each triangle in BVH order.
+    private final int[] triangleIndices;
+
+    private MeshBvh(int nodeCount, float[] nodeBounds, int[] nodeChild, int[] nodeTriangleCount, float[] triangles,
+                    int[] triangleIndices) {
+        this.nodeCount = nodeCount;
+        this.nodeBounds = nodeBounds;
+        this.nodeChild = nodeChild;
+        this.nodeTriangleCount = nodeTriangleCount;
+        this.triangles = triangles;
+        this.triangleIndices = triangleIndices;
+    }
+
+    /// Build BVH, large meshes are built in parallel on common fork/join pool.
+    /// @param mesh triangle mesh
+    public static MeshBvh build(IndexedMesh mesh) {
+        return build(mesh, ForkJoinPool.commonPool());
+    }
+
+    /// Build BVH.
+    /// @param mesh triangle mesh
+    /// @param pool fork/join pool used for meshes with at least [#PARALLEL_THRESHOLD] triangles, `null` for
+    ///             single threaded build
+    public static MeshBvh build(IndexedMesh mesh, ForkJoinPool pool) {
+        if (mesh == null) {
+            throw new NullPointerException("mesh");
+        }
+        if (mesh.primitiveType() != IndexedMesh.PrimitiveType.TRIANGLES) {
+            throw new IllegalArgumentException("BVH can only be built for triangle meshes.");
+        }
+        final Builder builder = new Builder(mesh);
+        if (pool != null && builder.triangleCount >= PARALLEL_THRESHOLD) {
+            pool.invoke(new BuildTask(builder, 0, 0, builder.triangleCount, 0, true));
+        } else {
+            builder.buildNode(0, 0, builder.triangleCount, 0, false);
+        }
+        return builder.finish();
+    }
+
+    /// Number of nodes.
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /// Number of triangles.
+    public int triangleCount() {
+        return triangleIndices.length;
+    }
+
+    /// Copy bounds of the whole mesh (root node bounds).
+    public void getBounds(Vec3 destMin, Vec3 destMax) {
+        destMin.set(nodeBounds[0], nodeBounds[1], nodeBounds[2]);
+        destMax.set(nodeBounds[3], nodeBounds[4], nodeBounds[5]);
+    }
+
+    /// Result of ray query.
+    public static final class RayHit {
+        /// Ray parameter of the hit point (`origin + distance * direction`).
+        public float distance;
+        /// Index of hit triangle in mesh, vertex indices are `indices[3 * triangle]` ... `indices[3 * triangle + 2]`.
+        public int triangle = -1;
+        /// Barycentric coordinate of the second triangle vertex.
+        public float u;
+        /// Barycentric coordinate of the third triangle vertex.
+        public float v;
+    }
+
+    /// Find the closest triangle hit by a ray given in world space.
+    /// @param meshTransform transform of the mesh (mesh to world)
+    /// @param origin ray origin in world space
+    /// @param direction ray direction in world space (does not need to be normalized)
+    /// @param maxDistance maximal ray parameter
+    /// @param hit receives the closest hit, unchanged when there is no hit
+    /// @return true if ray hits the mesh
+    public boolean closestHit(Transform meshTransform, Vec3 origin, Vec3 direction, float maxDistance, RayHit hit) {
+        final float[] m = SCRATCH.get().inverse;
+        meshTransform.toInverseMatrix3x4FloatArray(m, 0);
+        return closestHit(m, 0, origin, direction, maxDistance, hit);
+    }
+
+    /// Find the closest triangle hit by a ray given in world space.
+    /// @param inverseMatrix inverse transform of the mesh (world to mesh), 12 floats with same layout as
+    ///                      [Transform#toInverseMatrix3x4FloatArray(float[], int)]
+    /// @param offset offset of the matrix in `inverseMatrix`
+    /// @param origin ray origin in world space
+    /// @param direction ray direction in world space (does not need to be normalized)
+    /// @param maxDistance maximal ray parameter
+    /// @param hit receives the closest hit, unchanged when there is no hit
+    /// @return true if ray hits the mesh
+    public boolean closestHit(float[] inverseMatrix, int offset, Vec3 origin, Vec3 direction, float maxDistance,
+                              RayHit hit) {
+        Objects.checkFromIndexSize(offset, 12, inverseMatrix.length);
+        final float[] m = inverseMatrix;
+        final int o = offset;
+        return closestHit(
+                m[o] * origin.x + m[o + 1] * origin.y + m[o + 2] * origin.z + m[o + 3],
+                m[o + 4] * origin.x + m[o + 5] * origin.y + m[o + 6] * origin.z + m[o + 7],
+                m[o + 8] * origin.x + m[o + 9] * origin.y + m[o + 10] * origin.z + m[o + 11],
+                m[o] * direction.x + m[o + 1] * direction.y + m[o + 2] * direction.z,
+                m[o + 4] * direction.x + m[o + 5] * direction.y + m[o + 6] * direction.z,
+                m[o + 8] * direction.x + m[o + 9] * direction.y + m[o + 10] * direction.z,
+                maxDistance, hit);
+    }
+
+    /// Find the closest triangle hit by a ray given in mesh space.
+    /// @see #closestHit(float, float, float, float, float, float, float, RayHit)
+    public boolean closestHit(Vec3 origin, Vec3 direction, float maxDistance, RayHit hit) {
+        return closestHit(origin.x, origin.y, origin.z, direction.x, direction.y, direction.z, maxDistance, hit);
+    }
+
+    /// Find the closest triangle hit by a ray given in mesh space.
+    /// @param maxDistance maximal ray parameter
+    /// @param hit receives the closest hit, unchanged when there is no hit
+    /// @return true if ray hits the mesh
+    public boolean closestHit(float originX, float originY, float originZ,
+                              float directionX, float directionY, float directionZ, float maxDistance, RayHit hit) {
+        return traverse(originX, originY, originZ, directionX, directionY, directionZ, maxDistance, hit, false);
+    }
+
+    /// Test if ray given in world space hits any triangle, useful for line of sight and shadow rays.
+    /// @param meshTransform transform of the mesh (mesh to world)
+    /// @param origin ray origin in world space
+    /// @param direction ray direction in world space (does not need to be normalized)
+    /// @param maxDistance maximal ray parameter
+    /// @return true if ray hits the mesh
+    public boolean anyHit(Transform meshTransform, Vec3 origin, Vec3 direction, float maxDistance) {
+        final float[] m = SCRATCH.get().inverse;
+        meshTransform.toInverseMatrix3x4FloatArray(m, 0);
+        return anyHit(m, 0, origin, direction, maxDistance);
+    }
+
+    /// Test if ray given in world space hits any triangle.
+    /// @param inverseMatrix inverse transform of the mesh (world to mesh), 12 floats with same layout as
+    ///                      [Transform#toInverseMatrix3x4FloatArray(float[], int)]
+    /// @param offset offset of the matrix in `inverseMatrix`
+    /// @param origin ray origin in world space
+    /// @param direction ray direction in world space (does not need to be normalized)
+    /// @param maxDistance maximal ray parameter
+    /// @return true if ray hits the mesh
+    public boolean anyHit(float[] inverseMatrix, int offset, Vec3 origin, Vec3 direction, float maxDistance) {
+        Objects.checkFromIndexSize(offset, 12, inverseMatrix.length);
+        final float[] m = inverseMatrix;
+        final int o = offset;
+        return anyHit(
+                m[o] * origin.x + m[o + 1] * origin.y + m[o + 2] * origin.z + m[o + 3],
+                m[o + 4] * origin.x + m[o + 5] * origin.y + m[o + 6] * origin.z + m[o + 7],
+                m[o + 8] * origin.x + m[o + 9] * origin.y + m[o + 10] * origin.z + m[o + 11],
+                m[o] * direction.x + m[o + 1] * direction.y + m[o + 2] * direction.z,
+                m[o + 4] * direction.x + m[o + 5] * direction.y + m[o + 6] * direction.z,
+                m[o + 8] * direction.x + m[o + 9] * direction.y + m[o + 10] * direction.z,
+                maxDistance);
+    }
+
+    /// Test if ray given in mesh space hits any triangle.
+    /// @see #anyHit(float, float, float, float, float, float, float)
+    public boolean anyHit(Vec3 origin, Vec3 direction, float maxDistance) {
+        return anyHit(origin.x, origin.y, origin.z, direction.x, direction.y, direction.z, maxDistance);
+    }
+
+    /// Test if ray given in mesh space hits any triangle, traversal stops at first found hit.
+    /// @param maxDistance maximal ray parameter
+    /// @return true if ray hits the mesh
+    public boolean anyHit(float originX, float originY, float originZ,
+                          float directionX, float directionY, float directionZ, float maxDistance) {
+        return traverse(originX, originY, originZ, directionX, directionY, directionZ, maxDistance, null, true);
+    }
+
+    /// Find triangles which overlap axis aligned box given in mesh space (exact triangle-box test).
+    /// @param min minimum corner of the box
+    /// @param max maximum corner of the box
+    /// @param dest receives mesh triangle indices, at most `dest.length` indices are written
+    /// @return number of triangle indices written to dest
+    public int overlapAabb(Vec3 min, Vec3 max, int[] dest) {
+        final int[] stack = SCRATCH.get().stack;
+        int stackSize = 0;
+        int found = 0;
+        int node = 0;
+        while (true) {
+            if (boxOverlap(node, min, max)) {
+                final int count = nodeTriangleCount[node];
+                if (count == 0) {
+                    stack[stackSize++] = nodeChild[node] + 1;
+                    node = nodeChild[node];
+                    continue;
+                }
+                final int first = nodeChild[node];
+                for (int i = first; i < first + count; i++) {
+                    if (triangleOverlapsAabb(i, min, max)) {
+                        if (found == dest.length) {
+                            return found;
+                        }
+                        dest[found++] = triangleIndices[i];
+                    }
+                }
+            }
+            if (stackSize == 0) {
+                return found;
+            }
+            node = stack[--stackSize];
+        }
+    }
+
+    private boolean traverse(float ox, float oy, float oz, float dx, float dy, float dz, float maxDistance,
+                             RayHit hit, boolean anyHit) {
+        final float invDx = 1.0f / dx;
+        final float invDy = 1.0f / dy;
+        final float invDz = 1.0f / dz;
+        final int[] stack = SCRATCH.get().stack;
+        int stackSize = 0;
+
+        float closest = maxDistance;
+        int closestTriangle = -1;
+        float closestU = 0.0f;
+        float closestV = 0.0f;
+
+        int node = 0;
+        if (rayBox(node, ox, oy, oz, invDx, invDy, invDz, closest) == Float.POSITIVE_INFINITY) {
+            return false;
+        }
+        while (true) {
+            final int count = nodeTriangleCount[node];
+            if (count == 0) {
+                // Visit nearer child first
+                final int left = nodeChild[node];
+                final int right = left + 1;
+                final float tLeft = rayBox(left, ox, oy, oz, invDx, invDy, invDz, closest);
+                final float tRight = rayBox(right, ox, oy, oz, invDx, invDy, invDz, closest);
+                if (tLeft != Float.POSITIVE_INFINITY) {
+                    if (tRight != Float.POSITIVE_INFINITY) {
+                        if (tLeft <= tRight) {
+                            stack[stackSize++] = right;
+                            node = left;
+                        } else {
+                            stack[stackSize++] = left;
+                            node = right;
+                        }
+                    } else {
+                        node = left;
+                    }
+                    continue;
+                } else if (tRight != Float.POSITIVE_INFINITY) {
+                    node = right;
+                    continue;
+                }
+            } else {
+                final int first = nodeChild[node];
+                for (int i = first; i < first + count; i++) {
+                    // Moller-Trumbore ray-triangle intersection
+                    final int t = 9 * i;
+                    final float v0x = triangles[t], v0y = triangles[t + 1], v0z = triangles[t + 2];
+                    final float e1x = triangles[t + 3] - v0x, e1y = triangles[t + 4] - v0y, e1z = triangles[t + 5] - v0z;
+                    final float e2x = triangles[t + 6] - v0x, e2y = triangles[t + 7] - v0y, e2z = triangles[t + 8] - v0z;
+                    final float px = dy * e2z - dz * e2y;
+                    final float py = dz * e2x - dx * e2z;
+                    final float pz = dx * e2y - dy * e2x;
+                    final float det = e1x * px + e1y * py + e1z * pz;
+                    if (det > -1e-12f && det < 1e-12f) {
+                        continue;
+                    }
+                    final float invDet = 1.0f / det;
+                    final float sx = ox - v0x, sy = oy - v0y, sz = oz - v0z;
+                    final float u = (sx * px + sy * py + sz * pz) * invDet;
+                    if (u < 0.0f || u > 1.0f) {
+                        continue;
+                    }
+                    final float qx = sy * e1z - sz * e1y;
+                    final float qy = sz * e1x - sx * e1z;
+                    final float qz = sx * e1y - sy * e1x;
+                    final float v = (dx * qx + dy * qy + dz * qz) * invDet;
+                    if (v < 0.0f || u + v > 1.0f) {
+                        continue;
+                    }
+                    final float distance = (e2x * qx + e2y * qy + e2z * qz) * invDet;
+                    if (distance >= 0.0f && distance < closest) {
+                        if (anyHit) {
+                            return true;
+                        }
+                        closest = distance;
+                        closestTriangle = i;
+                        closestU = u;
+                        closestV = v;
+                    }
+                }
+            }
+
+            // Pop nodes which may still contain closer hit
+            do {
+                if (stackSize == 0) {
+                    if (closestTriangle == -1) {
+                        return false;
+                    }
+                    hit.distance = closest;
+                    hit.triangle = triangleIndices[closestTriangle];
+                    hit.u = closestU;
+                    hit.v = closestV;
+                    return true;
+                }
+                node = stack[--stackSize];
+            } while (rayBox(node, ox, oy, oz, invDx, invDy, invDz, closest) == Float.POSITIVE_INFINITY);
+        }
+    }
+
+    /// Slab test, return entry distance or positive infinity when ray misses the node within `[0, maxDistance]`.
+    private float rayBox(int node, float ox, float oy, float oz, float invDx, float invDy, float invDz,
+                         float maxDistance) {
+        final int b = 6 * node;
+        final float tx1 = (nodeBounds[b] - ox) * invDx;
+        final float tx2 = (nodeBounds[b + 3] - ox) * invDx;
+        final float ty1 = (nodeBounds[b + 1] - oy) * invDy;
+        final float ty2 = (nodeBounds[b + 4] - oy) * invDy;
+        final float tz1 = (nodeBounds[b + 2] - oz) * invDz;
+        final float tz2 = (nodeBounds[b + 5] - oz) * invDz;
+        // NaN (0 * infinity) is ignored by picking the other operand
+        final float tMin = max(max(min(tx1, tx2), min(ty1, ty2)), max(min(tz1, tz2), 0.0f));
+        final float tMax = min(min(max(tx1, tx2), max(ty1, ty2)), min(max(tz1, tz2), maxDistance));
+        return tMin <= tMax ? tMin : Float.POSITIVE_INFINITY;
+    }
+
+    private static float min(float a, float b) {
+        return a < b || b != b ? a : b;
+    }
+
+    private static float max(float a, float b) {
+        return a > b || b != b ? a : b;
+    }
+
+    private boolean boxOverlap(int node, Vec3 min, Vec3 max) {
+        final int b = 6 * node;
+        return nodeBounds[b] <= max.x && nodeBounds[b + 3] >= min.x
+                && nodeBounds[b + 1] <= max.y && nodeBounds[b + 4] >= min.y
+                && nodeBounds[b + 2] <= max.z && nodeBounds[b + 5] >= min.z;
+    }
+
+    /// Separating axis triangle-box test (Akenine-Moller).
+    private boolean triangleOverlapsAabb(int triangle, Vec3 min, Vec3 max) {
+        final float cx = (min.x + max.x) * 0.5f, cy = (min.y + max.y) * 0.5f, cz = (min.z + max.z) * 0.5f;
+        final float hx = (max.x - min.x) * 0.5f, hy = (max.y - min.y) * 0.5f, hz = (max.z - min.z) * 0.5f;
+        final int t = 9 * triangle;
+        // Triangle relative to box center
+        final float v0x = triangles[t] - cx, v0y = triangles[t + 1] - cy, v0z = triangles[t + 2] - cz;
+        final float v1x = triangles[t + 3] - cx, v1y = triangles[t + 4] - cy, v1z = triangles[t + 5] - cz;
+        final float v2x = triangles[t + 6] - cx, v2y = triangles[t + 7] - cy, v2z = triangles[t + 8] - cz;
+
+        // Box face normals
+        if (Math.min(v0x, Math.min(v1x, v2x)) > hx || Math.max(v0x, Math.max(v1x, v2x)) < -hx) return false;
+        if (Math.min(v0y, Math.min(v1y, v2y)) > hy || Math.max(v0y, Math.max(v1y, v2y)) < -hy) return false;
+        if (Math.min(v0z, Math.min(v1z, v2z)) > hz || Math.max(v0z, Math.max(v1z, v2z)) < -hz) return false;
+
+        final float e0x = v1x - v0x, e0y = v1y - v0y, e0z = v1z - v0z;
+        final float e1x = v2x - v1x, e1y = v2y - v1y, e1z = v2z - v1z;
+        final float e2x = v0x - v2x, e2y = v0y - v2y, e2z = v0z - v2z;
+
+        // Triangle normal
+        final float nx = e0y * e1z - e0z * e1y;
+        final float ny = e0z * e1x - e0x * e1z;
+        final float nz = e0x * e1y - e0y * e1x;
+        final float d = nx * v0x + ny * v0y + nz * v0z;
+        final float r = hx * Math.abs(nx) + hy * Math.abs(ny) + hz * Math.abs(nz);
+        if (Math.abs(d) > r) return false;
+
+        // Cross products of box axes and triangle edges
+        return axisOverlap(0, -e0z, e0y, v0x, v0y, v0z, v1x, v1y, v1z, v2x, v2y, v2z, hx, hy, hz)
+                && axisOverlap(0, -e1z, e1y, v0x, v0y, v0z, v1x, v1y, v1z, v2x, v2y, v2z, hx, hy, hz)
+                && axisOverlap(0, -e2z, e2y, v0x, v0y, v0z, v1x, v1y, v1z, v2x, v2y, v2z, hx, hy, hz)
+                && axisOverlap(e0z, 0, -e0x, v0x, v0y, v0z, v1x, v1y, v1z, v2x, v2y, v2z, hx, hy, hz)
+                && axisOverlap(e1z, 0, -e1x, v0x, v0y, v0z, v1x, v1y, v1z, v2x, v2y, v2z, hx, hy, hz)
+                && axisOverlap(e2z, 0, -e2x, v0x, v0y, v0z, v1x, v1y, v1z, v2x, v2y, v2z, hx, hy, hz)
+                && axisOverlap(-e0y, e0x, 0, v0x, v0y, v0z, v1x, v1y, v1z, v2x, v2y, v2z, hx, hy, hz)
+                && axisOverlap(-e1y, e1x, 0, v0x, v0y, v0z, v1x, v1y, v1z, v2x, v2y, v2z, hx, hy, hz)
+                && axisOverlap(-e2y, e2x, 0, v0x, v0y, v0z, v1x, v1y, v1z, v2x, v2y, v2z, hx, hy, hz);
+    }
+
+    private static boolean axisOverlap(float ax, float ay, float az,
+                                       float v0x, float v0y, float v0z, float v1x, float v1y, float v1z,
+                                       float v2x, float v2y, float v2z, float hx, float hy, float hz) {
+        final float p0 = ax * v0x + ay * v0y + az * v0z;
+        final float p1 = ax * v1x + ay * v1y + az * v1z;
+        final float p2 = ax * v2x + ay * v2y + az * v2z;
+        final float r = hx * Math.abs(ax) + hy * Math.abs(ay) + hz * Math.abs(az);
+        return !(Math.min(p0, Math.min(p1, p2)) > r || Math.max(p0, Math.max(p1, p2)) < -r);
+    }
+
+    /// Per thread query state, keeps queries allocation free.
+    private static final class QueryScratch {
+        final int[] stack = new int[MAX_DEPTH + 1];
+        final float[] inverse = new float[12];
+    }
+
+    /// Build state shared by all build tasks. Tasks work on disjoint ranges of `order` and allocate node pairs
+    /// atomically, so the node arrays are written without locking.
+    private static final class Builder {
+        final int triangleCount;
+        final float[] vertexData;
+        final int stride;
+        final int[] indices;
+
+        final float[] triangleBounds;
+        final float[] centroids;
+        final int[] order;
+
+        final float[] nodeBounds;
+        final int[] nodeChild;
+        final int[] nodeTriangleCount;
+        final AtomicInteger nodeCounter = new AtomicInteger(1);
+
+        Builder(IndexedMesh mesh) {
+            this.vertexData = mesh.vertexData();
+            this.stride = mesh.vertexFormat().stride();
+            this.indices = mesh.indices();
+            this.triangleCount = indices.length / 3;
+            if (triangleCount == 0) {
+                throw new IllegalArgumentException("Mesh has no triangles.");
+            }
+
+            this.triangleBounds = new float[6 * triangleCount];
+            this.centroids = new float[3 * triangleCount];
+            this.order = new int[triangleCount];
+            for (int i = 0; i < triangleCount; i++) {
+                order[i] = i;
+                float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+                float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+                for (int k = 0; k < 3; k++) {
+                    final int base = indices[3 * i + k] * stride;
+                    minX = Math.min(minX, vertexData[base]);
+                    minY = Math.min(minY, vertexData[base + 1]);
+                    minZ = Math.min(minZ, vertexData[base + 2]);
+                    maxX = Math.max(maxX, vertexData[base]);
+                    maxY = Math.max(maxY, vertexData[base + 1]);
+                    maxZ = Math.max(maxZ, vertexData[base + 2]);
+                }
+                final int b = 6 * i;
+                triangleBounds[b] = minX;
+                triangleBounds[b + 1] = minY;
+                triangleBounds[b + 2] = minZ;
+                triangleBounds[b + 3] = maxX;
+                triangleBounds[b + 4] = maxY;
+                triangleBounds[b + 5] = maxZ;
+                centroids[3 * i] = (minX + maxX) * 0.5f;
+                centroids[3 * i + 1] = (minY + maxY) * 0.5f;
+                centroids[3 * i + 2] = (minZ + maxZ) * 0.5f;
+            }
+
+            final int maxNodes = 2 * triangleCount - 1;
+            this.nodeBounds = new float[6 * maxNodes];
+            this.nodeChild = new int[maxNodes];
+            this.nodeTriangleCount = new int[maxNodes];
+        }
+
+        /// Build node for triangles `order[start, end)`, children are built by fork/join tasks when `parallel` is
+        /// true and range is large enough.
+        void buildNode(int node, int start, int end, int depth, boolean parallel) {
+            final int count = end - start;
+            float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+            float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+            float cMinX = Float.POSITIVE_INFINITY, cMinY = Float.POSITIVE_INFINITY, cMinZ = Float.POSITIVE_INFINITY;
+            float cMaxX = Float.NEGATIVE_INFINITY, cMaxY = Float.NEGATIVE_INFINITY, cMaxZ = Float.NEGATIVE_INFINITY;
+            for (int i = start; i < end; i++) {
+                final int tri = order[i];
+                final int b = 6 * tri;
+                minX = Math.min(minX, triangleBounds[b]);
+                minY = Math.min(minY, triangleBounds[b + 1]);
+                minZ = Math.min(minZ, triangleBounds[b + 2]);
+                maxX = Math.max(maxX, triangleBounds[b + 3]);
+                maxY = Math.max(maxY, triangleBounds[b + 4]);
+                maxZ = Math.max(maxZ, triangleBounds[b + 5]);
+                cMinX = Math.min(cMinX, centroids[3 * tri]);
+                cMinY = Math.min(cMinY, centroids[3 * tri + 1]);
+                cMinZ = Math.min(cMinZ, centroids[3 * tri + 2]);
+                cMaxX = Math.max(cMaxX, centroids[3 * tri]);
+                cMaxY = Math.max(cMaxY, centroids[3 * tri + 1]);
+                cMaxZ = Math.max(cMaxZ, centroids[3 * tri + 2]);
+            }
+            final int nb = 6 * node;
+            nodeBounds[nb] = minX;
+            nodeBounds[nb + 1] = minY;
+            nodeBounds[nb + 2] = minZ;
+            nodeBounds[nb + 3] = maxX;
+            nodeBounds[nb + 4] = maxY;
+            nodeBounds[nb + 5] = maxZ;
+
+            if (count == 1 || depth >= MAX_DEPTH) {
+                makeLeaf(node, start, count);
+                return;
+            }
+
+            // Binned SAH, find best split plane over all axes
+            final float[] cMin = {cMinX, cMinY, cMinZ};
+            final float[] cExtent = {cMaxX - cMinX, cMaxY - cMinY, cMaxZ - cMinZ};
+            final int[] binCount = new int[BIN_COUNT];
+            final float[] binBounds = new float[6 * BIN_COUNT];
+            final float[] rightArea = new float[BIN_COUNT];
+            final int[] rightCount = new int[BIN_COUNT];
+            float bestCost = Float.POSITIVE_INFINITY;
+            int bestAxis = -1;
+            int bestBin = 0;
+            for (int axis = 0; axis < 3; axis++) {
+                if (cExtent[axis] <= 0.0f) {
+                    continue;
+                }
+                final float scale = BIN_COUNT / cExtent[axis];
+                Arrays.fill(binCount, 0);
+                for (int bin = 0; bin < BIN_COUNT; bin++) {
+                    resetBounds(binBounds, bin);
+                }
+                for (int i = start; i < end; i++) {
+                    final int tri = order[i];
+                    final int bin = binIndex(centroids[3 * tri + axis], cMin[axis], scale);
+                    binCount[bin]++;
+                    growBounds(binBounds, bin, triangleBounds, tri);
+                }
+
+                // Sweep from right, rightArea[b] and rightCount[b] describe bins [b, BIN_COUNT)
+                float rMinX = Float.POSITIVE_INFINITY, rMinY = Float.POSITIVE_INFINITY, rMinZ = Float.POSITIVE_INFINITY;
+                float rMaxX = Float.NEGATIVE_INFINITY, rMaxY = Float.NEGATIVE_INFINITY, rMaxZ = Float.NEGATIVE_INFINITY;
+                int accumulated = 0;
+                for (int bin = BIN_COUNT - 1; bin > 0; bin--) {
+                    final int b = 6 * bin;
+                    rMinX = Math.min(rMinX, binBounds[b]);
+                    rMinY = Math.min(rMinY, binBounds[b + 1]);
+                    rMinZ = Math.min(rMinZ, binBounds[b + 2]);
+                    rMaxX = Math.max(rMaxX, binBounds[b + 3]);
+                    rMaxY = Math.max(rMaxY, binBounds[b + 4]);
+                    rMaxZ = Math.max(rMaxZ, binBounds[b + 5]);
+                    accumulated += binCount[bin];
+                    rightCount[bin] = accumulated;
+                    rightArea[bin] = halfArea(rMinX, rMinY, rMinZ, rMaxX, rMaxY, rMaxZ);
+                }
+
+                // Sweep from left, split between bin - 1 and bin
+                float lMinX = Float.POSITIVE_INFINITY, lMinY = Float.POSITIVE_INFINITY, lMinZ = Float.POSITIVE_INFINITY;
+                float lMaxX = Float.NEGATIVE_INFINITY, lMaxY = Float.NEGATIVE_INFINITY, lMaxZ = Float.NEGATIVE_INFINITY;
+                int leftCount = 0;
+                for (int bin = 1; bin < BIN_COUNT; bin++) {
+                    final int b = 6 * (bin - 1);
+                    lMinX = Math.min(lMinX, binBounds[b]);
+                    lMinY = Math.min(lMinY, binBounds[b + 1]);
+                    lMinZ = Math.min(lMinZ, binBounds[b + 2]);
+                    lMaxX = Math.max(lMaxX, binBounds[b + 3]);
+                    lMaxY = Math.max(lMaxY, binBounds[b + 4]);
+                    lMaxZ = Math.max(lMaxZ, binBounds[b + 5]);
+                    leftCount += binCount[bin - 1];
+                    if (leftCount == 0 || rightCount[bin] == 0) {
+                        continue;
+                    }
+                    final float cost = leftCount * halfArea(lMinX, lMinY, lMinZ, lMaxX, lMaxY, lMaxZ)
+                            + rightCount[bin] * rightArea[bin];
+                    if (cost < bestCost) {
+                        bestCost = cost;
+                        bestAxis = axis;
+                        bestBin = bin;
+                    }
+                }
+            }
+
+            // SAH cost of split relative to cost of a leaf (intersection cost of 1 per triangle), large leaves are
+            // split even when SAH prefers a leaf
+            if (count <= MAX_LEAF_SIZE) {
+                final float parentArea = halfArea(minX, minY, minZ, maxX, maxY, maxZ);
+                if (bestAxis == -1 || parentArea <= 0.0f || TRAVERSAL_COST + bestCost / parentArea >= count) {
+                    makeLeaf(node, start, count);
+                    return;
+                }
+            }
+
+            int middle;
+            if (bestAxis == -1) {
+                // All centroids are in same point, split in half
+                middle = start + count / 2;
+            } else {
+                final float scale = BIN_COUNT / cExtent[bestAxis];
+                int i = start;
+                int j = end - 1;
+                while (i <= j) {
+                    if (binIndex(centroids[3 * order[i] + bestAxis], cMin[bestAxis], scale) < bestBin) {
+                        i++;
+                    } else {
+                        final int tmp = order[i];
+                        order[i] = order[j];
+                        order[j] = tmp;
+                        j--;
+                    }
+                }
+                middle = i;
+                if (middle == start || middle == end) {
+                    middle = start + count / 2;
+                }
+            }
+
+            final int left = nodeCounter.getAndAdd(2);
+            nodeChild[node] = left;
+            nodeTriangleCount[node] = 0;
+            if (parallel && count >= PARALLEL_THRESHOLD) {
+                RecursiveAction.invokeAll(new BuildTask(this, left, start, middle, depth + 1, true),
+                        new BuildTask(this, left + 1, middle, end, depth + 1, true));
+            } else {
+                buildNode(left, start, middle, depth + 1, parallel);
+                buildNode(left + 1, middle, end, depth + 1, parallel);
+            }
+        }
+
+        private void makeLeaf(int node, int start, int count) {
+            nodeChild[node] = start;
+            nodeTriangleCount[node] = count;
+        }
+
+        MeshBvh finish() {
+            final int nodeCount = nodeCounter.get();
+            final float[] triangles = new float[9 * triangleCount];
+            for (int i = 0; i < triangleCount; i++) {
+                final int tri = order[i];
+                for (int k = 0; k < 3; k++) {
+                    final int src = indices[3 * tri + k] * stride;
+                    final int dst = 9 * i + 3 * k;
+                    triangles[dst] = vertexData[src];
+                    triangles[dst + 1] = vertexData[src + 1];
+                    triangles[dst + 2] = vertexData[src + 2];
+                }
+            }
+            return new MeshBvh(nodeCount, Arrays.copyOf(nodeBounds, 6 * nodeCount),
+                    Arrays.copyOf(nodeChild, nodeCount), Arrays.copyOf(nodeTriangleCount, nodeCount),
+                    triangles, order);
+        }
+
+        private static int binIndex(float centroid, float min, float scale) {
+            return Math.min((int) ((centroid - min) * scale), BIN_COUNT - 1);
+        }
+
+        private static void resetBounds(float[] bounds, int bin) {
+            final int b = 6 * bin;
+            bounds[b] = Float.POSITIVE_INFINITY;
+            bounds[b + 1] = Float.POSITIVE_INFINITY;
+            bounds[b + 2] = Float.POSITIVE_INFINITY;
+            bounds[b + 3] = Float.NEGATIVE_INFINITY;
+            bounds[b + 4] = Float.NEGATIVE_INFINITY;
+            bounds[b + 5] = Float.NEGATIVE_INFINITY;
+        }
+
+        private static void growBounds(float[] bounds, int bin, float[] triangleBounds, int triangle) {
+            final int b = 6 * bin;
+            final int t = 6 * triangle;
+            bounds[b] = Math.min(bounds[b], triangleBounds[t]);
+            bounds[b + 1] = Math.min(bounds[b + 1], triangleBounds[t + 1]);
+            bounds[b + 2] = Math.min(bounds[b + 2], triangleBounds[t + 2]);
+            bounds[b + 3] = Math.max(bounds[b + 3], triangleBounds[t + 3]);
+            bounds[b + 4] = Math.max(bounds[b + 4], triangleBounds[t + 4]);
+            bounds[b + 5] = Math.max(bounds[b + 5], triangleBounds[t + 5]);
+        }
+
+        private static float halfArea(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+            final float ex = maxX - minX;
+            final float ey = maxY - minY;
+            final float ez = maxZ - minZ;
+            return ex * ey + ey * ez + ez * ex;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class BuildTask extends RecursiveAction {
+        private final Builder builder;
+        private final int node;
+        private final int start;
+        private final int end;
+        private final int depth;
+        private final boolean parallel;
+
+        BuildTask(Builder builder, int node, int start, int end, int depth, boolean parallel) {
+            this.builder = builder;
+            this.node = node;
+            this.start = start;
+            this.end = end;
+            this.depth = depth;
+            this.parallel = parallel;
+        }
+
+        @Override
+        protected void compute() {
+            builder.buildNode(node, start, end, depth, parallel);
+        }
+    }
+}
@@ -0,0 +1,575 @@
+package dev.stjepano.math.geometry.mesh;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/// Offline optimization passes over triangle index buffers of an [IndexedMesh].
+///
+/// Order of triangles coming out of a mesh generator follows emission order, which uses the GPU post-transform
+/// vertex cache poorly. Triangle passes reorder triangles (each triangle keeps its vertex order, so winding is
+/// preserved), vertex data is not changed. Vertex fetch pass then reorders vertex data to match the index order.
+///
+/// - [#optimizeVertexCache(int[], int, int, int[])] reorders triangles with Tipsify (Sander, Nehab, Barczak, "Fast
+///   Triangle Reordering for Vertex Locality and Reduced Overdraw", 2007), linear time in number of triangles.
+/// - [#optimizeOverdraw(int[], float[], int, int, int, float, int[])] splits cache optimized order into clusters and
+///   sorts clusters so that outward facing clusters far from mesh center (likely occluders) are drawn first. Cache
+///   efficiency is kept within `threshold` of the input.
+/// - [#analyzeVertexCache(int[], int, int)] simulates FIFO vertex cache and reports ACMR (average cache miss ratio,
+///   transformed vertices per triangle) and ATVR (average transformed vertex ratio, transformed vertices per
+///   referenced vertex), use it to compare index order before and after optimization without a GPU.
+/// - [#optimizeVertexFetch(int[], float[], int, int, int[], float[])] moves vertices into order of first reference
+///   and removes unreferenced vertices, run it after triangle passes.
+/// - [#analyzeVertexFetch(int[], int, int)] simulates vertex fetch memory cache and reports overfetch (bytes read
+///   from memory per byte of referenced vertex data).
+///
+/// #### Example
+/// ```java
+/// IndexedMesh optimized = MeshOptimizer.optimize(mesh);
+/// MeshOptimizer.VertexCacheStats before = MeshOptimizer.analyzeVertexCache(mesh.indices(), mesh.vertexCount(), 16);
+/// MeshOptimizer.VertexCacheStats after = MeshOptimizer.analyzeVertexCache(optimized.indices(), optimized.vertexCount(), 16);
+/// System.out.println("ACMR " + before.acmr() + " -> " + after.acmr());
+/// System.out.println("overfetch " + MeshOptimizer.analyzeVertexFetch(optimized.indices(), optimized.vertexCount(),
+///         optimized.vertexFormat().stride()).overfetch());
+/// ```
+public final class MeshOptimizer {
+
+    /// Cache size (in vertices) used by [#optimize(IndexedMesh)].
+    public static final int DEFAULT_CACHE_SIZE = 16;
+    /// Allowed ACMR increase of a cluster used by [#optimize(IndexedMesh)], 5%.
+    public static final float DEFAULT_OVERDRAW_THRESHOLD = 1.05f;
+    /// Memory cache line size in bytes used by [#analyzeVertexFetch(int[], int, int)].
+    public static final int FETCH_CACHE_LINE_SIZE = 64;
+    /// Direct mapped memory cache size in bytes used by [#analyzeVertexFetch(int[], int, int)].
+    public static final int FETCH_CACHE_SIZE = 16 * 1024;
+
+    private MeshOptimizer() {
+    }
+
+    /// Reorder triangles of a triangle mesh for vertex cache and overdraw with default parameters, then reorder
+    /// vertices for vertex fetch.
+    /// @param mesh triangle mesh
+    /// @return new mesh, unreferenced vertices are removed
+    public static IndexedMesh optimize(IndexedMesh mesh) {
+        if (mesh == null) {
+            throw new NullPointerException("mesh");
+        }
+        if (mesh.primitiveType() != IndexedMesh.PrimitiveType.TRIANGLES) {
+            throw new IllegalArgumentException("Only triangle meshes can be optimized.");
+        }
+        final int[] indices = new int[mesh.indices().length];
+        optimizeVertexCache(mesh.indices(), mesh.vertexCount(), DEFAULT_CACHE_SIZE, indices);
+        optimizeOverdraw(indices, mesh.vertexData(), mesh.vertexCount(), mesh.vertexFormat().stride(),
+                DEFAULT_CACHE_SIZE, DEFAULT_OVERDRAW_THRESHOLD, indices);
+        return optimizeVertexFetch(mesh.vertexFormat(), mesh.primitiveType(), mesh.vertexData(), mesh.vertexCount(),
+                indices);
+    }
+
+    /// Reorder vertices of a mesh (any primitive type) in order of first reference and remove unreferenced vertices.
+    /// @param mesh mesh, its triangles or lines should already be in final order
+    /// @return new mesh with recomputed bounds
+    public static IndexedMesh optimizeVertexFetch(IndexedMesh mesh) {
+        if (mesh == null) {
+            throw new NullPointerException("mesh");
+        }
+        return optimizeVertexFetch(mesh.vertexFormat(), mesh.primitiveType(), mesh.vertexData(), mesh.vertexCount(),
+                mesh.indices().clone());
+    }
+
+    private static IndexedMesh optimizeVertexFetch(IndexedMesh.VertexFormat vertexFormat,
+                                                   IndexedMesh.PrimitiveType primitiveType, float[] vertexData,
+                                                   int vertexCount, int[] indices) {
+        final int stride = vertexFormat.stride();
+        final float[] newVertexData = new float[vertexCount * stride];
+        final int newVertexCount = optimizeVertexFetch(indices, vertexData, vertexCount, stride, indices,
+                newVertexData);
+        return new IndexedMesh(vertexFormat, primitiveType, newVertexCount == vertexCount ? newVertexData
+                : Arrays.copyOf(newVertexData, newVertexCount * stride), indices);
+    }
+
+    /// Reorder vertices in order of first reference in `indices` and remove unreferenced vertices, indices are
+    /// rewritten to the new vertex order. Consecutive primitives then read nearby vertex memory.
+    ///
+    /// Works for any primitive type and vertex stride, vertices are copied as `stride` components.
+    /// @param indices vertex indices
+    /// @param vertexData vertex data
+    /// @param vertexCount number of vertices in `vertexData`, all indices must be less than this
+    /// @param stride number of components per vertex
+    /// @param destIndices destination for rewritten indices, can be `indices`
+    /// @param destVertexData destination for reordered vertex data, at least `vertexCount * stride` components,
+    ///                       must not be `vertexData`
+    /// @return number of vertices written to `destVertexData` (referenced vertices)
+    public static int optimizeVertexFetch(int[] indices, float[] vertexData, int vertexCount, int stride,
+                                          int[] destIndices, float[] destVertexData) {
+        checkIndices(indices, vertexCount, destIndices);
+        if (vertexData == null) {
+            throw new NullPointerException("vertexData");
+        }
+        if (destVertexData == null) {
+            throw new NullPointerException("destVertexData");
+        }
+        if (stride <= 0) {
+            throw new IllegalArgumentException("stride must be greater than 0");
+        }
+        if (destVertexData == vertexData) {
+            throw new IllegalArgumentException("destVertexData must not be vertexData");
+        }
+        Objects.checkFromIndexSize(0, (long) vertexCount * stride, vertexData.length);
+        Objects.checkFromIndexSize(0, (long) vertexCount * stride, destVertexData.length);
+
+        final int[] remap = new int[vertexCount];
+        Arrays.fill(remap, -1);
+        int newVertexCount = 0;
+        for (int i = 0; i < indices.length; i++) {
+            final int vertex = indices[i];
+            if (remap[vertex] == -1) {
+                System.arraycopy(vertexData, vertex * stride, destVertexData, newVertexCount * stride, stride);
+                remap[vertex] = newVertexCount++;
+            }
+            destIndices[i] = remap[vertex];
+        }
+        return newVertexCount;
+    }
+
+    /// Reorder triangles for post-transform vertex cache (Tipsify).
+    ///
+    /// Triangles are emitted in fans around a fanning vertex, next fanning vertex is a vertex of the emitted triangles
+    /// which will still be in cache after its remaining triangles are emitted (oldest such vertex is preferred). When
+    /// there is no such vertex, the most recently referenced vertex with remaining triangles is used.
+    /// @param indices triangle indices, 3 per triangle
+    /// @param vertexCount number of vertices, all indices must be less than this
+    /// @param cacheSize target cache size in vertices (at least 3)
+    /// @param dest destination for reordered indices, can be `indices`
+    public static void optimizeVertexCache(int[] indices, int vertexCount, int cacheSize, int[] dest) {
+        checkTriangles(indices, vertexCount, dest);
+        if (cacheSize < 3) {
+            throw new IllegalArgumentException("cacheSize must be at least 3");
+        }
+        final int[] source = dest == indices ? indices.clone() : indices;
+        new Tipsify(source, vertexCount, cacheSize).run(dest);
+    }
+
+    /// Reorder clusters of cache optimized triangles to reduce overdraw.
+    ///
+    /// Hard cluster boundaries are placed where all three vertices of a triangle miss simulated FIFO cache (cache
+    /// optimizer jumped to another part of the mesh). Hard clusters are further split at points where ACMR of the
+    /// cluster so far is within `threshold` of ACMR of the whole hard cluster. Clusters are then sorted by
+    /// `dot(clusterCentroid - meshCentroid, clusterNormal)` descending, triangles within a cluster keep their order.
+    /// @param indices cache optimized triangle indices, 3 per triangle
+    /// @param vertexData vertex data, position are first 3 components of each vertex
+    /// @param vertexCount number of vertices, all indices must be less than this
+    /// @param stride number of components per vertex
+    /// @param cacheSize cache size in vertices used to find cluster boundaries (at least 3)
+    /// @param threshold allowed ACMR increase (at least 1), higher values give more smaller clusters
+    /// @param dest destination for reordered indices, can be `indices`
+    public static void optimizeOverdraw(int[] indices, float[] vertexData, int vertexCount, int stride, int cacheSize,
+                                        float threshold, int[] dest) {
+        checkTriangles(indices, vertexCount, dest);
+        if (vertexData == null) {
+            throw new NullPointerException("vertexData");
+        }
+        if (stride < 3) {
+            throw new IllegalArgumentException("stride must be at least 3");
+        }
+        Objects.checkFromIndexSize(0, (long) vertexCount * stride, vertexData.length);
+        if (cacheSize < 3) {
+            throw new IllegalArgumentException("cacheSize must be at least 3");
+        }
+        if (!(threshold >= 1.0f)) {
+            throw new IllegalArgumentException("threshold must be at least 1");
+        }
+        final int[] source = dest == indices ? indices.clone() : indices;
+        final int triangleCount = source.length / 3;
+        final FifoCache cache = new FifoCache(vertexCount, cacheSize);
+
+        // Hard boundaries
+        final int[] clusterStarts = new int[triangleCount + 1];
+        int hardCount = 0;
+        for (int triangle = 0; triangle < triangleCount; triangle++) {
+            if (cache.access(source, triangle) == 3 || triangle == 0) {
+                clusterStarts[hardCount++] = triangle;
+            }
+        }
+        clusterStarts[hardCount] = triangleCount;
+
+        // Soft boundaries
+        final int[] softStarts = new int[triangleCount + 1];
+        int clusterCount = 0;
+        for (int hard = 0; hard < hardCount; hard++) {
+            final int start = clusterStarts[hard];
+            final int end = clusterStarts[hard + 1];
+            cache.clear();
+            int misses = 0;
+            for (int triangle = start; triangle < end; triangle++) {
+                misses += cache.access(source, triangle);
+            }
+            final float clusterThreshold = threshold * misses / (end - start);
+
+            cache.clear();
+            int softStart = start;
+            misses = 0;
+            softStarts[clusterCount++] = start;
+            for (int triangle = start; triangle < end - 1; triangle++) {
+                misses += cache.access(source, triangle);
+                if (misses <= clusterThreshold * (triangle + 1 - softStart)) {
+                    softStart = triangle + 1;
+                    softStarts[clusterCount++] = softStart;
+                    misses = 0;
+                    cache.clear();
+                }
+            }
+        }
+        softStarts[clusterCount] = triangleCount;
+
+        // Mesh centroid (average of triangle vertices)
+        double meshX = 0.0, meshY = 0.0, meshZ = 0.0;
+        for (int index : source) {
+            final int base = index * stride;
+            meshX += vertexData[base];
+            meshY += vertexData[base + 1];
+            meshZ += vertexData[base + 2];
+        }
+        final float centerX = (float) (meshX / source.length);
+        final float centerY = (float) (meshY / source.length);
+        final float centerZ = (float) (meshZ / source.length);
+
+        // Sort key is negated so ascending sort of (key, cluster) gives descending keys with stable cluster order
+        final long[] sortKeys = new long[clusterCount];
+        for (int cluster = 0; cluster < clusterCount; cluster++) {
+            final float key = clusterSortKey(source, softStarts[cluster], softStarts[cluster + 1], vertexData, stride,
+                    centerX, centerY, centerZ);
+            sortKeys[cluster] = ((long) sortableBits(-key) << 32) | cluster;
+        }
+        Arrays.sort(sortKeys);
+
+        int offset = 0;
+        for (long sortKey : sortKeys) {
+            final int cluster = (int) sortKey;
+            final int count = 3 * (softStarts[cluster + 1] - softStarts[cluster]);
+            System.arraycopy(source, 3 * softStarts[cluster], dest, offset, count);
+            offset += count;
+        }
+    }
+
+    /// Simulate FIFO post-transform vertex cache.
+    /// @param indices triangle indices, 3 per triangle
+    /// @param vertexCount number of vertices, all indices must be less than this
+    /// @param cacheSize cache size in vertices (at least 1)
+    public static VertexCacheStats analyzeVertexCache(int[] indices, int vertexCount, int cacheSize) {
+        if (indices == null) {
+            throw new NullPointerException("indices");
+        }
+        if (indices.length % 3 != 0) {
+            throw new IllegalArgumentException("indices.length must be multiple of 3");
+        }
+        if (cacheSize < 1) {
+            throw new IllegalArgumentException("cacheSize must be at least 1");
+        }
+        final FifoCache cache = new FifoCache(vertexCount, cacheSize);
+        final boolean[] referenced = new boolean[vertexCount];
+        int referencedCount = 0;
+        int transformed = 0;
+        for (int index : indices) {
+            Objects.checkIndex(index, vertexCount);
+            if (!cache.access(index)) {
+                transformed++;
+            }
+            if (!referenced[index]) {
+                referenced[index] = true;
+                referencedCount++;
+            }
+        }
+        return new VertexCacheStats(indices.length / 3, referencedCount, transformed);
+    }
+
+    /// Simulate memory reads of vertex fetch, vertices are read through direct mapped cache of [#FETCH_CACHE_SIZE]
+    /// bytes with [#FETCH_CACHE_LINE_SIZE] byte lines (vertex data is assumed to start at line boundary).
+    /// @param indices vertex indices
+    /// @param vertexCount number of vertices, all indices must be less than this
+    /// @param stride number of float components per vertex
+    public static VertexFetchStats analyzeVertexFetch(int[] indices, int vertexCount, int stride) {
+        if (indices == null) {
+            throw new NullPointerException("indices");
+        }
+        if (stride <= 0) {
+            throw new IllegalArgumentException("stride must be greater than 0");
+        }
+        final int vertexSize = stride * Float.BYTES;
+        final long[] lines = new long[FETCH_CACHE_SIZE / FETCH_CACHE_LINE_SIZE];
+        Arrays.fill(lines, -1L);
+        final boolean[] referenced = new boolean[vertexCount];
+        int referencedCount = 0;
+        long bytesFetched = 0;
+        for (int index : indices) {
+            Objects.checkIndex(index, vertexCount);
+            final long start = (long) index * vertexSize;
+            final long lastLine = (start + vertexSize - 1) / FETCH_CACHE_LINE_SIZE;
+            for (long line = start / FETCH_CACHE_LINE_SIZE; line <= lastLine; line++) {
+                final int slot = (int) (line % lines.length);
+                if (lines[slot] != line) {
+                    lines[slot] = line;
+                    bytesFetched += FETCH_CACHE_LINE_SIZE;
+                }
+            }
+            if (!referenced[index]) {
+                referenced[index] = true;
+                referencedCount++;
+            }
+        }
+        return new VertexFetchStats(referencedCount, vertexSize, bytesFetched);
+    }
+
+    /// Result of vertex fetch simulation.
+    /// @param vertexCount number of distinct referenced vertices
+    /// @param vertexSize vertex size in bytes
+    /// @param bytesFetched number of bytes read from memory
+    public record VertexFetchStats(int vertexCount, int vertexSize, long bytesFetched) {
+
+        /// Bytes read from memory per byte of referenced vertex data. 1 is optimum (slightly less is possible when
+        /// referenced vertices share cache lines with unreferenced ones).
+        public float overfetch() {
+            return vertexCount == 0 ? 0.0f : (float) ((double) bytesFetched / ((long) vertexCount * vertexSize));
+        }
+    }
+
+    /// Result of vertex cache simulation.
+    /// @param triangleCount number of triangles
+    /// @param vertexCount number of distinct referenced vertices
+    /// @param transformedVertexCount number of cache misses (vertex shader invocations)
+    public record VertexCacheStats(int triangleCount, int vertexCount, int transformedVertexCount) {
+
+        /// Average cache miss ratio, transformed vertices per triangle. 3 is worst, 0.5 is optimum for large regular
+        /// triangle meshes.
+        public float acmr() {
+            return triangleCount == 0 ? 0.0f : (float) transformedVertexCount / triangleCount;
+        }
+
+        /// Average transformed vertex ratio, transformed vertices per referenced vertex. 1 is optimum.
+        public float atvr() {
+            return vertexCount == 0 ? 0.0f : (float) transformedVertexCount / vertexCount;
+        }
+    }
+
+    private static void checkTriangles(int[] indices, int vertexCount, int[] dest) {
+        if (indices != null && indices.length % 3 != 0) {
+            throw new IllegalArgumentException("indices.length must be multiple of 3");
+        }
+        checkIndices(indices, vertexCount, dest);
+    }
+
+    private static void checkIndices(int[] indices, int vertexCount, int[] dest) {
+        if (indices == null) {
+            throw new NullPointerException("indices");
+        }
+        if (dest == null) {
+            throw new NullPointerException("dest");
+        }
+        if (vertexCount < 0) {
+            throw new IllegalArgumentException("vertexCount must not be negative");
+        }
+        Objects.checkFromIndexSize(0, indices.length, dest.length);
+        for (int index : indices) {
+            Objects.checkIndex(index, vertexCount);
+        }
+    }
+
+    /// `dot(clusterCentroid - meshCentroid, clusterNormal)`, centroid is area weighted and normal is normalized sum
+    /// of (area weighted) triangle normals.
+    private static float clusterSortKey(int[] indices, int start, int end, float[] vertexData, int stride,
+                                        float centerX, float centerY, float centerZ) {
+        float sumX = 0.0f, sumY = 0.0f, sumZ = 0.0f;
+        float normalX = 0.0f, normalY = 0.0f, normalZ = 0.0f;
+        float areaSum = 0.0f;
+        for (int triangle = start; triangle < end; triangle++) {
+            final int a = indices[3 * triangle] * stride;
+            final int b = indices[3 * triangle + 1] * stride;
+            final int c = indices[3 * triangle + 2] * stride;
+            final float ax = vertexData[a], ay = vertexData[a + 1], az = vertexData[a + 2];
+            final float e1x = vertexData[b] - ax, e1y = vertexData[b + 1] - ay, e1z = vertexData[b + 2] - az;
+            final float e2x = vertexData[c] - ax, e2y = vertexData[c + 1] - ay, e2z = vertexData[c + 2] - az;
+            final float nx = e1y * e2z - e1z * e2y;
+            final float ny = e1z * e2x - e1x * e2z;
+            final float nz = e1x * e2y - e1y * e2x;
+            final float area = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+            sumX += area * (ax + vertexData[b] + vertexData[c]) / 3.0f;
+            sumY += area * (ay + vertexData[b + 1] + vertexData[c + 1]) / 3.0f;
+            sumZ += area * (az + vertexData[b + 2] + vertexData[c + 2]) / 3.0f;
+            normalX += nx;
+            normalY += ny;
+            normalZ += nz;
+            areaSum += area;
+        }
+        final float normalLength = (float) Math.sqrt(normalX * normalX + normalY * normalY + normalZ * normalZ);
+        if (areaSum == 0.0f || normalLength == 0.0f) {
+            return 0.0f;
+        }
+        final float dx = sumX / areaSum - centerX;
+        final float dy = sumY / areaSum - centerY;
+        final float dz = sumZ / areaSum - centerZ;
+        return (dx * normalX + dy * normalY + dz * normalZ) / normalLength;
+    }
+
+    /// Float bits as int with same ordering as the float (NaN sorts after +Inf).
+    static int sortableBits(float value) {
+        final int bits = Float.floatToIntBits(value);
+        return bits ^ ((bits >> 31) & 0x7FFFFFFF);
+    }
+
+    /// Inverse of [#sortableBits(float)].
+    static float fromSortableBits(int sortable) {
+        return Float.intBitsToFloat(sortable ^ ((sortable >> 31) & 0x7FFFFFFF));
+    }
+
+    /// FIFO cache, a vertex is in cache if fewer than `cacheSize` misses happened since it was loaded.
+    private static final class FifoCache {
+        private final int[] loadTime;
+        private final int cacheSize;
+        private int time;
+
+        FifoCache(int vertexCount, int cacheSize) {
+            this.loadTime = new int[vertexCount];
+            this.cacheSize = cacheSize;
+            clear();
+        }
+
+        /// @return true on cache hit
+        boolean access(int vertex) {
+            if (time - loadTime[vertex] < cacheSize) {
+                return true;
+            }
+            loadTime[vertex] = time++;
+            return false;
+        }
+
+        /// @return number of missed vertices of the triangle
+        int access(int[] indices, int triangle) {
+            int misses = 0;
+            for (int i = 3 * triangle; i < 3 * triangle + 3; i++) {
+                if (!access(indices[i])) {
+                    misses++;
+                }
+            }
+            return misses;
+        }
+
+        void clear() {
+            // Anything loaded before is at least cacheSize misses old
+            if (time > Integer.MAX_VALUE / 2) {
+                Arrays.fill(loadTime, 0);
+                time = 0;
+            }
+            time += cacheSize;
+        }
+    }
+
+    /// Tipsify state, vertex-triangle adjacency is stored in compressed rows.
+    private static final class Tipsify {
+        private final int[] indices;
+        private final int vertexCount;
+        private final int cacheSize;
+        /// Triangles of vertex `v` are `adjacency[adjacencyStart[v]]` ... `adjacency[adjacencyStart[v + 1] - 1]`.
+        private final int[] adjacencyStart;
+        private final int[] adjacency;
+        /// Number of not yet emitted triangles of each vertex.
+        private final int[] live;
+        private final int[] cacheTime;
+        private final boolean[] emitted;
+        private final int[] deadEnd;
+        private int deadEndSize;
+        private int cursor;
+
+        Tipsify(int[] indices, int vertexCount, int cacheSize) {
+            this.indices = indices;
+            this.vertexCount = vertexCount;
+            this.cacheSize = cacheSize;
+            this.adjacencyStart = new int[vertexCount + 1];
+            this.adjacency = new int[indices.length];
+            this.live = new int[vertexCount];
+            this.cacheTime = new int[vertexCount];
+            this.emitted = new boolean[indices.length / 3];
+            this.deadEnd = new int[indices.length];
+
+            for (int index : indices) {
+                live[index]++;
+            }
+            for (int v = 0; v < vertexCount; v++) {
+                adjacencyStart[v + 1] = adjacencyStart[v] + live[v];
+            }
+            final int[] fill = Arrays.copyOf(adjacencyStart, vertexCount);
+            for (int i = 0; i < indices.length; i++) {
+                adjacency[fill[indices[i]]++] = i / 3;
+            }
+        }
+
+        void run(int[] dest) {
+            int maxValence = 0;
+            for (int v = 0; v < vertexCount; v++) {
+                maxValence = Math.max(maxValence, live[v]);
+            }
+            final int[] candidates = new int[3 * maxValence];
+            int timestamp = cacheSize + 1;
+            int output = 0;
+
+            int fanning = skipDeadEnd();
+            while (fanning >= 0) {
+                int candidateCount = 0;
+                for (int i = adjacencyStart[fanning]; i < adjacencyStart[fanning + 1]; i++) {
+                    final int triangle = adjacency[i];
+                    if (emitted[triangle]) {
+                        continue;
+                    }
+                    emitted[triangle] = true;
+                    for (int k = 3 * triangle; k < 3 * triangle + 3; k++) {
+                        final int v = indices[k];
+                        dest[output++] = v;
+                        deadEnd[deadEndSize++] = v;
+                        candidates[candidateCount++] = v;
+                        live[v]--;
+                        if (timestamp - cacheTime[v] > cacheSize) {
+                            cacheTime[v] = timestamp++;
+                        }
+                    }
+                }
+                fanning = nextVertex(candidates, candidateCount, timestamp);
+            }
+        }
+
+        /// Candidate which stays in cache after its remaining triangles are emitted, oldest first.
+        private int nextVertex(int[] candidates, int candidateCount, int timestamp) {
+            int best = -1;
+            int bestPriority = -1;
+            for (int i = 0; i < candidateCount; i++) {
+                final int v = candidates[i];
+                if (live[v] > 0) {
+                    int priority = 0;
+                    // Emitting fan of v adds at most 2 vertices per triangle
+                    if (timestamp - cacheTime[v] + 2 * live[v] <= cacheSize) {
+                        priority = timestamp - cacheTime[v];
+                    }
+                    if (priority > bestPriority) {
+                        bestPriority = priority;
+                        best = v;
+                    }
+                }
+            }
+            return best == -1 ? skipDeadEnd() : best;
+        }
+
+        /// Most recently referenced vertex with remaining triangles, next such vertex in input order when there is
+        /// none, -1 when all triangles are emitted.
+        private int skipDeadEnd() {
+            while (deadEndSize > 0) {
+                final int v = deadEnd[--deadEndSize];
+                if (live[v] > 0) {
+                    return v;
+                }
+            }
+            while (cursor < vertexCount) {
+                if (live[cursor] > 0) {
+                    return cursor;
+                }
+                cursor++;
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,749 @@
+package dev.stjepano.math.geometry.mesh;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/// Quadric error metric (Garland, Heckbert) simplification of triangle meshes, used to build LOD chains.
+///
+/// Vertices with same position (compared by bits, `-0` equals `0`) are one position with several wedges, wedges are
+/// vertices which differ in other attributes (normal, color, texture coordinate). Simplification collapses position
+/// edges with half-edge collapse (position moves to the other edge end, so attributes are never interpolated) in order
+/// of quadric error. Collapse candidates are kept in a binary heap of primitive keys, candidates around a collapsed
+/// edge are pushed again with new costs and stale entries are skipped when popped.
+///
+/// Attribute seams and borders are preserved:
+/// - Border positions (on open edges) move only along border edges, seam positions (two wedges) move only along seam
+///   edges, both add edge constraint planes to their quadrics so the border or seam line keeps its shape.
+/// - Positions where borders or seams meet, non-manifold positions and positions with more than two wedges are locked.
+/// - Collapses which would flip a triangle, change topology (link condition) or break wedge correspondence are
+///   rejected.
+///
+/// Errors are distances relative to bounding sphere radius of the mesh. Degenerate triangles (two corners at same
+/// position) are removed, a mesh without any non-degenerate triangle is rejected with [IllegalArgumentException].
+/// Output vertices are in order of first reference and unreferenced vertices are removed, use
+/// [MeshOptimizer#optimize(IndexedMesh)] on LODs which are rendered.
+///
+/// #### Example
+/// ```java
+/// List<MeshSimplifier.SimplifiedMesh> lods = MeshSimplifier.buildLodChain(mesh, 4, 0.5f, 0.05f);
+/// for (MeshSimplifier.SimplifiedMesh lod : lods) {
+///     System.out.println(lod.mesh().indices().length / 3 + " triangles, error " + lod.error());
+/// }
+/// ```
+public final class MeshSimplifier {
+
+    private static final byte MANIFOLD = 0;
+    private static final byte BORDER = 1;
+    private static final byte SEAM = 2;
+    private static final byte LOCKED = 3;
+
+    /// Weight of border edge constraint planes relative to triangle planes.
+    private static final float BORDER_WEIGHT = 10.0f;
+    /// Weight of seam edge constraint planes (added from both sides of the seam).
+    private static final float SEAM_WEIGHT = 1.0f;
+    /// Collapse is rejected when a triangle normal rotates more than ~78 degrees.
+    private static final float MIN_NORMAL_COS = 0.2f;
+    /// Squared edge length weight added to heap keys, orders collapses of equal error (flat regions) from the shortest
+    /// edge so collapses do not pile up on one position.
+    private static final double LENGTH_WEIGHT = 1e-6;
+
+    private MeshSimplifier() {
+    }
+
+    /// Simplified mesh.
+    /// @param mesh the mesh
+    /// @param error largest collapse error, relative to bounding sphere radius of the source mesh
+    public record SimplifiedMesh(IndexedMesh mesh, float error) {
+    }
+
+    /// Simplify a triangle mesh until it has at most `targetTriangleCount` triangles or next collapse would exceed
+    /// `targetError`.
+    /// @param mesh triangle mesh
+    /// @param targetTriangleCount target number of triangles, use 0 to simplify by error only
+    /// @param targetError largest allowed error relative to bounding sphere radius, use [Float#POSITIVE_INFINITY] to
+    ///                    simplify by triangle count only
+    public static SimplifiedMesh simplify(IndexedMesh mesh, int targetTriangleCount, float targetError) {
+        checkMesh(mesh);
+        if (targetTriangleCount < 0) {
+            throw new IllegalArgumentException("targetTriangleCount must not be negative");
+        }
+        if (!(targetError >= 0.0f)) {
+            throw new IllegalArgumentException("targetError must not be negative");
+        }
+        return simplify(mesh, targetTriangleCount, targetError, scale(mesh));
+    }
+
+    /// Build LOD chain, each level is simplified from the previous one (which is faster than simplifying the source
+    /// mesh for every level).
+    ///
+    /// Level 0 is the source mesh with error 0. Level `i` targets `triangleRatio` of triangles of level `i - 1`,
+    /// its error is sum of errors of levels up to `i` (a bound of the error relative to the source mesh). Chain ends
+    /// early when `maxError` is reached or when a level removes less than half of the requested triangles.
+    /// @param mesh triangle mesh
+    /// @param maxLevels maximum number of levels including level 0
+    /// @param triangleRatio triangle count of a level relative to previous level, in `(0, 1)`
+    /// @param maxError largest allowed error relative to bounding sphere radius of `mesh`
+    public static List<SimplifiedMesh> buildLodChain(IndexedMesh mesh, int maxLevels, float triangleRatio,
+                                                     float maxError) {
+        checkMesh(mesh);
+        if (maxLevels < 1) {
+            throw new IllegalArgumentException("maxLevels must be at least 1");
+        }
+        if (!(triangleRatio > 0.0f && triangleRatio < 1.0f)) {
+            throw new IllegalArgumentException("triangleRatio must be in (0, 1)");
+        }
+        if (!(maxError >= 0.0f)) {
+            throw new IllegalArgumentException("maxError must not be negative");
+        }
+        final float scale = scale(mesh);
+        final List<SimplifiedMesh> levels = new ArrayList<>();
+        SimplifiedMesh previous = new SimplifiedMesh(mesh, 0.0f);
+        levels.add(previous);
+        while (levels.size() < maxLevels) {
+            final int previousTriangles = previous.mesh().indices().length / 3;
+            final int target = (int) (previousTriangles * triangleRatio);
+            final SimplifiedMesh next = simplify(previous.mesh(), target, Math.max(0.0f, maxError - previous.error()),
+                    scale);
+            final int triangles = next.mesh().indices().length / 3;
+            if (previousTriangles - triangles < (previousTriangles - target) / 2 || triangles == previousTriangles) {
+                break;
+            }
+            previous = new SimplifiedMesh(next.mesh(), previous.error() + next.error());
+            levels.add(previous);
+        }
+        return levels;
+    }
+
+    private static SimplifiedMesh simplify(IndexedMesh mesh, int targetTriangleCount, float targetError, float scale) {
+        final Simplifier simplifier = new Simplifier(mesh);
+        if (simplifier.liveTriangleCount == 0) {
+            throw new IllegalArgumentException("mesh must have at least one non-degenerate triangle");
+        }
+        final double maxCost = (double) targetError * scale * ((double) targetError * scale);
+        final double cost = simplifier.run(targetTriangleCount, maxCost);
+        return new SimplifiedMesh(simplifier.toMesh(), (float) (Math.sqrt(cost) / scale));
+    }
+
+    private static void checkMesh(IndexedMesh mesh) {
+        if (mesh == null) {
+            throw new NullPointerException("mesh");
+        }
+        if (mesh.primitiveType() != IndexedMesh.PrimitiveType.TRIANGLES) {
+            throw new IllegalArgumentException("Only triangle meshes can be simplified.");
+        }
+        if (mesh.indices().length % 3 != 0) {
+            throw new IllegalArgumentException("indices.length must be multiple of 3");
+        }
+    }
+
+    private static float scale(IndexedMesh mesh) {
+        final float radius = mesh.bounds().radius();
+        return radius > 0.0f ? radius : 1.0f;
+    }
+
+    /// Simplification state, all per position and per corner data is in primitive arrays.
+    static final class Simplifier {
+        private final IndexedMesh mesh;
+        private final int stride;
+        /// Wedge (vertex) indices of triangle corners, rewritten by collapses.
+        private final int[] indices;
+        private final boolean[] triangleDead;
+        private int liveTriangleCount;
+
+        private final int[] wedgePosition;
+        private final int positionCount;
+        /// Unique positions, 3 floats per position.
+        private final float[] positions;
+        private final byte[] kinds;
+        private final boolean[] positionDead;
+        /// Quadric per position: a2, ab, ac, ad, b2, bc, bd, c2, cd, d2, weight.
+        private final double[] quadrics;
+
+        /// Corners of each position are a linked list: `positionHead[p]`, `cornerNext[corner]`, ..., -1.
+        private final int[] positionHead;
+        private final int[] cornerNext;
+
+        // Collapse scratch
+        private final int[] mark;
+        private final int[] commonMark;
+        private int markStamp;
+        private final int[] wedgeTarget;
+        private final int[] touchedWedges;
+
+        // Candidate heap, key is (sortable priority bits << 32 | candidate)
+        private long[] heap = new long[1024];
+        private int heapSize;
+        private int[] candidateFrom = new int[1024];
+        private int[] candidateTo = new int[1024];
+        private int candidateCount;
+        private int[] freeCandidates = new int[1024];
+        private int freeCount;
+
+        Simplifier(IndexedMesh mesh) {
+            this.mesh = mesh;
+            this.stride = mesh.vertexFormat().stride();
+            final float[] vertexData = mesh.vertexData();
+            final int vertexCount = mesh.vertexCount();
+            this.indices = mesh.indices().clone();
+            for (int index : indices) {
+                Objects.checkIndex(index, vertexCount);
+            }
+            final int triangleCount = indices.length / 3;
+
+            // Weld positions
+            this.wedgePosition = new int[vertexCount];
+            this.positions = new float[3 * vertexCount];
+            final VertexHashTable positionLookup = new VertexHashTable(3);
+            final float[] position = new float[3];
+            int uniqueCount = 0;
+            for (int v = 0; v < vertexCount; v++) {
+                // + 0.0f turns -0 into 0
+                position[0] = vertexData[v * stride] + 0.0f;
+                position[1] = vertexData[v * stride + 1] + 0.0f;
+                position[2] = vertexData[v * stride + 2] + 0.0f;
+                final int hash = positionLookup.hash(position, 0);
+                int p = positionLookup.find(position, hash, positions);
+                if (p == -1) {
+                    p = uniqueCount++;
+                    System.arraycopy(position, 0, positions, 3 * p, 3);
+                    positionLookup.insert(hash, p);
+                }
+                wedgePosition[v] = p;
+            }
+            this.positionCount = uniqueCount;
+            this.kinds = new byte[positionCount];
+            this.positionDead = new boolean[positionCount];
+            this.quadrics = new double[11 * positionCount];
+            this.positionHead = new int[positionCount];
+            this.cornerNext = new int[indices.length];
+            this.mark = new int[positionCount];
+            this.commonMark = new int[positionCount];
+            this.wedgeTarget = new int[vertexCount];
+            this.touchedWedges = new int[vertexCount];
+            Arrays.fill(wedgeTarget, -1);
+
+            this.triangleDead = new boolean[triangleCount];
+            for (int t = 0; t < triangleCount; t++) {
+                final int p0 = wedgePosition[indices[3 * t]];
+                final int p1 = wedgePosition[indices[3 * t + 1]];
+                final int p2 = wedgePosition[indices[3 * t + 2]];
+                triangleDead[t] = p0 == p1 || p1 == p2 || p2 == p0;
+                if (!triangleDead[t]) {
+                    liveTriangleCount++;
+                }
+            }
+
+            Arrays.fill(positionHead, -1);
+            for (int corner = indices.length - 1; corner >= 0; corner--) {
+                if (!triangleDead[corner / 3]) {
+                    final int p = wedgePosition[indices[corner]];
+                    cornerNext[corner] = positionHead[p];
+                    positionHead[p] = corner;
+                }
+            }
+
+            classifyAndBuildQuadrics(vertexCount);
+
+            for (int t = 0; t < triangleCount; t++) {
+                if (triangleDead[t]) {
+                    continue;
+                }
+                for (int k = 0; k < 3; k++) {
+                    final int a = wedgePosition[indices[3 * t + k]];
+                    final int b = wedgePosition[indices[3 * t + (k + 1) % 3]];
+                    // Each direction of an interior edge is seen once, open edges once for both directions
+                    addCandidate(a, b);
+                    if (edgeCount(b, a) == 0) {
+                        addCandidate(b, a);
+                    }
+                }
+            }
+            for (int i = (heapSize >>> 1) - 1; i >= 0; i--) {
+                siftDown(i, heap[i]);
+            }
+        }
+
+        /// Number of live triangles with directed position edge (a, b).
+        private int edgeCount(int a, int b) {
+            int count = 0;
+            for (int corner = positionHead[a]; corner != -1; corner = cornerNext[corner]) {
+                if (wedgePosition[indices[3 * (corner / 3) + (corner % 3 + 1) % 3]] == b) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /// True if a live triangle has directed wedge edge (a, b).
+        private boolean hasWedgeEdge(int a, int b) {
+            for (int corner = positionHead[wedgePosition[a]]; corner != -1; corner = cornerNext[corner]) {
+                if (indices[corner] == a && indices[3 * (corner / 3) + (corner % 3 + 1) % 3] == b) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void classifyAndBuildQuadrics(int vertexCount) {
+            final int triangleCount = indices.length / 3;
+            final int[] wedgeCount = new int[positionCount];
+            for (int v = 0; v < vertexCount; v++) {
+                wedgeCount[wedgePosition[v]]++;
+            }
+            final int[] openOut = new int[positionCount];
+            final int[] openIn = new int[positionCount];
+            final int[] seamOut = new int[positionCount];
+            final int[] seamIn = new int[positionCount];
+            final boolean[] locked = new boolean[positionCount];
+
+            for (int t = 0; t < triangleCount; t++) {
+                if (triangleDead[t]) {
+                    continue;
+                }
+                final int c0 = 3 * t;
+                final float area = addTriangleQuadric(wedgePosition[indices[c0]], wedgePosition[indices[c0 + 1]],
+                        wedgePosition[indices[c0 + 2]]);
+                for (int k = 0; k < 3; k++) {
+                    final int a = indices[c0 + k];
+                    final int b = indices[c0 + (k + 1) % 3];
+                    final int c = indices[c0 + (k + 2) % 3];
+                    final int pa = wedgePosition[a];
+                    final int pb = wedgePosition[b];
+                    if (edgeCount(pa, pb) > 1) {
+                        locked[pa] = true;
+                        locked[pb] = true;
+                    } else if (edgeCount(pb, pa) == 0) {
+                        openOut[pa]++;
+                        openIn[pb]++;
+                        addEdgeQuadric(pa, pb, wedgePosition[c], BORDER_WEIGHT, area);
+                    } else if (!hasWedgeEdge(b, a)) {
+                        seamOut[pa]++;
+                        seamIn[pb]++;
+                        addEdgeQuadric(pa, pb, wedgePosition[c], SEAM_WEIGHT, area);
+                    }
+                }
+            }
+
+            for (int p = 0; p < positionCount; p++) {
+                if (locked[p]) {
+                    kinds[p] = LOCKED;
+                } else if (openOut[p] > 0 || openIn[p] > 0) {
+                    kinds[p] = openOut[p] == 1 && openIn[p] == 1 && wedgeCount[p] == 1 ? BORDER : LOCKED;
+                } else if (wedgeCount[p] > 1) {
+                    // Two wedges on a seam line, each side has one seam edge in and one out
+                    kinds[p] = wedgeCount[p] == 2 && seamOut[p] == 2 && seamIn[p] == 2 ? SEAM : LOCKED;
+                } else {
+                    kinds[p] = MANIFOLD;
+                }
+            }
+        }
+
+        /// Add area weighted plane of triangle to quadrics of its positions.
+        /// @return twice the triangle area
+        private float addTriangleQuadric(int p0, int p1, int p2) {
+            final float ax = positions[3 * p0], ay = positions[3 * p0 + 1], az = positions[3 * p0 + 2];
+            final float e1x = positions[3 * p1] - ax, e1y = positions[3 * p1 + 1] - ay, e1z = positions[3 * p1 + 2] - az;
+            final float e2x = positions[3 * p2] - ax, e2y = positions[3 * p2 + 1] - ay, e2z = positions[3 * p2 + 2] - az;
+            final double nx = (double) e1y * e2z - (double) e1z * e2y;
+            final double ny = (double) e1z * e2x - (double) e1x * e2z;
+            final double nz = (double) e1x * e2y - (double) e1y * e2x;
+            final double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+            if (length == 0.0) {
+                return 0.0f;
+            }
+            final double a = nx / length, b = ny / length, c = nz / length;
+            final double d = -(a * ax + b * ay + c * az);
+            final double weight = 0.5 * length;
+            addPlane(p0, a, b, c, d, weight);
+            addPlane(p1, a, b, c, d, weight);
+            addPlane(p2, a, b, c, d, weight);
+            return (float) length;
+        }
+
+        /// Add plane through edge (pa, pb) perpendicular to triangle (pa, pb, pc) to quadrics of edge ends.
+        private void addEdgeQuadric(int pa, int pb, int pc, float edgeWeight, float triangleArea2) {
+            if (triangleArea2 == 0.0f) {
+                return;
+            }
+            final double ax = positions[3 * pa], ay = positions[3 * pa + 1], az = positions[3 * pa + 2];
+            final double ex = positions[3 * pb] - ax, ey = positions[3 * pb + 1] - ay, ez = positions[3 * pb + 2] - az;
+            final double fx = positions[3 * pc] - ax, fy = positions[3 * pc + 1] - ay, fz = positions[3 * pc + 2] - az;
+            // Triangle normal
+            final double nx = ey * fz - ez * fy;
+            final double ny = ez * fx - ex * fz;
+            final double nz = ex * fy - ey * fx;
+            // Edge x normal lies in triangle plane, perpendicular to edge
+            double px = ey * nz - ez * ny;
+            double py = ez * nx - ex * nz;
+            double pz = ex * ny - ey * nx;
+            final double length = Math.sqrt(px * px + py * py + pz * pz);
+            if (length == 0.0) {
+                return;
+            }
+            px /= length;
+            py /= length;
+            pz /= length;
+            final double d = -(px * ax + py * ay + pz * az);
+            final double weight = edgeWeight * (ex * ex + ey * ey + ez * ez);
+            addPlane(pa, px, py, pz, d, weight);
+            addPlane(pb, px, py, pz, d, weight);
+        }
+
+        private void addPlane(int p, double a, double b, double c, double d, double weight) {
+            final int q = 11 * p;
+            quadrics[q] += weight * a * a;
+            quadrics[q + 1] += weight * a * b;
+            quadrics[q + 2] += weight * a * c;
+            quadrics[q + 3] += weight * a * d;
+            quadrics[q + 4] += weight * b * b;
+            quadrics[q + 5] += weight * b * c;
+            quadrics[q + 6] += weight * b * d;
+            quadrics[q + 7] += weight * c * c;
+            quadrics[q + 8] += weight * c * d;
+            quadrics[q + 9] += weight * d * d;
+            quadrics[q + 10] += weight;
+        }
+
+        /// Squared distance error of moving position `p0` to `p1` (weight normalized quadric of both at `p1`).
+        private double collapseCost(int p0, int p1) {
+            final int q0 = 11 * p0;
+            final int q1 = 11 * p1;
+            final double x = positions[3 * p1], y = positions[3 * p1 + 1], z = positions[3 * p1 + 2];
+            final double weight = quadrics[q0 + 10] + quadrics[q1 + 10];
+            if (weight == 0.0) {
+                return 0.0;
+            }
+            final double error = x * x * (quadrics[q0] + quadrics[q1])
+                    + 2.0 * x * y * (quadrics[q0 + 1] + quadrics[q1 + 1])
+                    + 2.0 * x * z * (quadrics[q0 + 2] + quadrics[q1 + 2])
+                    + 2.0 * x * (quadrics[q0 + 3] + quadrics[q1 + 3])
+                    + y * y * (quadrics[q0 + 4] + quadrics[q1 + 4])
+                    + 2.0 * y * z * (quadrics[q0 + 5] + quadrics[q1 + 5])
+                    + 2.0 * y * (quadrics[q0 + 6] + quadrics[q1 + 6])
+                    + z * z * (quadrics[q0 + 7] + quadrics[q1 + 7])
+                    + 2.0 * z * (quadrics[q0 + 8] + quadrics[q1 + 8])
+                    + (quadrics[q0 + 9] + quadrics[q1 + 9]);
+            return Math.max(0.0, error / weight);
+        }
+
+        /// Run collapses.
+        /// @return largest applied collapse cost (squared distance)
+        double run(int targetTriangleCount, double maxCost) {
+            double reached = 0.0;
+            while (liveTriangleCount > targetTriangleCount && heapSize > 0) {
+                final long top = popHeap();
+                final int candidate = (int) top;
+                final float key = MeshOptimizer.fromSortableBits((int) (top >> 32));
+                final int p0 = candidateFrom[candidate];
+                final int p1 = candidateTo[candidate];
+                freeCandidates[freeCount++] = candidate;
+                if (positionDead[p0] || positionDead[p1]) {
+                    continue;
+                }
+                final double cost = collapseCost(p0, p1);
+                if ((float) priority(p0, p1, cost) != key) {
+                    // Stale, cost changes only when p0 or p1 keeps a collapse and then a new candidate was pushed
+                    continue;
+                }
+                if (cost > maxCost) {
+                    // Keys are not ordered by cost alone, cheaper candidates may follow
+                    continue;
+                }
+                if (collapse(p0, p1)) {
+                    reached = Math.max(reached, cost);
+                }
+            }
+            return reached;
+        }
+
+        /// Collapse position `p0` into `p1` if the collapse is valid.
+        private boolean collapse(int p0, int p1) {
+            // Triangles on the edge and wedge correspondence
+            int shared = 0;
+            boolean seamEdge = false;
+            int sharedWedge0 = -1;
+            int sharedWedge1 = -1;
+            int touchedCount = 0;
+            boolean valid = true;
+            for (int corner = positionHead[p0]; corner != -1; corner = cornerNext[corner]) {
+                final int t = corner / 3;
+                if (triangleDead[t]) {
+                    continue;
+                }
+                final int wedge = indices[corner];
+                final int next = indices[3 * t + (corner % 3 + 1) % 3];
+                final int prev = indices[3 * t + (corner % 3 + 2) % 3];
+                final int target = wedgePosition[next] == p1 ? next : wedgePosition[prev] == p1 ? prev : -1;
+                if (wedgeTarget[wedge] == -1) {
+                    touchedWedges[touchedCount++] = wedge;
+                    wedgeTarget[wedge] = -2;
+                }
+                if (target != -1) {
+                    if (shared == 0) {
+                        sharedWedge0 = wedge;
+                        sharedWedge1 = target;
+                    } else if (wedge != sharedWedge0 || target != sharedWedge1) {
+                        seamEdge = true;
+                    }
+                    shared++;
+                    if (wedgeTarget[wedge] == -2) {
+                        wedgeTarget[wedge] = target;
+                    } else if (wedgeTarget[wedge] != target) {
+                        valid = false;
+                    }
+                }
+            }
+            for (int i = 0; i < touchedCount; i++) {
+                if (wedgeTarget[touchedWedges[i]] < 0) {
+                    valid = false;
+                }
+            }
+
+            valid = valid && shared > 0 && shared < liveTriangleCount;
+            switch (kinds[p0]) {
+                case BORDER -> valid = valid && shared == 1;
+                case SEAM -> valid = valid && shared == 2 && seamEdge;
+                case LOCKED -> valid = false;
+                default -> valid = valid && shared <= 2;
+            }
+            valid = valid && linkConditionHolds(p0, p1, shared) && !flipsTriangle(p0, p1);
+
+            if (valid) {
+                apply(p0, p1);
+            }
+            for (int i = 0; i < touchedCount; i++) {
+                wedgeTarget[touchedWedges[i]] = -1;
+            }
+            return valid;
+        }
+
+        /// Positions adjacent to both `p0` and `p1` must be only the third positions of triangles on the edge.
+        private boolean linkConditionHolds(int p0, int p1, int shared) {
+            markStamp++;
+            for (int corner = positionHead[p1]; corner != -1; corner = cornerNext[corner]) {
+                final int t = corner / 3;
+                if (!triangleDead[t]) {
+                    mark[wedgePosition[indices[3 * t + (corner % 3 + 1) % 3]]] = markStamp;
+                    mark[wedgePosition[indices[3 * t + (corner % 3 + 2) % 3]]] = markStamp;
+                }
+            }
+            int common = 0;
+            for (int corner = positionHead[p0]; corner != -1; corner = cornerNext[corner]) {
+                final int t = corner / 3;
+                if (triangleDead[t]) {
+                    continue;
+                }
+                for (int k = 1; k <= 2; k++) {
+                    final int p = wedgePosition[indices[3 * t + (corner % 3 + k) % 3]];
+                    if (p != p1 && mark[p] == markStamp && commonMark[p] != markStamp) {
+                        commonMark[p] = markStamp;
+                        common++;
+                    }
+                }
+            }
+            return common <= shared;
+        }
+
+        /// True if moving `p0` to `p1` flips or degenerates a triangle which is not on the edge.
+        private boolean flipsTriangle(int p0, int p1) {
+            final float newX = positions[3 * p1], newY = positions[3 * p1 + 1], newZ = positions[3 * p1 + 2];
+            for (int corner = positionHead[p0]; corner != -1; corner = cornerNext[corner]) {
+                final int t = corner / 3;
+                if (triangleDead[t]) {
+                    continue;
+                }
+                final int b = wedgePosition[indices[3 * t + (corner % 3 + 1) % 3]];
+                final int c = wedgePosition[indices[3 * t + (corner % 3 + 2) % 3]];
+                if (b == p1 || c == p1) {
+                    continue;
+                }
+                final float bx = positions[3 * b], by = positions[3 * b + 1], bz = positions[3 * b + 2];
+                final float cx = positions[3 * c] - bx, cy = positions[3 * c + 1] - by, cz = positions[3 * c + 2] - bz;
+                // Normals of (p, b, c) computed as (c - b) x (p - b) for old and new p
+                final float ox = positions[3 * p0] - bx, oy = positions[3 * p0 + 1] - by, oz = positions[3 * p0 + 2] - bz;
+                final float nx = newX - bx, ny = newY - by, nz = newZ - bz;
+                final float oldX = cy * oz - cz * oy, oldY = cz * ox - cx * oz, oldZ = cx * oy - cy * ox;
+                final float newNx = cy * nz - cz * ny, newNy = cz * nx - cx * nz, newNz = cx * ny - cy * nx;
+                final float oldLength2 = oldX * oldX + oldY * oldY + oldZ * oldZ;
+                final float newLength2 = newNx * newNx + newNy * newNy + newNz * newNz;
+                if (newLength2 == 0.0f) {
+                    return true;
+                }
+                final float dot = oldX * newNx + oldY * newNy + oldZ * newNz;
+                if (dot < MIN_NORMAL_COS * (float) Math.sqrt(oldLength2 * newLength2)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void apply(int p0, int p1) {
+            // Remove triangles on the edge, move other corners of p0 to wedges of p1
+            int merged = -1;
+            for (int corner = positionHead[p0], next; corner != -1; corner = next) {
+                next = cornerNext[corner];
+                final int t = corner / 3;
+                if (triangleDead[t]) {
+                    continue;
+                }
+                final int b = wedgePosition[indices[3 * t + (corner % 3 + 1) % 3]];
+                final int c = wedgePosition[indices[3 * t + (corner % 3 + 2) % 3]];
+                if (b == p1 || c == p1) {
+                    triangleDead[t] = true;
+                    liveTriangleCount--;
+                } else {
+                    indices[corner] = wedgeTarget[indices[corner]];
+                    cornerNext[corner] = merged;
+                    merged = corner;
+                }
+            }
+            for (int corner = positionHead[p1], next; corner != -1; corner = next) {
+                next = cornerNext[corner];
+                if (!triangleDead[corner / 3]) {
+                    cornerNext[corner] = merged;
+                    merged = corner;
+                }
+            }
+            positionHead[p1] = merged;
+            positionHead[p0] = -1;
+            positionDead[p0] = true;
+            for (int i = 0; i < 11; i++) {
+                quadrics[11 * p1 + i] += quadrics[11 * p0 + i];
+            }
+
+            // Costs of edges around p1 changed
+            markStamp++;
+            for (int corner = positionHead[p1]; corner != -1; corner = cornerNext[corner]) {
+                final int t = corner / 3;
+                for (int k = 1; k <= 2; k++) {
+                    final int p = wedgePosition[indices[3 * t + (corner % 3 + k) % 3]];
+                    if (mark[p] != markStamp) {
+                        mark[p] = markStamp;
+                        pushCandidate(p1, p);
+                        pushCandidate(p, p1);
+                    }
+                }
+            }
+        }
+
+        /// Push candidate if `p0` can move to `p1`.
+        private void pushCandidate(int p0, int p1) {
+            if (canMove(p0, p1)) {
+                pushCandidate(p0, p1, priority(p0, p1, collapseCost(p0, p1)));
+            }
+        }
+
+        /// True if vertex kinds allow moving `p0` to `p1`.
+        private boolean canMove(int p0, int p1) {
+            final byte kind0 = kinds[p0];
+            final byte kind1 = kinds[p1];
+            return kind0 != LOCKED && (kind0 == MANIFOLD || kind1 == kind0 || kind1 == LOCKED);
+        }
+
+        /// Heap key of candidate, collapse cost with small squared edge length term.
+        private double priority(int p0, int p1, double cost) {
+            final double dx = positions[3 * p1] - positions[3 * p0];
+            final double dy = positions[3 * p1 + 1] - positions[3 * p0 + 1];
+            final double dz = positions[3 * p1 + 2] - positions[3 * p0 + 2];
+            return cost + LENGTH_WEIGHT * (dx * dx + dy * dy + dz * dz);
+        }
+
+        private void pushCandidate(int p0, int p1, double priority) {
+            final long key = newCandidate(p0, p1, priority);
+            int i = heapSize++;
+            while (i > 0) {
+                final int parent = (i - 1) >>> 1;
+                if (heap[parent] <= key) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = key;
+        }
+
+        /// Append candidate without keeping heap order, used for initial candidates which are heapified at once.
+        private void addCandidate(int p0, int p1) {
+            if (canMove(p0, p1)) {
+                // newCandidate can grow the heap, the array must be read after it
+                final long key = newCandidate(p0, p1, priority(p0, p1, collapseCost(p0, p1)));
+                heap[heapSize++] = key;
+            }
+        }
+
+        /// Allocate candidate and make room for it in the heap.
+        /// @return heap key of the candidate
+        private long newCandidate(int p0, int p1, double priority) {
+            final int candidate;
+            if (freeCount > 0) {
+                candidate = freeCandidates[--freeCount];
+            } else {
+                if (candidateCount == candidateFrom.length) {
+                    candidateFrom = Arrays.copyOf(candidateFrom, 2 * candidateCount);
+                    candidateTo = Arrays.copyOf(candidateTo, 2 * candidateCount);
+                    freeCandidates = Arrays.copyOf(freeCandidates, 2 * candidateCount);
+                }
+                candidate = candidateCount++;
+            }
+            candidateFrom[candidate] = p0;
+            candidateTo[candidate] = p1;
+
+            if (heapSize == heap.length) {
+                heap = Arrays.copyOf(heap, 2 * heapSize);
+            }
+            return ((long) MeshOptimizer.sortableBits((float) priority) << 32) | candidate;
+        }
+
+        /// Keys currently in the candidate heap, for tests.
+        long[] heapKeys() {
+            return Arrays.copyOf(heap, heapSize);
+        }
+
+        private long popHeap() {
+            final long top = heap[0];
+            final long last = heap[--heapSize];
+            if (heapSize > 0) {
+                siftDown(0, last);
+            }
+            return top;
+        }
+
+        /// Place `key` at `i` or below, children of `i` must be heaps.
+        private void siftDown(int i, long key) {
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (heap[child] >= key) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = key;
+        }
+
+        IndexedMesh toMesh() {
+            final int[] result = new int[3 * liveTriangleCount];
+            int offset = 0;
+            for (int t = 0; t < triangleDead.length; t++) {
+                if (!triangleDead[t]) {
+                    System.arraycopy(indices, 3 * t, result, offset, 3);
+                    offset += 3;
+                }
+            }
+            final float[] vertexData = new float[mesh.vertexData().length];
+            final int vertexCount = MeshOptimizer.optimizeVertexFetch(result, mesh.vertexData(), mesh.vertexCount(),
+                    stride, result, vertexData);
+            return new IndexedMesh(mesh.vertexFormat(), IndexedMesh.PrimitiveType.TRIANGLES,
+                    Arrays.copyOf(vertexData, vertexCount * stride), result);
+        }
+    }
+
+}
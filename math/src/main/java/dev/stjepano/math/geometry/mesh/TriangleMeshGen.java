@@ -6,8 +6,6 @@ import dev.stjepano.math.Vec2;
 import dev.stjepano.math.Vec3;
 
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
 
 public final class TriangleMeshGen implements MeshGen {
     private static final int INITIAL_VERTEX_CAPACITY = 128;  // vertices
@@ -43,7 +41,8 @@ public final class TriangleMeshGen implements MeshGen {
     private Vec3 activeNormal = null;
     private Vec2 activeTexCoord = null;
 
-    private final HashMap<Vec3, List<Integer>> vertexPositionLookup = new HashMap<>();
+    private final VertexHashTable vertexLookup;
+    private int currentVertexHash;
 
 
     /// Construct a new `TriangleMeshGen`.
@@ -68,6 +67,7 @@ public final class TriangleMeshGen implements MeshGen {
         this.indices = new int[INITIAL_INDEX_CAPACITY];
 
         this.currentVertex = new float[vertexFormat.stride()];
+        this.vertexLookup = new VertexHashTable(vertexFormat.stride());
     }
 
     @Override
@@ -149,26 +149,9 @@ public final class TriangleMeshGen implements MeshGen {
     }
 
     private int findIndexOfVertex(float[] currentVertex) {
-        Vec3 searchKey = new Vec3(currentVertex[0], currentVertex[1], currentVertex[2]);
-        List<Integer> candidateIndices = vertexPositionLookup.get(searchKey);
-        if (candidateIndices != null) {
-            for (int candidateIndex : candidateIndices) {
-                boolean match = true;
-                int vertexStart = candidateIndex * vertexFormat.stride();
-                for (int i = 0; i < vertexFormat.stride(); i++) {
-                    int a = Float.floatToIntBits(currentVertex[i]);
-                    int b = Float.floatToIntBits(vertexData[vertexStart + i]);
-                    if (a != b) {
-                        match = false;
-                        break;
-                    }
-                }
-                if (match) {
-                    return candidateIndex;
-                }
-            }
-        }
-        return -1;
+        // hash is kept for pushVertexAndIndex() so a new vertex is hashed once
+        currentVertexHash = vertexLookup.hash(currentVertex, 0);
+        return vertexLookup.find(currentVertex, currentVertexHash, vertexData);
     }
 
     private void pushIndex(int index) {
@@ -197,9 +180,7 @@ public final class TriangleMeshGen implements MeshGen {
     private void pushVertexAndIndex() {
         // This function is called only if vertex is not already present in lookup, so we can directly add it
         int vertexIndex = pushVertex();
-
-        Vec3 positionKey = new Vec3(currentVertex[0], currentVertex[1], currentVertex[2]);
-        vertexPositionLookup.computeIfAbsent(positionKey, k -> new java.util.ArrayList<>()).add(vertexIndex);
+        vertexLookup.insert(currentVertexHash, vertexIndex);
 
         pushIndex(vertexIndex);
     }
@@ -217,7 +198,7 @@ public final class TriangleMeshGen implements MeshGen {
         vertexCount += activeTriangleBatchVertexCount;
         indexCount += activeTriangleBatchIndexCount;
 
-        this.vertexPositionLookup.clear();
+        this.vertexLookup.clear();
         this.activeTriangleBatchVertexStart = 0;
         this.activeTriangleBatchVertexCount = 0;
         this.activeTriangleBatchIndexStart = 0;
@@ -228,6 +209,132 @@ public final class TriangleMeshGen implements MeshGen {
         this.activeTexCoord = null;
     }
 
+    /// Index of the next vertex emitted with [#emitVertex].
+    private int nextVertexIndex() {
+        return vertexCount + activeTriangleBatchVertexCount;
+    }
+
+    /// Make room for `additionalVertices` vertices and `additionalIndices` indices in the active batch.
+    private void reserve(int additionalVertices, int additionalIndices) {
+        final int stride = vertexFormat.stride();
+        final int requiredVertices = vertexCount + activeTriangleBatchVertexCount + additionalVertices + 1;
+        if (requiredVertices * stride > vertexData.length) {
+            vertexData = Arrays.copyOf(vertexData, Math.max(2 * (vertexData.length / stride), requiredVertices) * stride);
+        }
+        final int requiredIndices = indexCount + activeTriangleBatchIndexCount + additionalIndices + 1;
+        if (requiredIndices > indices.length) {
+            indices = Arrays.copyOf(indices, Math.max(2 * indices.length, requiredIndices));
+        }
+    }
+
+    /// Append a vertex to the active batch without looking it up. Used by parametric primitives which know their
+    /// topology (each grid point is emitted once and triangles are emitted with [#emitTriangle]). Current color is
+    /// used, attributes which are not in the vertex format are ignored.
+    /// @return index of the vertex
+    private int emitVertex(float x, float y, float z, float nx, float ny, float nz, float s, float t) {
+        reserve(1, 0);
+        final int index = vertexCount + activeTriangleBatchVertexCount;
+        final int base = index * vertexFormat.stride();
+        vertexData[base] = x;
+        vertexData[base + 1] = y;
+        vertexData[base + 2] = z;
+        if (hasNormal) {
+            vertexData[base + normalOffset] = nx;
+            vertexData[base + normalOffset + 1] = ny;
+            vertexData[base + normalOffset + 2] = nz;
+        }
+        if (hasColor) {
+            vertexData[base + colorOffset] = currentColor.x;
+            vertexData[base + colorOffset + 1] = currentColor.y;
+            vertexData[base + colorOffset + 2] = currentColor.z;
+        }
+        if (hasTexCoord) {
+            vertexData[base + texCoordOffset] = s;
+            vertexData[base + texCoordOffset + 1] = t;
+        }
+        activeTriangleBatchVertexCount++;
+        return index;
+    }
+
+    /// Append a vertex which may coincide with a vertex already emitted in the active batch (poles, seams, rims, apex).
+    /// Coincident vertices (all components equal) are welded in the same way as vertices added with `position()`, so
+    /// formats without attributes which differ at such points keep them shared.
+    /// @return index of the new or existing vertex
+    private int emitWeldedVertex(float x, float y, float z, float nx, float ny, float nz, float s, float t) {
+        final int index = emitVertex(x, y, z, nx, ny, nz, s, t);
+        final int stride = vertexFormat.stride();
+        System.arraycopy(vertexData, index * stride, currentVertex, 0, stride);
+        final int hash = vertexLookup.hash(currentVertex, 0);
+        final int existing = vertexLookup.find(currentVertex, hash, vertexData);
+        if (existing != -1) {
+            activeTriangleBatchVertexCount--;
+            return existing;
+        }
+        vertexLookup.insert(hash, index);
+        return index;
+    }
+
+    /// Emit a vertex of a `columns` x `rows` patch. Only vertices on patch border (first and last row and column) can
+    /// coincide with other vertices, they are welded, interior vertices are emitted directly.
+    private int emitPatchVertex(int row, int col, int rows, int columns, float x, float y, float z,
+                                float nx, float ny, float nz, float s, float t) {
+        if (row == 0 || row == rows - 1 || col == 0 || col == columns - 1) {
+            return emitWeldedVertex(x, y, z, nx, ny, nz, s, t);
+        }
+        return emitVertex(x, y, z, nx, ny, nz, s, t);
+    }
+
+    /// Emit two triangles per quad of a patch whose vertex indices are in `patch` (row major, `columns` per row).
+    /// @param reverse false for (v00, v01, v11), (v00, v11, v10) winding, true for the opposite
+    private void emitPatchTriangles(int[] patch, int columns, int rows, boolean reverse) {
+        for (int row = 0; row < rows - 1; row++) {
+            for (int col = 0; col < columns - 1; col++) {
+                final int v00 = patch[row * columns + col];
+                final int v01 = patch[row * columns + col + 1];
+                final int v10 = patch[(row + 1) * columns + col];
+                final int v11 = patch[(row + 1) * columns + col + 1];
+                if (reverse) {
+                    emitTriangle(v00, v11, v01);
+                    emitTriangle(v00, v10, v11);
+                } else {
+                    emitTriangle(v00, v01, v11);
+                    emitTriangle(v00, v11, v10);
+                }
+            }
+        }
+    }
+
+    /// Append a triangle of vertex indices to the active batch.
+    private void emitTriangle(int a, int b, int c) {
+        reserve(0, 3);
+        final int base = indexCount + activeTriangleBatchIndexCount;
+        indices[base] = a;
+        indices[base + 1] = b;
+        indices[base + 2] = c;
+        activeTriangleBatchIndexCount += 3;
+    }
+
+    /// Cosine and sine of `numSlices + 1` slice angles around Y axis, starting at "back" (-z). Angles are accumulated
+    /// in float, last angle is the seam.
+    private static void sliceAngles(int numSlices, float[] cosTheta, float[] sinTheta) {
+        final float dTheta = (float)(2.0f * Math.PI / numSlices);
+        float theta = (float) Math.PI / 2.0f;
+        for (int slice = 0; slice <= numSlices; slice++) {
+            cosTheta[slice] = (float)Math.cos(theta);
+            sinTheta[slice] = (float)Math.sin(theta);
+            theta += dTheta;
+        }
+    }
+
+    private static void checkDivisions(int numSlices, int numRings) {
+        if (numSlices <= 0) {
+            throw new IllegalArgumentException("numSlices must be greater than 0");
+        }
+        if (numRings <= 0) {
+            throw new IllegalArgumentException("numRings must be greater than 0");
+        }
+    }
+
     @Override
     public MeshGen addTriangle(float width, float height) {
         final float left = -width / 2.0f;
@@ -302,46 +409,29 @@ public final class TriangleMeshGen implements MeshGen {
         final float dH = height / heightDivisions;
         final float dS = 1.0f / widthDivisions;
         final float dT = 1.0f / heightDivisions;
+        final int columns = widthDivisions + 1;
 
         beginTriangles();
-        color(this.currentColor.x, this.currentColor.y, this.currentColor.z);
-        normal(0.0f, 0.0f, 1.0f);
+        reserve(columns * (heightDivisions + 1), 6 * widthDivisions * heightDivisions);
+
+        final int first = nextVertexIndex();
+        for (int row = 0; row <= heightDivisions; row++) {
+            final float y = bottom + row * dH;
+            final float t = row * dT;
+            for (int col = 0; col <= widthDivisions; col++) {
+                emitVertex(left + col * dW, y, 0.0f, 0.0f, 0.0f, 1.0f, col * dS, t);
+            }
+        }
 
         for (int row = 0; row < heightDivisions; row++) {
             for (int col = 0; col < widthDivisions; col++) {
-                float x0 = left + col * dW;
-                float x1 = left + (col + 1) * dW;
-                float y0 = bottom + row * dH;
-                float y1 = bottom + (row + 1) * dH;
-                float s0 = col * dS;
-                float s1 = (col + 1) * dS;
-                float t0 = row * dT;
-                float t1 = (row + 1) * dT;
-
-
-
-                // first triangle
-                texCoord(s0, t0);
-                position(x0, y0, 0.0f);
-
-                texCoord(s1, t0);
-                position(x1, y0, 0.0f);
-
-                texCoord(s1, t1);
-                position(x1, y1, 0.0f);
-
-                // second triangle
-                texCoord(s0, t0);
-                position(x0, y0, 0.0f);
-
-                texCoord(s1, t1);
-                position(x1, y1, 0.0f);
-
-                texCoord(s0, t1);
-                position(x0, y1, 0.0f);
-
+                final int v00 = first + row * columns + col;
+                final int v01 = v00 + 1;
+                final int v10 = v00 + columns;
+                final int v11 = v10 + 1;
+                emitTriangle(v00, v01, v11);
+                emitTriangle(v00, v11, v10);
             }
-
         }
         endTriangles();
 
@@ -488,65 +578,33 @@ public final class TriangleMeshGen implements MeshGen {
 
     @Override
     public MeshGen addCylinder(float radius, float height, int numSlices, int numRings, boolean caps) {
-        float dTheta = (float)(2.0f * Math.PI / numSlices);
-        float dHeight = height / numRings;
-        float bottom = -height / 2.0f;
-        float top = -bottom;
+        checkDivisions(numSlices, numRings);
+        final float bottom = -height / 2.0f;
+        final float top = -bottom;
+        final float[] cosTheta = new float[numSlices + 1];
+        final float[] sinTheta = new float[numSlices + 1];
+        sliceAngles(numSlices, cosTheta, sinTheta);
 
         beginTriangles();
-        color(this.currentColor.x, this.currentColor.y, this.currentColor.z);
-        generateCylinderShellTriangles(radius, height, numSlices, numRings, 0, 1);
+        final int capVertices = caps ? 2 * (numSlices + 2) : 0;
+        final int capIndices = caps ? 6 * numSlices : 0;
+        reserve((numSlices + 1) * (numRings + 1) + capVertices, 6 * numSlices * numRings + capIndices);
+        emitCylinderShell(radius, height, numSlices, numRings, 0, 1, cosTheta, sinTheta);
 
         if (caps) {
+            final int[] rim = new int[numSlices + 1];
             // top cap
-            normal(0.0f, 1.0f, 0.0f);
-            float theta = (float) Math.PI / 2.0f;
+            int center = emitWeldedVertex(0.0f, top, 0.0f, 0.0f, 1.0f, 0.0f, 0.5f, 0.5f);
+            emitCapRim(radius, top, 1.0f, numSlices, cosTheta, sinTheta, rim);
             for (int col = 0; col < numSlices; col++) {
-                float x0 = radius * (float)Math.cos(theta);
-                float z0 = radius * (float)Math.sin(theta);
-                float x1 = radius * (float)Math.cos(theta + dTheta);
-                float z1 = radius * (float)Math.sin(theta + dTheta);
-
-                float s0 = 0.5f + 0.5f * (x0 / radius);
-                float t0 = 0.5f + 0.5f * (z0 / radius);
-                float s1 = 0.5f + 0.5f * (x1 / radius);
-                float t1 = 0.5f + 0.5f * (z1 / radius);
-
-                texCoord(0.5f, 0.5f);
-                position(0.0f, top, 0.0f);
-
-                texCoord(s1, t1);
-                position(x1, top, z1);
-
-                texCoord(s0, t0);
-                position(x0, top, z0);
-
-                theta += dTheta;
+                emitTriangle(center, rim[col + 1], rim[col]);
             }
 
             // bottom cap
-            normal(0.0f, -1.0f, 0.0f);
-            theta = (float) Math.PI / 2.0f;
+            center = emitWeldedVertex(0.0f, bottom, 0.0f, 0.0f, -1.0f, 0.0f, 0.5f, 0.5f);
+            emitCapRim(radius, bottom, -1.0f, numSlices, cosTheta, sinTheta, rim);
             for (int col = 0; col < numSlices; col++) {
-                float x0 = radius * (float) Math.cos(theta);
-                float z0 = radius * (float) Math.sin(theta);
-                float x1 = radius * (float) Math.cos(theta + dTheta);
-                float z1 = radius * (float) Math.sin(theta + dTheta);
-
-                float s0 = 0.5f + 0.5f * (x0 / radius);
-                float t0 = 0.5f + 0.5f * (z0 / radius);
-                float s1 = 0.5f + 0.5f * (x1 / radius);
-                float t1 = 0.5f + 0.5f * (z1 / radius);
-
-                texCoord(0.5f, 0.5f);
-                position(0.0f, bottom, 0.0f);
-
-                texCoord(s0, t0);
-                position(x0, bottom, z0);
-
-                texCoord(s1, t1);
-                position(x1, bottom, z1);
-                theta += dTheta;
+                emitTriangle(center, rim[col], rim[col + 1]);
             }
         }
 
@@ -555,68 +613,46 @@ public final class TriangleMeshGen implements MeshGen {
         return this;
     }
 
-    /// Generate cylinder shell triangles without colors. You must wrap in beginTriangles() and endTriangles().
-    private void generateCylinderShellTriangles(float radius, float height, int numSlices, int numRings, float minT, float maxT) {
-        float dTheta = (float)(2.0f * Math.PI / numSlices);
-        float dHeight = height / numRings;
-        float bottom = -height / 2.0f;
-        float top = -bottom;
-
-        float tRange = maxT - minT;
+    /// Emit cap rim vertices (`numSlices + 1`, first and last are at the seam), texture coordinates are radial. Rim
+    /// vertices are welded (with shell rows when the format has no normal and texture coordinate).
+    /// @param dest receives indices of rim vertices
+    private void emitCapRim(float radius, float y, float ny, int numSlices, float[] cosTheta,
+                            float[] sinTheta, int[] dest) {
+        for (int col = 0; col <= numSlices; col++) {
+            final float x = radius * cosTheta[col];
+            final float z = radius * sinTheta[col];
+            dest[col] = emitWeldedVertex(x, y, z, 0.0f, ny, 0.0f, 0.5f + 0.5f * (x / radius),
+                    0.5f + 0.5f * (z / radius));
+        }
+    }
 
-        for (int row = 0; row < numRings; row++) {
-            float theta = (float) Math.PI / 2.0f;
-            for (int col = 0; col < numSlices; col++) {
-                final float nx0 = (float)Math.cos(theta);
-                final float nz0 = (float)Math.sin(theta);
-                final float nx1 = (float)Math.cos(theta + dTheta);
-                final float nz1 = (float)Math.sin(theta + dTheta);
-                final float x0 = radius * nx0;
-                final float z0 = radius * nz0;
-                final float x1 = radius * nx1;
-                final float z1 = radius * nz1;
-                final float y0 = bottom + row * dHeight;
-                final float y1 = bottom + (row + 1) * dHeight;
-
-                final float s0 = (float)col / (float)numSlices;
-                final float s1 = (float)(col + 1) / (float)numSlices;
-                final float t0 = (row / (float)numRings) * tRange + minT;
-                final float t1 = ((row + 1) / (float)numRings) * tRange + minT;
-
-                // first triangle
-                normal(nx0, 0.0f, nz0);
-                texCoord(s0, t0);
-                position(x0, y0, z0);
-
-                normal(nx1, 0.0f, nz1);
-                texCoord(s1, t1);
-                position(x1, y1, z1);
-
-                normal(nx1, 0.0f, nz1);
-                texCoord(s1, t0);
-                position(x1, y0, z1);
-
-                // second triangle
-                normal(nx0, 0.0f, nz0);
-                texCoord(s0, t0);
-                position(x0, y0, z0);
-
-                normal(nx0, 0.0f, nz0);
-                texCoord(s0, t1);
-                position(x0, y1, z0);
-
-                normal(nx1, 0.0f, nz1);
-                texCoord(s1, t1);
-                position(x1, y1, z1);
-
-
-                theta += dTheta;
+    /// Emit cylinder shell (without caps), `numSlices + 1` vertices per ring. You must wrap in beginTriangles() and
+    /// endTriangles().
+    private void emitCylinderShell(float radius, float height, int numSlices, int numRings, float minT, float maxT,
+                                   float[] cosTheta, float[] sinTheta) {
+        final float dHeight = height / numRings;
+        final float bottom = -height / 2.0f;
+        final float tRange = maxT - minT;
+        final int columns = numSlices + 1;
+
+        final int rows = numRings + 1;
+        final int[] patch = new int[columns * rows];
+        for (int row = 0; row < rows; row++) {
+            final float y = bottom + row * dHeight;
+            final float t = (row / (float)numRings) * tRange + minT;
+            for (int col = 0; col <= numSlices; col++) {
+                final float nx = cosTheta[col];
+                final float nz = sinTheta[col];
+                patch[row * columns + col] = emitPatchVertex(row, col, rows, columns, radius * nx, y, radius * nz,
+                        nx, 0.0f, nz, (float)col / (float)numSlices, t);
             }
         }
+        emitPatchTriangles(patch, columns, rows, true);
     }
 
     @Override
     public MeshGen addSphere(float radius, int numSlices, int numRings) {
+        checkDivisions(numSlices, numRings);
 
         /*
 
@@ -643,77 +679,34 @@ public final class TriangleMeshGen implements MeshGen {
           Phi varies from 0 to PI (from top to bottom)
 
          */
-        float dTheta = (float)(2.0f * Math.PI / numSlices);
         float dPhi = (float)(Math.PI / numRings);
         float dS = 1.0f / numSlices;
         float dT = 1.0f / numRings;
+        final float[] cosTheta = new float[numSlices + 1];
+        final float[] sinTheta = new float[numSlices + 1];
+        sliceAngles(numSlices, cosTheta, sinTheta);
+        final int columns = numSlices + 1;
 
         beginTriangles();
-        color(this.currentColor.x, this.currentColor.y, this.currentColor.z);
+        reserve(columns * (numRings + 1), 6 * numSlices * numRings);
 
+        // Pole rows and seam columns are welded
+        final int rows = numRings + 1;
+        final int[] patch = new int[columns * rows];
         float phi = 0.0f;
-        for (int row = 0; row < numRings; row++) {
-            float theta = (float) Math.PI / 2.0f; // start at "back" of sphere (-z)
-            for (int col = 0; col < numSlices; col++) {
-                final float sinTheta0 = (float)Math.sin(theta);
-                final float cosTheta0 = (float)Math.cos(theta);
-                final float sinTheta1 = (float)Math.sin(theta + dTheta);
-                final float cosTheta1 = (float)Math.cos(theta + dTheta);
-                final float sinPhi0 = (float)Math.sin(phi);
-                final float cosPhi0 = (float)Math.cos(phi);
-                final float sinPhi1 = (float)Math.sin(phi + dPhi);
-                final float cosPhi1 = (float)Math.cos(phi + dPhi);
-
-                final float nx0 = sinPhi0 * cosTheta0;
-                //noinspection UnnecessaryLocalVariable
-                final float ny0 = cosPhi0;
-                final float nz0 = sinPhi0 * sinTheta0;
-
-                final float nx1 = sinPhi0 * cosTheta1;
-                //noinspection UnnecessaryLocalVariable
-                final float ny1 = cosPhi0;
-                final float nz1 = sinPhi0 * sinTheta1;
-
-                final float nx2 = sinPhi1 * cosTheta1;
-                //noinspection UnnecessaryLocalVariable
-                final float ny2 = cosPhi1;
-                final float nz2 = sinPhi1 * sinTheta1;
-
-                final float nx3 = sinPhi1 * cosTheta0;
-                //noinspection UnnecessaryLocalVariable
-                final float ny3 = cosPhi1;
-                final float nz3 = sinPhi1 * sinTheta0;
-
-                // first triangle
-                normal(nx0, ny0, nz0);
-                texCoord((float)col * dS, 1.0f - (float)row * dT);
-                position(radius * nx0, radius * ny0, radius * nz0);
-
-                normal(nx1, ny1, nz1);
-                texCoord((float)(col + 1) * dS, 1.0f - (float)row * dT);
-                position(radius * nx1, radius * ny1, radius * nz1);
-
-                normal(nx2, ny2, nz2);
-                texCoord((float)(col + 1) * dS, 1.0f - (float)(row + 1) * dT);
-                position(radius * nx2, radius * ny2, radius * nz2);
-
-                // second triangle
-                normal(nx0, ny0, nz0);
-                texCoord((float)col * dS, 1.0f - (float)row * dT);
-                position(radius * nx0, radius * ny0, radius * nz0);
-
-                normal(nx2, ny2, nz2);
-                texCoord((float)(col + 1) * dS, 1.0f - (float)(row + 1) * dT);
-                position(radius * nx2, radius * ny2, radius * nz2);
-
-                normal(nx3, ny3, nz3);
-                texCoord((float)col * dS, 1.0f - (float)(row + 1) * dT);
-                position(radius * nx3, radius * ny3, radius * nz3);
-
-                theta += dTheta;
+        for (int row = 0; row < rows; row++) {
+            final float sinPhi = (float)Math.sin(phi);
+            final float cosPhi = (float)Math.cos(phi);
+            final float t = 1.0f - (float)row * dT;
+            for (int col = 0; col <= numSlices; col++) {
+                final float nx = sinPhi * cosTheta[col];
+                final float nz = sinPhi * sinTheta[col];
+                patch[row * columns + col] = emitPatchVertex(row, col, rows, columns, radius * nx, radius * cosPhi,
+                        radius * nz, nx, cosPhi, nz, (float)col * dS, t);
             }
             phi += dPhi;
         }
+        emitPatchTriangles(patch, columns, rows, false);
 
         endTriangles();
         return this;
@@ -721,11 +714,10 @@ public final class TriangleMeshGen implements MeshGen {
 
     @Override
     public MeshGen addCone(float radius, float height, int numSlices, int numRings) {
-        final float dTheta = (float)(2.0f * Math.PI / numSlices);
+        checkDivisions(numSlices, numRings);
         final float dHeight = height / numRings;
         final float dRadius = radius / numRings;
         final float bottom = -height / 2.0f;
-        final float top = -bottom;
 
         // For smooth normals on cone surface
         // Normal direction: (height * cos(theta), radius, height * sin(theta)) normalized
@@ -733,135 +725,74 @@ public final class TriangleMeshGen implements MeshGen {
         final float normalY = radius / slantHeight;
         final float normalXZScale = height / slantHeight;
 
-        final float dS = 1.0f / numSlices;
-        final float dT = 1.0f / numRings;
+        final float[] cosTheta = new float[numSlices + 1];
+        final float[] sinTheta = new float[numSlices + 1];
+        sliceAngles(numSlices, cosTheta, sinTheta);
+        final int columns = numSlices + 1;
 
         beginTriangles();
-        color(this.currentColor.x, this.currentColor.y, this.currentColor.z);
+        reserve(columns * (numRings + 1) + numSlices + columns + 1, 3 * numSlices * (2 * numRings + 1));
 
-        // Cone shell (lateral surface)
+        // Cone shell (lateral surface), ring rows are emitted from base to apex. A ring whose top radius is zero
+        // ends at the apex, it gets one apex vertex per slice (averaged normal for smooth shading) instead of a row.
+        // Base row, apex vertices and seam columns are welded.
+        int[] bottomRow = new int[columns];
+        int[] topRow = new int[columns];
         for (int ring = 0; ring < numRings; ring++) {
-            float theta = (float) Math.PI / 2.0f;  // Reset theta each ring!
-
-            float y0 = bottom + ring * dHeight;
-            float y1 = bottom + (ring + 1) * dHeight;
-
             // Radius decreases linearly from base to apex
-            float r0 = radius - ring * dRadius;
-            float r1 = radius - (ring + 1) * dRadius;
-
-            float t0 = (float) ring / numRings;
-            float t1 = (float) (ring + 1) / numRings;
-
-            boolean isApex = (r1 <= MathUtil.EPSILON4);
+            final float r1 = radius - (ring + 1) * dRadius;
+            final boolean isApex = (r1 <= MathUtil.EPSILON4);
 
-            for (int slice = 0; slice < numSlices; slice++) {
-                float cosTheta0 = (float) Math.cos(theta);
-                float sinTheta0 = (float) Math.sin(theta);
-                float cosTheta1 = (float) Math.cos(theta + dTheta);
-                float sinTheta1 = (float) Math.sin(theta + dTheta);
-
-                float x0 = r0 * cosTheta0;
-                float z0 = r0 * sinTheta0;
-                float x1 = r0 * cosTheta1;
-                float z1 = r0 * sinTheta1;
-
-                // Normals (same along each slant line)
-                float nx0 = normalXZScale * cosTheta0;
-                float nz0 = normalXZScale * sinTheta0;
-                float nx1 = normalXZScale * cosTheta1;
-                float nz1 = normalXZScale * sinTheta1;
-
-                float s0 = (float) slice / numSlices;
-                float s1 = (float) (slice + 1) / numSlices;
-
-                if (isApex) {
-                    // At apex: generate ONE triangle from base edge to apex point
-                    normal(nx0, normalY, nz0);
-                    texCoord(s0, t0);
-                    position(x0, y0, z0);
-
-                    // Apex point (average normals for smooth shading)
-                    float len = Vec3.length((nx0 + nx1) * 0.5f, normalY, (nz0 + nz1) * 0.5f);
-                    normal(((nx0 + nx1) * 0.5f)/len, normalY/len, ((nz0 + nz1) * 0.5f)/len);
-                    texCoord((s0 + s1) * 0.5f, t1);
-                    position(0.0f, y1, 0.0f);
-
-                    normal(nx1, normalY, nz1);
-                    texCoord(s1, t0);
-                    position(x1, y0, z1);
-
-                } else {
-                    // Regular ring: generate quad (2 triangles)
-                    float x2 = r1 * cosTheta1;
-                    float z2 = r1 * sinTheta1;
-                    float x3 = r1 * cosTheta0;
-                    float z3 = r1 * sinTheta0;
-
-                    // First triangle
-                    normal(nx0, normalY, nz0);
-                    texCoord(s0, t0);
-                    position(x0, y0, z0);
-
-                    normal(nx0, normalY, nz0);
-                    texCoord(s0, t1);
-                    position(x3, y1, z3);
-
-                    normal(nx1, normalY, nz1);
-                    texCoord(s1, t1);
-                    position(x2, y1, z2);
-
-                    // Second triangle
-                    normal(nx0, normalY, nz0);
-                    texCoord(s0, t0);
-                    position(x0, y0, z0);
-
-                    normal(nx1, normalY, nz1);
-                    texCoord(s1, t1);
-                    position(x2, y1, z2);
-
-                    normal(nx1, normalY, nz1);
-                    texCoord(s1, t0);
-                    position(x1, y0, z1);
+            if (ring == 0) {
+                emitConeRow(radius, bottom, 0.0f, normalXZScale, normalY, numSlices, cosTheta, sinTheta, true,
+                        bottomRow);
+            }
+            final float y1 = bottom + (ring + 1) * dHeight;
+            final float t1 = (float) (ring + 1) / numRings;
+            if (isApex) {
+                for (int slice = 0; slice < numSlices; slice++) {
+                    final float nx0 = normalXZScale * cosTheta[slice];
+                    final float nz0 = normalXZScale * sinTheta[slice];
+                    final float nx1 = normalXZScale * cosTheta[slice + 1];
+                    final float nz1 = normalXZScale * sinTheta[slice + 1];
+                    final float s0 = (float) slice / numSlices;
+                    final float s1 = (float) (slice + 1) / numSlices;
+                    final float len = Vec3.length((nx0 + nx1) * 0.5f, normalY, (nz0 + nz1) * 0.5f);
+                    topRow[slice] = emitWeldedVertex(0.0f, y1, 0.0f, ((nx0 + nx1) * 0.5f)/len, normalY/len,
+                            ((nz0 + nz1) * 0.5f)/len, (s0 + s1) * 0.5f, t1);
                 }
-
-                theta += dTheta;
+                for (int slice = 0; slice < numSlices; slice++) {
+                    emitTriangle(bottomRow[slice], topRow[slice], bottomRow[slice + 1]);
+                }
+                // Next ring (if any) starts from its own row
+                if (ring + 1 < numRings) {
+                    emitConeRow(r1, y1, t1, normalXZScale, normalY, numSlices, cosTheta, sinTheta, true,
+                            bottomRow);
+                }
+            } else {
+                emitConeRow(r1, y1, t1, normalXZScale, normalY, numSlices, cosTheta, sinTheta, false, topRow);
+                for (int slice = 0; slice < numSlices; slice++) {
+                    final int v00 = bottomRow[slice];
+                    emitTriangle(v00, topRow[slice], topRow[slice + 1]);
+                    emitTriangle(v00, topRow[slice + 1], bottomRow[slice + 1]);
+                }
+                final int[] swap = bottomRow;
+                bottomRow = topRow;
+                topRow = swap;
             }
         }
 
         // Base cap (optional, facing down)
         if (radius > 0) {
-            float theta = (float) Math.PI / 2.0f;
-            normal(0.0f, -1.0f, 0.0f);  // Point down
-
-            for (int slice = 0; slice < numSlices; slice++) {
-                float cosTheta0 = (float) Math.cos(theta);
-                float sinTheta0 = (float) Math.sin(theta);
-                float cosTheta1 = (float) Math.cos(theta + dTheta);
-                float sinTheta1 = (float) Math.sin(theta + dTheta);
-
-                float x0 = radius * cosTheta0;
-                float z0 = radius * sinTheta0;
-                float x1 = radius * cosTheta1;
-                float z1 = radius * sinTheta1;
-
+            final int center = emitWeldedVertex(0.0f, bottom, 0.0f, 0.0f, -1.0f, 0.0f, 0.5f, 0.5f);
+            final int[] rim = topRow;
+            for (int slice = 0; slice <= numSlices; slice++) {
                 // Radial UV mapping for base
-                float u0 = 0.5f + 0.5f * cosTheta0;
-                float v0 = 0.5f + 0.5f * sinTheta0;
-                float u1 = 0.5f + 0.5f * cosTheta1;
-                float v1 = 0.5f + 0.5f * sinTheta1;
-
-                // Triangle fan from center
-                texCoord(0.5f, 0.5f);
-                position(0.0f, bottom, 0.0f);
-
-                texCoord(u0, v0);
-                position(x0, bottom, z0);
-
-                texCoord(u1, v1);
-                position(x1, bottom, z1);
-
-                theta += dTheta;
+                rim[slice] = emitWeldedVertex(radius * cosTheta[slice], bottom, radius * sinTheta[slice],
+                        0.0f, -1.0f, 0.0f, 0.5f + 0.5f * cosTheta[slice], 0.5f + 0.5f * sinTheta[slice]);
+            }
+            for (int slice = 0; slice < numSlices; slice++) {
+                emitTriangle(center, rim[slice], rim[slice + 1]);
             }
         }
 
@@ -869,6 +800,23 @@ public final class TriangleMeshGen implements MeshGen {
         return this;
     }
 
+    /// Emit a row of cone shell vertices (`numSlices + 1`, normals are same along each slant line).
+    /// @param weldRow true to weld every vertex of the row, otherwise only seam vertices are welded
+    /// @param dest receives indices of row vertices
+    private void emitConeRow(float ringRadius, float y, float t, float normalXZScale, float normalY, int numSlices,
+                             float[] cosTheta, float[] sinTheta, boolean weldRow, int[] dest) {
+        for (int slice = 0; slice <= numSlices; slice++) {
+            final float x = ringRadius * cosTheta[slice];
+            final float z = ringRadius * sinTheta[slice];
+            final float nx = normalXZScale * cosTheta[slice];
+            final float nz = normalXZScale * sinTheta[slice];
+            final float s = (float) slice / numSlices;
+            dest[slice] = weldRow || slice == 0 || slice == numSlices
+                    ? emitWeldedVertex(x, y, z, nx, normalY, nz, s, t)
+                    : emitVertex(x, y, z, nx, normalY, nz, s, t);
+        }
+    }
+
     @Override
     public MeshGen addPyramid(float width, float height, float depth) {
 
@@ -962,115 +910,68 @@ public final class TriangleMeshGen implements MeshGen {
 
     @Override
     public MeshGen addCapsule(float radius, float cylinderHeight, int numSlices, int hemisphereRings) {
+        checkDivisions(numSlices, hemisphereRings);
         float totalHeight = cylinderHeight + 2.0f * radius;
         float cylinderMinT = radius / totalHeight;
         float cylinderMaxT = 1.0f - cylinderMinT;
+        final float[] cosTheta = new float[numSlices + 1];
+        final float[] sinTheta = new float[numSlices + 1];
+        sliceAngles(numSlices, cosTheta, sinTheta);
 
         beginTriangles();
-        color(currentColor.x, currentColor.y, currentColor.z);
+        reserve((numSlices + 1) * (2 * hemisphereRings + 4), 6 * numSlices * (2 * hemisphereRings + 1));
 
         // bottom hemisphere
-        generateHemisphere(radius, numSlices, hemisphereRings, (float) Math.PI/2.0f, (float) Math.PI, -(cylinderHeight/2.0f), cylinderMaxT, 1.0f);
+        emitHemisphere(radius, numSlices, hemisphereRings, (float) Math.PI/2.0f, (float) Math.PI, -(cylinderHeight/2.0f), cylinderMaxT, 1.0f, cosTheta, sinTheta);
         // cylinder shell
-        generateCylinderShellTriangles(radius, cylinderHeight, numSlices, 1, cylinderMinT, cylinderMaxT);
+        emitCylinderShell(radius, cylinderHeight, numSlices, 1, cylinderMinT, cylinderMaxT, cosTheta, sinTheta);
         // top hemisphere
-        generateHemisphere(radius, numSlices, hemisphereRings, 0.0f, (float) Math.PI/2.0f, (cylinderHeight/2.0f), 0, cylinderMinT);
+        emitHemisphere(radius, numSlices, hemisphereRings, 0.0f, (float) Math.PI/2.0f, (cylinderHeight/2.0f), 0, cylinderMinT, cosTheta, sinTheta);
 
         endTriangles();
         return this;
     }
 
 
-    /// Helper method for hemisphere generation
-    private void generateHemisphere(float radius, int numSlices, int numRings,
-                                    float phiStart, float phiEnd,
-                                    float yOffset,
-                                    float tStart, float tEnd) {
-        final float dTheta = (float)(2.0f * Math.PI / numSlices);
+    /// Helper method for hemisphere generation, `numSlices + 1` vertices per ring.
+    private void emitHemisphere(float radius, int numSlices, int numRings,
+                                float phiStart, float phiEnd,
+                                float yOffset,
+                                float tStart, float tEnd,
+                                float[] cosTheta, float[] sinTheta) {
         final float dPhi = (phiEnd - phiStart) / numRings;
-        final float dS = 1.0f / numSlices;
         final float dT = (tEnd - tStart) / numRings;
-
-        for (int ring = 0; ring < numRings; ring++) {
-            float theta = (float) Math.PI / 2.0f;  // Reset theta each ring
-            float phi0 = phiStart + ring * dPhi;
-            float phi1 = phiStart + (ring + 1) * dPhi;
-
-            float sinPhi0 = (float)Math.sin(phi0);
-            float cosPhi0 = (float)Math.cos(phi0);
-            float sinPhi1 = (float)Math.sin(phi1);
-            float cosPhi1 = (float)Math.cos(phi1);
-
-            float t0 = tStart + ring * dT;
-            float t1 = tStart + (ring + 1) * dT;
-
-            for (int slice = 0; slice < numSlices; slice++) {
-                float sinTheta0 = (float)Math.sin(theta);
-                float cosTheta0 = (float)Math.cos(theta);
-                float sinTheta1 = (float)Math.sin(theta + dTheta);
-                float cosTheta1 = (float)Math.cos(theta + dTheta);
-
-                // Calculate normals (same as positions but not scaled by radius)
-                float nx0 = sinPhi0 * cosTheta0;
-                //noinspection UnnecessaryLocalVariable
-                float ny0 = cosPhi0;
-                float nz0 = sinPhi0 * sinTheta0;
-
-                float nx1 = sinPhi0 * cosTheta1;
-                //noinspection UnnecessaryLocalVariable
-                float ny1 = cosPhi0;
-                float nz1 = sinPhi0 * sinTheta1;
-
-                float nx2 = sinPhi1 * cosTheta1;
-                //noinspection UnnecessaryLocalVariable
-                float ny2 = cosPhi1;
-                float nz2 = sinPhi1 * sinTheta1;
-
-                float nx3 = sinPhi1 * cosTheta0;
-                //noinspection UnnecessaryLocalVariable
-                float ny3 = cosPhi1;
-                float nz3 = sinPhi1 * sinTheta0;
-
-                float s0 = (float)slice / (float) numSlices;
-                float s1 = (float)(slice + 1) / (float)numSlices;
-
-                // First triangle
-                normal(nx0, ny0, nz0);
-                texCoord(s0, 1.0f - t0);  // Flip vertically
-                position(radius * nx0, yOffset + radius * ny0, radius * nz0);
-
-                normal(nx1, ny1, nz1);
-                texCoord(s1, 1.0f - t0);
-                position(radius * nx1, yOffset + radius * ny1, radius * nz1);
-
-                normal(nx2, ny2, nz2);
-                texCoord(s1, 1.0f - t1);
-                position(radius * nx2, yOffset + radius * ny2, radius * nz2);
-
-                // Second triangle
-                normal(nx0, ny0, nz0);
-                texCoord(s0, 1.0f - t0);
-                position(radius * nx0, yOffset + radius * ny0, radius * nz0);
-
-                normal(nx2, ny2, nz2);
-                texCoord(s1, 1.0f - t1);
-                position(radius * nx2, yOffset + radius * ny2, radius * nz2);
-
-                normal(nx3, ny3, nz3);
-                texCoord(s0, 1.0f - t1);
-                position(radius * nx3, yOffset + radius * ny3, radius * nz3);
-
-                theta += dTheta;
+        final int columns = numSlices + 1;
+
+        // Pole and equator rows and seam columns are welded
+        final int rows = numRings + 1;
+        final int[] patch = new int[columns * rows];
+        for (int ring = 0; ring < rows; ring++) {
+            final float phi = phiStart + ring * dPhi;
+            final float sinPhi = (float)Math.sin(phi);
+            final float cosPhi = (float)Math.cos(phi);
+            final float t = tStart + ring * dT;
+
+            for (int slice = 0; slice <= numSlices; slice++) {
+                // Normals are same as positions but not scaled by radius
+                final float nx = sinPhi * cosTheta[slice];
+                final float nz = sinPhi * sinTheta[slice];
+                patch[ring * columns + slice] = emitPatchVertex(ring, slice, rows, columns, radius * nx,
+                        yOffset + radius * cosPhi, radius * nz, nx, cosPhi, nz,
+                        (float)slice / (float)numSlices, 1.0f - t);  // Flip vertically
             }
         }
+        emitPatchTriangles(patch, columns, rows, false);
     }
 
     @Override
     public IndexedMesh build() {
         final float[] finalVertexData = Arrays.copyOf(vertexData, vertexCount * vertexFormat.stride());
         final int[] finalIndices = Arrays.copyOf(indices, indexCount);
+        final IndexedMesh.Bounds bounds = IndexedMesh.Bounds.compute(finalVertexData, vertexCount, vertexFormat.stride());
         reset();
-        return new IndexedMesh(this.vertexFormat, IndexedMesh.PrimitiveType.TRIANGLES, finalVertexData, finalIndices);
+        return new IndexedMesh(this.vertexFormat, IndexedMesh.PrimitiveType.TRIANGLES, finalVertexData, finalIndices,
+                bounds);
     }
 
     private void reset() {
@@ -1089,6 +990,6 @@ public final class TriangleMeshGen implements MeshGen {
         activeNormal = null;
         activeTexCoord = null;
 
-        vertexPositionLookup.clear();
+        vertexLookup.clear();
     }
 }
@@ -0,0 +1,129 @@
+package dev.stjepano.math.geometry.mesh;
+
+import java.util.Arrays;
+
+/// Open addressing (linear probing) hash table of vertex indices, used to weld identical vertices while a mesh is
+/// generated.
+///
+/// The key is the full vertex (all `stride` components) compared by float bits ([Float#floatToIntBits(float)]), so
+/// vertices with same position but different normal or texture coordinate are different keys. The table does not
+/// store vertices, slots hold vertex indices into caller's vertex data together with the vertex hash (used to reject
+/// candidates without reading vertex data and to rehash when the table grows).
+///
+/// Slots are marked occupied with the current generation, so [#clear()] is O(1). The table allocates only when it
+/// grows, capacity is kept across clears.
+final class VertexHashTable {
+    private static final int INITIAL_CAPACITY = 256;  // slots, power of 2
+
+    private final int stride;
+    private int[] vertexIndices;
+    private int[] hashes;
+    private int[] generations;
+    private int generation = 1;
+    private int mask;
+    private int size;
+
+    /// Create table for vertices with `stride` components.
+    VertexHashTable(int stride) {
+        this.stride = stride;
+        this.vertexIndices = new int[INITIAL_CAPACITY];
+        this.hashes = new int[INITIAL_CAPACITY];
+        this.generations = new int[INITIAL_CAPACITY];
+        this.mask = INITIAL_CAPACITY - 1;
+    }
+
+    /// Hash of vertex components `[offset, offset + stride)`.
+    int hash(float[] vertex, int offset) {
+        int h = 0;
+        for (int i = 0; i < stride; i++) {
+            h = (h ^ Float.floatToIntBits(vertex[offset + i])) * 0x9E3779B9;
+        }
+        // Murmur3 finalizer, generated coordinates often have many zero low mantissa bits
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+
+    /// Find index of vertex equal to `vertex` (starting at index 0).
+    /// @param vertex searched vertex, `stride` components
+    /// @param hash hash of the vertex, see [#hash(float[], int)]
+    /// @param vertexData vertex data which the stored indices refer to
+    /// @return vertex index or `-1` if not found
+    int find(float[] vertex, int hash, float[] vertexData) {
+        for (int slot = hash & mask; generations[slot] == generation; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && equal(vertex, vertexData, vertexIndices[slot] * stride)) {
+                return vertexIndices[slot];
+            }
+        }
+        return -1;
+    }
+
+    /// Insert vertex index, the vertex must not be in the table.
+    /// @param hash hash of the vertex, see [#hash(float[], int)]
+    /// @param vertexIndex index of the vertex in vertex data
+    void insert(int hash, int vertexIndex) {
+        // Load factor at most 1/2
+        if (2 * (size + 1) > vertexIndices.length) {
+            grow();
+        }
+        int slot = hash & mask;
+        while (generations[slot] == generation) {
+            slot = (slot + 1) & mask;
+        }
+        generations[slot] = generation;
+        hashes[slot] = hash;
+        vertexIndices[slot] = vertexIndex;
+        size++;
+    }
+
+    /// Remove all entries.
+    void clear() {
+        size = 0;
+        generation++;
+        if (generation == 0) {
+            // Wrapped around, stale slots could look occupied
+            Arrays.fill(generations, 0);
+            generation = 1;
+        }
+    }
+
+    /// Number of entries.
+    int size() {
+        return size;
+    }
+
+    private boolean equal(float[] vertex, float[] vertexData, int vertexStart) {
+        for (int i = 0; i < stride; i++) {
+            if (Float.floatToIntBits(vertex[i]) != Float.floatToIntBits(vertexData[vertexStart + i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void grow() {
+        final int[] oldIndices = vertexIndices;
+        final int[] oldHashes = hashes;
+        final int[] oldGenerations = generations;
+        final int oldGeneration = generation;
+        final int capacity = 2 * oldIndices.length;
+        vertexIndices = new int[capacity];
+        hashes = new int[capacity];
+        generations = new int[capacity];
+        generation = 1;
+        mask = capacity - 1;
+        for (int i = 0; i < oldIndices.length; i++) {
+            if (oldGenerations[i] == oldGeneration) {
+                int slot = oldHashes[i] & mask;
+                while (generations[slot] == generation) {
+                    slot = (slot + 1) & mask;
+                }
+                generations[slot] = generation;
+                hashes[slot] = oldHashes[i];
+                vertexIndices[slot] = oldIndices[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package dev.stjepano.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CullingExecutorTest {
+
+    private static final int COUNT = 100_003;
+
+    @Test
+    public void parallelCullingMatchesSequential() {
+        Frustum frustum = new Frustum().set(new Projection().setPerspective(1.2f, 1.3f, 0.5f, 60.0f),
+                new Transform().setRotationY(0.3f));
+        Random random = new Random(9);
+        float[][] s = new float[7][COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            for (int k = 0; k < 3; k++) {
+                s[k][i] = (random.nextFloat() * 2.0f - 1.0f) * 60.0f;
+                s[3 + k][i] = s[k][i] + random.nextFloat() * 2.0f;
+            }
+            s[6][i] = random.nextFloat() * 2.0f;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            CullingExecutor executor = new CullingExecutor(pool, 1);
+            long[] expected = new long[(COUNT + 63) / 64];
+            long[] actual = new long[(COUNT + 63) / 64];
+
+            int expectedCount = frustum.cullSpheres(s[0], s[1], s[2], s[6], COUNT, expected);
+            int actualCount = executor.cullSpheres(frustum, s[0], s[1], s[2], s[6], COUNT, actual);
+            assertEquals(expectedCount, actualCount);
+            assertArrayEquals(expected, actual);
+
+            expectedCount = frustum.cullAabbs(s[0], s[1], s[2], s[3], s[4], s[5], COUNT, expected);
+            actualCount = executor.cullAabbs(frustum, s[0], s[1], s[2], s[3], s[4], s[5], COUNT, actual);
+            assertEquals(expectedCount, actualCount);
+            assertArrayEquals(expected, actual);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void rejectsInvalidArguments() {
+        assertThrows(NullPointerException.class, () -> new CullingExecutor(null, 10));
+        assertThrows(IllegalArgumentException.class, () -> new CullingExecutor(ForkJoinPool.commonPool(), 0));
+        CullingExecutor executor = new CullingExecutor();
+        float[] a = new float[10];
+        assertThrows(IllegalArgumentException.class,
+                () -> executor.cullSpheres(new Frustum(), a, a, a, a, 10, new long[0]));
+    }
+}
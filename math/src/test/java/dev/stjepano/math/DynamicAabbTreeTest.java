@@ -0,0 +1,265 @@
+package dev.stjepano.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DynamicAabbTreeTest {
+
+    private static final int COUNT = 500;
+
+    private final Random random = new Random(21);
+    private final DynamicAabbTree tree = new DynamicAabbTree(0.5f);
+    private final int[] proxies = new int[COUNT];
+    private final Vec3[] centers = new Vec3[COUNT];
+
+    private void populate() {
+        for (int i = 0; i < COUNT; i++) {
+            centers[i] = new Vec3(randomCoordinate(), randomCoordinate(), randomCoordinate());
+            proxies[i] = tree.createProxy(min(i), max(i), i);
+        }
+    }
+
+    private float randomCoordinate() {
+        return (random.nextFloat() * 2.0f - 1.0f) * 40.0f;
+    }
+
+    private Vec3 min(int i) {
+        return new Vec3(centers[i].x - 1.0f, centers[i].y - 1.0f, centers[i].z - 1.0f);
+    }
+
+    private Vec3 max(int i) {
+        return new Vec3(centers[i].x + 1.0f, centers[i].y + 1.0f, centers[i].z + 1.0f);
+    }
+
+    private void moveAll(float step) {
+        for (int i = 0; i < COUNT; i++) {
+            centers[i].add((random.nextFloat() - 0.5f) * step, (random.nextFloat() - 0.5f) * step,
+                    (random.nextFloat() - 0.5f) * step);
+            tree.move(proxies[i], min(i), max(i));
+        }
+    }
+
+    private float[] fatBounds(int proxy) {
+        Vec3 min = new Vec3();
+        Vec3 max = new Vec3();
+        tree.getFatBounds(proxy, min, max);
+        return new float[] {min.x, min.y, min.z, max.x, max.y, max.z};
+    }
+
+    @Test
+    public void staysValidAndBalancedWhileObjectsMove() {
+        populate();
+        tree.validate();
+        assertEquals(COUNT, tree.proxyCount());
+        assertEquals(2 * COUNT - 1, tree.nodeCount());
+        for (int frame = 0; frame < 20; frame++) {
+            moveAll(frame < 10 ? 0.2f : 10.0f);
+            tree.validate();
+        }
+        // Balanced tree of 500 leaves has height 9
+        assertTrue(tree.height() <= 20, "height " + tree.height());
+
+        for (int i = 0; i < COUNT; i++) {
+            float[] fat = fatBounds(proxies[i]);
+            Vec3 min = min(i);
+            Vec3 max = max(i);
+            assertTrue(fat[0] <= min.x && fat[1] <= min.y && fat[2] <= min.z);
+            assertTrue(fat[3] >= max.x && fat[4] >= max.y && fat[5] >= max.z);
+            assertEquals(i, tree.getUserData(proxies[i]));
+        }
+    }
+
+    @Test
+    public void smallMovesDoNotReinsert() {
+        Vec3 min = new Vec3(0, 0, 0);
+        Vec3 max = new Vec3(1, 1, 1);
+        int proxy = tree.createProxy(min, max, 7);
+        assertFalse(tree.move(proxy, new Vec3(0.2f, 0, 0), new Vec3(1.2f, 1, 1)));
+        assertTrue(tree.move(proxy, new Vec3(0.6f, 0, 0), new Vec3(1.6f, 1, 1)));
+        // Fat box much larger than shrunk object is refitted
+        proxy = tree.createProxy(new Vec3(0, 0, 0), new Vec3(10, 10, 10), 8);
+        assertTrue(tree.move(proxy, new Vec3(4.9f, 4.9f, 4.9f), new Vec3(5.1f, 5.1f, 5.1f)));
+        assertArrayEquals(new float[] {4.4f, 4.4f, 4.4f, 5.6f, 5.6f, 5.6f}, fatBounds(proxy), 1e-6f);
+
+        // Fat box is extended in direction of movement
+        assertTrue(tree.move(proxy, new Vec3(6, 5, 5), new Vec3(7, 6, 6), new Vec3(0.25f, 0, -0.25f)));
+        assertArrayEquals(new float[] {5.5f, 4.5f, 3.5f, 8.5f, 6.5f, 6.5f}, fatBounds(proxy), 1e-6f);
+        assertFalse(tree.move(proxy, new Vec3(7, 5, 4), new Vec3(8, 6, 5), new Vec3(0.25f, 0, -0.25f)));
+        tree.validate();
+    }
+
+    @Test
+    public void pairsMatchBruteForce() {
+        populate();
+        moveAll(3.0f);
+        Set<Long> expected = new HashSet<>();
+        for (int a = 0; a < COUNT; a++) {
+            float[] fa = fatBounds(proxies[a]);
+            for (int b = a + 1; b < COUNT; b++) {
+                float[] fb = fatBounds(proxies[b]);
+                if (fa[0] <= fb[3] && fa[3] >= fb[0] && fa[1] <= fb[4] && fa[4] >= fb[1]
+                        && fa[2] <= fb[5] && fa[5] >= fb[2]) {
+                    expected.add(pairKey(Math.min(proxies[a], proxies[b]), Math.max(proxies[a], proxies[b])));
+                }
+            }
+        }
+        assertFalse(expected.isEmpty());
+        Set<Long> actual = new HashSet<>();
+        tree.queryPairs((a, b) -> {
+            assertTrue(a < b);
+            assertTrue(actual.add(pairKey(a, b)), "pair reported twice");
+        });
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void callbacksCanRunNestedQueries() {
+        populate();
+        moveAll(3.0f);
+        Set<Long> expected = new HashSet<>();
+        tree.queryPairs((a, b) -> expected.add(pairKey(a, b)));
+
+        Set<Long> actual = new HashSet<>();
+        int[] dest = new int[COUNT];
+        Vec3 min = new Vec3();
+        Vec3 max = new Vec3();
+        tree.queryPairs((a, b) -> {
+            actual.add(pairKey(a, b));
+            tree.getFatBounds(a, min, max);
+            int count = tree.queryAabb(min, max, dest);
+            assertTrue(Arrays.stream(dest, 0, count).anyMatch(proxy -> proxy == b));
+            Vec3 origin = new Vec3(min.x - 1.0f, (min.y + max.y) * 0.5f, (min.z + max.z) * 0.5f);
+            assertTrue(tree.raycast(origin, new Vec3(1, 0, 0), 100.0f, (proxy, maxDistance) -> -1.0f) < 0.0f);
+        });
+        assertEquals(expected, actual);
+    }
+
+    private static long pairKey(int a, int b) {
+        return ((long) a << 32) | b;
+    }
+
+    @Test
+    public void frustumAndBoxQueriesMatchBruteForce() {
+        populate();
+        Frustum frustum = new Frustum().set(new Projection().setPerspective(1.2f, 1.3f, 0.5f, 30.0f),
+                new Transform().setPosition(0, 0, 20).setRotationY(0.4f));
+        int[] dest = new int[COUNT];
+        int count = tree.queryFrustum(frustum, dest);
+        int[] actual = Arrays.copyOf(dest, count);
+        Arrays.sort(actual);
+        int[] expected = Arrays.stream(proxies).filter(proxy -> {
+            float[] f = fatBounds(proxy);
+            return frustum.testAabb(f[0], f[1], f[2], f[3], f[4], f[5]);
+        }).sorted().toArray();
+        assertTrue(expected.length > 0 && expected.length < COUNT);
+        assertArrayEquals(expected, actual);
+
+        Vec3 min = new Vec3(-10, -5, -10);
+        Vec3 max = new Vec3(5, 10, 0);
+        count = tree.queryAabb(min, max, dest);
+        actual = Arrays.copyOf(dest, count);
+        Arrays.sort(actual);
+        expected = Arrays.stream(proxies).filter(proxy -> {
+            float[] f = fatBounds(proxy);
+            return f[0] <= max.x && f[3] >= min.x && f[1] <= max.y && f[4] >= min.y && f[2] <= max.z && f[5] >= min.z;
+        }).sorted().toArray();
+        assertTrue(expected.length > 1);
+        assertArrayEquals(expected, actual);
+
+        // Query stops when destination is full
+        assertEquals(1, tree.queryAabb(min, max, new int[1]));
+    }
+
+    @Test
+    public void raycastFindsClosestBox() {
+        populate();
+        Vec3 origin = new Vec3(-50, centers[0].y + 0.3f, centers[0].z + 0.2f);
+        Vec3 direction = new Vec3(1, 0, 0);
+        float expected = Float.POSITIVE_INFINITY;
+        for (int i = 0; i < COUNT; i++) {
+            Vec3 min = min(i);
+            Vec3 max = max(i);
+            if (origin.y >= min.y && origin.y <= max.y && origin.z >= min.z && origin.z <= max.z) {
+                expected = Math.min(expected, min.x - origin.x);
+            }
+        }
+        assertTrue(expected < 100.0f);
+
+        // Callback computes exact distance to object box and clips the ray
+        float distance = tree.raycast(origin, direction, 100.0f, (proxy, maxDistance) -> {
+            int i = tree.getUserData(proxy);
+            Vec3 min = min(i);
+            Vec3 max = max(i);
+            if (origin.y >= min.y && origin.y <= max.y && origin.z >= min.z && origin.z <= max.z) {
+                return Math.min(maxDistance, min.x - origin.x);
+            }
+            return maxDistance;
+        });
+        assertEquals(expected, distance, 1e-4f);
+
+        assertTrue(tree.raycast(origin, direction, 100.0f, (proxy, maxDistance) -> -1.0f) < 0.0f);
+        assertEquals(100.0f, new DynamicAabbTree().raycast(origin, direction, 100.0f, (proxy, d) -> 0.0f));
+    }
+
+    @Test
+    public void destroyedProxiesAreRemovedAndReused() {
+        populate();
+        for (int i = 0; i < COUNT; i += 2) {
+            tree.destroyProxy(proxies[i]);
+        }
+        tree.validate();
+        assertEquals(COUNT / 2, tree.proxyCount());
+        int[] dest = new int[COUNT];
+        int count = tree.queryAabb(new Vec3(-100, -100, -100), new Vec3(100, 100, 100), dest);
+        assertEquals(COUNT / 2, count);
+        for (int k = 0; k < count; k++) {
+            assertEquals(1, tree.getUserData(dest[k]) % 2);
+        }
+        assertThrows(IllegalArgumentException.class, () -> tree.getUserData(proxies[0]));
+
+        int proxy = tree.createProxy(new Vec3(), new Vec3(1, 1, 1), 42);
+        assertTrue(proxy < 2 * COUNT, "node storage is reused");
+        tree.validate();
+        for (int i = 1; i < COUNT; i += 2) {
+            tree.destroyProxy(proxies[i]);
+        }
+        tree.destroyProxy(proxy);
+        tree.validate();
+        assertEquals(0, tree.nodeCount());
+        assertEquals(-1, tree.height());
+    }
+
+    @Test
+    public void createFromTransform() {
+        Transform transform = new Transform().setPosition(10, 0, 0).setRotationY((float) Math.PI / 2).setScale(2.0f);
+        DynamicAabbTree zeroMargin = new DynamicAabbTree(0.0f);
+        int proxy = zeroMargin.createProxy(transform, new Vec3(0, 0, 0), new Vec3(1, 1, 1), 0);
+        Vec3 min = new Vec3();
+        Vec3 max = new Vec3();
+        zeroMargin.getFatBounds(proxy, min, max);
+        assertEquals(10.0f, min.x, 1e-5f);
+        assertEquals(12.0f, max.x, 1e-5f);
+        assertEquals(-2.0f, min.z, 1e-5f);
+        assertEquals(0.0f, max.z, 1e-5f);
+    }
+
+    @Test
+    public void rejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new DynamicAabbTree(-1.0f));
+        assertThrows(IllegalArgumentException.class, () -> new DynamicAabbTree(Float.NaN));
+        assertThrows(IllegalArgumentException.class, () -> tree.createProxy(new Vec3(1, 0, 0), new Vec3(), 0));
+        int proxy = tree.createProxy(new Vec3(), new Vec3(1, 1, 1), 0);
+        tree.createProxy(new Vec3(), new Vec3(1, 1, 1), 1);
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.move(-1, new Vec3(), new Vec3()));
+        // Inner node is not a proxy
+        int inner = proxy == 0 ? 2 : 0;
+        assertThrows(IllegalArgumentException.class, () -> tree.destroyProxy(inner));
+        assertThrows(NullPointerException.class, () -> tree.queryPairs(null));
+    }
+}
@@ -0,0 +1,119 @@
+package dev.stjepano.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrustumTest {
+
+    private static Frustum perspectiveFrustum() {
+        // Camera at origin looking down -Z
+        Projection projection = new Projection().setPerspective((float) Math.toRadians(90), 1.0f, 1.0f, 100.0f);
+        return new Frustum().set(projection, new Mat4());
+    }
+
+    @Test
+    public void planesAreNormalizedAndPointInside() {
+        Frustum frustum = perspectiveFrustum();
+        Vec4 plane = new Vec4();
+        for (int i = 0; i < Frustum.PLANE_COUNT; i++) {
+            frustum.getPlane(i, plane);
+            assertEquals(1.0f, (float) Math.sqrt(plane.x * plane.x + plane.y * plane.y + plane.z * plane.z), 1e-5f);
+            // Point in the middle of the frustum is in front of every plane
+            assertTrue(plane.z * -50.0f + plane.w > 0.0f);
+        }
+        frustum.getPlane(Frustum.NEAR, plane);
+        assertEquals(-1.0f, plane.z, 1e-5f);
+        assertEquals(-1.0f, plane.w, 1e-4f);
+        frustum.getPlane(Frustum.FAR, plane);
+        assertEquals(1.0f, plane.z, 1e-5f);
+        assertEquals(100.0f, plane.w, 1e-2f);
+    }
+
+    @Test
+    public void testSphere() {
+        Frustum frustum = perspectiveFrustum();
+        assertTrue(frustum.testSphere(0, 0, -10, 1));
+        assertFalse(frustum.testSphere(0, 0, 10, 1));        // behind camera
+        assertFalse(frustum.testSphere(0, 0, -200, 1));      // beyond far plane
+        assertFalse(frustum.testSphere(20, 0, -10, 1));      // right of frustum
+        assertTrue(frustum.testSphere(10.5f, 0, -10, 1));    // intersects right plane
+        assertTrue(frustum.testSphere(new Vec3(0, 0, -0.5f), 1)); // intersects near plane
+    }
+
+    @Test
+    public void testAabb() {
+        Frustum frustum = perspectiveFrustum();
+        assertTrue(frustum.testAabb(-1, -1, -11, 1, 1, -9));
+        assertFalse(frustum.testAabb(-1, -1, 5, 1, 1, 6));
+        assertFalse(frustum.testAabb(15, -1, -11, 17, 1, -9));
+        assertTrue(frustum.testAabb(9, -1, -11, 12, 1, -9));
+        // Box containing whole frustum
+        assertTrue(frustum.testAabb(new Vec3(-1000, -1000, -1000), new Vec3(1000, 1000, 1000)));
+    }
+
+    @Test
+    public void cameraTransformMatchesViewMatrix() {
+        Projection projection = new Projection().setPerspective(1.0f, 1.5f, 0.1f, 50.0f);
+        Transform camera = new Transform().setPosition(3, 2, 5).setRotationEulerYXZ(0.2f, 0.7f, 0.1f);
+        Mat4 view = new Mat4();
+        camera.toInverseMatrix(view);
+
+        Frustum a = new Frustum().set(projection, camera);
+        Frustum b = new Frustum().set(projection, view);
+        Mat4 viewProjection = new Mat4().set(projection.matrix()).mul(view);
+        Frustum c = new Frustum().set(viewProjection);
+        assertArrayEquals(a.planes, b.planes);
+        assertArrayEquals(a.planes, c.planes);
+    }
+
+    @Test
+    public void batchCullingMatchesSingleTests() {
+        Frustum frustum = new Frustum().set(new Projection().setPerspective(1.2f, 1.3f, 0.5f, 60.0f),
+                new Transform().setPosition(1, 2, 3).setRotationY(0.5f));
+        final int count = 1003;
+        Random random = new Random(5);
+        float[][] s = new float[7][count];
+        for (int i = 0; i < count; i++) {
+            for (int k = 0; k < 3; k++) {
+                s[k][i] = (random.nextFloat() * 2.0f - 1.0f) * 60.0f;
+                s[3 + k][i] = s[k][i] + random.nextFloat() * 5.0f;
+            }
+            s[6][i] = random.nextFloat() * 5.0f;
+        }
+
+        long[] bits = new long[(count + 63) / 64];
+        java.util.Arrays.fill(bits, -1L);
+        int[] indices = new int[count];
+
+        int bitCount = frustum.cullSpheres(s[0], s[1], s[2], s[6], count, bits);
+        int indexCount = frustum.cullSpheres(s[0], s[1], s[2], s[6], count, indices);
+        assertEquals(bitCount, indexCount);
+        int expectedCount = 0;
+        for (int i = 0; i < count; i++) {
+            boolean visible = frustum.testSphere(s[0][i], s[1][i], s[2][i], s[6][i]);
+            assertEquals(visible, (bits[i >>> 6] & (1L << i)) != 0, "sphere " + i);
+            if (visible) {
+                assertEquals(i, indices[expectedCount++]);
+            }
+        }
+        assertEquals(expectedCount, bitCount);
+        assertTrue(expectedCount > 0 && expectedCount < count);
+        assertEquals(0L, bits[bits.length - 1] >>> (count & 63), "bits after count must be cleared");
+
+        bitCount = frustum.cullAabbs(s[0], s[1], s[2], s[3], s[4], s[5], count, bits);
+        indexCount = frustum.cullAabbs(s[0], s[1], s[2], s[3], s[4], s[5], count, indices);
+        assertEquals(bitCount, indexCount);
+        expectedCount = 0;
+        for (int i = 0; i < count; i++) {
+            boolean visible = frustum.testAabb(s[0][i], s[1][i], s[2][i], s[3][i], s[4][i], s[5][i]);
+            assertEquals(visible, (bits[i >>> 6] & (1L << i)) != 0, "box " + i);
+            if (visible) {
+                assertEquals(i, indices[expectedCount++]);
+            }
+        }
+        assertEquals(expectedCount, bitCount);
+    }
+}
@@ -2,8 +2,11 @@ package dev.stjepano.math;
 
 import org.junit.jupiter.api.Test;
 
+import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -502,4 +505,124 @@ class Mat4Test {
         assertTrue(str.contains("Mat4"));
         assertTrue(str.contains("1.0"));  // Identity diagonal
     }
+
+    @Test
+    public void packed3x4() {
+        Mat4 m = new Mat4(
+                1, 2, 3, 4,
+                5, 6, 7, 8,
+                9, 10, 11, 12,
+                0, 0, 0, 1
+        );
+
+        float[] array = new float[14];
+        m.toFloatArray3x4(array, 2);
+        assertEquals(1.0f, array[2]);
+        assertEquals(8.0f, array[9]);
+        assertEquals(12.0f, array[13]);
+
+        Mat4 m2 = new Mat4();
+        m2.scale(5.0f);
+        Mat4.fromFloatArray3x4(array, 2, m2);
+        assertEquals(m, m2);
+
+        float[] segmentArray = new float[12];
+        MemorySegment segment = MemorySegment.ofArray(segmentArray);
+        m.toMemorySegment3x4(segment, 0);
+        assertEquals(1.0f, segmentArray[0]);
+        assertEquals(12.0f, segmentArray[11]);
+
+        Mat4 m3 = new Mat4();
+        Mat4.fromMemorySegment3x4(segment, 0, m3);
+        assertEquals(m, m3);
+    }
+
+    @Test
+    public void isAffine() {
+        Mat4 m = new Mat4();
+        new Transform().setPosition(1, 2, 3).setScale(2).setRotationY(0.5f).toMatrix(m);
+        assertTrue(m.isAffine());
+
+        Mat4 projection = new Mat4();
+        new Projection().setPerspective((float) Math.toRadians(60), 1.5f, 0.1f, 100.0f).toMatrix(projection);
+        assertFalse(projection.isAffine());
+    }
+
+    @Test
+    public void mulAffineMatchesMul() {
+        Mat4 a = new Mat4();
+        Mat4 b = new Mat4();
+        new Transform().setPosition(1, -2, 3).setScale(2, 3, 0.5f).setRotationY(0.7f).toMatrix(a);
+        new Transform().setPosition(-4, 5, 1).setScale(1.5f).setRotationX(-0.3f).toMatrix(b);
+
+        Mat4 expected = a.copy().mul(b);
+        Mat4 actual = a.copy().mulAffine(b);
+        assertMatEquals(expected, actual);
+    }
+
+    @Test
+    public void invertAffineMatchesInvert() {
+        Mat4 m = new Mat4();
+        new Transform().setPosition(1, -2, 3).setScale(2, 3, 0.5f).setRotation(new Vec3(1, 1, 0).normalize(), 0.7f).toMatrix(m);
+        // Shear, so that general affine inverse is needed
+        m.m01 += 0.25f;
+
+        Mat4 expected = m.copy().invert();
+        Mat4 actual = m.copy().invertAffine();
+        assertMatEquals(expected, actual);
+    }
+
+    @Test
+    public void invertRigidMatchesInvert() {
+        Mat4 m = new Mat4();
+        new Transform().setPosition(1, -2, 3).setRotation(new Vec3(1, -1, 2).normalize(), 1.2f).toMatrix(m);
+
+        Mat4 expected = m.copy().invert();
+        Mat4 actual = m.copy().invertRigid();
+        assertMatEquals(expected, actual);
+
+        Mat4 identity = m.copy().mulAffine(actual);
+        assertMatEquals(new Mat4(), identity);
+    }
+
+    private static void assertMatEquals(Mat4 expected, Mat4 actual) {
+        float[] e = new float[16];
+        float[] a = new float[16];
+        expected.toFloatArray(e);
+        actual.toFloatArray(a);
+        for (int i = 0; i < 16; i++) {
+            assertEquals(e[i], a[i], 1e-5f, "element " + i);
+        }
+    }
+
+    @Test
+    public void bulkMemorySegment() {
+        Mat4[] src = new Mat4[3];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = new Mat4();
+            src[i].setColumn(3, i, 2 * i, 3 * i, 1);
+            src[i].m01 = 100 + i;
+        }
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment segment = arena.allocate(3 * MathLayouts.MAT4.byteSize());
+            Mat4.toMemorySegment(src, 0, segment, 0, 3);
+            float[] floats = segment.toArray(ValueLayout.JAVA_FLOAT);
+            for (int i = 0; i < src.length; i++) {
+                float[] expected = new float[16];
+                src[i].toFloatArray(expected, 0);
+                assertArrayEquals(expected, Arrays.copyOfRange(floats, 16 * i, 16 * i + 16));
+            }
+
+            List<Mat4> dest = List.of(new Mat4(), new Mat4());
+            Mat4.fromMemorySegment(segment, MathLayouts.MAT4.byteSize(), dest);
+            assertEquals(src[1], dest.get(0));
+            assertEquals(src[2], dest.get(1));
+
+            Mat4[] destArray = {new Mat4()};
+            Mat4.fromMemorySegment(segment, 0, destArray, 0, 1);
+            assertEquals(src[0], destArray[0]);
+
+            assertThrows(IndexOutOfBoundsException.class, () -> Mat4.toMemorySegment(List.of(src), segment, 4));
+        }
+    }
 }
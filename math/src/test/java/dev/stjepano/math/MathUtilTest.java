@@ -0,0 +1,88 @@
+package dev.stjepano.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MathUtilTest {
+
+    private static final double TRIG_MAX_ERROR = 2e-7;
+    private static final double INV_SQRT_MAX_RELATIVE_ERROR = 5e-6;
+
+    @Test
+    public void fastSinCosAccuracy() {
+        Random random = new Random(11);
+        Vec2 sinCos = new Vec2();
+        for (int i = 0; i < 200_000; i++) {
+            float range = (i % 2 == 0) ? 10.0f : 1e5f;
+            float angle = (random.nextFloat() * 2.0f - 1.0f) * range;
+            assertEquals(Math.sin(angle), MathUtil.fastSin(angle), TRIG_MAX_ERROR, "sin " + angle);
+            assertEquals(Math.cos(angle), MathUtil.fastCos(angle), TRIG_MAX_ERROR, "cos " + angle);
+
+            MathUtil.fastSinCos(angle, sinCos);
+            assertEquals(MathUtil.fastCos(angle), sinCos.x);
+            assertEquals(MathUtil.fastSin(angle), sinCos.y);
+        }
+    }
+
+    @Test
+    public void fastSinCosSpecialAngles() {
+        float[] angles = {0.0f, (float) Math.PI / 2, (float) Math.PI, -(float) Math.PI / 2, -(float) Math.PI,
+                2 * (float) Math.PI, (float) Math.PI / 6, 100.0f * (float) Math.PI};
+        for (float angle : angles) {
+            assertEquals(Math.sin(angle), MathUtil.fastSin(angle), TRIG_MAX_ERROR);
+            assertEquals(Math.cos(angle), MathUtil.fastCos(angle), TRIG_MAX_ERROR);
+        }
+        assertEquals(0.0f, MathUtil.fastSin(0.0f));
+        assertEquals(1.0f, MathUtil.fastCos(0.0f), 1e-7f);
+    }
+
+    @Test
+    public void fastInvSqrtAccuracy() {
+        Random random = new Random(12);
+        for (int i = 0; i < 200_000; i++) {
+            float value = (float) Math.pow(10.0, random.nextDouble() * 70.0 - 35.0);
+            if (value < Float.MIN_NORMAL || Float.isInfinite(value)) {
+                continue;
+            }
+            double expected = 1.0 / Math.sqrt(value);
+            double relativeError = Math.abs(MathUtil.fastInvSqrt(value) - expected) / expected;
+            assertTrue(relativeError <= INV_SQRT_MAX_RELATIVE_ERROR, "invSqrt " + value + " error " + relativeError);
+        }
+    }
+
+    @Test
+    public void fastQuaternionAndVectorVariants() {
+        Random random = new Random(13);
+        Quaternion exact = new Quaternion();
+        Quaternion fast = new Quaternion();
+        for (int i = 0; i < 10_000; i++) {
+            float pitch = (random.nextFloat() * 2 - 1) * 4;
+            float yaw = (random.nextFloat() * 2 - 1) * 4;
+            float roll = (random.nextFloat() * 2 - 1) * 4;
+
+            assertQuaternionEquals(exact.setEulerYXZ(pitch, yaw, roll), fast.setEulerYXZFast(pitch, yaw, roll));
+            assertQuaternionEquals(exact.setEulerZXY(pitch, yaw, roll), fast.setEulerZXYFast(pitch, yaw, roll));
+            assertQuaternionEquals(exact.setEulerZYX(pitch, yaw, roll), fast.setEulerZYXFast(pitch, yaw, roll));
+
+            Vec3 axis = new Vec3(pitch, yaw, roll).normalize();
+            assertQuaternionEquals(exact.setAxisAngle(axis, pitch), fast.setAxisAngleFast(axis, pitch));
+
+            exact.set(pitch, yaw, roll, 1.0f).normalize();
+            fast.set(pitch, yaw, roll, 1.0f).normalizeFast();
+            assertQuaternionEquals(exact, fast);
+
+            Vec3 v = new Vec3(pitch, yaw, roll).normalizeFast();
+            assertEquals(1.0f, v.length(), 1e-5f);
+        }
+    }
+
+    private static void assertQuaternionEquals(Quaternion expected, Quaternion actual) {
+        assertEquals(expected.x, actual.x, 1e-5f);
+        assertEquals(expected.y, actual.y, 1e-5f);
+        assertEquals(expected.z, actual.z, 1e-5f);
+        assertEquals(expected.w, actual.w, 1e-5f);
+    }
+}
@@ -0,0 +1,105 @@
+package dev.stjepano.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectionTest {
+
+    @Test
+    public void projectPointsMapsToViewport() {
+        // Camera at origin looking down -Z
+        Projection projection = new Projection().setPerspective((float) Math.toRadians(90), 2.0f, 1.0f, 100.0f);
+        float[] positions = {
+                0, 0, -10,      // center
+                -18, -9, -10,   // near lower-left corner
+                0, 0, -2,       // close to near plane
+                0, 0, 10,       // behind camera
+                0, 0, -200,     // beyond far plane
+                30, 0, -10      // right of the frustum
+        };
+        float[] window = new float[12];
+        float[] depth = new float[6];
+        long[] visibleBits = new long[1];
+
+        int visibleCount = projection.projectPoints(new Mat4(), positions, 6, 0, 3, 100, 50, 800, 400,
+                window, depth, visibleBits);
+
+        assertEquals(3, visibleCount);
+        assertEquals(0b000111L, visibleBits[0]);
+        assertEquals(500.0f, window[0], 1e-3f);
+        assertEquals(250.0f, window[1], 1e-3f);
+        assertEquals(140.0f, window[2], 1e-3f);
+        assertEquals(70.0f, window[3], 1e-3f);
+        assertTrue(depth[2] > 0.0f && depth[2] < depth[0] && depth[0] < 1.0f);
+        assertTrue(window[10] > 900.0f);
+    }
+
+    @Test
+    public void projectPointsMatchesMatrixMath() {
+        // Count not multiple of lane count, covers SIMD and scalar tail
+        final int count = 37;
+        final int stride = 5;
+        Random random = new Random(42);
+        float[] positions = new float[count * stride + 1];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = (random.nextFloat() * 2.0f - 1.0f) * 20.0f;
+        }
+        Projection projection = new Projection().setPerspective((float) Math.toRadians(60), 16.0f / 9.0f, 0.1f, 50.0f);
+        Mat4 view = new Mat4();
+        new Transform().setPosition(1, 2, 15).setRotationY(0.2f).toInverseMatrix(view);
+        Mat4 viewProjection = new Mat4().set(projection.matrix()).mul(view);
+
+        float[] window = new float[2 * count];
+        float[] depth = new float[count];
+        long[] visibleBits = {-1L};
+        int visibleCount = projection.projectPoints(view, positions, count, 1, stride, 0, 0, 1920, 1080,
+                window, depth, visibleBits);
+
+        // Row major
+        float[] m = new float[16];
+        viewProjection.toFloatArray(m, 0);
+        int expectedVisible = 0;
+        float[] clip = new float[4];
+        for (int i = 0; i < count; i++) {
+            final int base = 1 + i * stride;
+            for (int r = 0; r < 4; r++) {
+                clip[r] = m[4 * r] * positions[base] + m[4 * r + 1] * positions[base + 1]
+                        + m[4 * r + 2] * positions[base + 2] + m[4 * r + 3];
+            }
+            final float w = clip[3];
+            final boolean visible = w > 0 && Math.abs(clip[0]) <= w && Math.abs(clip[1]) <= w && Math.abs(clip[2]) <= w;
+            assertEquals(visible, (visibleBits[0] & (1L << i)) != 0, "point " + i);
+            if (visible) {
+                expectedVisible++;
+            }
+            if (w > 0) {
+                final float eps = 1e-3f * Math.max(1.0f, Math.abs(window[2 * i]));
+                assertEquals((clip[0] / w + 1.0f) * 960.0f, window[2 * i], eps);
+                assertEquals((clip[1] / w + 1.0f) * 540.0f, window[2 * i + 1], 1e-3f * Math.max(1.0f,
+                        Math.abs(window[2 * i + 1])));
+                assertEquals(clip[2] / w * 0.5f + 0.5f, depth[i], 1e-4f * Math.max(1.0f, Math.abs(depth[i])));
+            }
+        }
+        assertEquals(expectedVisible, visibleCount);
+        // Bits after count are cleared
+        assertEquals(0L, visibleBits[0] >>> count);
+    }
+
+    @Test
+    public void projectPointsRejectsSmallArrays() {
+        Projection projection = new Projection();
+        Mat4 view = new Mat4();
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> projection.projectPoints(view, new float[5], 2, 0, 3, 0, 0, 1, 1, new float[4], new float[2],
+                        new long[1]));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> projection.projectPoints(view, new float[6], 2, 0, 3, 0, 0, 1, 1, new float[3], new float[2],
+                        new long[1]));
+        assertThrows(IllegalArgumentException.class,
+                () -> projection.projectPoints(view, new float[6], 2, 0, 3, 0, 0, 1, 1, new float[4], new float[2],
+                        new long[0]));
+    }
+}
@@ -0,0 +1,135 @@
+package dev.stjepano.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.MemorySegment;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuaternionArraysTest {
+
+    private static final int COUNT = 1001;
+
+    private final float[] a = new float[4 * COUNT];
+    private final float[] b = new float[4 * COUNT];
+    private final float[] t = new float[COUNT];
+
+    QuaternionArraysTest() {
+        Random random = new Random(3);
+        Quaternion q = new Quaternion();
+        for (int i = 0; i < COUNT; i++) {
+            q.setAxisAngle(randomAxis(random), (float) (random.nextFloat() * 2 * Math.PI));
+            q.toFloatArray(a, 4 * i);
+            q.setAxisAngle(randomAxis(random), (float) (random.nextFloat() * 2 * Math.PI));
+            q.toFloatArray(b, 4 * i);
+            t[i] = random.nextFloat();
+        }
+        // Near identical pair, covers linear fallback of slerp
+        System.arraycopy(a, 0, b, 0, 4);
+    }
+
+    @Test
+    void slerpMatchesQuaternionSlerp() {
+        float[] dest = new float[4 * COUNT];
+        QuaternionArrays.slerp(a, b, t, dest, COUNT);
+
+        Quaternion qa = new Quaternion();
+        Quaternion qb = new Quaternion();
+        Quaternion expected = new Quaternion();
+        for (int i = 0; i < COUNT; i++) {
+            Quaternion.fromFloatArray(a, 4 * i, qa);
+            Quaternion.fromFloatArray(b, 4 * i, qb);
+            Quaternion.slerp(qa, qb, t[i], expected);
+            assertEquals(expected.x, dest[4 * i]);
+            assertEquals(expected.y, dest[4 * i + 1]);
+            assertEquals(expected.z, dest[4 * i + 2]);
+            assertEquals(expected.w, dest[4 * i + 3]);
+        }
+    }
+
+    @Test
+    void nlerpAndApproxAccuracy() {
+        float[] exact = new float[4 * COUNT];
+        float[] nlerp = new float[4 * COUNT];
+        float[] approx = new float[4 * COUNT];
+        QuaternionArrays.slerp(a, b, t, exact, COUNT);
+        QuaternionArrays.nlerp(a, b, t, nlerp, COUNT);
+        QuaternionArrays.slerpApprox(a, b, t, approx, COUNT);
+
+        for (int i = 0; i < COUNT; i++) {
+            assertEquals(1.0f, length(nlerp, i), 1e-5f);
+            assertEquals(1.0f, length(approx, i), 1e-5f);
+            assertTrue(angleBetween(exact, nlerp, i) < 0.15, "nlerp error at " + i);
+            assertTrue(angleBetween(exact, approx, i) < 2e-3, "approx error at " + i);
+        }
+    }
+
+    @Test
+    void endpoints() {
+        float[] t0 = new float[COUNT];
+        float[] t1 = new float[COUNT];
+        java.util.Arrays.fill(t1, 1.0f);
+        float[] dest = new float[4 * COUNT];
+
+        QuaternionArrays.slerpApprox(a, b, t0, dest, COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            assertSameRotation(a, dest, i);
+        }
+        QuaternionArrays.slerpApprox(a, b, t1, dest, COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            assertSameRotation(b, dest, i);
+        }
+    }
+
+    @Test
+    void memorySegmentMatchesArray() {
+        float[] expected = new float[4 * COUNT];
+        float[] actual = new float[4 * COUNT];
+        MemorySegment sa = MemorySegment.ofArray(a.clone());
+        MemorySegment sb = MemorySegment.ofArray(b.clone());
+        MemorySegment dest = MemorySegment.ofArray(actual);
+
+        QuaternionArrays.slerp(a, b, t, expected, COUNT);
+        QuaternionArrays.slerp(sa, sb, t, dest, COUNT);
+        assertArrayEquals(expected, actual);
+
+        QuaternionArrays.nlerp(a, b, t, expected, COUNT);
+        QuaternionArrays.nlerp(sa, sb, t, dest, COUNT);
+        assertArrayEquals(expected, actual);
+
+        QuaternionArrays.slerpApprox(a, b, t, expected, COUNT);
+        QuaternionArrays.slerpApprox(sa, sb, t, dest, COUNT);
+        assertArrayEquals(expected, actual);
+    }
+
+    private static Vec3 randomAxis(Random random) {
+        return new Vec3(random.nextFloat() - 0.5f, random.nextFloat() - 0.5f, random.nextFloat() - 0.5f).normalize();
+    }
+
+    private static float length(float[] q, int i) {
+        return (float) Math.sqrt(q[4 * i] * q[4 * i] + q[4 * i + 1] * q[4 * i + 1]
+                + q[4 * i + 2] * q[4 * i + 2] + q[4 * i + 3] * q[4 * i + 3]);
+    }
+
+    /// q and -q represent same rotation.
+    private static void assertSameRotation(float[] expected, float[] actual, int i) {
+        float dot = 0;
+        for (int k = 0; k < 4; k++) {
+            dot += expected[4 * i + k] * actual[4 * i + k];
+        }
+        float sign = dot < 0 ? -1.0f : 1.0f;
+        for (int k = 0; k < 4; k++) {
+            assertEquals(expected[4 * i + k], sign * actual[4 * i + k], 1e-5f);
+        }
+    }
+
+    /// Rotation angle between rotations represented by quaternions.
+    private static double angleBetween(float[] p, float[] q, int i) {
+        double dot = 0;
+        for (int k = 0; k < 4; k++) {
+            dot += p[4 * i + k] * q[4 * i + k];
+        }
+        return 2 * Math.acos(Math.min(1.0, Math.abs(dot)));
+    }
+}
@@ -2,8 +2,10 @@ package dev.stjepano.math;
 
 import org.junit.jupiter.api.Test;
 
+import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.ValueLayout;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -795,4 +797,25 @@ class QuaternionTest {
             assertTrue(matches, "failed for " + original);
         }
     }
+
+    @Test
+    public void bulkMemorySegment() {
+        List<Quaternion> src = List.of(new Quaternion(1, 2, 3, 4), new Quaternion(5, 6, 7, 8));
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment segment = arena.allocate(8 + 2 * MathLayouts.QUATERNION.byteSize());
+            Quaternion.toMemorySegment(src, segment, 8);
+            assertArrayEquals(new float[]{0, 0, 1, 2, 3, 4, 5, 6, 7, 8}, segment.toArray(ValueLayout.JAVA_FLOAT));
+
+            Quaternion[] dest = {new Quaternion(), new Quaternion()};
+            Quaternion.fromMemorySegment(segment, 8, dest, 0, 2);
+            assertEquals(src.get(0), dest[0]);
+            assertEquals(src.get(1), dest[1]);
+
+            List<Quaternion> destList = List.of(new Quaternion());
+            Quaternion.fromMemorySegment(segment, 24, destList);
+            assertEquals(src.get(1), destList.get(0));
+
+            assertThrows(IndexOutOfBoundsException.class, () -> Quaternion.toMemorySegment(dest, 0, segment, 16, 2));
+        }
+    }
 }
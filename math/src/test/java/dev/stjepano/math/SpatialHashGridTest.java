@@ -0,0 +1,164 @@
+package dev.stjepano.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpatialHashGridTest {
+
+    private static final int OFFSET = 2;
+    private static final int STRIDE = 5;
+
+    private static float[] randomPositions(Random random, int count, float extent) {
+        float[] positions = new float[OFFSET + count * STRIDE];
+        for (int i = 0; i < count; i++) {
+            for (int k = 0; k < 3; k++) {
+                positions[OFFSET + i * STRIDE + k] = (random.nextFloat() * 2.0f - 1.0f) * extent;
+            }
+        }
+        return positions;
+    }
+
+    private static int[] bruteForce(float[] positions, int count, float x, float y, float z, float radius) {
+        return IntStream.range(0, count).filter(i -> {
+            int p = OFFSET + i * STRIDE;
+            float dx = positions[p] - x;
+            float dy = positions[p + 1] - y;
+            float dz = positions[p + 2] - z;
+            return dx * dx + dy * dy + dz * dz <= radius * radius;
+        }).toArray();
+    }
+
+    private static int[] query(SpatialHashGrid grid, float x, float y, float z, float radius, int capacity) {
+        int[] dest = new int[capacity];
+        int count = grid.queryRadius(x, y, z, radius, dest);
+        int[] result = Arrays.copyOf(dest, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    @Test
+    public void radiusQueriesMatchBruteForce() {
+        Random random = new Random(3);
+        int count = 5000;
+        float[] positions = randomPositions(random, count, 50.0f);
+        SpatialHashGrid grid = new SpatialHashGrid(2.0f);
+        grid.build(positions, count, OFFSET, STRIDE);
+        assertEquals(count, grid.count());
+        assertEquals(8192, grid.slotCount());
+
+        // Small radii, radius larger than cell and radius covering whole table (wraps around every axis)
+        float[] radii = {0.5f, 2.0f, 7.5f, 200.0f};
+        for (int q = 0; q < 200; q++) {
+            float x = (random.nextFloat() * 2.0f - 1.0f) * 60.0f;
+            float y = (random.nextFloat() * 2.0f - 1.0f) * 60.0f;
+            float z = (random.nextFloat() * 2.0f - 1.0f) * 60.0f;
+            float radius = radii[q % radii.length];
+            int[] expected = bruteForce(positions, count, x, y, z, radius);
+            assertArrayEquals(expected, query(grid, x, y, z, radius, count));
+
+            int[] visited = new int[count];
+            int[] visitedCount = new int[1];
+            grid.forEachNeighbor(new Vec3(x, y, z), radius, (index, distanceSquared) -> {
+                int p = OFFSET + index * STRIDE;
+                float dx = positions[p] - x;
+                float dy = positions[p + 1] - y;
+                float dz = positions[p + 2] - z;
+                assertEquals(dx * dx + dy * dy + dz * dz, distanceSquared, 1e-3f);
+                visited[visitedCount[0]++] = index;
+            });
+            int[] actual = Arrays.copyOf(visited, visitedCount[0]);
+            Arrays.sort(actual);
+            assertArrayEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void hugeRadiusVisitsEveryPoint() {
+        Random random = new Random(5);
+        int count = 1000;
+        float[] positions = randomPositions(random, count, 50.0f);
+        SpatialHashGrid grid = new SpatialHashGrid(2.0f);
+        grid.build(positions, count, OFFSET, STRIDE);
+
+        // Cell of query range ends saturates at int limits
+        float[][] queries = {{0, 0, 0, Float.POSITIVE_INFINITY}, {0, 0, 0, 1e12f}, {3e9f, -3e9f, 1, 1e10f},
+                {1e12f, 0, 0, 1e12f}, {-5e9f, 0, 0, 1.0f}};
+        for (float[] q : queries) {
+            int[] expected = bruteForce(positions, count, q[0], q[1], q[2], q[3]);
+            assertArrayEquals(expected, query(grid, q[0], q[1], q[2], q[3], count));
+            int[] visitedCount = new int[1];
+            grid.forEachNeighbor(q[0], q[1], q[2], q[3], (index, distanceSquared) -> visitedCount[0]++);
+            assertEquals(expected.length, visitedCount[0]);
+        }
+        assertEquals(count, query(grid, 0, 0, 0, Float.POSITIVE_INFINITY, count).length);
+    }
+
+    @Test
+    public void queryStopsWhenDestinationIsFull() {
+        float[] positions = new float[OFFSET + 10 * STRIDE];
+        SpatialHashGrid grid = new SpatialHashGrid(1.0f);
+        grid.build(positions, 10, OFFSET, STRIDE);
+        assertEquals(4, grid.queryRadius(0, 0, 0, 1.0f, new int[4]));
+        assertEquals(10, grid.queryRadius(new Vec3(), 0.0f, new int[20]));
+        assertEquals(0, grid.queryRadius(5, 5, 5, 1.0f, new int[20]));
+    }
+
+    @Test
+    public void rebuildReplacesPoints() {
+        Random random = new Random(4);
+        SpatialHashGrid grid = new SpatialHashGrid(1.0f);
+        float[] positions = randomPositions(random, 1000, 10.0f);
+        grid.build(positions, 1000, OFFSET, STRIDE);
+        float[] fewer = randomPositions(random, 100, 10.0f);
+        grid.build(fewer, 100, OFFSET, STRIDE);
+        assertEquals(100, grid.count());
+        assertArrayEquals(bruteForce(fewer, 100, 1, 2, 3, 4.0f), query(grid, 1, 2, 3, 4.0f, 100));
+
+        grid.build(fewer, 0, OFFSET, STRIDE);
+        assertEquals(0, grid.queryRadius(0, 0, 0, 100.0f, new int[10]));
+    }
+
+    @Test
+    public void parallelBuildMatchesSequential() {
+        Random random = new Random(5);
+        int count = SpatialHashGrid.DEFAULT_PARALLEL_THRESHOLD + 1234;
+        float[] positions = randomPositions(random, count, 100.0f);
+        SpatialHashGrid sequential = new SpatialHashGrid(3.0f);
+        SpatialHashGrid parallel = new SpatialHashGrid(3.0f);
+        sequential.build(positions, count, OFFSET, STRIDE);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            parallel.build(positions, count, OFFSET, STRIDE, pool);
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(sequential.slotCount(), parallel.slotCount());
+        int found = 0;
+        for (int q = 0; q < 100; q++) {
+            float x = (random.nextFloat() * 2.0f - 1.0f) * 100.0f;
+            float y = (random.nextFloat() * 2.0f - 1.0f) * 100.0f;
+            float z = (random.nextFloat() * 2.0f - 1.0f) * 100.0f;
+            int[] expected = query(sequential, x, y, z, 6.0f, count);
+            assertArrayEquals(expected, query(parallel, x, y, z, 6.0f, count));
+            found += expected.length;
+        }
+        assertTrue(found > 0);
+    }
+
+    @Test
+    public void rejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new SpatialHashGrid(0.0f));
+        assertThrows(IllegalArgumentException.class, () -> new SpatialHashGrid(Float.NaN));
+        SpatialHashGrid grid = new SpatialHashGrid(1.0f);
+        assertThrows(IllegalArgumentException.class, () -> grid.build(new float[30], 10, 0, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> grid.build(new float[30], 11, 0, 3));
+        assertThrows(NullPointerException.class, () -> grid.build(new float[30], 10, 0, 3, null));
+        assertThrows(NullPointerException.class, () -> grid.forEachNeighbor(0, 0, 0, 1, null));
+    }
+}
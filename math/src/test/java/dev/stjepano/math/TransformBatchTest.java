@@ -0,0 +1,141 @@
+package dev.stjepano.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+import static dev.stjepano.math.MathUtil.EPSILON6;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransformBatchTest {
+
+    @Test
+    void defaultIsIdentity() {
+        TransformBatch batch = new TransformBatch(3);
+        float[] matrices = new float[3 * 16];
+        batch.toMatrices(matrices, 0);
+
+        float[] identity = new float[16];
+        new Mat4().toFloatArray(identity);
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 16; j++) {
+                assertEquals(identity[j], matrices[16 * i + j]);
+            }
+        }
+    }
+
+    @Test
+    void operationsMatchTransform() {
+        Transform transform = new Transform();
+        TransformBatch batch = new TransformBatch(2);
+        Vec3 axis = new Vec3(1, 2, 3).normalize();
+
+        transform.setPosition(1, 2, 3).setScale(2, 3, 4).setRotation(axis, 0.3f);
+        batch.setPosition(1, 1, 2, 3).setScale(1, 2, 3, 4).setRotation(1, axis, 0.3f);
+
+        transform.translate(0.5f, -1, 2).translateLocal(1, 2, 3).translateLocalBasis(-1, 0.5f, 2);
+        batch.translate(1, 0.5f, -1, 2).translateLocal(1, 1, 2, 3).translateLocalBasis(1, -1, 0.5f, 2);
+
+        transform.rotateX(0.2f).rotateY(-0.4f).rotateZ(0.6f);
+        batch.rotateX(1, 0.2f).rotateY(1, -0.4f).rotateZ(1, 0.6f);
+
+        transform.rotateLocalX(0.7f).rotateLocalY(0.1f).rotateLocalZ(-0.9f).rotateLocalBasisX(0.25f);
+        batch.rotateLocalX(1, 0.7f).rotateLocalY(1, 0.1f).rotateLocalZ(1, -0.9f).rotateLocalBasis(1, new Vec3(1, 0, 0), 0.25f);
+
+        Quaternion q = new Quaternion(new Vec3(-1, 1, 0).normalize(), 0.8f);
+        transform.rotate(q).rotateLocal(q).rotateLocalBasis(q).scaleBy(1.5f, 0.5f, 2.0f);
+        batch.rotate(1, q).rotateLocal(1, q).rotateLocalBasis(1, q).scaleBy(1, 1.5f, 0.5f, 2.0f);
+
+        float[] expected = new float[16];
+        transform.toMatrixFloatArray(expected, 0);
+        float[] matrices = new float[2 * 16 + 1];
+        batch.toMatrices(matrices, 1);
+        for (int i = 0; i < 16; i++) {
+            assertEquals(expected[i], matrices[1 + 16 + i], EPSILON6);
+        }
+
+        Transform copy = new Transform();
+        // Cached identity matrix must be invalidated by get
+        copy.toMatrixFloatArray(new float[16], 0);
+        batch.get(1, copy);
+        assertEquals(transform.position().x, copy.position().x, EPSILON6);
+        assertEquals(transform.rotation().w, copy.rotation().w, EPSILON6);
+        assertEquals(transform.scale().z, copy.scale().z, EPSILON6);
+        float[] copyMatrix = new float[16];
+        copy.toMatrixFloatArray(copyMatrix, 0);
+        assertArrayEquals(expected, copyMatrix, EPSILON6);
+    }
+
+    @Test
+    void toMatricesMemorySegmentMatchesFloatArray() {
+        TransformBatch batch = new TransformBatch(4);
+        for (int i = 0; i < batch.size(); i++) {
+            batch.setPosition(i, i, 2 * i, -i).setScale(i, 1 + i).setRotation(i, new Vec3(0, 1, 0), 0.5f * i);
+        }
+
+        float[] matrices = new float[4 * 16];
+        batch.toMatrices(matrices, 0);
+        float[] segmentData = new float[4 * 16 + 4];
+        MemorySegment segment = MemorySegment.ofArray(segmentData);
+        batch.toMatrices(segment, 16);
+
+        for (int i = 0; i < matrices.length; i++) {
+            assertEquals(matrices[i], segment.get(ValueLayout.JAVA_FLOAT, 16 + 4L * i));
+        }
+
+        Mat4 m = new Mat4();
+        batch.toMatrix(2, m);
+        float[] single = new float[16];
+        m.toFloatArray(single);
+        for (int i = 0; i < 16; i++) {
+            assertEquals(single[i], matrices[32 + i]);
+        }
+    }
+
+    @Test
+    void setCopiesTransform() {
+        Transform transform = new Transform();
+        transform.setPosition(1, 2, 3).setScale(4).setRotationY(1.0f);
+        TransformBatch batch = new TransformBatch(1);
+        batch.set(0, transform);
+
+        Mat4 expected = new Mat4();
+        Mat4 actual = new Mat4();
+        transform.toMatrix(expected);
+        batch.toMatrix(0, actual);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void packedMatricesMatchTransform() {
+        TransformBatch batch = new TransformBatch(3);
+        Transform transform = new Transform();
+        for (int i = 0; i < batch.size(); i++) {
+            transform.setPosition(i, 2 * i, -i).setScale(1 + i).setRotationY(0.3f * i);
+            batch.set(i, transform);
+        }
+
+        float[] matrices = new float[12 * batch.size()];
+        float[] segmentArray = new float[12 * batch.size()];
+        batch.toMatrices3x4(matrices, 0);
+        batch.toMatrices3x4(MemorySegment.ofArray(segmentArray), 0);
+
+        float[] expected = new float[12];
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i, transform);
+            transform.toMatrix3x4FloatArray(expected, 0);
+            for (int k = 0; k < 12; k++) {
+                assertEquals(expected[k], matrices[12 * i + k]);
+                assertEquals(expected[k], segmentArray[12 * i + k]);
+            }
+        }
+    }
+
+    @Test
+    void indexOutOfBounds() {
+        TransformBatch batch = new TransformBatch(2);
+        assertThrows(IndexOutOfBoundsException.class, () -> batch.setPosition(2, 0, 0, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> batch.toMatrices(new float[16], 0));
+    }
+}
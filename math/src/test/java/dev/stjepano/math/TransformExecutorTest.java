@@ -0,0 +1,68 @@
+package dev.stjepano.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransformExecutorTest {
+
+    @Test
+    void testParallelMatchesSequential() {
+        Transform t = new Transform();
+        t.setPosition(-3, 4, 5);
+        t.setScale(2.0f, 0.5f, 3.0f);
+        t.setRotation(new Vec3(1, 2, -1).normalize(), (float) Math.toRadians(40));
+
+        final int count = 100_003;
+        final int stride = 6;
+        float[] expected = randomVertexData(count * stride);
+        float[] actual = expected.clone();
+
+        t.transformPosition(expected, count, 0, stride);
+        t.transformNormal(expected, count, 3, stride);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            TransformExecutor executor = new TransformExecutor(pool, 1000);
+            executor.transformPosition(t, actual, count, 0, stride);
+            executor.transformNormal(t, actual, count, 3, stride);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    void testBelowThresholdMatchesSequential() {
+        Transform t = new Transform();
+        t.setScale(2.0f, 3.0f, 4.0f);
+        t.setRotation(new Vec3(0, 1, 0), (float) Math.toRadians(30));
+
+        final int count = 500;
+        float[] expected = randomVertexData(count * 3);
+        float[] actual = expected.clone();
+
+        t.transformNormalUnnormalized(expected, count, 0, 3);
+        new TransformExecutor().transformNormalUnnormalized(t, actual, count, 0, 3);
+
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    void testInvalidThreshold() {
+        assertThrows(IllegalArgumentException.class, () -> new TransformExecutor(ForkJoinPool.commonPool(), 0));
+    }
+
+    private static float[] randomVertexData(int length) {
+        Random random = new Random(7);
+        float[] data = new float[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = random.nextFloat() * 2.0f - 1.0f;
+        }
+        return data;
+    }
+}
@@ -0,0 +1,120 @@
+package dev.stjepano.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.MemorySegment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransformHierarchyTest {
+
+    private static final float EPSILON = 1e-5f;
+
+    @Test
+    void worldMatrixIsParentTimesLocal() {
+        Transform rootTransform = new Transform().setPosition(1, 2, 3).setScale(2).setRotationY(0.5f);
+        Transform childTransform = new Transform().setPosition(0, 1, 0).setRotationX(0.3f);
+        Transform grandChildTransform = new Transform().setPosition(0, 0, -2).setScale(1, 2, 3);
+
+        TransformHierarchy hierarchy = new TransformHierarchy(4);
+        int root = hierarchy.addNode(-1, rootTransform);
+        int child = hierarchy.addNode(root, childTransform);
+        int grandChild = hierarchy.addNode(child, grandChildTransform);
+        assertEquals(3, hierarchy.update());
+
+        Mat4 expected = new Mat4();
+        Mat4 local = new Mat4();
+        rootTransform.toMatrix(expected);
+        childTransform.toMatrix(local);
+        expected.mul(local);
+        grandChildTransform.toMatrix(local);
+        expected.mul(local);
+
+        Mat4 actual = new Mat4();
+        hierarchy.getWorldMatrix(grandChild, actual);
+        assertMatEquals(expected, actual);
+    }
+
+    @Test
+    void updateRecomputesOnlyDirtySubtree() {
+        TransformHierarchy hierarchy = new TransformHierarchy(5);
+        int root = hierarchy.addNode(-1);
+        int a = hierarchy.addNode(root);
+        int a1 = hierarchy.addNode(a);
+        int b = hierarchy.addNode(root);
+        int b1 = hierarchy.addNode(b);
+        assertEquals(5, hierarchy.update());
+        assertEquals(0, hierarchy.update());
+
+        hierarchy.setLocalPosition(a, 1, 0, 0);
+        assertTrue(hierarchy.isDirty(a));
+        assertEquals(2, hierarchy.update());
+        assertFalse(hierarchy.isDirty(a));
+
+        Mat4 m = new Mat4();
+        hierarchy.getWorldMatrix(a1, m);
+        assertEquals(1.0f, m.m03);
+        hierarchy.getWorldMatrix(b1, m);
+        assertEquals(0.0f, m.m03);
+
+        hierarchy.setLocalScale(root, 2, 2, 2);
+        assertEquals(5, hierarchy.update());
+        hierarchy.getWorldMatrix(a1, m);
+        assertEquals(2.0f, m.m03);
+        assertEquals(2.0f, m.m00);
+    }
+
+    @Test
+    void palettesMatchWorldMatrices() {
+        TransformHierarchy hierarchy = new TransformHierarchy(3);
+        int root = hierarchy.addNode(-1, new Transform().setPosition(1, 2, 3).setRotationZ(0.4f));
+        hierarchy.addNode(root, new Transform().setPosition(3, 2, 1).setScale(2));
+        hierarchy.addNode(-1, new Transform().setPosition(-1, -2, -3));
+        hierarchy.update();
+
+        float[] full = new float[16 * 3];
+        float[] fullSegment = new float[16 * 3];
+        float[] packed = new float[12 * 3];
+        float[] packedSegment = new float[12 * 3];
+        hierarchy.toWorldMatrices(full, 0);
+        hierarchy.toWorldMatrices(MemorySegment.ofArray(fullSegment), 0);
+        hierarchy.toWorldMatrices3x4(packed, 0);
+        hierarchy.toWorldMatrices3x4(MemorySegment.ofArray(packedSegment), 0);
+
+        Mat4 m = new Mat4();
+        float[] expected = new float[16];
+        for (int i = 0; i < hierarchy.size(); i++) {
+            hierarchy.getWorldMatrix(i, m);
+            m.toFloatArray(expected);
+            for (int k = 0; k < 16; k++) {
+                assertEquals(expected[k], full[16 * i + k]);
+                assertEquals(expected[k], fullSegment[16 * i + k]);
+            }
+            for (int k = 0; k < 12; k++) {
+                assertEquals(expected[k], packed[12 * i + k]);
+                assertEquals(expected[k], packedSegment[12 * i + k]);
+            }
+        }
+    }
+
+    @Test
+    void nodesMustBeAddedInDepthFirstOrder() {
+        TransformHierarchy hierarchy = new TransformHierarchy(4);
+        int root = hierarchy.addNode(-1);
+        int a = hierarchy.addNode(root);
+        hierarchy.addNode(root);
+        assertThrows(IllegalArgumentException.class, () -> hierarchy.addNode(a));
+        hierarchy.addNode(-1);
+        assertThrows(IllegalStateException.class, () -> hierarchy.addNode(-1));
+    }
+
+    private static void assertMatEquals(Mat4 expected, Mat4 actual) {
+        float[] e = new float[16];
+        float[] a = new float[16];
+        expected.toFloatArray(e);
+        actual.toFloatArray(a);
+        for (int i = 0; i < 16; i++) {
+            assertEquals(e[i], a[i], EPSILON, "element " + i);
+        }
+    }
+}
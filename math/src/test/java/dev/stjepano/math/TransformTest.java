@@ -2,6 +2,10 @@ package dev.stjepano.math;
 
 import org.junit.jupiter.api.Test;
 
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
 import static dev.stjepano.math.MathUtil.EPSILON6;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -498,4 +502,264 @@ class TransformTest {
         assertEquals(1.0f, normal.y, EPSILON6);
         assertEquals(0.0f, normal.z, EPSILON6);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testTransformPositionArrayMatchesVec3() {
+        // Covers SIMD blocks and scalar tail, packed and interleaved data
+        Transform t = new Transform();
+        t.setPosition(-3, -4, 5);
+        t.setScale(2.0f, 3.0f, 4.0f);
+        t.setRotation(new Vec3(1, 1, 1).normalize(), (float) Math.toRadians(50));
+
+        for (int stride : new int[] {3, 8}) {
+            final int count = 37;
+            final int offset = 2;
+            float[] data = randomVertexData(offset + count * stride);
+            float[] original = data.clone();
+
+            t.transformPosition(data, count, offset, stride);
+
+            for (int i = 0; i < count; i++) {
+                int base = offset + i * stride;
+                Vec3 expected = t.transformPosition(new Vec3(original[base], original[base + 1], original[base + 2]));
+                assertEquals(expected.x, data[base], EPSILON6);
+                assertEquals(expected.y, data[base + 1], EPSILON6);
+                assertEquals(expected.z, data[base + 2], EPSILON6);
+                for (int c = 3; c < stride; c++) {
+                    assertEquals(original[base + c], data[base + c]);  // other attributes untouched
+                }
+            }
+            assertEquals(original[0], data[0]);
+            assertEquals(original[1], data[1]);
+        }
+    }
+
+    @Test
+    void testTransformNormalArrayMatchesVec3() {
+        Transform t = new Transform();
+        t.setScale(2.0f, 0.5f, 4.0f);
+        t.setRotation(new Vec3(-1, 2, 1).normalize(), (float) Math.toRadians(70));
+
+        for (int stride : new int[] {3, 8}) {
+            final int count = 37;
+            final int offset = 3;
+            float[] data = randomVertexData(offset + count * stride);
+            float[] original = data.clone();
+            float[] unnormalized = data.clone();
+
+            t.transformNormal(data, count, offset, stride);
+            t.transformNormalUnnormalized(unnormalized, count, offset, stride);
+
+            for (int i = 0; i < count; i++) {
+                int base = offset + i * stride;
+                Vec3 expected = t.transformNormal(new Vec3(original[base], original[base + 1], original[base + 2]));
+                assertEquals(expected.x, data[base], EPSILON6);
+                assertEquals(expected.y, data[base + 1], EPSILON6);
+                assertEquals(expected.z, data[base + 2], EPSILON6);
+
+                expected = t.transformNormalUnnormalized(new Vec3(original[base], original[base + 1], original[base + 2]));
+                assertEquals(expected.x, unnormalized[base], EPSILON6);
+                assertEquals(expected.y, unnormalized[base + 1], EPSILON6);
+                assertEquals(expected.z, unnormalized[base + 2], EPSILON6);
+                for (int c = 3; c < stride; c++) {
+                    assertEquals(original[base + c], data[base + c]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testTransformSegmentMatchesArray() {
+        Transform t = new Transform();
+        t.setPosition(1, -2, 3);
+        t.setScale(2.0f, 0.5f, 3.0f);
+        t.setRotation(new Vec3(1, -1, 2).normalize(), (float) Math.toRadians(35));
+
+        final int count = 21;
+        final int stride = 8;
+        final int offset = 3;
+        float[] data = randomVertexData(count * stride);
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment segment = arena.allocate(data.length * ValueLayout.JAVA_FLOAT.byteSize());
+            MemorySegment.copy(data, 0, segment, ValueLayout.JAVA_FLOAT, 0, data.length);
+
+            final long byteStride = stride * ValueLayout.JAVA_FLOAT.byteSize();
+            final long normalByteOffset = offset * ValueLayout.JAVA_FLOAT.byteSize();
+            t.transformPosition(segment, 0, count, byteStride);
+            t.transformNormal(segment, normalByteOffset, count, byteStride);
+            t.transformPosition(data, count, 0, stride);
+            t.transformNormal(data, count, offset, stride);
+
+            for (int i = 0; i < data.length; i++) {
+                assertEquals(data[i], segment.get(ValueLayout.JAVA_FLOAT, i * ValueLayout.JAVA_FLOAT.byteSize()), EPSILON6);
+            }
+
+            float[] unnormalized = randomVertexData(count * stride);
+            MemorySegment.copy(unnormalized, 0, segment, ValueLayout.JAVA_FLOAT, 0, unnormalized.length);
+            t.transformNormalUnnormalized(segment, normalByteOffset, count, byteStride);
+            t.transformNormalUnnormalized(unnormalized, count, offset, stride);
+            for (int i = 0; i < unnormalized.length; i++) {
+                assertEquals(unnormalized[i], segment.get(ValueLayout.JAVA_FLOAT, i * ValueLayout.JAVA_FLOAT.byteSize()), EPSILON6);
+            }
+        }
+    }
+
+    @Test
+    void testPackedMatrix3x4MatchesMatrix() {
+        Transform t = new Transform();
+        t.setPosition(1, -2, 3);
+        t.setScale(2.0f, 0.5f, 3.0f);
+        t.setRotation(new Vec3(1, -1, 2).normalize(), (float) Math.toRadians(35));
+
+        float[] full = new float[16];
+        float[] packed = new float[13];
+        float[] segmentArray = new float[12];
+        MemorySegment segment = MemorySegment.ofArray(segmentArray);
+
+        t.toMatrixFloatArray(full, 0);
+        t.toMatrix3x4FloatArray(packed, 1);
+        t.toMatrix3x4MemorySegment(segment, 0);
+        for (int i = 0; i < 12; i++) {
+            assertEquals(full[i], packed[1 + i]);
+            assertEquals(full[i], segmentArray[i]);
+        }
+
+        t.toInverseMatrixFloatArray(full, 0);
+        t.toInverseMatrix3x4FloatArray(packed, 1);
+        t.toInverseMatrix3x4MemorySegment(segment, 0);
+        for (int i = 0; i < 12; i++) {
+            assertEquals(full[i], packed[1 + i]);
+            assertEquals(full[i], segmentArray[i]);
+        }
+    }
+
+    @Test
+    void testVersionAndCachedMatrices() {
+        Transform t = new Transform();
+        Mat4 m = new Mat4();
+        Mat4 inv = new Mat4();
+
+        // Identity cache is valid before any modification
+        t.toMatrix(m);
+        assertEquals(new Mat4(), m);
+
+        int version = t.version();
+        t.setPosition(1, 2, 3);
+        assertNotEquals(version, t.version());
+        t.toMatrix(m);
+        assertEquals(1.0f, m.m03);
+        assertEquals(3.0f, m.m23);
+
+        version = t.version();
+        t.toMatrix(m);
+        t.toInverseMatrix(inv);
+        assertEquals(version, t.version());  // reading does not modify
+        assertEquals(-2.0f, inv.m13, EPSILON6);
+
+        t.scaleBy(2.0f);
+        t.toMatrix(m);
+        t.toInverseMatrix(inv);
+        assertEquals(2.0f, m.m00);
+        assertEquals(0.5f, inv.m00, EPSILON6);
+
+        // Direct modification requires markChanged
+        t.position().x = 5.0f;
+        t.markChanged();
+        t.toMatrix(m);
+        assertEquals(5.0f, m.m03);
+
+        t.rotateY((float) Math.toRadians(90));
+        float[] array = new float[16];
+        t.toMatrixFloatArray(array, 0);
+        Mat4 expected = new Mat4();
+        t.toMatrix(expected);
+        Mat4 actual = new Mat4();
+        Mat4.fromFloatArray(array, 0, actual);
+        assertEquals(expected, actual);
+        assertEquals(0.0f, actual.m00, EPSILON6);
+        assertEquals(2.0f, actual.m02, EPSILON6);
+    }
+
+    private static float[] randomVertexData(int length) {
+        java.util.Random random = new java.util.Random(42);
+        float[] data = new float[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = random.nextFloat() * 2.0f - 1.0f;
+        }
+        return data;
+    }
+
+    @Test
+    public void testTransformAabbContainsTransformedCorners() {
+        Transform t = new Transform().setPosition(1, -2, 3).setRotationEulerYXZ(0.4f, 1.1f, -0.3f).setScale(2, 0.5f, -1.5f);
+        Vec3 min = new Vec3(-1, 0, 2);
+        Vec3 max = new Vec3(3, 1, 5);
+        Vec3 destMin = new Vec3();
+        Vec3 destMax = new Vec3();
+        t.transformAabb(min, max, destMin, destMax);
+
+        // Arvo's method gives exact box of transformed corners
+        Vec3 expectedMin = new Vec3(Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE);
+        Vec3 expectedMax = new Vec3(-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE);
+        for (int corner = 0; corner < 8; corner++) {
+            Vec3 p = new Vec3((corner & 1) == 0 ? min.x : max.x, (corner & 2) == 0 ? min.y : max.y,
+                    (corner & 4) == 0 ? min.z : max.z);
+            t.transformPosition(p);
+            expectedMin.set(Math.min(expectedMin.x, p.x), Math.min(expectedMin.y, p.y), Math.min(expectedMin.z, p.z));
+            expectedMax.set(Math.max(expectedMax.x, p.x), Math.max(expectedMax.y, p.y), Math.max(expectedMax.z, p.z));
+        }
+        assertEquals(expectedMin.x, destMin.x, 1e-4f);
+        assertEquals(expectedMin.y, destMin.y, 1e-4f);
+        assertEquals(expectedMin.z, destMin.z, 1e-4f);
+        assertEquals(expectedMax.x, destMax.x, 1e-4f);
+        assertEquals(expectedMax.y, destMax.y, 1e-4f);
+        assertEquals(expectedMax.z, destMax.z, 1e-4f);
+
+        // In place
+        t.transformAabb(min, max, min, max);
+        assertEquals(destMin, min);
+        assertEquals(destMax, max);
+    }
+
+    @Test
+    public void testTransformSphere() {
+        Transform t = new Transform().setPosition(1, 2, 3).setRotationY(0.7f).setScale(1, -3, 2);
+        Vec3 center = new Vec3(1, 0, 0);
+        Vec3 destCenter = new Vec3();
+        float radius = t.transformSphere(center, 2.0f, destCenter);
+        assertEquals(6.0f, radius, EPSILON6);
+        Vec3 expected = t.transformPosition(new Vec3(1, 0, 0));
+        assertEquals(expected.x, destCenter.x, EPSILON6);
+        assertEquals(expected.y, destCenter.y, EPSILON6);
+        assertEquals(expected.z, destCenter.z, EPSILON6);
+    }
+
+    @Test
+    public void testLookAt() {
+        Transform t = new Transform().setPosition(1, 2, 3);
+        Vec3 target = new Vec3(4, -2, 8);
+        t.lookAt(target, new Vec3(0, 1, 0));
+
+        Vec3 expectedForward = new Vec3().set(target).sub(t.position()).normalize();
+        Vec3 forward = t.getForwardVector(new Vec3());
+        assertEquals(expectedForward.x, forward.x, EPSILON6);
+        assertEquals(expectedForward.y, forward.y, EPSILON6);
+        assertEquals(expectedForward.z, forward.z, EPSILON6);
+
+        // Right vector stays horizontal, up vector points up
+        Vec3 right = t.getRightVector(new Vec3());
+        Vec3 up = t.getUpVector(new Vec3());
+        assertEquals(0.0f, right.y, EPSILON6);
+        assertTrue(up.y > 0.0f);
+        assertEquals(0.0f, right.dot(forward), EPSILON6);
+        assertEquals(0.0f, up.dot(forward), EPSILON6);
+
+        // Looking straight up falls back to other up axis
+        t.lookAt(new Vec3(1, 10, 3), new Vec3(0, 1, 0));
+        t.getForwardVector(forward);
+        assertEquals(0.0f, forward.x, EPSILON6);
+        assertEquals(1.0f, forward.y, EPSILON6);
+        assertEquals(0.0f, forward.z, EPSILON6);
+        assertEquals(1.0f, t.getRightVector(right).length(), EPSILON6);
+    }
+}
@@ -2,11 +2,15 @@ package dev.stjepano.math;
 
 import org.junit.jupiter.api.Test;
 
+import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class Vec3Test {
 
@@ -225,4 +229,53 @@ class Vec3Test {
         assertEquals(8.0f, vec.y, EPSILON);
         assertEquals(9.0f, vec.z, EPSILON);
     }
+
+    @Test
+    public void bulkMemorySegmentPacked() {
+        Vec3[] src = new Vec3[5];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = new Vec3(i, 10 + i, 20 + i);
+        }
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment segment = arena.allocate(4 + 3 * MathLayouts.VEC3.byteSize());
+            Vec3.toMemorySegment(src, 1, segment, 4, 3);
+            assertArrayEquals(new float[]{0, 1, 11, 21, 2, 12, 22, 3, 13, 23}, segment.toArray(ValueLayout.JAVA_FLOAT));
+
+            Vec3[] dest = {new Vec3(), new Vec3(), new Vec3()};
+            Vec3.fromMemorySegment(segment, 4, dest, 0, 3);
+            for (int i = 0; i < dest.length; i++) {
+                assertEquals(src[i + 1], dest[i]);
+            }
+
+            List<Vec3> list = List.of(new Vec3(), new Vec3());
+            Vec3.fromMemorySegment(segment, 4 + MathLayouts.VEC3.byteSize(), list);
+            assertEquals(src[2], list.get(0));
+            assertEquals(src[3], list.get(1));
+
+            assertThrows(IndexOutOfBoundsException.class, () -> Vec3.toMemorySegment(src, 0, segment, 8, 3));
+            assertThrows(IndexOutOfBoundsException.class, () -> Vec3.toMemorySegment(src, 3, segment, 0, 3));
+        }
+    }
+
+    @Test
+    public void bulkMemorySegmentStd140() {
+        List<Vec3> src = List.of(new Vec3(1, 2, 3), new Vec3(4, 5, 6));
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment segment = arena.allocate(2 * MathLayouts.VEC3_STD140.byteSize());
+            segment.fill((byte) 0x7f);
+            Vec3.toMemorySegmentStd140(src, segment, 0);
+            float[] floats = segment.toArray(ValueLayout.JAVA_FLOAT);
+            assertEquals(8, floats.length);
+            assertArrayEquals(new float[]{1, 2, 3}, Arrays.copyOfRange(floats, 0, 3));
+            assertArrayEquals(new float[]{4, 5, 6}, Arrays.copyOfRange(floats, 4, 7));
+            // padding is not written
+            assertEquals(0x7f7f7f7f, segment.get(ValueLayout.JAVA_INT, 12));
+            assertEquals(0x7f7f7f7f, segment.get(ValueLayout.JAVA_INT, 28));
+
+            Vec3[] dest = {new Vec3(), new Vec3()};
+            Vec3.fromMemorySegmentStd430(segment, 0, dest, 0, 2);
+            assertEquals(src.get(0), dest[0]);
+            assertEquals(src.get(1), dest[1]);
+        }
+    }
 }
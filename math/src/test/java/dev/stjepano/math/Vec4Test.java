@@ -2,8 +2,10 @@ package dev.stjepano.math;
 
 import org.junit.jupiter.api.Test;
 
+  import java.lang.foreign.Arena;
   import java.lang.foreign.MemorySegment;
   import java.lang.foreign.ValueLayout;
+  import java.util.List;
 
   import static org.junit.jupiter.api.Assertions.*;
 
@@ -204,4 +206,25 @@ import org.junit.jupiter.api.Test;
           assertEquals(3.0f, destV.z);
           assertEquals(4.0f, destV.w);
       }
-  }
+  
+
+      @Test
+      public void bulkMemorySegment() {
+          Vec4[] src = {new Vec4(1, 2, 3, 4), new Vec4(5, 6, 7, 8), new Vec4(9, 10, 11, 12)};
+          try (Arena arena = Arena.ofConfined()) {
+              MemorySegment segment = arena.allocate(3 * MathLayouts.VEC4.byteSize());
+              Vec4.toMemorySegment(src, 1, segment, 0, 2);
+              Vec4.toMemorySegment(List.of(src[0]), segment, 2 * MathLayouts.VEC4.byteSize());
+              assertArrayEquals(new float[]{5, 6, 7, 8, 9, 10, 11, 12, 1, 2, 3, 4}, segment.toArray(ValueLayout.JAVA_FLOAT));
+
+              Vec4[] dest = {new Vec4(), new Vec4(), new Vec4(), new Vec4()};
+              Vec4.fromMemorySegment(segment, 0, dest, 1, 3);
+              assertEquals(new Vec4(), dest[0]);
+              assertEquals(src[1], dest[1]);
+              assertEquals(src[2], dest[2]);
+              assertEquals(src[0], dest[3]);
+
+              assertThrows(IndexOutOfBoundsException.class, () -> Vec4.fromMemorySegment(segment, 16, dest, 0, 3));
+          }
+      }
+}
@@ -0,0 +1,147 @@
+package dev.stjepano.math.animation;
+
+import dev.stjepano.math.Mat4;
+import dev.stjepano.math.Quaternion;
+import dev.stjepano.math.Transform;
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.MemorySegment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnimationSamplerTest {
+
+    private static final float EPS = 1e-4f;
+
+    @Test
+    void samplesKeysAndInterpolates() {
+        Skeleton skeleton = new Skeleton(new int[] {-1}, new Transform[] {new Transform()}, null);
+        KeyframeTrack translation = KeyframeTrack.ofVec3(
+                new float[] {0.0f, 1.0f, 2.0f},
+                new float[] {0, 0, 0, 2, 0, 0, 2, 4, 0});
+        AnimationClip clip = new AnimationClip(2.0f,
+                new KeyframeTrack[] {translation}, new KeyframeTrack[1], new KeyframeTrack[1]);
+        AnimationSampler sampler = new AnimationSampler(skeleton);
+        Mat4 m = new Mat4();
+
+        sampler.sample(clip, 1.0f, false);
+        sampler.getModelMatrix(0, m);
+        assertEquals(2.0f, m.m03, EPS);
+        assertEquals(0.0f, m.m13, EPS);
+
+        sampler.sample(clip, 0.5f, false);
+        sampler.getModelMatrix(0, m);
+        assertEquals(1.0f, m.m03, EPS);
+
+        sampler.sample(clip, 1.5f, false);
+        sampler.getModelMatrix(0, m);
+        assertEquals(2.0f, m.m03, EPS);
+        assertEquals(2.0f, m.m13, EPS);
+
+        // Clamped after end
+        sampler.sample(clip, 5.0f, false);
+        sampler.getModelMatrix(0, m);
+        assertEquals(4.0f, m.m13, EPS);
+
+        // Looping wraps back to start, cursor must rewind
+        sampler.sample(clip, 2.5f, true);
+        sampler.getModelMatrix(0, m);
+        assertEquals(1.0f, m.m03, EPS);
+        assertEquals(0.0f, m.m13, EPS);
+    }
+
+    @Test
+    void rotationIsInterpolated() {
+        Skeleton skeleton = new Skeleton(new int[] {-1}, new Transform[] {new Transform()}, null);
+        float[] rotations = new float[8];
+        new Quaternion().toFloatArray(rotations, 0);
+        new Quaternion().setRotationY((float) Math.PI / 2).toFloatArray(rotations, 4);
+        AnimationClip clip = new AnimationClip(1.0f, new KeyframeTrack[1],
+                new KeyframeTrack[] {KeyframeTrack.ofQuaternion(new float[] {0.0f, 1.0f}, rotations)},
+                new KeyframeTrack[1]);
+        AnimationSampler sampler = new AnimationSampler(skeleton);
+
+        sampler.sample(clip, 0.5f, false);
+        Mat4 actual = new Mat4();
+        sampler.getModelMatrix(0, actual);
+        Mat4 expected = new Mat4();
+        new Transform().setRotationY((float) Math.PI / 4).toMatrix(expected);
+        assertMatEquals(expected, actual, 1e-3f);
+    }
+
+    @Test
+    void composesHierarchyAndWritesPalette() {
+        Transform rootRest = new Transform().setPosition(1, 2, 3).setRotationZ(0.3f);
+        Transform childRest = new Transform().setPosition(0, 1, 0).setScale(2.0f);
+        Mat4 rootInverseBind = new Mat4();
+        rootRest.toInverseMatrix(rootInverseBind);
+        Mat4 childInverseBind = new Mat4().setColumn(3, 0, -1, 0, 1);
+        Skeleton skeleton = new Skeleton(new int[] {-1, 0}, new Transform[] {rootRest, childRest},
+                new Mat4[] {rootInverseBind, childInverseBind});
+
+        float[] times = {0.0f, 1.0f};
+        float[] rotations = new float[8];
+        new Quaternion().setRotationX(0.0f).toFloatArray(rotations, 0);
+        new Quaternion().setRotationX(1.0f).toFloatArray(rotations, 4);
+        AnimationClip clip = new AnimationClip(1.0f,
+                new KeyframeTrack[] {null, KeyframeTrack.ofVec3(times, new float[] {0, 1, 0, 0, 3, 0})},
+                new KeyframeTrack[] {null, KeyframeTrack.ofQuaternion(times, rotations)},
+                new KeyframeTrack[2]);
+        AnimationSampler sampler = new AnimationSampler(skeleton);
+        sampler.sample(clip, 1.0f, false);
+
+        Mat4 rootModel = new Mat4();
+        rootRest.toMatrix(rootModel);
+        Mat4 childLocal = new Mat4();
+        new Transform().setPosition(0, 3, 0).setRotationX(1.0f).setScale(2.0f).toMatrix(childLocal);
+        Mat4 childModel = new Mat4().set(rootModel).mul(childLocal);
+
+        Mat4 actual = new Mat4();
+        sampler.getModelMatrix(1, actual);
+        assertMatEquals(childModel, actual, EPS);
+
+        Mat4 expectedSkin = new Mat4().set(childModel).mul(childInverseBind);
+        sampler.getSkinningMatrix(1, actual);
+        assertMatEquals(expectedSkin, actual, EPS);
+
+        // Root is at rest pose so skinning matrix is identity
+        sampler.getSkinningMatrix(0, actual);
+        assertMatEquals(new Mat4(), actual, EPS);
+
+        float[] palette = new float[32];
+        sampler.writePalette(MemorySegment.ofArray(palette), 0);
+        Mat4.fromFloatArray(palette, 16, actual);
+        assertMatEquals(expectedSkin, actual, EPS);
+
+        float[] palette3x4 = new float[24];
+        sampler.writePalette3x4(MemorySegment.ofArray(palette3x4), 0);
+        Mat4.fromFloatArray3x4(palette3x4, 12, actual);
+        assertMatEquals(expectedSkin, actual, EPS);
+    }
+
+    @Test
+    void rejectsClipWithDifferentJointCount() {
+        Skeleton skeleton = new Skeleton(new int[] {-1, 0}, new Transform[] {new Transform(), new Transform()}, null);
+        AnimationClip clip = new AnimationClip(1.0f, new KeyframeTrack[1], new KeyframeTrack[1], new KeyframeTrack[1]);
+        AnimationSampler sampler = new AnimationSampler(skeleton);
+        assertThrows(IllegalArgumentException.class, () -> sampler.sample(clip, 0.0f, false));
+    }
+
+    @Test
+    void skeletonRejectsInvalidParents() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new Skeleton(new int[] {-1, 1}, new Transform[] {new Transform(), new Transform()}, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> KeyframeTrack.ofVec3(new float[] {1.0f, 0.0f}, new float[6]));
+    }
+
+    private static void assertMatEquals(Mat4 expected, Mat4 actual, float eps) {
+        float[] e = new float[16];
+        float[] a = new float[16];
+        expected.toFloatArray(e, 0);
+        actual.toFloatArray(a, 0);
+        for (int i = 0; i < 16; i++) {
+            assertEquals(e[i], a[i], eps, "element " + i);
+        }
+    }
+}
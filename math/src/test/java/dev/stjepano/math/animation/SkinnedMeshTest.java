@@ -0,0 +1,288 @@
+package dev.stjepano.math.animation;
+
+import dev.stjepano.math.Mat4;
+import dev.stjepano.math.Transform;
+import dev.stjepano.math.Vec3;
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SkinnedMeshTest {
+
+    private static final float EPS = 1e-4f;
+    private static final int STRIDE = 8;
+    private static final int NORMAL_OFFSET = 3;
+
+    @Test
+    void singleJointMatchesTransform() {
+        // Vertex count not multiple of lane count, covers SIMD and scalar tail
+        final int count = 37;
+        float[] vertexData = randomVertices(new Random(1), count);
+        SkinnedMesh mesh = new SkinnedMesh(vertexData, count, STRIDE, NORMAL_OFFSET, new int[4 * count],
+                singleWeights(count));
+        Transform transform = new Transform().setPosition(1, -2, 3).setRotationY(0.7f).setRotationX(0.3f)
+                .setScale(1.5f);
+        float[] palette = new float[12];
+        Mat4 matrix = new Mat4();
+        transform.toMatrix(matrix);
+        matrix.toFloatArray3x4(palette, 0);
+
+        float[] linear = new float[count * STRIDE];
+        mesh.skinLinear(palette, linear);
+
+        float[] dualQuaternions = new float[8];
+        SkinnedMesh.toDualQuaternions(palette, 0, dualQuaternions, 0, 1);
+        float[] dual = new float[count * STRIDE];
+        mesh.skinDualQuaternion(dualQuaternions, dual);
+
+        // Scale is discarded by dual quaternions
+        Transform rigid = new Transform().setPosition(1, -2, 3).setRotationY(0.7f).setRotationX(0.3f);
+        Vec3 v = new Vec3();
+        for (int i = 0; i < count; i++) {
+            final int base = i * STRIDE;
+            v.set(vertexData[base], vertexData[base + 1], vertexData[base + 2]);
+            transform.transformPosition(v);
+            assertVec3Equals(v, linear, base);
+
+            v.set(vertexData[base], vertexData[base + 1], vertexData[base + 2]);
+            rigid.transformPosition(v);
+            assertVec3Equals(v, dual, base);
+
+            final int n = base + NORMAL_OFFSET;
+            v.set(vertexData[n], vertexData[n + 1], vertexData[n + 2]);
+            transform.transformNormal(v).normalize();
+            assertVec3Equals(v, linear, n);
+            assertVec3Equals(v, dual, n);
+
+            // Other attributes are not written
+            assertEquals(0.0f, linear[base + 6]);
+            assertEquals(0.0f, dual[base + 7]);
+        }
+    }
+
+    @Test
+    void blendsJointsLikeReference() {
+        final int count = 41;
+        Random random = new Random(2);
+        float[] vertexData = randomVertices(random, count);
+        int[] jointIndices = new int[4 * count];
+        float[] jointWeights = new float[4 * count];
+        randomInfluences(random, 3, jointIndices, jointWeights);
+        SkinnedMesh mesh = new SkinnedMesh(vertexData, count, STRIDE, NORMAL_OFFSET, jointIndices, jointWeights);
+        assertTrue(mesh.jointCount() <= 3);
+
+        Mat4[] matrices = {new Mat4(), new Mat4(), new Mat4()};
+        new Transform().setPosition(1, 0, 0).setRotationZ(0.5f).toMatrix(matrices[0]);
+        new Transform().setPosition(0, 2, 0).setRotationX(-1.0f).toMatrix(matrices[1]);
+        new Transform().setPosition(0, 0, 3).setRotationY(2.5f).toMatrix(matrices[2]);
+        float[] palette = new float[36];
+        for (int j = 0; j < 3; j++) {
+            matrices[j].toFloatArray3x4(palette, 12 * j);
+        }
+        float[] dualPalette = new float[24];
+        SkinnedMesh.toDualQuaternions(palette, 0, dualPalette, 0, 3);
+
+        float[] linear = new float[count * STRIDE];
+        mesh.skinLinear(palette, linear);
+        float[] dual = new float[count * STRIDE];
+        mesh.skinDualQuaternion(dualPalette, dual);
+
+        for (int i = 0; i < count; i++) {
+            final int base = i * STRIDE;
+            // Reference LBS: blended matrix applied to position
+            float x = 0;
+            float y = 0;
+            float z = 0;
+            for (int k = 0; k < 4; k++) {
+                final float w = jointWeights[4 * i + k];
+                final int p = 12 * jointIndices[4 * i + k];
+                x += w * (palette[p] * vertexData[base] + palette[p + 1] * vertexData[base + 1]
+                        + palette[p + 2] * vertexData[base + 2] + palette[p + 3]);
+                y += w * (palette[p + 4] * vertexData[base] + palette[p + 5] * vertexData[base + 1]
+                        + palette[p + 6] * vertexData[base + 2] + palette[p + 7]);
+                z += w * (palette[p + 8] * vertexData[base] + palette[p + 9] * vertexData[base + 1]
+                        + palette[p + 10] * vertexData[base + 2] + palette[p + 11]);
+            }
+            assertVec3Equals(new Vec3(x, y, z), linear, base);
+
+            // Skinned normals are unit length
+            final int n = base + NORMAL_OFFSET;
+            assertEquals(1.0f, new Vec3(dual[n], dual[n + 1], dual[n + 2]).length(), EPS);
+            assertEquals(1.0f, new Vec3(linear[n], linear[n + 1], linear[n + 2]).length(), EPS);
+        }
+    }
+
+    @Test
+    void dualQuaternionsRoundTrip() {
+        Mat4 matrix = new Mat4();
+        new Transform().setPosition(4, 5, -6).setRotationX(2.0f).setRotationZ(-2.9f).setScale(3.0f).toMatrix(matrix);
+        float[] palette = new float[12];
+        matrix.toFloatArray3x4(palette, 0);
+        float[] dq = new float[10];
+        SkinnedMesh.toDualQuaternions(palette, 0, dq, 2, 1);
+
+        // Unit real part, real and dual part orthogonal
+        assertEquals(1.0f, dq[2] * dq[2] + dq[3] * dq[3] + dq[4] * dq[4] + dq[5] * dq[5], EPS);
+        assertEquals(0.0f, dq[2] * dq[6] + dq[3] * dq[7] + dq[4] * dq[8] + dq[5] * dq[9], EPS);
+
+        // Translation is recovered
+        SkinnedMesh mesh = new SkinnedMesh(new float[3], 1, 3, -1, new int[4], new float[] {1, 0, 0, 0});
+        float[] dest = new float[3];
+        mesh.skinDualQuaternion(new float[] {dq[2], dq[3], dq[4], dq[5], dq[6], dq[7], dq[8], dq[9]}, dest);
+        assertVec3Equals(new Vec3(4, 5, -6), dest, 0);
+    }
+
+    @Test
+    void oppositeHemisphereIsBlendedAsSameRotation() {
+        float[] vertexData = {1, 0, 0};
+        SkinnedMesh mesh = new SkinnedMesh(vertexData, 1, 3, -1, new int[] {0, 1, 0, 0},
+                new float[] {0.5f, 0.5f, 0, 0});
+        Mat4 matrix = new Mat4();
+        new Transform().setRotationZ(0.8f).toMatrix(matrix);
+        float[] palette = new float[12];
+        matrix.toFloatArray3x4(palette, 0);
+        float[] dq = new float[16];
+        SkinnedMesh.toDualQuaternions(palette, 0, dq, 0, 1);
+        for (int i = 0; i < 8; i++) {
+            dq[8 + i] = -dq[i];
+        }
+        float[] dest = new float[3];
+        mesh.skinDualQuaternion(dq, dest);
+        assertVec3Equals(new Vec3((float) Math.cos(0.8), (float) Math.sin(0.8), 0), dest, 0);
+    }
+
+    @Test
+    void parallelAndSegmentMatchSequential() {
+        final int count = SkinnedMesh.PARALLEL_THRESHOLD * 2 + 5;
+        Random random = new Random(3);
+        float[] vertexData = randomVertices(random, count);
+        int[] jointIndices = new int[4 * count];
+        float[] jointWeights = new float[4 * count];
+        randomInfluences(random, 4, jointIndices, jointWeights);
+        SkinnedMesh mesh = new SkinnedMesh(vertexData, count, STRIDE, NORMAL_OFFSET, jointIndices, jointWeights);
+        float[] palette = new float[48];
+        Mat4 matrix = new Mat4();
+        for (int j = 0; j < 4; j++) {
+            new Transform().setPosition(j, -j, 0).setRotationY(0.4f * j).setScale(1.0f + j).toMatrix(matrix);
+            matrix.toFloatArray3x4(palette, 12 * j);
+        }
+        float[] dualPalette = new float[32];
+        SkinnedMesh.toDualQuaternions(palette, 0, dualPalette, 0, 4);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        // Pool threads write the segment, confined segments are accessible only from the owner thread
+        try (Arena arena = Arena.ofShared()) {
+            final long byteOffset = 16;
+            MemorySegment segment = arena.allocate(byteOffset + (long) Float.BYTES * STRIDE * count);
+
+            float[] expected = new float[count * STRIDE];
+            float[] actual = new float[count * STRIDE];
+            mesh.skinLinear(palette, expected);
+            mesh.skinLinear(palette, actual, pool);
+            assertArrayEquals(expected, actual);
+            mesh.skinLinear(palette, segment, byteOffset, pool);
+            assertArrayEquals(expected, segment.asSlice(byteOffset).toArray(ValueLayout.JAVA_FLOAT));
+
+            mesh.skinDualQuaternion(dualPalette, expected);
+            mesh.skinDualQuaternion(dualPalette, actual, pool);
+            assertArrayEquals(expected, actual);
+            mesh.skinDualQuaternion(dualPalette, segment, byteOffset);
+            assertArrayEquals(expected, segment.asSlice(byteOffset).toArray(ValueLayout.JAVA_FLOAT));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void samplerWritesPalettes() {
+        Transform rest = new Transform().setPosition(0, 1, 0);
+        Mat4 inverseBind = new Mat4();
+        rest.toInverseMatrix(inverseBind);
+        Skeleton skeleton = new Skeleton(new int[] {-1}, new Transform[] {rest}, new Mat4[] {inverseBind});
+        AnimationSampler sampler = new AnimationSampler(skeleton);
+
+        // Rest pose, skinning matrix is identity
+        float[] palette = new float[14];
+        sampler.writePalette3x4(palette, 2);
+        Mat4 actual = new Mat4();
+        Mat4.fromFloatArray3x4(palette, 2, actual);
+        Mat4 expected = new Mat4();
+        float[] e = new float[16];
+        float[] a = new float[16];
+        expected.toFloatArray(e, 0);
+        actual.toFloatArray(a, 0);
+        assertArrayEquals(e, a, EPS);
+
+        float[] dq = new float[8];
+        sampler.writeDualQuaternionPalette(dq, 0);
+        assertArrayEquals(new float[] {0, 0, 0, 1, 0, 0, 0, 0}, dq, EPS);
+        assertThrows(IndexOutOfBoundsException.class, () -> sampler.writeDualQuaternionPalette(dq, 1));
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertThrows(NullPointerException.class,
+                () -> new SkinnedMesh(null, 0, 3, -1, new int[0], new float[0]));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SkinnedMesh(new float[6], 1, 6, 4, new int[4], new float[4]));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SkinnedMesh(new float[3], 1, 3, -1, new int[] {0, -1, 0, 0}, new float[4]));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> new SkinnedMesh(new float[3], 1, 3, -1, new int[3], new float[4]));
+
+        SkinnedMesh mesh = new SkinnedMesh(new float[3], 1, 3, -1, new int[] {0, 2, 0, 0}, new float[4]);
+        assertEquals(3, mesh.jointCount());
+        assertThrows(IndexOutOfBoundsException.class, () -> mesh.skinLinear(new float[24], new float[3]));
+        assertThrows(IndexOutOfBoundsException.class, () -> mesh.skinDualQuaternion(new float[24], new float[2]));
+    }
+
+    private static float[] randomVertices(Random random, int count) {
+        float[] result = new float[count * STRIDE];
+        Vec3 normal = new Vec3();
+        for (int i = 0; i < count; i++) {
+            final int base = i * STRIDE;
+            result[base] = random.nextFloat() * 4.0f - 2.0f;
+            result[base + 1] = random.nextFloat() * 4.0f - 2.0f;
+            result[base + 2] = random.nextFloat() * 4.0f - 2.0f;
+            normal.set(random.nextFloat() - 0.5f, random.nextFloat() - 0.5f, random.nextFloat() + 0.1f).normalize();
+            result[base + 3] = normal.x;
+            result[base + 4] = normal.y;
+            result[base + 5] = normal.z;
+        }
+        return result;
+    }
+
+    private static float[] singleWeights(int count) {
+        float[] result = new float[4 * count];
+        for (int i = 0; i < count; i++) {
+            result[4 * i] = 1.0f;
+        }
+        return result;
+    }
+
+    private static void randomInfluences(Random random, int jointCount, int[] jointIndices, float[] jointWeights) {
+        for (int i = 0; i < jointIndices.length; i += 4) {
+            float sum = 0;
+            for (int k = 0; k < 4; k++) {
+                jointIndices[i + k] = random.nextInt(jointCount);
+                jointWeights[i + k] = random.nextFloat();
+                sum += jointWeights[i + k];
+            }
+            for (int k = 0; k < 4; k++) {
+                jointWeights[i + k] /= sum;
+            }
+        }
+    }
+
+    private static void assertVec3Equals(Vec3 expected, float[] actual, int offset) {
+        assertEquals(expected.x, actual[offset], EPS, "x");
+        assertEquals(expected.y, actual[offset + 1], EPS, "y");
+        assertEquals(expected.z, actual[offset + 2], EPS, "z");
+    }
+}
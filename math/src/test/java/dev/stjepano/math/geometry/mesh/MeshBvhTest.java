@@ -0,0 +1,195 @@
+package dev.stjepano.math.geometry.mesh;
+
+import dev.stjepano.math.Transform;
+import dev.stjepano.math.Vec3;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MeshBvhTest {
+
+    private static IndexedMesh testMesh(int slices) {
+        TriangleMeshGen meshGen = new TriangleMeshGen(IndexedMesh.VertexFormat.AttributeType.NORMAL);
+        meshGen.addSphere(1.0f, slices, slices / 2);
+        meshGen.origin().setPosition(2.5f, 0.5f, 0);
+        meshGen.addCube(1, 2, 1);
+        meshGen.origin().setPosition(-2, 0, 1);
+        meshGen.addCylinder(0.5f, 2.0f, slices, 4, true);
+        return meshGen.build();
+    }
+
+    /// Brute force closest hit, returns ray parameter or infinity.
+    private static float bruteForce(IndexedMesh mesh, Vec3 o, Vec3 d) {
+        float[] v = mesh.vertexData();
+        int[] idx = mesh.indices();
+        int stride = mesh.vertexFormat().stride();
+        float best = Float.POSITIVE_INFINITY;
+        for (int t = 0; t < idx.length; t += 3) {
+            Vec3 a = new Vec3(v[idx[t] * stride], v[idx[t] * stride + 1], v[idx[t] * stride + 2]);
+            Vec3 b = new Vec3(v[idx[t + 1] * stride], v[idx[t + 1] * stride + 1], v[idx[t + 1] * stride + 2]);
+            Vec3 c = new Vec3(v[idx[t + 2] * stride], v[idx[t + 2] * stride + 1], v[idx[t + 2] * stride + 2]);
+            Vec3 e1 = b.copy().sub(a);
+            Vec3 e2 = c.copy().sub(a);
+            Vec3 p = d.copy().cross(e2);
+            float det = e1.dot(p);
+            if (Math.abs(det) < 1e-12f) continue;
+            Vec3 s = o.copy().sub(a);
+            float u = s.dot(p) / det;
+            if (u < 0 || u > 1) continue;
+            Vec3 q = s.copy().cross(e1);
+            float w = d.dot(q) / det;
+            if (w < 0 || u + w > 1) continue;
+            float dist = e2.dot(q) / det;
+            if (dist >= 0 && dist < best) best = dist;
+        }
+        return best;
+    }
+
+    @Test
+    public void closestAndAnyHitMatchBruteForce() {
+        IndexedMesh mesh = testMesh(24);
+        MeshBvh bvh = MeshBvh.build(mesh, null);
+        assertEquals(mesh.indices().length / 3, bvh.triangleCount());
+        assertTrue(bvh.nodeCount() < 2 * bvh.triangleCount());
+
+        Random random = new Random(17);
+        MeshBvh.RayHit hit = new MeshBvh.RayHit();
+        int hits = 0;
+        for (int i = 0; i < 2000; i++) {
+            Vec3 origin = new Vec3(random.nextFloat() * 10 - 5, random.nextFloat() * 10 - 5, random.nextFloat() * 10 - 5);
+            Vec3 target = new Vec3(random.nextFloat() * 6 - 3, random.nextFloat() * 2 - 1, random.nextFloat() * 2 - 1);
+            Vec3 direction = target.sub(origin);
+            float expected = bruteForce(mesh, origin, direction);
+
+            boolean found = bvh.closestHit(origin, direction, Float.POSITIVE_INFINITY, hit);
+            assertEquals(expected != Float.POSITIVE_INFINITY, found, "ray " + i);
+            assertEquals(found, bvh.anyHit(origin, direction, Float.POSITIVE_INFINITY));
+            if (found) {
+                hits++;
+                assertEquals(expected, hit.distance, 1e-5f);
+                assertTrue(hit.u >= 0 && hit.v >= 0 && hit.u + hit.v <= 1);
+                // Max distance before the hit
+                assertFalse(bvh.anyHit(origin, direction, hit.distance * 0.99f));
+            }
+        }
+        assertTrue(hits > 500);
+    }
+
+    @Test
+    public void transformedRayMatchesTransformedMesh() {
+        IndexedMesh mesh = testMesh(16);
+        Transform transform = new Transform().setPosition(3, -1, 2).setRotationEulerYXZ(0.3f, 1.2f, -0.4f).setScale(2, 1, 0.5f);
+        float[] worldData = mesh.vertexData().clone();
+        transform.transformPosition(worldData, mesh.vertexCount(), 0, mesh.vertexFormat().stride());
+        IndexedMesh worldMesh = new IndexedMesh(mesh.vertexFormat(), mesh.primitiveType(), worldData, mesh.indices());
+
+        MeshBvh local = MeshBvh.build(mesh);
+        MeshBvh world = MeshBvh.build(worldMesh);
+        MeshBvh.RayHit localHit = new MeshBvh.RayHit();
+        MeshBvh.RayHit worldHit = new MeshBvh.RayHit();
+        MeshBvh.RayHit matrixHit = new MeshBvh.RayHit();
+        // Inverse matrix computed once, at an offset
+        float[] inverse = new float[16];
+        transform.toInverseMatrix3x4FloatArray(inverse, 4);
+        Random random = new Random(3);
+        int mismatches = 0;
+        for (int i = 0; i < 500; i++) {
+            Vec3 origin = new Vec3(random.nextFloat() * 20 - 7, random.nextFloat() * 20 - 11, random.nextFloat() * 20 - 8);
+            Vec3 direction = new Vec3(3, -1, 2).sub(origin)
+                    .add(new Vec3(random.nextFloat() * 4 - 2, random.nextFloat() * 4 - 2, random.nextFloat() * 4 - 2));
+            boolean a = local.closestHit(transform, origin, direction, Float.POSITIVE_INFINITY, localHit);
+            boolean b = world.closestHit(origin, direction, Float.POSITIVE_INFINITY, worldHit);
+            if (a && b) {
+                assertEquals(worldHit.distance, localHit.distance, 1e-4f);
+            } else if (a != b) {
+                // Rays grazing an edge may differ because of rounding
+                mismatches++;
+            }
+            assertEquals(a, local.anyHit(transform, origin, direction, Float.POSITIVE_INFINITY));
+            assertEquals(a, local.closestHit(inverse, 4, origin, direction, Float.POSITIVE_INFINITY, matrixHit));
+            if (a) {
+                assertEquals(localHit.distance, matrixHit.distance);
+                assertEquals(localHit.triangle, matrixHit.triangle);
+            }
+            assertEquals(a, local.anyHit(inverse, 4, origin, direction, Float.POSITIVE_INFINITY));
+        }
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> local.anyHit(inverse, 5, new Vec3(), new Vec3(1, 0, 0), 1.0f));
+        assertTrue(mismatches <= 2, "mismatches " + mismatches);
+    }
+
+    @Test
+    public void overlapAabb() {
+        IndexedMesh mesh = testMesh(24);
+        MeshBvh bvh = MeshBvh.build(mesh);
+        int[] found = new int[bvh.triangleCount()];
+        Vec3 min = new Vec3(0.5f, -0.2f, -2);
+        Vec3 max = new Vec3(2.2f, 0.2f, 2);
+        int count = bvh.overlapAabb(min, max, found);
+        assertTrue(count > 0);
+
+        boolean[] isFound = new boolean[bvh.triangleCount()];
+        float[] v = mesh.vertexData();
+        int[] idx = mesh.indices();
+        int stride = mesh.vertexFormat().stride();
+        for (int i = 0; i < count; i++) {
+            isFound[found[i]] = true;
+        }
+        for (int t = 0; t < bvh.triangleCount(); t++) {
+            boolean vertexInside = false;
+            float minX = Float.MAX_VALUE, maxX = -Float.MAX_VALUE;
+            for (int k = 0; k < 3; k++) {
+                int base = idx[3 * t + k] * stride;
+                vertexInside |= v[base] >= min.x && v[base] <= max.x && v[base + 1] >= min.y && v[base + 1] <= max.y
+                        && v[base + 2] >= min.z && v[base + 2] <= max.z;
+                minX = Math.min(minX, v[base]);
+                maxX = Math.max(maxX, v[base]);
+            }
+            if (vertexInside) {
+                assertTrue(isFound[t], "triangle with vertex inside box not found " + t);
+            }
+            if (isFound[t]) {
+                assertTrue(minX <= max.x && maxX >= min.x);
+            }
+        }
+
+        // Result limited by dest size
+        assertEquals(2, bvh.overlapAabb(min, max, new int[2]));
+    }
+
+    @Test
+    public void parallelBuildMatchesSequential() {
+        IndexedMesh mesh = testMesh(160);
+        assertTrue(mesh.indices().length / 3 >= MeshBvh.PARALLEL_THRESHOLD);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            MeshBvh sequential = MeshBvh.build(mesh, null);
+            MeshBvh parallel = MeshBvh.build(mesh, pool);
+            assertEquals(sequential.nodeCount(), parallel.nodeCount());
+
+            MeshBvh.RayHit a = new MeshBvh.RayHit();
+            MeshBvh.RayHit b = new MeshBvh.RayHit();
+            Random random = new Random(8);
+            for (int i = 0; i < 500; i++) {
+                Vec3 origin = new Vec3(random.nextFloat() * 10 - 5, random.nextFloat() * 10 - 5, 8);
+                Vec3 direction = new Vec3(random.nextFloat() - 0.5f, random.nextFloat() - 0.5f, -1);
+                assertEquals(sequential.closestHit(origin, direction, 100, a), parallel.closestHit(origin, direction, 100, b));
+                assertEquals(a.distance, b.distance);
+                assertEquals(a.triangle, b.triangle);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void rejectsLineMesh() {
+        IndexedMesh lines = new IndexedMesh(new IndexedMesh.VertexFormat(
+                new IndexedMesh.VertexFormat.AttributeType[] {IndexedMesh.VertexFormat.AttributeType.POSITION}),
+                IndexedMesh.PrimitiveType.LINES, new float[] {0, 0, 0, 1, 1, 1}, new int[] {0, 1});
+        assertThrows(IllegalArgumentException.class, () -> MeshBvh.build(lines));
+    }
+}
@@ -0,0 +1,234 @@
+package dev.stjepano.math.geometry.mesh;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MeshOptimizerTest {
+
+    @Test
+    public void analyzeVertexCacheCountsMisses() {
+        // Two triangles sharing an edge
+        MeshOptimizer.VertexCacheStats stats = MeshOptimizer.analyzeVertexCache(new int[] {0, 1, 2, 2, 1, 3}, 5, 16);
+        assertEquals(2, stats.triangleCount());
+        assertEquals(4, stats.vertexCount());
+        assertEquals(4, stats.transformedVertexCount());
+        assertEquals(2.0f, stats.acmr());
+        assertEquals(1.0f, stats.atvr());
+
+        // Cache of 3 vertices, vertex 0 is evicted by 3, 4, 5
+        stats = MeshOptimizer.analyzeVertexCache(new int[] {0, 1, 2, 3, 4, 5, 0, 1, 2}, 6, 3);
+        assertEquals(9, stats.transformedVertexCount());
+        assertEquals(1.5f, stats.atvr());
+    }
+
+    @Test
+    public void optimizeVertexCacheReducesMisses() {
+        TriangleMeshGen meshGen = new TriangleMeshGen(IndexedMesh.VertexFormat.AttributeType.NORMAL);
+        meshGen.addGrid(1, 1, 64, 64);
+        IndexedMesh grid = meshGen.build();
+        final int[] shuffled = shuffleTriangles(grid.indices(), new Random(42));
+        final int[] optimized = new int[shuffled.length];
+
+        MeshOptimizer.optimizeVertexCache(shuffled, grid.vertexCount(), 16, optimized);
+
+        assertSameTriangles(shuffled, optimized);
+        MeshOptimizer.VertexCacheStats before = MeshOptimizer.analyzeVertexCache(shuffled, grid.vertexCount(), 16);
+        MeshOptimizer.VertexCacheStats after = MeshOptimizer.analyzeVertexCache(optimized, grid.vertexCount(), 16);
+        assertTrue(before.acmr() > 2.5f, "before " + before.acmr());
+        assertTrue(after.acmr() < 0.8f, "after " + after.acmr());
+        assertTrue(after.atvr() < 1.6f, "after " + after.atvr());
+        // Generator order (row by row) is already reasonable, optimizer must beat it
+        assertTrue(after.acmr() < MeshOptimizer.analyzeVertexCache(grid.indices(), grid.vertexCount(), 16).acmr());
+
+        // In place
+        MeshOptimizer.optimizeVertexCache(shuffled, grid.vertexCount(), 16, shuffled);
+        assertArrayEquals(optimized, shuffled);
+    }
+
+    @Test
+    public void optimizeKeepsTrianglesAndCacheEfficiency() {
+        TriangleMeshGen meshGen = new TriangleMeshGen(IndexedMesh.VertexFormat.AttributeType.NORMAL);
+        meshGen.addSphere(1, 64, 32);
+        meshGen.origin().setPosition(3, 0, 0);
+        meshGen.addCylinder(0.5f, 2, 32, 8, true);
+        IndexedMesh mesh = meshGen.build();
+
+        IndexedMesh optimized = MeshOptimizer.optimize(mesh);
+
+        assertEquals(mesh.vertexCount(), optimized.vertexCount());
+        assertEquals(mesh.bounds(), optimized.bounds());
+        assertArrayEquals(expandedTriangleKeys(mesh), expandedTriangleKeys(optimized));
+        final float before = MeshOptimizer.analyzeVertexCache(mesh.indices(), mesh.vertexCount(), 16).acmr();
+        final int[] cacheOptimized = new int[mesh.indices().length];
+        MeshOptimizer.optimizeVertexCache(mesh.indices(), mesh.vertexCount(), 16, cacheOptimized);
+        final float cacheOnly = MeshOptimizer.analyzeVertexCache(cacheOptimized, mesh.vertexCount(), 16).acmr();
+        final float after = MeshOptimizer.analyzeVertexCache(optimized.indices(), optimized.vertexCount(), 16).acmr();
+        assertTrue(cacheOnly < before);
+        // Overdraw clusters restart the cache, ACMR may grow a little
+        assertTrue(after <= cacheOnly * 1.1f, cacheOnly + " -> " + after);
+
+        // Vertices are in order of first reference
+        int nextVertex = 0;
+        for (int index : optimized.indices()) {
+            assertTrue(index <= nextVertex);
+            if (index == nextVertex) {
+                nextVertex++;
+            }
+        }
+        final float overfetch = MeshOptimizer.analyzeVertexFetch(optimized.indices(), optimized.vertexCount(),
+                mesh.vertexFormat().stride()).overfetch();
+        assertTrue(overfetch < 1.5f, "overfetch " + overfetch);
+    }
+
+    @Test
+    public void optimizeVertexFetchReducesOverfetch() {
+        TriangleMeshGen meshGen = new TriangleMeshGen(IndexedMesh.VertexFormat.AttributeType.NORMAL);
+        meshGen.addSphere(1, 128, 64);
+        IndexedMesh mesh = meshGen.build();
+        final int stride = mesh.vertexFormat().stride();
+        final int vertexCount = mesh.vertexCount();
+        // Scatter vertices in memory
+        final int[] permutation = new int[vertexCount];
+        final Random random = new Random(7);
+        for (int i = 0; i < vertexCount; i++) {
+            final int j = random.nextInt(i + 1);
+            permutation[i] = permutation[j];
+            permutation[j] = i;
+        }
+        final float[] scatteredVertexData = new float[vertexCount * stride];
+        for (int i = 0; i < vertexCount; i++) {
+            System.arraycopy(mesh.vertexData(), i * stride, scatteredVertexData, permutation[i] * stride, stride);
+        }
+        final int[] indices = new int[mesh.indices().length];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = permutation[mesh.indices()[i]];
+        }
+        MeshOptimizer.optimizeVertexCache(indices, vertexCount, 16, indices);
+        final float before = MeshOptimizer.analyzeVertexFetch(indices, vertexCount, stride).overfetch();
+
+        final float[] vertexData = new float[vertexCount * stride];
+        assertEquals(vertexCount, MeshOptimizer.optimizeVertexFetch(indices, scatteredVertexData, vertexCount, stride,
+                indices, vertexData));
+
+        final float after = MeshOptimizer.analyzeVertexFetch(indices, vertexCount, stride).overfetch();
+        assertTrue(before > 2.0f && after < 1.5f, before + " -> " + after);
+    }
+
+    @Test
+    public void optimizeVertexFetchRemapsAndRemovesUnreferencedVertices() {
+        // Vertex 2 is not referenced, stride is not a vertex format stride
+        final float[] vertexData = {0, 0, 10, 10, 20, 20, 30, 30};
+        final int[] indices = {3, 1, 3, 1, 0, 3};
+        final float[] destVertexData = new float[8];
+
+        final int vertexCount = MeshOptimizer.optimizeVertexFetch(indices, vertexData, 4, 2, indices, destVertexData);
+
+        assertEquals(3, vertexCount);
+        assertArrayEquals(new int[] {0, 1, 0, 1, 2, 0}, indices);
+        assertArrayEquals(new float[] {30, 30, 10, 10, 0, 0}, Arrays.copyOf(destVertexData, 6));
+        assertThrows(IllegalArgumentException.class,
+                () -> MeshOptimizer.optimizeVertexFetch(indices, vertexData, 4, 2, indices, vertexData));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> MeshOptimizer.optimizeVertexFetch(indices, vertexData, 4, 2, indices, new float[6]));
+
+        // Lines, unreferenced vertex changes bounds
+        IndexedMesh lines = new IndexedMesh(
+                new IndexedMesh.VertexFormat(new IndexedMesh.VertexFormat.AttributeType[] {IndexedMesh.VertexFormat.AttributeType.POSITION}),
+                IndexedMesh.PrimitiveType.LINES, new float[] {5, 0, 0, 0, 0, 0, 1, 0, 0}, new int[] {2, 1});
+        IndexedMesh optimized = MeshOptimizer.optimizeVertexFetch(lines);
+        assertEquals(2, optimized.vertexCount());
+        assertArrayEquals(new int[] {0, 1}, optimized.indices());
+        assertEquals(1.0f, optimized.bounds().maxX());
+        assertArrayEquals(new int[] {2, 1}, lines.indices());
+    }
+
+    @Test
+    public void analyzeVertexFetchCountsCacheLines() {
+        // 16 floats is one cache line per vertex
+        MeshOptimizer.VertexFetchStats stats = MeshOptimizer.analyzeVertexFetch(new int[] {0, 1, 2, 2, 1, 3}, 4, 16);
+        assertEquals(4, stats.vertexCount());
+        assertEquals(64, stats.vertexSize());
+        assertEquals(4 * 64, stats.bytesFetched());
+        assertEquals(1.0f, stats.overfetch());
+
+        // 12 byte vertices, sequential vertices share lines, scattered ones do not
+        final int vertexCount = 4096;
+        final int[] sequential = new int[vertexCount];
+        final int[] scattered = new int[vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            sequential[i] = i;
+            scattered[i] = (i * 2731) % vertexCount;
+        }
+        assertEquals(1.0f, MeshOptimizer.analyzeVertexFetch(sequential, vertexCount, 3).overfetch());
+        assertTrue(MeshOptimizer.analyzeVertexFetch(scattered, vertexCount, 3).overfetch() > 3.0f);
+    }
+
+    @Test
+    public void rejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class,
+                () -> MeshOptimizer.optimizeVertexCache(new int[] {0, 1}, 2, 16, new int[2]));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> MeshOptimizer.optimizeVertexCache(new int[] {0, 1, 3}, 3, 16, new int[3]));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> MeshOptimizer.optimizeVertexCache(new int[] {0, 1, 2}, 3, 16, new int[2]));
+        assertThrows(IllegalArgumentException.class,
+                () -> MeshOptimizer.optimizeVertexCache(new int[] {0, 1, 2}, 3, 2, new int[3]));
+        assertThrows(IllegalArgumentException.class,
+                () -> MeshOptimizer.optimizeOverdraw(new int[] {0, 1, 2}, new float[9], 3, 3, 16, 0.5f, new int[3]));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> MeshOptimizer.optimizeOverdraw(new int[] {0, 1, 2}, new float[8], 3, 3, 16, 1.05f, new int[3]));
+        IndexedMesh lines = new IndexedMesh(
+                new IndexedMesh.VertexFormat(new IndexedMesh.VertexFormat.AttributeType[] {IndexedMesh.VertexFormat.AttributeType.POSITION}),
+                IndexedMesh.PrimitiveType.LINES, new float[] {0, 0, 0, 1, 0, 0}, new int[] {0, 1});
+        assertThrows(IllegalArgumentException.class, () -> MeshOptimizer.optimize(lines));
+    }
+
+    /// Sorted hashes of triangle corner attributes, equal for meshes with same triangles regardless of vertex order.
+    private static int[] expandedTriangleKeys(IndexedMesh mesh) {
+        final int stride = mesh.vertexFormat().stride();
+        final int[] indices = mesh.indices();
+        final float[] triangle = new float[3 * stride];
+        final int[] keys = new int[indices.length / 3];
+        for (int i = 0; i < keys.length; i++) {
+            for (int k = 0; k < 3; k++) {
+                System.arraycopy(mesh.vertexData(), indices[3 * i + k] * stride, triangle, k * stride, stride);
+            }
+            keys[i] = Arrays.hashCode(triangle);
+        }
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    private static int[] shuffleTriangles(int[] indices, Random random) {
+        final int triangleCount = indices.length / 3;
+        final int[] result = indices.clone();
+        for (int i = triangleCount - 1; i > 0; i--) {
+            final int j = random.nextInt(i + 1);
+            for (int k = 0; k < 3; k++) {
+                final int tmp = result[3 * i + k];
+                result[3 * i + k] = result[3 * j + k];
+                result[3 * j + k] = tmp;
+            }
+        }
+        return result;
+    }
+
+    /// Same triangles with same vertex order (winding and provoking vertex), in any triangle order.
+    private static void assertSameTriangles(int[] expected, int[] actual) {
+        assertEquals(expected.length, actual.length);
+        assertArrayEquals(triangleKeys(expected), triangleKeys(actual));
+    }
+
+    private static long[] triangleKeys(int[] indices) {
+        final long[] keys = new long[indices.length / 3];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = ((long) indices[3 * i] << 42) | ((long) indices[3 * i + 1] << 21) | indices[3 * i + 2];
+        }
+        Arrays.sort(keys);
+        return keys;
+    }
+}
@@ -0,0 +1,157 @@
+package dev.stjepano.math.geometry.mesh;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MeshSimplifierTest {
+
+    private static IndexedMesh texturedSphere() {
+        TriangleMeshGen meshGen = new TriangleMeshGen(IndexedMesh.VertexFormat.AttributeType.NORMAL,
+                IndexedMesh.VertexFormat.AttributeType.TEX_COORD);
+        meshGen.addSphere(1, 64, 32);
+        return meshGen.build();
+    }
+
+    @Test
+    public void simplifyReachesTargetTriangleCount() {
+        IndexedMesh sphere = texturedSphere();
+        final int triangleCount = sphere.indices().length / 3;
+
+        MeshSimplifier.SimplifiedMesh simplified = MeshSimplifier.simplify(sphere, triangleCount / 4,
+                Float.POSITIVE_INFINITY);
+
+        final int simplifiedCount = simplified.mesh().indices().length / 3;
+        assertTrue(simplifiedCount <= triangleCount / 4 && simplifiedCount >= triangleCount / 4 - 2,
+                "triangles " + simplifiedCount);
+        assertTrue(simplified.error() > 0.0f && simplified.error() < 0.02f, "error " + simplified.error());
+        assertEquals(sphere.vertexFormat(), simplified.mesh().vertexFormat());
+        assertVerticesFrom(sphere, simplified.mesh());
+        assertEquals(sphere.bounds().radius(), simplified.mesh().bounds().radius(), 0.05f);
+    }
+
+    @Test
+    public void simplifyStopsAtTargetError() {
+        IndexedMesh sphere = texturedSphere();
+        MeshSimplifier.SimplifiedMesh simplified = MeshSimplifier.simplify(sphere, 0, 0.005f);
+        final int simplifiedCount = simplified.mesh().indices().length / 3;
+        assertTrue(simplified.error() <= 0.005f, "error " + simplified.error());
+        assertTrue(simplifiedCount < sphere.indices().length / 3 / 2, "triangles " + simplifiedCount);
+        assertTrue(simplifiedCount > 100, "triangles " + simplifiedCount);
+
+        // Flat grid collapses without error, border constraints keep its outline
+        TriangleMeshGen meshGen = new TriangleMeshGen(IndexedMesh.VertexFormat.AttributeType.NORMAL);
+        meshGen.addGrid(2, 1, 40, 20);
+        IndexedMesh grid = meshGen.build();
+        simplified = MeshSimplifier.simplify(grid, 0, 0.0f);
+        assertEquals(0.0f, simplified.error());
+        assertTrue(simplified.mesh().indices().length < grid.indices().length / 10,
+                "triangles " + simplified.mesh().indices().length / 3);
+        assertEquals(grid.bounds(), simplified.mesh().bounds());
+        assertVerticesFrom(grid, simplified.mesh());
+    }
+
+    @Test
+    public void lockedVerticesAreNotCollapsed() {
+        // Every cube corner has three wedges (normals)
+        TriangleMeshGen meshGen = new TriangleMeshGen(IndexedMesh.VertexFormat.AttributeType.NORMAL);
+        meshGen.addCube(1, 1, 1);
+        IndexedMesh cube = meshGen.build();
+        MeshSimplifier.SimplifiedMesh simplified = MeshSimplifier.simplify(cube, 0, Float.POSITIVE_INFINITY);
+        assertEquals(12, simplified.mesh().indices().length / 3);
+        assertEquals(0.0f, simplified.error());
+    }
+
+    @Test
+    public void simplifyRemovesDegenerateTriangles() {
+        IndexedMesh.VertexFormat format = new IndexedMesh.VertexFormat(
+                new IndexedMesh.VertexFormat.AttributeType[] {IndexedMesh.VertexFormat.AttributeType.POSITION});
+        IndexedMesh mesh = new IndexedMesh(format, IndexedMesh.PrimitiveType.TRIANGLES,
+                new float[] {0, 0, 0, 1, 0, 0, 0, 1, 0, 1, 0, -0.0f},
+                new int[] {0, 1, 2, 0, 1, 3});
+        IndexedMesh simplified = MeshSimplifier.simplify(mesh, 1, 0.0f).mesh();
+        assertArrayEquals(new int[] {0, 1, 2}, simplified.indices());
+        assertEquals(3, simplified.vertexCount());
+
+        IndexedMesh allDegenerate = new IndexedMesh(format, IndexedMesh.PrimitiveType.TRIANGLES, mesh.vertexData(),
+                new int[] {0, 1, 3, 1, 3, 2});
+        assertThrows(IllegalArgumentException.class, () -> MeshSimplifier.simplify(allDegenerate, 0, 1.0f));
+        assertThrows(IllegalArgumentException.class, () -> MeshSimplifier.buildLodChain(allDegenerate, 2, 0.5f, 1.0f));
+    }
+
+    @Test
+    public void buildLodChainReducesTriangles() {
+        IndexedMesh sphere = texturedSphere();
+        List<MeshSimplifier.SimplifiedMesh> lods = MeshSimplifier.buildLodChain(sphere, 5, 0.5f, 0.05f);
+
+        assertEquals(5, lods.size());
+        assertSame(sphere, lods.get(0).mesh());
+        assertEquals(0.0f, lods.get(0).error());
+        for (int i = 1; i < lods.size(); i++) {
+            final int previousCount = lods.get(i - 1).mesh().indices().length / 3;
+            final int count = lods.get(i).mesh().indices().length / 3;
+            assertTrue(count <= previousCount / 2 && count >= previousCount / 2 - 2, "level " + i + ": " + count);
+            assertTrue(lods.get(i).error() >= lods.get(i - 1).error());
+            assertTrue(lods.get(i).error() <= 0.05f);
+            assertVerticesFrom(sphere, lods.get(i).mesh());
+        }
+
+        // Error budget ends the chain early
+        List<MeshSimplifier.SimplifiedMesh> bounded = MeshSimplifier.buildLodChain(sphere, 10, 0.5f, 0.003f);
+        assertTrue(bounded.size() < 10);
+        for (MeshSimplifier.SimplifiedMesh lod : bounded) {
+            assertTrue(lod.error() <= 0.003f);
+        }
+    }
+
+    @Test
+    public void initialCandidatesSurviveHeapGrowth() {
+        // Far more initial candidates than initial heap capacity (1024)
+        TriangleMeshGen meshGen = new TriangleMeshGen();
+        meshGen.addGrid(1, 1, 40, 40);
+        long[] keys = new MeshSimplifier.Simplifier(meshGen.build()).heapKeys();
+        assertTrue(keys.length > 4 * 1024, "candidates " + keys.length);
+
+        final Set<Integer> candidates = new HashSet<>();
+        for (int i = 0; i < keys.length; i++) {
+            assertTrue(keys[i] != 0L, "key " + i);
+            assertTrue(candidates.add((int) keys[i]), "candidate " + (int) keys[i]);
+            if (i > 0) {
+                assertTrue(keys[(i - 1) / 2] <= keys[i], "heap order at " + i);
+            }
+        }
+    }
+
+    @Test
+    public void invalidArguments() {
+        IndexedMesh sphere = texturedSphere();
+        assertThrows(NullPointerException.class, () -> MeshSimplifier.simplify(null, 0, 1.0f));
+        assertThrows(IllegalArgumentException.class, () -> MeshSimplifier.simplify(sphere, -1, 1.0f));
+        assertThrows(IllegalArgumentException.class, () -> MeshSimplifier.simplify(sphere, 0, Float.NaN));
+        assertThrows(IllegalArgumentException.class, () -> MeshSimplifier.buildLodChain(sphere, 0, 0.5f, 1.0f));
+        assertThrows(IllegalArgumentException.class, () -> MeshSimplifier.buildLodChain(sphere, 4, 1.0f, 1.0f));
+        assertThrows(IllegalArgumentException.class, () -> MeshSimplifier.buildLodChain(sphere, 4, 0.5f, -1.0f));
+
+        IndexedMesh lines = new IndexedMesh(sphere.vertexFormat(), IndexedMesh.PrimitiveType.LINES,
+                sphere.vertexData(), new int[] {0, 1});
+        assertThrows(IllegalArgumentException.class, () -> MeshSimplifier.simplify(lines, 0, 1.0f));
+    }
+
+    /// Half-edge collapses never create vertices, every simplified vertex (all attributes) is a source vertex.
+    private static void assertVerticesFrom(IndexedMesh source, IndexedMesh simplified) {
+        final int stride = source.vertexFormat().stride();
+        final Set<String> sourceVertices = new HashSet<>();
+        for (int i = 0; i < source.vertexCount(); i++) {
+            sourceVertices.add(Arrays.toString(Arrays.copyOfRange(source.vertexData(), i * stride, (i + 1) * stride)));
+        }
+        for (int i = 0; i < simplified.vertexCount(); i++) {
+            final float[] vertex = Arrays.copyOfRange(simplified.vertexData(), i * stride, (i + 1) * stride);
+            assertTrue(sourceVertices.contains(Arrays.toString(vertex)), "vertex " + i);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package dev.stjepano.math.geometry.mesh;
+
+import dev.stjepano.math.Vec3;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TriangleMeshGenTest {
+
+    private static final float EPSILON = 1e-5f;
+
+    @Test
+    public void buildComputesBounds() {
+        TriangleMeshGen meshGen = new TriangleMeshGen(IndexedMesh.VertexFormat.AttributeType.NORMAL);
+        meshGen.origin().setPosition(1, 2, 3);
+        meshGen.addCube(2, 4, 6);
+        IndexedMesh mesh = meshGen.build();
+
+        IndexedMesh.Bounds bounds = mesh.bounds();
+        assertEquals(0.0f, bounds.minX(), EPSILON);
+        assertEquals(0.0f, bounds.minY(), EPSILON);
+        assertEquals(0.0f, bounds.minZ(), EPSILON);
+        assertEquals(2.0f, bounds.maxX(), EPSILON);
+        assertEquals(4.0f, bounds.maxY(), EPSILON);
+        assertEquals(6.0f, bounds.maxZ(), EPSILON);
+        assertEquals(new Vec3(1, 2, 3), bounds.center(new Vec3()));
+        assertEquals((float) Math.sqrt(1 + 4 + 9), bounds.radius(), EPSILON);
+    }
+
+    @Test
+    public void boundsContainAllVertices() {
+        TriangleMeshGen meshGen = new TriangleMeshGen();
+        meshGen.addSphere(1.5f, 16, 8);
+        meshGen.origin().setPosition(3, 0, 0);
+        meshGen.addCapsule(0.5f, 2.0f, 12, 4);
+        IndexedMesh mesh = meshGen.build();
+
+        IndexedMesh.Bounds bounds = mesh.bounds();
+        float[] vertexData = mesh.vertexData();
+        for (int i = 0; i < mesh.vertexCount(); i++) {
+            float x = vertexData[3 * i];
+            float y = vertexData[3 * i + 1];
+            float z = vertexData[3 * i + 2];
+            assertTrue(x >= bounds.minX() && x <= bounds.maxX());
+            assertTrue(y >= bounds.minY() && y <= bounds.maxY());
+            assertTrue(z >= bounds.minZ() && z <= bounds.maxZ());
+            float dx = x - bounds.centerX();
+            float dy = y - bounds.centerY();
+            float dz = z - bounds.centerZ();
+            assertTrue(Math.sqrt(dx * dx + dy * dy + dz * dz) <= bounds.radius() + EPSILON);
+        }
+        assertEquals(-1.5f, bounds.minX(), EPSILON);
+        assertEquals(3.5f, bounds.maxX(), EPSILON);
+    }
+
+    @Test
+    public void weldsIdenticalVertices() {
+        TriangleMeshGen meshGen = new TriangleMeshGen(IndexedMesh.VertexFormat.AttributeType.NORMAL);
+        meshGen.addGrid(1, 1, 40, 30);
+        IndexedMesh grid = meshGen.build();
+        assertEquals(41 * 31, grid.vertexCount());
+        assertEquals(6 * 40 * 30, grid.indices().length);
+
+        // Same position but different normal is a different vertex
+        meshGen.addCube(1, 1, 1);
+        assertEquals(24, meshGen.build().vertexCount());
+        TriangleMeshGen positionOnly = new TriangleMeshGen();
+        positionOnly.addCube(1, 1, 1);
+        assertEquals(8, positionOnly.build().vertexCount());
+
+        // Vertices are welded within a sub-mesh only (seam vertices differ in texture coordinate)
+        TriangleMeshGen texturedGen = new TriangleMeshGen(IndexedMesh.VertexFormat.AttributeType.NORMAL,
+                IndexedMesh.VertexFormat.AttributeType.TEX_COORD);
+        texturedGen.addSphere(1, 64, 32);
+        texturedGen.addSphere(1, 64, 32);
+        assertEquals(2 * 65 * 33, texturedGen.build().vertexCount());
+    }
+
+    @Test
+    public void parametricPrimitivesEmitRingVerticesOnce() {
+        TriangleMeshGen meshGen = new TriangleMeshGen(IndexedMesh.VertexFormat.AttributeType.NORMAL,
+                IndexedMesh.VertexFormat.AttributeType.TEX_COORD);
+
+        meshGen.addSphere(1, 16, 8);
+        assertTopology(meshGen.build(), 17 * 9, 6 * 16 * 8);
+        // shell rings + two caps (center and seam closed rim)
+        meshGen.addCylinder(1, 2, 16, 3, true);
+        assertTopology(meshGen.build(), 17 * 4 + 2 * 18, 6 * 16 * 3 + 2 * 3 * 16);
+        // last ring ends at the apex (one vertex per slice) + base cap
+        meshGen.addCone(1, 2, 16, 3);
+        assertTopology(meshGen.build(), 17 * 3 + 16 + 18, 6 * 16 * 2 + 3 * 16 + 3 * 16);
+        // two hemispheres + one ring cylinder shell
+        meshGen.addCapsule(0.5f, 1, 16, 4);
+        assertTopology(meshGen.build(), 2 * 17 * 5 + 17 * 2, 2 * 6 * 16 * 4 + 6 * 16);
+
+        assertThrows(IllegalArgumentException.class, () -> meshGen.addSphere(1, 0, 8));
+        assertThrows(IllegalArgumentException.class, () -> meshGen.addCone(1, 1, 8, 0));
+    }
+
+    @Test
+    public void parametricPrimitivesWeldCoincidentVerticesPerFormat() {
+        IndexedMesh.VertexFormat.AttributeType normal = IndexedMesh.VertexFormat.AttributeType.NORMAL;
+        IndexedMesh.VertexFormat.AttributeType color = IndexedMesh.VertexFormat.AttributeType.COLOR;
+        IndexedMesh.VertexFormat.AttributeType texCoord = IndexedMesh.VertexFormat.AttributeType.TEX_COORD;
+        IndexedMesh.VertexFormat.AttributeType[][] formats = {{}, {color}, {normal}, {texCoord}, {normal, texCoord}};
+        // Vertex counts of sphere, capped cylinder, cone and capsule per format (same as welding every vertex).
+        // Poles, cap rims, cap centers and the cone apex are shared when normals and texture coordinates do not
+        // tell them apart, seam vertices are shared when their positions are equal to the first slice.
+        int[][] expectedVertexCounts = {
+                {140, 70, 53, 174},
+                {140, 70, 53, 174},
+                {140, 104, 85, 191},
+                {153, 103, 84, 187},
+                {153, 104, 85, 204}};
+        for (int f = 0; f < formats.length; f++) {
+            TriangleMeshGen meshGen = new TriangleMeshGen(formats[f]);
+            meshGen.addSphere(1, 16, 8);
+            assertEquals(expectedVertexCounts[f][0], meshGen.build().vertexCount(), "sphere, format " + f);
+            meshGen.addCylinder(1, 2, 16, 3, true);
+            assertEquals(expectedVertexCounts[f][1], meshGen.build().vertexCount(), "cylinder, format " + f);
+            meshGen.addCone(1, 2, 16, 3);
+            assertEquals(expectedVertexCounts[f][2], meshGen.build().vertexCount(), "cone, format " + f);
+            meshGen.addCapsule(0.5f, 1, 16, 4);
+            assertEquals(expectedVertexCounts[f][3], meshGen.build().vertexCount(), "capsule, format " + f);
+        }
+
+        // Position only cone is index connected at the apex and along the base rim
+        TriangleMeshGen positionOnly = new TriangleMeshGen();
+        positionOnly.addCone(1, 2, 16, 1);
+        IndexedMesh cone = positionOnly.build();
+        assertEquals(1 + 16 + 1 + 1, cone.vertexCount());
+        assertEquals(3 * 16 + 3 * 16, cone.indices().length);
+    }
+
+    private static void assertTopology(IndexedMesh mesh, int expectedVertexCount, int expectedIndexCount) {
+        assertEquals(expectedVertexCount, mesh.vertexCount());
+        assertEquals(expectedIndexCount, mesh.indices().length);
+
+        final int stride = mesh.vertexFormat().stride();
+        final int normalOffset = mesh.vertexFormat().normalOffset();
+        final float[] vertexData = mesh.vertexData();
+        final boolean[] referenced = new boolean[mesh.vertexCount()];
+        for (int index : mesh.indices()) {
+            referenced[index] = true;
+        }
+        for (int i = 0; i < mesh.vertexCount(); i++) {
+            assertTrue(referenced[i], "vertex " + i);
+            final int base = i * stride + normalOffset;
+            assertEquals(1.0f, Vec3.length(vertexData[base], vertexData[base + 1], vertexData[base + 2]), EPSILON);
+        }
+    }
+
+    @Test
+    public void constructorComputesBounds() {
+        IndexedMesh mesh = new IndexedMesh(
+                new IndexedMesh.VertexFormat(new IndexedMesh.VertexFormat.AttributeType[] {IndexedMesh.VertexFormat.AttributeType.POSITION}),
+                IndexedMesh.PrimitiveType.LINES, new float[] {-1, 0, 0, 1, 2, 0}, new int[] {0, 1});
+        assertEquals(-1.0f, mesh.bounds().minX());
+        assertEquals(2.0f, mesh.bounds().maxY());
+        assertThrows(IllegalArgumentException.class, () -> new IndexedMesh(mesh.vertexFormat(),
+                IndexedMesh.PrimitiveType.LINES, new float[0], new int[] {0, 1}));
+    }
+}
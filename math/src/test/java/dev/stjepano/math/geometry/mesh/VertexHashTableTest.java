@@ -0,0 +1,53 @@
+package dev.stjepano.math.geometry.mesh;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VertexHashTableTest {
+
+    @Test
+    public void findsInsertedVerticesAcrossGrowth() {
+        final int stride = 5;
+        final int count = 10000;
+        float[] vertexData = new float[count * stride];
+        VertexHashTable table = new VertexHashTable(stride);
+        for (int i = 0; i < count; i++) {
+            // Many vertices share position, differ in last component
+            vertexData[i * stride] = (i / 16) * 0.25f;
+            vertexData[i * stride + 4] = (i % 16) * 0.5f;
+            final int hash = table.hash(vertexData, i * stride);
+            assertEquals(-1, table.find(slice(vertexData, i, stride), hash, vertexData));
+            table.insert(hash, i);
+        }
+        assertEquals(count, table.size());
+        for (int i = 0; i < count; i++) {
+            float[] vertex = slice(vertexData, i, stride);
+            assertEquals(i, table.find(vertex, table.hash(vertex, 0), vertexData));
+        }
+
+        // Float bits are compared, -0.0 is not 0.0
+        float[] negativeZero = slice(vertexData, 0, stride);
+        negativeZero[0] = -0.0f;
+        assertEquals(-1, table.find(negativeZero, table.hash(negativeZero, 0), vertexData));
+    }
+
+    @Test
+    public void clearRemovesAllEntries() {
+        float[] vertexData = {1, 2, 3, 4, 5, 6};
+        VertexHashTable table = new VertexHashTable(3);
+        table.insert(table.hash(vertexData, 0), 0);
+        table.insert(table.hash(vertexData, 3), 1);
+        table.clear();
+        assertEquals(0, table.size());
+        assertEquals(-1, table.find(vertexData, table.hash(vertexData, 0), vertexData));
+        table.insert(table.hash(vertexData, 0), 0);
+        assertEquals(0, table.find(vertexData, table.hash(vertexData, 0), vertexData));
+    }
+
+    private static float[] slice(float[] vertexData, int index, int stride) {
+        float[] vertex = new float[stride];
+        System.arraycopy(vertexData, index * stride, vertex, 0, stride);
+        return vertex;
+    }
+}